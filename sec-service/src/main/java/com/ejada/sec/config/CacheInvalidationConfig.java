@@ -0,0 +1,36 @@
+package com.ejada.sec.config;
+
+import com.ejada.sec.service.impl.EffectivePrivilegeCache;
+import com.ejada.sec.service.impl.RefreshTokenCache;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Wires the pub/sub channels that keep local caches coherent across instances and
+ * enables the scheduled cache maintenance jobs.
+ */
+@Configuration
+@EnableScheduling
+public class CacheInvalidationConfig {
+
+  /**
+   * Subscribes the local caches to invalidations published by peers.
+   *
+   * @return listener container shared by the cache channels
+   */
+  @Bean
+  public RedisMessageListenerContainer cacheInvalidationListenerContainer(
+      RedisConnectionFactory connectionFactory,
+      RefreshTokenCache refreshTokenCache,
+      EffectivePrivilegeCache privilegeCache) {
+    RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+    container.setConnectionFactory(connectionFactory);
+    container.addMessageListener(refreshTokenCache, new ChannelTopic(refreshTokenCache.channel()));
+    container.addMessageListener(privilegeCache, new ChannelTopic(privilegeCache.channel()));
+    return container;
+  }
+}
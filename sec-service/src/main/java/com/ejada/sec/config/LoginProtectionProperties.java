@@ -0,0 +1,67 @@
+package com.ejada.sec.config;
+
+import java.time.Duration;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Login throttling and password-hashing admission settings ({@code security.login.*}).
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "security.login")
+public class LoginProtectionProperties {
+
+  /** Master switch for the Redis-backed throttle. */
+  private boolean throttleEnabled = true;
+
+  private Window ip = new Window(30, Duration.ofMinutes(1), 50, Duration.ofMinutes(15));
+
+  private Window account = new Window(0, Duration.ZERO, 5, Duration.ofMinutes(15));
+
+  /** First lockout; each further lockout within {@link #strikeMemory} doubles it. */
+  private Duration lockoutBase = Duration.ofSeconds(30);
+
+  private Duration lockoutMax = Duration.ofHours(1);
+
+  /** How long earlier lockouts count towards the exponential back-off. */
+  private Duration strikeMemory = Duration.ofHours(24);
+
+  /** Upper bound on locally remembered blocked keys (the pre-filter). */
+  private long localBlockCacheSize = 100_000;
+
+  private Hashing hashing = new Hashing();
+
+  @Getter
+  @Setter
+  public static class Window {
+    /** Attempts allowed per {@link #attemptWindow}; 0 disables attempt limiting. */
+    private int maxAttempts;
+    private Duration attemptWindow;
+    /** Failures allowed per {@link #failureWindow} before a lockout. */
+    private int maxFailures;
+    private Duration failureWindow;
+
+    public Window() {
+    }
+
+    public Window(int maxAttempts, Duration attemptWindow, int maxFailures, Duration failureWindow) {
+      this.maxAttempts = maxAttempts;
+      this.attemptWindow = attemptWindow;
+      this.maxFailures = maxFailures;
+      this.failureWindow = failureWindow;
+    }
+  }
+
+  @Getter
+  @Setter
+  public static class Hashing {
+    /** Worker threads dedicated to password verification; 0 means half the CPUs. */
+    private int threads = 0;
+    /** Verifications allowed to wait for a worker. */
+    private int queueCapacity = 64;
+    /** Verifications that waited longer than this are shed instead of hashed. */
+    private Duration maxQueueTime = Duration.ofMillis(500);
+  }
+}
@@ -1,23 +1,77 @@
 package com.ejada.sec.config;
 
+import com.ejada.sec.security.PasswordHashCalibrator;
+import java.time.Duration;
+import java.util.Map;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
 /**
  * Application-wide password encoder configuration.
+ *
+ * <p>Hashes are stored with an {@code {id}} prefix so Argon2id and BCrypt hashes can
+ * coexist; unprefixed hashes written before the prefix was introduced are read as
+ * BCrypt. Costs left at 0 are calibrated at start-up against
+ * {@code security.password.target-hash-time}; pin them explicitly when nodes run on
+ * different hardware so they agree on when a stored hash needs upgrading.</p>
  */
 @Configuration
+@EnableConfigurationProperties(LoginProtectionProperties.class)
+@Slf4j
 public class PasswordEncoderConfig {
 
+  static final String ARGON2ID = "argon2id";
+  static final String BCRYPT = "bcrypt";
+
+  @Value("${security.password.algorithm:" + ARGON2ID + "}")
+  private String algorithm;
+
+  @Value("${security.password.target-hash-time:100ms}")
+  private Duration targetHashTime;
+
+  @Value("${security.password.bcrypt.strength:0}")
+  private int bcryptStrength;
+
+  @Value("${security.password.argon2.memory-kb:19456}")
+  private int argon2MemoryKb;
+
+  @Value("${security.password.argon2.parallelism:1}")
+  private int argon2Parallelism;
+
+  @Value("${security.password.argon2.iterations:0}")
+  private int argon2Iterations;
+
   /**
-   * Provides a {@link PasswordEncoder} bean using BCrypt hashing.
+   * Provides a {@link DelegatingPasswordEncoder} that encodes with the configured algorithm
+   * and still verifies hashes produced by the other one.
    *
    * @return password encoder instance
    */
   @Bean
   public PasswordEncoder passwordEncoder() {
-    return new BCryptPasswordEncoder();
+    int strength = bcryptStrength > 0
+        ? bcryptStrength
+        : PasswordHashCalibrator.bcryptStrength(targetHashTime, 10, 16);
+    int iterations = argon2Iterations > 0
+        ? argon2Iterations
+        : PasswordHashCalibrator.argon2Iterations(targetHashTime, argon2MemoryKb, argon2Parallelism, 2, 10);
+
+    BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(strength);
+    PasswordEncoder argon2 = PasswordHashCalibrator.argon2(argon2MemoryKb, argon2Parallelism, iterations);
+    log.info("Password hashing: {} (bcrypt strength={} ~{} ms, argon2id m={}KiB p={} t={} ~{} ms)",
+        algorithm, strength, PasswordHashCalibrator.measure(bcrypt).toMillis(),
+        argon2MemoryKb, argon2Parallelism, iterations, PasswordHashCalibrator.measure(argon2).toMillis());
+
+    DelegatingPasswordEncoder encoder = new DelegatingPasswordEncoder(algorithm, Map.of(
+        ARGON2ID, argon2,
+        BCRYPT, bcrypt));
+    encoder.setDefaultPasswordEncoderForMatches(bcrypt);
+    return encoder;
   }
 }
@@ -0,0 +1,53 @@
+package com.ejada.sec.config;
+
+import com.ejada.sec.security.PrivilegeDictionary;
+import com.ejada.sec.service.EffectivePrivilegeService;
+import com.ejada.starter_security.privilege.PrivilegeDictionarySnapshot;
+import com.ejada.starter_security.privilege.PrivilegeDictionarySource;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Lets sec-service expand its own privilege claims from the local dictionary cache
+ * instead of calling its own well-known endpoint.
+ */
+@Configuration
+public class PrivilegeClaimsConfig {
+
+  /**
+   * Dictionary source backed by {@link EffectivePrivilegeService}; invalidation events
+   * already keep it current, so {@code refresh} has nothing to do.
+   *
+   * @return local privilege dictionary source
+   */
+  @Bean
+  public PrivilegeDictionarySource privilegeDictionarySource(EffectivePrivilegeService effectivePrivileges) {
+    return new PrivilegeDictionarySource() {
+      private final Map<UUID, PrivilegeDictionarySnapshot> snapshots = new ConcurrentHashMap<>();
+
+      @Override
+      public PrivilegeDictionarySnapshot find(String tenant, String bearerToken) {
+        UUID tenantId;
+        try {
+          tenantId = UUID.fromString(tenant);
+        } catch (IllegalArgumentException ex) {
+          return null;
+        }
+        PrivilegeDictionary dictionary = effectivePrivileges.dictionary(tenantId);
+        PrivilegeDictionarySnapshot snapshot = snapshots.get(tenantId);
+        if (snapshot == null || snapshot.version() != dictionary.version()) {
+          snapshot = new PrivilegeDictionarySnapshot(dictionary.version(), dictionary.codesByOrdinal());
+          snapshots.put(tenantId, snapshot);
+        }
+        return snapshot;
+      }
+
+      @Override
+      public void refresh(String tenant, String bearerToken) {
+      }
+    };
+  }
+}
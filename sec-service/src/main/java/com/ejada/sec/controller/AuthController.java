@@ -4,6 +4,7 @@ import com.ejada.common.dto.BaseResponse;
 import com.ejada.sec.dto.*;
 import com.ejada.sec.service.AuthService;
 import com.ejada.sec.service.PasswordResetService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
@@ -23,8 +24,9 @@ public class AuthController {
   }
 
   @PostMapping("/login")
-  public ResponseEntity<BaseResponse<AuthResponse>> login(@Valid @RequestBody AuthRequest req) {
-    return ResponseEntity.ok(authService.login(req));
+  public ResponseEntity<BaseResponse<AuthResponse>> login(@Valid @RequestBody AuthRequest req,
+                                                          HttpServletRequest request) {
+    return ResponseEntity.ok(authService.login(req, request.getRemoteAddr()));
   }
 
   @PostMapping("/refresh")
@@ -4,9 +4,9 @@ import com.ejada.common.context.ContextManager;
 import com.ejada.common.dto.BaseResponse;
 import com.ejada.common.exception.ValidationException;
 import com.ejada.sec.domain.EffectivePrivilegeProjection;
-import com.ejada.sec.repository.EffectivePrivilegeViewRepository;
 import com.ejada.starter_core.tenant.RequireTenant;
 import com.ejada.sec.security.SecAuthorized;
+import com.ejada.sec.service.EffectivePrivilegeService;
 import java.util.List;
 import java.util.UUID;
 import lombok.RequiredArgsConstructor;
@@ -20,19 +20,27 @@ import org.springframework.web.bind.annotation.*;
 @SecAuthorized
 public class EffectivePrivilegesController {
 
-  private final EffectivePrivilegeViewRepository viewRepo;
+  private final EffectivePrivilegeService effectivePrivileges;
 
   @GetMapping("/{userId}")
   public ResponseEntity<BaseResponse<List<EffectivePrivilegeProjection>>> list(@PathVariable Long userId) {
-	  String tenantIdStr = ContextManager.Tenant.get();
-	    UUID tenantId;
-	    try {
-	      tenantId = UUID.fromString(tenantIdStr);
-	    } catch (RuntimeException ex) {
-	      throw new ValidationException("Invalid tenant ID format", ex.getMessage());
-	    }
-	        return ResponseEntity.ok(
+    return ResponseEntity.ok(
         BaseResponse.success("Effective privileges listed",
-            viewRepo.findEffectiveByUserAndTenant(userId, tenantId)));
+            effectivePrivileges.list(currentTenant(), userId)));
+  }
+
+  @GetMapping
+  public ResponseEntity<BaseResponse<List<EffectivePrivilegeProjection>>> report() {
+    return ResponseEntity.ok(
+        BaseResponse.success("Effective privileges listed",
+            effectivePrivileges.report(currentTenant())));
+  }
+
+  private static UUID currentTenant() {
+    try {
+      return UUID.fromString(ContextManager.Tenant.get());
+    } catch (RuntimeException ex) {
+      throw new ValidationException("Invalid tenant ID format", ex.getMessage());
+    }
   }
 }
@@ -1,5 +1,6 @@
 package com.ejada.sec.controller;
 
+import com.ejada.common.dto.BaseResponse;
 import com.ejada.sec.dto.*;
 import com.ejada.sec.security.SecAuthorized;
 import com.ejada.sec.service.GrantService;
@@ -50,4 +51,29 @@ public class GrantController {
     grantService.setUserPrivilegeOverride(req);
     return ResponseEntity.noContent().build();
   }
+
+  // bulk operations: one set-based statement batch and one cache invalidation each
+  @PostMapping("/roles/bulk-grant-privileges")
+  public ResponseEntity<BaseResponse<BulkGrantResult>> bulkGrantPrivilegesToRoles(
+      @Valid @RequestBody BulkRolePrivilegesRequest req) {
+    return ResponseEntity.ok(BaseResponse.success("Privileges granted", grantService.bulkGrantPrivilegesToRoles(req)));
+  }
+
+  @PostMapping("/roles/bulk-revoke-privileges")
+  public ResponseEntity<BaseResponse<BulkGrantResult>> bulkRevokePrivilegesFromRoles(
+      @Valid @RequestBody BulkRolePrivilegesRequest req) {
+    return ResponseEntity.ok(BaseResponse.success("Privileges revoked", grantService.bulkRevokePrivilegesFromRoles(req)));
+  }
+
+  @PostMapping("/users/bulk-assign-roles")
+  public ResponseEntity<BaseResponse<BulkGrantResult>> bulkAssignRolesToUsers(
+      @Valid @RequestBody BulkUserRolesRequest req) {
+    return ResponseEntity.ok(BaseResponse.success("Roles assigned", grantService.bulkAssignRolesToUsers(req)));
+  }
+
+  @PostMapping("/users/bulk-revoke-roles")
+  public ResponseEntity<BaseResponse<BulkGrantResult>> bulkRevokeRolesFromUsers(
+      @Valid @RequestBody BulkUserRolesRequest req) {
+    return ResponseEntity.ok(BaseResponse.success("Roles revoked", grantService.bulkRevokeRolesFromUsers(req)));
+  }
 }
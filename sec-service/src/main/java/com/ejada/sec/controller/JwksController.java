@@ -0,0 +1,29 @@
+package com.ejada.sec.controller;
+
+import com.ejada.crypto.JwtTokenService;
+import java.time.Duration;
+import java.util.Map;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Publishes the public signing keys so resource services can verify access tokens
+ * locally ({@code shared.security.mode=jwks}). The body is a plain RFC 7517 JWK Set,
+ * not wrapped in {@code BaseResponse}, because JOSE clients parse it directly.
+ */
+@RestController
+@RequiredArgsConstructor
+public class JwksController {
+
+  private final JwtTokenService jwtTokenService;
+
+  @GetMapping(value = "/.well-known/jwks.json", produces = "application/jwk-set+json")
+  public ResponseEntity<Map<String, Object>> jwks() {
+    return ResponseEntity.ok()
+        .cacheControl(CacheControl.maxAge(Duration.ofMinutes(5)).cachePublic())
+        .body(jwtTokenService.jwkSet());
+  }
+}
@@ -0,0 +1,52 @@
+package com.ejada.sec.controller;
+
+import com.ejada.sec.security.PrivilegeDictionary;
+import com.ejada.sec.service.EffectivePrivilegeService;
+import com.ejada.starter_security.SharedSecurityProps;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Publishes each tenant's ordinal-to-code privilege mapping so resource services can
+ * expand the {@code privs} token claim locally. Like the JWK Set, the body is not wrapped
+ * in {@code BaseResponse}; starter-security parses it directly.
+ *
+ * <p>Unlike the JWK Set it is not public: the caller must present an access token of the
+ * requested tenant (starter-security forwards the token it is expanding), so one tenant
+ * cannot enumerate another's privileges. This holds even where {@code /.well-known/**}
+ * is in the permit-all list.</p>
+ */
+@RestController
+@RequiredArgsConstructor
+public class PrivilegeDictionaryController {
+
+  private final EffectivePrivilegeService effectivePrivileges;
+  private final SharedSecurityProps securityProps;
+
+  @GetMapping("/.well-known/privilege-dictionary/{tenantId}")
+  public ResponseEntity<Map<String, Object>> dictionary(@PathVariable UUID tenantId,
+                                                        @AuthenticationPrincipal Jwt jwt) {
+    if (jwt == null || !tenantId.toString().equals(jwt.getClaimAsString(securityProps.getTenantClaim()))) {
+      throw new AccessDeniedException("Privilege dictionary is only available to the tenant's own tokens");
+    }
+    PrivilegeDictionary dictionary = effectivePrivileges.dictionary(tenantId);
+    Map<String, Object> body = new LinkedHashMap<>();
+    body.put("version", dictionary.version());
+    body.put("codes", dictionary.codesByOrdinal());
+    return ResponseEntity.ok()
+        .cacheControl(CacheControl.maxAge(Duration.ofSeconds(30)).cachePrivate())
+        .eTag(Long.toHexString(dictionary.version()))
+        .body(body);
+  }
+}
@@ -2,6 +2,8 @@ package com.ejada.sec.domain;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Generated;
+import org.hibernate.generator.EventType;
 
 import java.util.HashSet;
 import java.util.Set;
@@ -37,6 +39,11 @@ public class Privilege extends AuditableEntity {
     @Column(length = 500)
     private String description;
 
+    /** Dense per-tenant index, assigned by the database on insert; bit position in compiled privilege sets. */
+    @Generated(event = EventType.INSERT)
+    @Column(nullable = false, insertable = false, updatable = false)
+    private Integer ordinal;
+
     @OneToMany(mappedBy = "privilege", cascade = CascadeType.ALL, orphanRemoval = true)
     @Builder.Default
     private Set<RolePrivilege> rolePrivileges = new HashSet<>();
@@ -8,7 +8,7 @@ import java.time.Instant;
 @Entity
 @Table(
   name = "refresh_tokens",
-  uniqueConstraints = @UniqueConstraint(name = "ux_refresh_tokens_token", columnNames = "token"),
+  uniqueConstraints = @UniqueConstraint(name = "ux_refresh_tokens_hash", columnNames = "token_hash"),
   indexes = {
     @Index(name = "ix_refresh_tokens_user", columnList = "user_id"),
     @Index(name = "ix_refresh_tokens_expiry", columnList = "expires_at")
@@ -23,8 +23,9 @@ public class RefreshToken {
     @ManyToOne(fetch = FetchType.LAZY) @JoinColumn(name = "user_id", nullable = false)
     private User user;
 
-    @Column(nullable = false, length = 255)
-    private String token;
+    /** SHA-256 digest of the opaque token; the token itself is never stored. */
+    @Column(name = "token_hash", nullable = false, length = 32)
+    private byte[] tokenHash;
 
     @Column(name = "issued_at",  nullable = false)
     private Instant issuedAt;
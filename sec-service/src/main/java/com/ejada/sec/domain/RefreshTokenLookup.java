@@ -0,0 +1,19 @@
+package com.ejada.sec.domain;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Columns needed to validate a refresh token and issue the next token pair, served from
+ * the covering index plus a primary-key join on the owning user.
+ */
+public interface RefreshTokenLookup {
+    Long getId();
+    Long getUserId();
+    UUID getTenantId();
+    String getUsername();
+    boolean isUserEnabled();
+    boolean isUserLocked();
+    Instant getExpiresAt();
+    Instant getRevokedAt();
+}
@@ -0,0 +1,17 @@
+package com.ejada.sec.dto;
+
+import lombok.*;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Diff summary of a bulk grant or revoke: how many pairs were requested, how many
+ * actually changed, and which items changed per target (role code or user id).
+ */
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+public class BulkGrantResult {
+  private int requested;
+  private int changed;
+  private int unchanged;
+  private Map<String, List<String>> changes;
+}
@@ -0,0 +1,19 @@
+package com.ejada.sec.dto;
+
+import com.ejada.common.dto.BaseRequest;
+import jakarta.validation.constraints.*;
+import lombok.*;
+import lombok.experimental.SuperBuilder;
+import java.util.List;
+
+/** Grant (or revoke) every listed privilege to (from) every listed role. */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode(callSuper = true)
+@SuperBuilder
+public class BulkRolePrivilegesRequest extends BaseRequest {
+  @NotEmpty @Size(max = 100) private List<@NotBlank String> roleCodes;
+  @NotEmpty @Size(max = 5000) private List<@NotBlank String> privilegeCodes;
+}
@@ -0,0 +1,19 @@
+package com.ejada.sec.dto;
+
+import com.ejada.common.dto.BaseRequest;
+import jakarta.validation.constraints.*;
+import lombok.*;
+import lombok.experimental.SuperBuilder;
+import java.util.List;
+
+/** Assign (or revoke) every listed role to (from) every listed user. */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode(callSuper = true)
+@SuperBuilder
+public class BulkUserRolesRequest extends BaseRequest {
+  @NotEmpty @Size(max = 5000) private List<@NotNull Long> userIds;
+  @NotEmpty @Size(max = 100) private List<@NotBlank String> roleCodes;
+}
@@ -1,7 +1,10 @@
 package com.ejada.sec.handler;
 
+import com.ejada.common.constants.ErrorCodes;
 import com.ejada.common.dto.ErrorResponse;
+import com.ejada.sec.security.LoginThrottledException;
 import java.util.NoSuchElementException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -18,4 +21,12 @@ public class AuthExceptionHandler {
         ErrorResponse body = ErrorResponse.of("ERR_AUTH", ex.getMessage());
         return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(body);
     }
+
+    @ExceptionHandler(LoginThrottledException.class)
+    public ResponseEntity<ErrorResponse> handleThrottled(LoginThrottledException ex) {
+        long seconds = Math.max(1, (ex.getRetryAfter().toMillis() + 999) / 1000);
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, Long.toString(seconds))
+                .body(ErrorResponse.of(ErrorCodes.API_RATE_LIMIT_EXCEEDED, ex.getMessage()));
+    }
 }
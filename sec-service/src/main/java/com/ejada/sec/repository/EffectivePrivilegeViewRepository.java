@@ -2,8 +2,10 @@ package com.ejada.sec.repository;
 
 import com.ejada.sec.domain.EffectivePrivilegeProjection;
 import com.ejada.sec.domain.Privilege;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.UUID;
@@ -26,4 +28,62 @@ public interface EffectivePrivilegeViewRepository extends Repository<Privilege,
           and is_effective = true
         """, nativeQuery = true)
     List<EffectivePrivilegeProjection> findEffectiveByUserAndTenant(Long userId, UUID tenantId);
+
+    /**
+     * Ordinals of the privileges a user effectively holds: granted through a role or an
+     * explicit override, minus explicit denials. Reads the base tables through their
+     * primary keys instead of expanding the view's cross join.
+     */
+    @Query(value = """
+        select p.ordinal
+          from users u
+          join user_roles ur      on ur.user_id = u.id
+          join role_privileges rp on rp.role_id = ur.role_id
+          join privileges p       on p.id = rp.privilege_id and p.tenant_id = u.tenant_id
+         where u.id = :userId and u.tenant_id = :tenantId
+        union
+        select p.ordinal
+          from users u
+          join user_privileges up on up.user_id = u.id and up.is_granted = true
+          join privileges p       on p.id = up.privilege_id and p.tenant_id = u.tenant_id
+         where u.id = :userId and u.tenant_id = :tenantId
+        except
+        select p.ordinal
+          from user_privileges up
+          join privileges p on p.id = up.privilege_id
+         where up.user_id = :userId and up.is_granted = false
+        """, nativeQuery = true)
+    List<Integer> findEffectiveOrdinals(Long userId, UUID tenantId);
+
+    /** Tenant-wide report served from the {@code effective_privileges_mv} snapshot. */
+    @Query(value = """
+        select user_id  as userId,
+               code     as code,
+               resource as resource,
+               action   as action,
+               true     as isEffective
+        from effective_privileges_mv
+        where tenant_id = :tenantId
+        order by user_id, code
+        """, nativeQuery = true)
+    List<EffectivePrivilegeProjection> findSnapshotByTenant(UUID tenantId);
+
+    /** Tenant-wide report computed live from the view. */
+    @Query(value = """
+        select distinct user_id as userId,
+               code        as code,
+               resource    as resource,
+               action      as action,
+               true        as isEffective
+        from effective_privileges
+        where tenant_id = :tenantId
+          and is_effective = true
+        order by user_id, code
+        """, nativeQuery = true)
+    List<EffectivePrivilegeProjection> findEffectiveByTenant(UUID tenantId);
+
+    @Transactional
+    @Modifying
+    @Query(value = "REFRESH MATERIALIZED VIEW CONCURRENTLY effective_privileges_mv", nativeQuery = true)
+    void refreshSnapshot();
 }
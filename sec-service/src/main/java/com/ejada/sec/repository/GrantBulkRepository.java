@@ -0,0 +1,130 @@
+package com.ejada.sec.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Set-based writes for bulk grants. Inserts are JDBC-batched
+ * {@code INSERT ... ON CONFLICT DO NOTHING}, whose per-row update counts tell which
+ * pairs were new; deletes are one {@code = ANY(?)} statement per owner returning the
+ * removed ids. Runs in the caller's transaction.
+ */
+@Repository
+@RequiredArgsConstructor
+public class GrantBulkRepository {
+
+    private static final String INSERT_ROLE_PRIVILEGE = """
+        INSERT INTO role_privileges (role_id, privilege_id, granted_at, granted_by)
+        VALUES (?, ?, NOW(), ?)
+        ON CONFLICT DO NOTHING
+        """;
+
+    private static final String DELETE_ROLE_PRIVILEGES = """
+        DELETE FROM role_privileges
+         WHERE role_id = ? AND privilege_id = ANY(?)
+        RETURNING privilege_id
+        """;
+
+    private static final String INSERT_USER_ROLE = """
+        INSERT INTO user_roles (user_id, role_id)
+        VALUES (?, ?)
+        ON CONFLICT DO NOTHING
+        """;
+
+    private static final String DELETE_USER_ROLES = """
+        DELETE FROM user_roles
+         WHERE user_id = ? AND role_id = ANY(?)
+        RETURNING role_id
+        """;
+
+    private final JdbcTemplate jdbc;
+
+    @Value("${security.grants.batch-size:500}")
+    private int batchSize;
+
+    /** @return privilege ids actually granted, per role id */
+    public Map<Long, List<Long>> insertRolePrivileges(Collection<Long> roleIds, Collection<Long> privilegeIds, Long grantedBy) {
+        List<long[]> pairs = pairs(roleIds, privilegeIds);
+        int[][] counts = jdbc.batchUpdate(INSERT_ROLE_PRIVILEGE, pairs, batchSize, (ps, pair) -> {
+            ps.setLong(1, pair[0]);
+            ps.setLong(2, pair[1]);
+            ps.setObject(3, grantedBy);
+        });
+        return inserted(pairs, counts);
+    }
+
+    /** @return privilege ids actually revoked, per role id */
+    public Map<Long, List<Long>> deleteRolePrivileges(Collection<Long> roleIds, Collection<Long> privilegeIds) {
+        return deleteAny(DELETE_ROLE_PRIVILEGES, roleIds, privilegeIds);
+    }
+
+    /** @return role ids actually assigned, per user id */
+    public Map<Long, List<Long>> insertUserRoles(Collection<Long> userIds, Collection<Long> roleIds) {
+        List<long[]> pairs = pairs(userIds, roleIds);
+        int[][] counts = jdbc.batchUpdate(INSERT_USER_ROLE, pairs, batchSize, (ps, pair) -> {
+            ps.setLong(1, pair[0]);
+            ps.setLong(2, pair[1]);
+        });
+        return inserted(pairs, counts);
+    }
+
+    /** @return role ids actually revoked, per user id */
+    public Map<Long, List<Long>> deleteUserRoles(Collection<Long> userIds, Collection<Long> roleIds) {
+        return deleteAny(DELETE_USER_ROLES, userIds, roleIds);
+    }
+
+    private Map<Long, List<Long>> deleteAny(String sql, Collection<Long> owners, Collection<Long> items) {
+        Long[] array = items.toArray(Long[]::new);
+        Map<Long, List<Long>> removed = new LinkedHashMap<>();
+        for (Long owner : owners) {
+            List<Long> ids = jdbc.query(con -> {
+                var ps = con.prepareStatement(sql);
+                ps.setLong(1, owner);
+                ps.setArray(2, con.createArrayOf("bigint", array));
+                return ps;
+            }, (rs, i) -> rs.getLong(1));
+            if (!ids.isEmpty()) {
+                removed.put(owner, ids);
+            }
+        }
+        return removed;
+    }
+
+    private static List<long[]> pairs(Collection<Long> owners, Collection<Long> items) {
+        List<long[]> pairs = new ArrayList<>(owners.size() * items.size());
+        for (Long owner : owners) {
+            for (Long item : items) {
+                pairs.add(new long[] {owner, item});
+            }
+        }
+        return pairs;
+    }
+
+    /**
+     * Maps batch update counts back to pairs: 1 means inserted, 0 means it already existed.
+     * Drivers that report {@link Statement#SUCCESS_NO_INFO} (e.g. with rewritten batches)
+     * are counted as inserted.
+     */
+    private static Map<Long, List<Long>> inserted(List<long[]> pairs, int[][] counts) {
+        Map<Long, List<Long>> out = new LinkedHashMap<>();
+        int i = 0;
+        for (int[] batch : counts) {
+            for (int count : batch) {
+                long[] pair = pairs.get(i++);
+                if (count > 0 || count == Statement.SUCCESS_NO_INFO) {
+                    out.computeIfAbsent(pair[0], k -> new ArrayList<>()).add(pair[1]);
+                }
+            }
+        }
+        return out;
+    }
+}
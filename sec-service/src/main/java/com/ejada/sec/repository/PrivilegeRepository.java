@@ -3,6 +3,7 @@ package com.ejada.sec.repository;
 import com.ejada.sec.domain.Privilege;
 import org.springframework.data.jpa.repository.JpaRepository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -13,5 +14,7 @@ public interface PrivilegeRepository extends JpaRepository<Privilege, Long> {
 
     List<Privilege> findAllByTenantId(UUID tenantId);
 
+    List<Privilege> findAllByTenantIdAndCodeIn(UUID tenantId, Collection<String> codes);
+
     List<Privilege> findAllByTenantIdAndResourceAndAction(UUID tenantId, String resource, String action);
 }
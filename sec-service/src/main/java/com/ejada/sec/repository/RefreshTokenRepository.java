@@ -1,8 +1,12 @@
 package com.ejada.sec.repository;
 
 import com.ejada.sec.domain.RefreshToken;
+import com.ejada.sec.domain.RefreshTokenLookup;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
 import java.util.List;
@@ -10,13 +14,39 @@ import java.util.Optional;
 
 public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
 
-    Optional<RefreshToken> findByToken(String token);
+    @Query("""
+        select t.id as id, u.id as userId, u.tenantId as tenantId, u.username as username,
+               u.enabled as userEnabled, u.locked as userLocked,
+               t.expiresAt as expiresAt, t.revokedAt as revokedAt
+          from RefreshToken t
+          join t.user u
+         where t.tokenHash = :hash
+        """)
+    Optional<RefreshTokenLookup> findLookupByTokenHash(@Param("hash") byte[] hash);
 
     List<RefreshToken> findAllByUserId(Long userId);
 
+    @Transactional
+    @Modifying
+    @Query("update RefreshToken t set t.revokedAt = :now where t.tokenHash = :hash and t.revokedAt is null")
+    int revokeByTokenHash(@Param("hash") byte[] hash, @Param("now") Instant now);
+
+    /** Digests of revoked tokens that have not expired yet (revocation filter warm-up). */
+    @Query("select t.tokenHash from RefreshToken t where t.revokedAt is not null and t.expiresAt > :now")
+    List<byte[]> findRevokedTokenHashes(@Param("now") Instant now);
+
     @Modifying
     int deleteByUserId(Long userId);
 
+    /**
+     * Delete at most {@code limit} expired rows in its own transaction, keeping lock
+     * footprint and WAL bursts small on large tables.
+     */
+    @Transactional
     @Modifying
-    int deleteByExpiresAtBefore(Instant cutoff);
+    @Query(value = """
+        DELETE FROM refresh_tokens
+         WHERE id IN (SELECT id FROM refresh_tokens WHERE expires_at < :cutoff LIMIT :limit)
+        """, nativeQuery = true)
+    int deleteExpiredChunk(@Param("cutoff") Instant cutoff, @Param("limit") int limit);
 }
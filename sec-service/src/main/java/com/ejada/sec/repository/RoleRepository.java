@@ -3,6 +3,7 @@ package com.ejada.sec.repository;
 import com.ejada.sec.domain.Role;
 import org.springframework.data.jpa.repository.JpaRepository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -13,5 +14,7 @@ public interface RoleRepository extends JpaRepository<Role, Long> {
 
     List<Role> findAllByTenantId(UUID tenantId);
 
+    List<Role> findAllByTenantIdAndCodeIn(UUID tenantId, Collection<String> codes);
+
     boolean existsByTenantIdAndCode(UUID tenantId, String code);
 }
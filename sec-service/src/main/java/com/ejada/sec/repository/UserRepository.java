@@ -2,7 +2,12 @@ package com.ejada.sec.repository;
 
 import com.ejada.sec.domain.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -13,9 +18,25 @@ public interface UserRepository extends JpaRepository<User, Long> {
 
     Optional<User> findByTenantIdAndEmail(UUID tenantId, String email);
 
+    /** Username or email match in one round-trip; a username match sorts first. */
+    @Query("select u from User u where u.tenantId = :tenantId and (u.username = :identifier or u.email = :identifier) "
+        + "order by case when u.username = :identifier then 0 else 1 end")
+    List<User> findLoginCandidates(@Param("tenantId") UUID tenantId, @Param("identifier") String identifier);
+
+    /** Replace the hash only if it is still {@code currentHash}, so a concurrent password change wins. */
+    @Transactional
+    @Modifying
+    @Query("update User u set u.passwordHash = :newHash where u.id = :id and u.passwordHash = :currentHash")
+    int updatePasswordHash(@Param("id") Long id,
+                           @Param("currentHash") String currentHash,
+                           @Param("newHash") String newHash);
+
     boolean existsByTenantIdAndUsername(UUID tenantId, String username);
 
     boolean existsByTenantIdAndEmail(UUID tenantId, String email);
 
     List<User> findAllByTenantId(UUID tenantId);
+
+    @Query("select u.id from User u where u.tenantId = :tenantId and u.id in :ids")
+    List<Long> findIdsByTenantIdAndIdIn(@Param("tenantId") UUID tenantId, @Param("ids") Collection<Long> ids);
 }
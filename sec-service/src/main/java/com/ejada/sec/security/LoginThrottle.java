@@ -0,0 +1,188 @@
+package com.ejada.sec.security;
+
+import com.ejada.redis.starter.config.KeyPrefixStrategy;
+import com.ejada.sec.config.LoginProtectionProperties;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+
+/**
+ * Layered login throttle.
+ *
+ * <ol>
+ *   <li>Local pre-filter: keys known to be blocked are rejected without touching Redis.</li>
+ *   <li>Per-IP sliding window of attempts, kept as a Redis sorted set.</li>
+ *   <li>Per-IP and per-account sliding windows of failures; crossing the limit locks the
+ *       key for {@code lockoutBase * 2^(strikes-1)}, capped at {@code lockoutMax}.</li>
+ * </ol>
+ *
+ * <p>Every Redis step is one script call. If Redis is unavailable the throttle fails
+ * open; the bounded hashing pool still caps the CPU an attacker can consume.</p>
+ */
+@Component
+@Slf4j
+public class LoginThrottle {
+
+  private static final DefaultRedisScript<Long> CHECK = new DefaultRedisScript<>("""
+      local now = tonumber(ARGV[1])
+      local blocked = math.max(redis.call('pttl', KEYS[1]), redis.call('pttl', KEYS[2]))
+      if blocked > 0 then return blocked end
+      local window = tonumber(ARGV[2])
+      local max = tonumber(ARGV[3])
+      if max <= 0 then return 0 end
+      redis.call('zremrangebyscore', KEYS[3], '-inf', now - window)
+      if redis.call('zcard', KEYS[3]) >= max then
+        local oldest = redis.call('zrange', KEYS[3], 0, 0, 'WITHSCORES')
+        return math.max(1, tonumber(oldest[2]) + window - now)
+      end
+      redis.call('zadd', KEYS[3], now, ARGV[4])
+      redis.call('pexpire', KEYS[3], window)
+      return 0
+      """, Long.class);
+
+  private static final DefaultRedisScript<Long> FAILURE = new DefaultRedisScript<>("""
+      local now = tonumber(ARGV[1])
+      local window = tonumber(ARGV[2])
+      local max = tonumber(ARGV[3])
+      redis.call('zremrangebyscore', KEYS[1], '-inf', now - window)
+      redis.call('zadd', KEYS[1], now, ARGV[4])
+      redis.call('pexpire', KEYS[1], window)
+      if redis.call('zcard', KEYS[1]) < max then return 0 end
+      local strikes = redis.call('incr', KEYS[3])
+      redis.call('pexpire', KEYS[3], ARGV[7])
+      local lock = math.min(tonumber(ARGV[5]) * 2 ^ (strikes - 1), tonumber(ARGV[6]))
+      redis.call('set', KEYS[2], strikes, 'PX', math.floor(lock))
+      redis.call('del', KEYS[1])
+      return math.floor(lock)
+      """, Long.class);
+
+  private final StringRedisTemplate redis;
+  private final KeyPrefixStrategy keyPrefixStrategy;
+  private final LoginProtectionProperties props;
+  private final Cache<String, Long> blockedUntil;
+
+  public LoginThrottle(StringRedisTemplate redis, KeyPrefixStrategy keyPrefixStrategy, LoginProtectionProperties props) {
+    this.redis = redis;
+    this.keyPrefixStrategy = keyPrefixStrategy;
+    this.props = props;
+    this.blockedUntil = CacheBuilder.newBuilder()
+        .maximumSize(props.getLocalBlockCacheSize())
+        .expireAfterWrite(props.getLockoutMax())
+        .build();
+  }
+
+  /**
+   * Admit a login attempt or throw {@link LoginThrottledException}. {@code ip} is the
+   * client address as resolved through the trusted proxies, never the proxy itself.
+   */
+  public void checkAttempt(String ip, UUID tenantId, String identifier) {
+    if (!props.isThrottleEnabled()) {
+      return;
+    }
+    String ipKey = ipKey(ip);
+    String accountKey = accountKey(tenantId, identifier);
+    long now = System.currentTimeMillis();
+    rejectIfLocallyBlocked(ipKey, now);
+    rejectIfLocallyBlocked(accountKey, now);
+
+    Long retryMillis;
+    try {
+      retryMillis = redis.execute(CHECK,
+          List.of(ipKey + ":lock", accountKey + ":lock", ipKey + ":attempts"),
+          Long.toString(now),
+          Long.toString(props.getIp().getAttemptWindow().toMillis()),
+          Integer.toString(props.getIp().getMaxAttempts()),
+          now + ":" + UUID.randomUUID());
+    } catch (DataAccessException ex) {
+      log.warn("Login throttle unavailable, admitting attempt: {}", ex.getMessage());
+      return;
+    }
+    if (retryMillis != null && retryMillis > 0) {
+      // remember only the IP block locally; account locks are remembered in recordFailure
+      blockedUntil.put(ipKey, now + retryMillis);
+      throw throttled(retryMillis);
+    }
+  }
+
+  /** Count a failed attempt against the IP and the account, locking either when over the limit. */
+  public void recordFailure(String ip, UUID tenantId, String identifier) {
+    if (!props.isThrottleEnabled()) {
+      return;
+    }
+    long now = System.currentTimeMillis();
+    fail(ipKey(ip), props.getIp(), now);
+    fail(accountKey(tenantId, identifier), props.getAccount(), now);
+  }
+
+  /** Clear the account's failure history after a successful login. */
+  public void recordSuccess(UUID tenantId, String identifier) {
+    if (!props.isThrottleEnabled()) {
+      return;
+    }
+    String accountKey = accountKey(tenantId, identifier);
+    blockedUntil.invalidate(accountKey);
+    try {
+      redis.delete(List.of(accountKey + ":failures", accountKey + ":strikes"));
+    } catch (DataAccessException ex) {
+      log.debug("Failed to reset login failures: {}", ex.getMessage());
+    }
+  }
+
+  private void fail(String key, LoginProtectionProperties.Window window, long now) {
+    if (window.getMaxFailures() <= 0) {
+      return;
+    }
+    try {
+      Long lockMillis = redis.execute(FAILURE,
+          List.of(key + ":failures", key + ":lock", key + ":strikes"),
+          Long.toString(now),
+          Long.toString(window.getFailureWindow().toMillis()),
+          Integer.toString(window.getMaxFailures()),
+          now + ":" + UUID.randomUUID(),
+          Long.toString(props.getLockoutBase().toMillis()),
+          Long.toString(props.getLockoutMax().toMillis()),
+          Long.toString(props.getStrikeMemory().toMillis()));
+      if (lockMillis != null && lockMillis > 0) {
+        blockedUntil.put(key, now + lockMillis);
+        log.warn("Login locked for {} ms: {}", lockMillis, key);
+      }
+    } catch (DataAccessException ex) {
+      log.warn("Failed to record login failure: {}", ex.getMessage());
+    }
+  }
+
+  private void rejectIfLocallyBlocked(String key, long now) {
+    Long until = blockedUntil.getIfPresent(key);
+    if (until != null) {
+      if (until > now) {
+        throw throttled(until - now);
+      }
+      blockedUntil.invalidate(key);
+    }
+  }
+
+  private static LoginThrottledException throttled(long retryMillis) {
+    return new LoginThrottledException("Too many login attempts", Duration.ofMillis(retryMillis));
+  }
+
+  private String ipKey(String ip) {
+    if (ip == null || ip.isBlank()) {
+      // a shared fallback key would let one client lock out everyone without an address
+      throw new IllegalArgumentException("Client address is required for login throttling");
+    }
+    return keyPrefixStrategy.resolvePrefix() + "login:ip:" + ip;
+  }
+
+  private String accountKey(UUID tenantId, String identifier) {
+    return keyPrefixStrategy.resolvePrefix() + "login:acct:" + tenantId + ":" + identifier.trim().toLowerCase(Locale.ROOT);
+  }
+}
@@ -0,0 +1,21 @@
+package com.ejada.sec.security;
+
+import java.time.Duration;
+
+/**
+ * Login rejected before credentials were checked, either because the caller or account
+ * is throttled or because password verification is saturated.
+ */
+public class LoginThrottledException extends RuntimeException {
+
+  private final transient Duration retryAfter;
+
+  public LoginThrottledException(String message, Duration retryAfter) {
+    super(message);
+    this.retryAfter = retryAfter;
+  }
+
+  public Duration getRetryAfter() {
+    return retryAfter;
+  }
+}
@@ -0,0 +1,65 @@
+package com.ejada.sec.security;
+
+import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.function.IntFunction;
+
+/**
+ * Picks password-hashing cost parameters by timing the hash on the current hardware.
+ *
+ * <p>Both algorithms are tuned on a single knob: the BCrypt log-rounds (each step doubles
+ * the time) and the Argon2id iteration count (time grows linearly) at a fixed memory
+ * size. The chosen cost is the largest one whose median hash time stays within the
+ * target, clamped to the given bounds.</p>
+ */
+public final class PasswordHashCalibrator {
+
+  static final int SALT_LENGTH = 16;
+  static final int HASH_LENGTH = 32;
+
+  private static final int SAMPLES = 3;
+
+  private PasswordHashCalibrator() {
+  }
+
+  /** Calibrated BCrypt log-rounds in {@code [min, max]}. */
+  public static int bcryptStrength(Duration target, int min, int max) {
+    return calibrate(target, min, max, BCryptPasswordEncoder::new);
+  }
+
+  /** Calibrated Argon2id iteration count in {@code [min, max]} at the given memory and lanes. */
+  public static int argon2Iterations(Duration target, int memoryKb, int parallelism, int min, int max) {
+    return calibrate(target, min, max, iterations -> argon2(memoryKb, parallelism, iterations));
+  }
+
+  public static Argon2PasswordEncoder argon2(int memoryKb, int parallelism, int iterations) {
+    return new Argon2PasswordEncoder(SALT_LENGTH, HASH_LENGTH, parallelism, memoryKb, iterations);
+  }
+
+  /** Median wall-clock time of one {@code encode} call, after a warm-up hash. */
+  public static Duration measure(PasswordEncoder encoder) {
+    String password = UUID.randomUUID().toString();
+    encoder.encode(password);
+    long[] nanos = new long[SAMPLES];
+    for (int i = 0; i < SAMPLES; i++) {
+      long started = System.nanoTime();
+      encoder.encode(password);
+      nanos[i] = System.nanoTime() - started;
+    }
+    Arrays.sort(nanos);
+    return Duration.ofNanos(nanos[SAMPLES / 2]);
+  }
+
+  private static int calibrate(Duration target, int min, int max, IntFunction<PasswordEncoder> encoders) {
+    int cost = min;
+    while (cost < max && measure(encoders.apply(cost + 1)).compareTo(target) <= 0) {
+      cost++;
+    }
+    return cost;
+  }
+}
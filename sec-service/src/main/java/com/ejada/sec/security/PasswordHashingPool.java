@@ -0,0 +1,117 @@
+package com.ejada.sec.security;
+
+import com.ejada.sec.config.LoginProtectionProperties;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Bounded executor for password verification.
+ *
+ * <p>Password hashing is deliberately CPU-expensive, so a burst of logins must not be
+ * allowed to occupy every request thread. Verifications run on a fixed set of workers
+ * behind a short queue; when the queue is full, or a task has already waited longer
+ * than {@code security.login.hashing.max-queue-time}, the attempt is shed with
+ * {@link LoginThrottledException} rather than hashed late for a client that has
+ * probably given up.</p>
+ */
+@Component
+@Slf4j
+public class PasswordHashingPool {
+
+  private static final Duration SHED_RETRY_AFTER = Duration.ofSeconds(1);
+
+  private final ThreadPoolExecutor executor;
+  private final long maxQueueNanos;
+  private final LongAdder shed = new LongAdder();
+
+  public PasswordHashingPool(LoginProtectionProperties props) {
+    LoginProtectionProperties.Hashing hashing = props.getHashing();
+    int threads = hashing.getThreads() > 0
+        ? hashing.getThreads()
+        : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+    AtomicInteger sequence = new AtomicInteger();
+    this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+        new ArrayBlockingQueue<>(Math.max(1, hashing.getQueueCapacity())),
+        r -> {
+          Thread t = new Thread(r, "password-hash-" + sequence.incrementAndGet());
+          t.setDaemon(true);
+          return t;
+        },
+        new ThreadPoolExecutor.AbortPolicy());
+    this.maxQueueNanos = hashing.getMaxQueueTime().toNanos();
+  }
+
+  /**
+   * Run {@code check} on a hashing worker and wait for its verdict.
+   *
+   * @throws LoginThrottledException if the pool is saturated
+   */
+  public boolean verify(BooleanSupplier check) {
+    return run(check::getAsBoolean);
+  }
+
+  /**
+   * Run any hashing work (verification or re-encoding) on a worker and wait for it.
+   *
+   * @throws LoginThrottledException if the pool is saturated
+   */
+  public <T> T run(Supplier<T> work) {
+    long enqueued = System.nanoTime();
+    Future<T> result;
+    try {
+      result = executor.submit(() -> {
+        if (System.nanoTime() - enqueued > maxQueueNanos) {
+          throw new LoginThrottledException("Login service busy", SHED_RETRY_AFTER);
+        }
+        return work.get();
+      });
+    } catch (RejectedExecutionException ex) {
+      throw shed();
+    }
+    try {
+      return result.get();
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      result.cancel(true);
+      throw new IllegalStateException("Interrupted while verifying credentials", ex);
+    } catch (ExecutionException ex) {
+      if (ex.getCause() instanceof LoginThrottledException throttled) {
+        shed.increment();
+        throw throttled;
+      }
+      if (ex.getCause() instanceof RuntimeException runtime) {
+        throw runtime;
+      }
+      throw new IllegalStateException(ex.getCause());
+    }
+  }
+
+  /** Number of verifications shed since start-up. */
+  public long shedCount() {
+    return shed.sum();
+  }
+
+  private LoginThrottledException shed() {
+    shed.increment();
+    log.warn("Password hashing saturated ({} queued), shedding login attempt", executor.getQueue().size());
+    return new LoginThrottledException("Login service busy", SHED_RETRY_AFTER);
+  }
+
+  @PreDestroy
+  void shutdown() {
+    executor.shutdownNow();
+  }
+}
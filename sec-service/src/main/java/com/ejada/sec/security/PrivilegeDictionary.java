@@ -0,0 +1,100 @@
+package com.ejada.sec.security;
+
+import com.ejada.sec.domain.Privilege;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Ordinal-to-privilege mapping of one tenant, used to translate {@link PrivilegeSet}s.
+ *
+ * <p>{@link #version()} is derived from the (ordinal, code) pairs, so every instance that
+ * sees the same privileges computes the same version without shared state; it changes
+ * whenever a privilege is added, removed or recoded.</p>
+ */
+public final class PrivilegeDictionary {
+
+  /** One privilege at its ordinal. */
+  public record Entry(int ordinal, long privilegeId, String code, String resource, String action) {
+  }
+
+  private final long version;
+  private final Entry[] byOrdinal;
+  private final Map<String, Entry> byCode;
+  private final List<String> codes;
+
+  private PrivilegeDictionary(List<Entry> entries) {
+    int size = entries.isEmpty() ? 0 : entries.get(entries.size() - 1).ordinal() + 1;
+    this.byOrdinal = new Entry[size];
+    this.byCode = new HashMap<>(entries.size() * 2);
+    for (Entry e : entries) {
+      byOrdinal[e.ordinal()] = e;
+      byCode.put(e.code(), e);
+    }
+    this.codes = Arrays.stream(byOrdinal).map(e -> e == null ? null : e.code()).toList();
+    this.version = versionOf(entries);
+  }
+
+  public static PrivilegeDictionary of(Collection<Privilege> privileges) {
+    return new PrivilegeDictionary(privileges.stream()
+        .map(p -> new Entry(p.getOrdinal(), p.getId(), p.getCode(), p.getResource(), p.getAction()))
+        .sorted(Comparator.comparingInt(Entry::ordinal))
+        .toList());
+  }
+
+  public long version() {
+    return version;
+  }
+
+  public Optional<Entry> byOrdinal(int ordinal) {
+    return ordinal >= 0 && ordinal < byOrdinal.length ? Optional.ofNullable(byOrdinal[ordinal]) : Optional.empty();
+  }
+
+  /** Ordinal of {@code code}, or {@code -1} if the tenant has no such privilege. */
+  public int ordinalOf(String code) {
+    Entry e = byCode.get(code);
+    return e == null ? -1 : e.ordinal();
+  }
+
+  /** Code at each ordinal, {@code null} where the ordinal is unused. */
+  public List<String> codesByOrdinal() {
+    return codes;
+  }
+
+  /** Codes of the privileges in {@code set}, in ordinal order. */
+  public List<String> codes(PrivilegeSet set) {
+    return entries(set).stream().map(Entry::code).toList();
+  }
+
+  public List<Entry> entries(PrivilegeSet set) {
+    return set.ordinals()
+        .filter(o -> o < byOrdinal.length && byOrdinal[o] != null)
+        .mapToObj(o -> byOrdinal[o])
+        .toList();
+  }
+
+  private static long versionOf(List<Entry> entries) {
+    try {
+      MessageDigest md = MessageDigest.getInstance("SHA-256");
+      for (Entry e : entries) {
+        md.update((e.ordinal() + "=" + e.code() + ";").getBytes(StandardCharsets.UTF_8));
+      }
+      byte[] d = md.digest();
+      long v = 0;
+      for (int i = 0; i < Long.BYTES; i++) {
+        v = (v << 8) | (d[i] & 0xFF);
+      }
+      return v & Long.MAX_VALUE;
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 not available", e);
+    }
+  }
+}
@@ -0,0 +1,80 @@
+package com.ejada.sec.security;
+
+import java.util.Base64;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.stream.IntStream;
+
+/**
+ * Immutable set of privilege ordinals (see {@code privileges.ordinal}) for one user.
+ *
+ * <p>Membership checks are a single word lookup, and the compact little-endian byte form
+ * is what gets stored in Redis and carried in tokens.</p>
+ */
+public final class PrivilegeSet {
+
+  public static final PrivilegeSet EMPTY = new PrivilegeSet(new BitSet(0));
+
+  private final BitSet bits;
+
+  private PrivilegeSet(BitSet bits) {
+    this.bits = bits;
+  }
+
+  public static PrivilegeSet of(Collection<Integer> ordinals) {
+    if (ordinals.isEmpty()) {
+      return EMPTY;
+    }
+    BitSet bits = new BitSet();
+    ordinals.forEach(bits::set);
+    return new PrivilegeSet(bits);
+  }
+
+  public static PrivilegeSet fromByteArray(byte[] bytes) {
+    return bytes.length == 0 ? EMPTY : new PrivilegeSet(BitSet.valueOf(bytes));
+  }
+
+  public static PrivilegeSet fromBase64(String encoded) {
+    return fromByteArray(Base64.getUrlDecoder().decode(encoded));
+  }
+
+  public boolean contains(int ordinal) {
+    return ordinal >= 0 && bits.get(ordinal);
+  }
+
+  public int size() {
+    return bits.cardinality();
+  }
+
+  public boolean isEmpty() {
+    return bits.isEmpty();
+  }
+
+  /** Set ordinals in ascending order. */
+  public IntStream ordinals() {
+    return bits.stream();
+  }
+
+  public byte[] toByteArray() {
+    return bits.toByteArray();
+  }
+
+  public String toBase64() {
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(toByteArray());
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    return o instanceof PrivilegeSet other && bits.equals(other.bits);
+  }
+
+  @Override
+  public int hashCode() {
+    return bits.hashCode();
+  }
+
+  @Override
+  public String toString() {
+    return bits.toString();
+  }
+}
@@ -5,7 +5,9 @@ import com.ejada.sec.dto.*;
 
 public interface AuthService {
   BaseResponse<AuthResponse> register(RegisterRequest req);
-  BaseResponse<AuthResponse> login(AuthRequest req);
+
+  /** Login attributed to {@code clientIp} for throttling purposes. */
+  BaseResponse<AuthResponse> login(AuthRequest req, String clientIp);
   BaseResponse<AuthResponse> refresh(RefreshTokenRequest req);
   BaseResponse<Void> logout(String refreshToken); // revoke
 }
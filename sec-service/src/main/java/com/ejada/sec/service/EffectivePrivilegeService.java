@@ -0,0 +1,16 @@
+package com.ejada.sec.service;
+
+import com.ejada.sec.domain.EffectivePrivilegeProjection;
+import com.ejada.sec.security.PrivilegeDictionary;
+import com.ejada.sec.security.PrivilegeSet;
+
+import java.util.List;
+import java.util.UUID;
+
+public interface EffectivePrivilegeService {
+  PrivilegeSet compiled(UUID tenantId, Long userId);
+  PrivilegeDictionary dictionary(UUID tenantId);
+  boolean hasPrivilege(UUID tenantId, Long userId, String privilegeCode);
+  List<EffectivePrivilegeProjection> list(UUID tenantId, Long userId);
+  List<EffectivePrivilegeProjection> report(UUID tenantId);
+}
@@ -10,4 +10,10 @@ public interface GrantService {
   void revokePrivilegesFromRole(RevokePrivilegesFromRoleRequest req);
 
   void setUserPrivilegeOverride(SetUserPrivilegeOverrideRequest req);
+
+  BulkGrantResult bulkGrantPrivilegesToRoles(BulkRolePrivilegesRequest req);
+  BulkGrantResult bulkRevokePrivilegesFromRoles(BulkRolePrivilegesRequest req);
+
+  BulkGrantResult bulkAssignRolesToUsers(BulkUserRolesRequest req);
+  BulkGrantResult bulkRevokeRolesFromUsers(BulkUserRolesRequest req);
 }
@@ -1,10 +1,14 @@
 package com.ejada.sec.service;
 
-import com.ejada.sec.domain.User;
+import java.util.UUID;
 
 public interface RefreshTokenService {
   String issue(Long userId);
-  User validateAndGetUser(String refreshToken);
+  Subject validate(String refreshToken);
   void revoke(String refreshToken);
   int  revokeExpired();
+
+  /** The user a valid refresh token belongs to: everything needed to issue the next token pair. */
+  record Subject(Long userId, UUID tenantId, String username) {
+  }
 }
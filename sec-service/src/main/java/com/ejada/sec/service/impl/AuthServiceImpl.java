@@ -4,18 +4,25 @@ import com.ejada.common.dto.BaseResponse;
 import com.ejada.sec.domain.User;
 import com.ejada.sec.dto.*;
 import com.ejada.sec.repository.UserRepository;
+import com.ejada.sec.security.LoginThrottle;
+import com.ejada.sec.security.LoginThrottledException;
+import com.ejada.sec.security.PasswordHashingPool;
 import com.ejada.sec.service.AuthService;
 import com.ejada.sec.service.RefreshTokenService;
 import com.ejada.sec.service.TokenIssuer;
 import com.ejada.sec.service.UserService;
+import jakarta.annotation.PostConstruct;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
+import java.util.Arrays;
 import java.util.NoSuchElementException;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 @Service
 @RequiredArgsConstructor
@@ -27,6 +34,31 @@ public class AuthServiceImpl implements AuthService {
   private final RefreshTokenService refreshTokenService;
   private final PasswordEncoder passwordEncoder;
   private final TokenIssuer tokenIssuer; // see below
+  private final LoginThrottle loginThrottle;
+  private final PasswordHashingPool hashingPool;
+
+  private String dummyHash;
+  private long dummyVerifyNanos;
+
+  /**
+   * The dummy hash uses the current algorithm, so unknown identifiers cost what a current
+   * hash costs. Its median verification time is the floor that failed checks against
+   * outdated (e.g. legacy BCrypt) hashes are padded to, so those accounts cannot be told
+   * apart from missing ones by timing.
+   */
+  @PostConstruct
+  void initDummyHash() {
+    dummyHash = passwordEncoder.encode(UUID.randomUUID().toString());
+    String probe = UUID.randomUUID().toString();
+    long[] nanos = new long[3];
+    for (int i = 0; i < nanos.length; i++) {
+      long started = System.nanoTime();
+      passwordEncoder.matches(probe, dummyHash);
+      nanos[i] = System.nanoTime() - started;
+    }
+    Arrays.sort(nanos);
+    dummyVerifyNanos = nanos[1];
+  }
 
   @Transactional
   @Override
@@ -46,24 +78,38 @@ public class AuthServiceImpl implements AuthService {
     return BaseResponse.success("User registered", tokens);
   }
 
-  @Transactional
+  /**
+   * Not transactional: the password check is slow by design and must not hold a
+   * connection. Unknown identifiers are hashed against a dummy hash so response time
+   * does not reveal which accounts exist, and account state is only disclosed to
+   * callers who presented the right password.
+   */
   @Override
-  public BaseResponse<AuthResponse> login(AuthRequest req) {
+  public BaseResponse<AuthResponse> login(AuthRequest req, String clientIp) {
     UUID tenantId = req.getTenantId();
-    log.info("User '{}' attempting login for tenant {}", req.getIdentifier(), tenantId);
-    // identifier can be username or email
-    User user = userRepository.findByTenantIdAndUsername(tenantId, req.getIdentifier())
-        .or(() -> userRepository.findByTenantIdAndEmail(tenantId, req.getIdentifier()))
-        .orElseThrow(() -> new NoSuchElementException("Invalid credentials"));
+    String identifier = req.getIdentifier();
+    log.info("User '{}' attempting login for tenant {}", identifier, tenantId);
+    loginThrottle.checkAttempt(clientIp, tenantId, identifier);
 
+    // identifier can be username or email
+    User user = userRepository.findLoginCandidates(tenantId, identifier).stream().findFirst().orElse(null);
+    String hash = user != null ? user.getPasswordHash() : dummyHash;
+    long started = System.nanoTime();
+    boolean matches = hashingPool.verify(() -> passwordEncoder.matches(req.getPassword(), hash));
+    if (user == null || !matches) {
+      if (user != null && passwordEncoder.upgradeEncoding(hash)) {
+        padToDummyCost(started);
+      }
+      loginThrottle.recordFailure(clientIp, tenantId, identifier);
+      log.warn("Invalid credentials for user '{}' in tenant {}", identifier, tenantId);
+      throw new NoSuchElementException("Invalid credentials");
+    }
     if (!user.isEnabled() || user.isLocked()) {
       log.warn("Login denied for user '{}' in tenant {}: disabled or locked", user.getUsername(), tenantId);
       throw new IllegalStateException("Account disabled or locked");
     }
-    if (!passwordEncoder.matches(req.getPassword(), user.getPasswordHash())) {
-      log.warn("Invalid credentials for user '{}' in tenant {}", req.getIdentifier(), tenantId);
-      throw new NoSuchElementException("Invalid credentials");
-    }
+    loginThrottle.recordSuccess(tenantId, identifier);
+    rehashIfOutdated(user, req.getPassword());
     var tokens = issueTokens(user.getTenantId(), user.getUsername(), user.getId());
     log.info("User '{}' logged in for tenant {}", user.getUsername(), tenantId);
     return BaseResponse.success("Login successful", tokens);
@@ -72,9 +118,9 @@ public class AuthServiceImpl implements AuthService {
   @Transactional
   @Override
   public BaseResponse<AuthResponse> refresh(RefreshTokenRequest req) {
-    var user = refreshTokenService.validateAndGetUser(req.getRefreshToken());
-    log.info("Refreshing token for user '{}' in tenant {}", user.getUsername(), user.getTenantId());
-    var tokens = issueTokens(user.getTenantId(), user.getUsername(), user.getId());
+    var subject = refreshTokenService.validate(req.getRefreshToken());
+    log.info("Refreshing token for user '{}' in tenant {}", subject.username(), subject.tenantId());
+    var tokens = issueTokens(subject.tenantId(), subject.username(), subject.userId());
     return BaseResponse.success("Token refreshed", tokens);
   }
 
@@ -86,6 +132,38 @@ public class AuthServiceImpl implements AuthService {
     return BaseResponse.success("Logged out", null);
   }
 
+  /**
+   * Re-encode a correct password whose stored hash uses an older algorithm or a lower
+   * cost than the current encoder. Best effort: a busy hashing pool or a failed update
+   * never fails the login, and the next login simply tries again.
+   */
+  private void rehashIfOutdated(User user, String rawPassword) {
+    String current = user.getPasswordHash();
+    if (!passwordEncoder.upgradeEncoding(current)) {
+      return;
+    }
+    try {
+      String upgraded = hashingPool.run(() -> passwordEncoder.encode(rawPassword));
+      if (userRepository.updatePasswordHash(user.getId(), current, upgraded) == 1) {
+        log.info("Upgraded password hash for user '{}' in tenant {}", user.getUsername(), user.getTenantId());
+      }
+    } catch (LoginThrottledException | DataAccessException ex) {
+      log.debug("Skipped password rehash for user {}: {}", user.getId(), ex.getMessage());
+    }
+  }
+
+  /** Sleep (off the hashing pool) until a failed check took as long as a dummy verification. */
+  private void padToDummyCost(long started) {
+    long remaining = dummyVerifyNanos - (System.nanoTime() - started);
+    if (remaining > 0) {
+      try {
+        TimeUnit.NANOSECONDS.sleep(remaining);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
   private AuthResponse issueTokens(UUID tenantId, String username, Long userId) {
     String access = tokenIssuer.issueAccessToken(tenantId, userId, username);
     String refresh = refreshTokenService.issue(userId);
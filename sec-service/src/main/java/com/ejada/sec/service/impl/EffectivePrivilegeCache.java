@@ -0,0 +1,287 @@
+package com.ejada.sec.service.impl;
+
+import com.ejada.redis.starter.config.KeyPrefixStrategy;
+import com.ejada.redis.starter.support.RedisPubSubListener;
+import com.ejada.sec.security.PrivilegeDictionary;
+import com.ejada.sec.security.PrivilegeSet;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Two-level cache of compiled {@link PrivilegeSet}s: a bounded local cache in front of one
+ * Redis string per user ({@code <prefix>privs:<tenant>:<user>}), each with its own TTL.
+ *
+ * <p>Redis values are tagged with the tenant's {@link PrivilegeDictionary#version()} so a
+ * set compiled against an older dictionary is never decoded with a newer one, and with
+ * the tenant and user change generations ({@code privs:<tenant>:gen},
+ * {@code privs:<tenant>:<user>:gen}) read before compiling. Changes bump the generations
+ * after commit, so a set compiled before a change and written after it carries an old
+ * generation and is never served. Changes are also announced on a pub/sub channel;
+ * every instance (including the sender) evicts its local entries when the message
+ * arrives. A set compiled while a change was in flight is not cached locally, and the
+ * local TTL bounds the window of an instance that missed the message.</p>
+ */
+@Component
+@Slf4j
+public class EffectivePrivilegeCache extends RedisPubSubListener {
+
+  private static final String KEY_PREFIX = "privs:";
+  private static final String GENERATION = ":gen";
+  private static final String USER_EVENT = "user:";
+  private static final String USERS_EVENT = "users:";
+  /** Above this many users a bulk change is broadcast as a tenant-wide event. */
+  private static final int MAX_USERS_PER_EVENT = 1000;
+  private static final String TENANT_EVENT = "tenant:";
+
+  private final StringRedisTemplate redis;
+  private final KeyPrefixStrategy keyPrefixStrategy;
+  private final String channel;
+  private final Duration redisTtl;
+  private final Cache<UserKey, PrivilegeSet> sets;
+  private final Cache<UUID, PrivilegeDictionary> dictionaries;
+  private final AtomicLong changes = new AtomicLong();
+
+  public EffectivePrivilegeCache(
+      StringRedisTemplate redis,
+      KeyPrefixStrategy keyPrefixStrategy,
+      @Value("${security.privileges.cache.channel:security:privileges:changed}") String channel,
+      @Value("${security.privileges.cache.max-size:50000}") long maxSize,
+      @Value("${security.privileges.cache.local-ttl:PT5M}") Duration localTtl,
+      @Value("${security.privileges.cache.redis-ttl:PT30M}") Duration redisTtl) {
+    this.redis = redis;
+    this.keyPrefixStrategy = keyPrefixStrategy;
+    this.channel = channel;
+    this.redisTtl = redisTtl;
+    this.sets = CacheBuilder.newBuilder().maximumSize(maxSize).expireAfterWrite(localTtl).build();
+    this.dictionaries = CacheBuilder.newBuilder().maximumSize(10_000).expireAfterWrite(localTtl).build();
+  }
+
+  public String channel() {
+    return channel;
+  }
+
+  /** Number of change events seen; used to skip snapshot refreshes when nothing changed. */
+  public long changeCount() {
+    return changes.get();
+  }
+
+  public PrivilegeDictionary dictionary(UUID tenantId, Supplier<PrivilegeDictionary> loader) {
+    try {
+      return dictionaries.get(tenantId, loader::get);
+    } catch (ExecutionException e) {
+      throw new IllegalStateException("Failed to load privilege dictionary for tenant " + tenantId, e.getCause());
+    }
+  }
+
+  /**
+   * Compiled set of the user, from the local cache, Redis or {@code compiler} in that order.
+   */
+  public PrivilegeSet get(UUID tenantId, Long userId, PrivilegeDictionary dictionary, Supplier<PrivilegeSet> compiler) {
+    UserKey key = new UserKey(tenantId, userId);
+    PrivilegeSet set = sets.getIfPresent(key);
+    if (set != null) {
+      return set;
+    }
+    long seen = changes.get();
+    String tag = tag(tenantId, userId, dictionary.version());
+    set = tag == null ? null : readRedis(tenantId, userId, tag);
+    boolean fromRedis = set != null;
+    if (!fromRedis) {
+      set = compiler.get();
+    }
+    if (changes.get() == seen) {
+      sets.put(key, set);
+      if (!fromRedis && tag != null) {
+        writeRedis(tenantId, userId, tag, set);
+      }
+    }
+    return set;
+  }
+
+  /** Grants, roles or overrides of one user changed. */
+  public void userChanged(UUID tenantId, Long userId) {
+    afterCommit(() -> {
+      evictUser(tenantId, userId);
+      deleteRedis(() -> bumpUsers(tenantId, List.of(userId)));
+      publish(USER_EVENT + tenantId + ":" + userId);
+    });
+  }
+
+  /** Grants of several users changed in one operation; announced as a single event. */
+  public void usersChanged(UUID tenantId, Collection<Long> userIds) {
+    if (userIds.isEmpty()) {
+      return;
+    }
+    if (userIds.size() > MAX_USERS_PER_EVENT) {
+      tenantChanged(tenantId);
+      return;
+    }
+    List<Long> ids = List.copyOf(userIds);
+    afterCommit(() -> {
+      ids.forEach(id -> evictUser(tenantId, id));
+      deleteRedis(() -> bumpUsers(tenantId, ids));
+      publish(USERS_EVENT + tenantId + ":" + ids.stream().map(String::valueOf).collect(Collectors.joining(",")));
+    });
+  }
+
+  /** Role composition or the privilege dictionary of a tenant changed. */
+  public void tenantChanged(UUID tenantId) {
+    afterCommit(() -> {
+      evictTenant(tenantId);
+      deleteRedis(() -> redis.opsForValue().increment(tenantKey(tenantId) + GENERATION));
+      publish(TENANT_EVENT + tenantId);
+    });
+  }
+
+  @Override
+  public void handle(String topic, String payload) {
+    try {
+      if (payload.startsWith(USER_EVENT)) {
+        String[] parts = payload.substring(USER_EVENT.length()).split(":", 2);
+        evictUser(UUID.fromString(parts[0]), Long.valueOf(parts[1]));
+      } else if (payload.startsWith(USERS_EVENT)) {
+        String[] parts = payload.substring(USERS_EVENT.length()).split(":", 2);
+        UUID tenantId = UUID.fromString(parts[0]);
+        for (String id : parts[1].split(",")) {
+          evictUser(tenantId, Long.valueOf(id));
+        }
+      } else if (payload.startsWith(TENANT_EVENT)) {
+        evictTenant(UUID.fromString(payload.substring(TENANT_EVENT.length())));
+      }
+    } catch (RuntimeException ex) {
+      log.warn("Ignoring malformed privilege change message on {}: {}", topic, payload);
+    }
+  }
+
+  private void evictUser(UUID tenantId, Long userId) {
+    changes.incrementAndGet();
+    sets.invalidate(new UserKey(tenantId, userId));
+  }
+
+  private void evictTenant(UUID tenantId) {
+    changes.incrementAndGet();
+    dictionaries.invalidate(tenantId);
+    sets.asMap().keySet().removeIf(k -> k.tenantId().equals(tenantId));
+  }
+
+  /**
+   * Current {@code <tenant gen>.<user gen>:<dictionary version>} stamp of the user, read
+   * before compiling; {@code null} when Redis is unavailable.
+   */
+  private String tag(UUID tenantId, Long userId, long version) {
+    try {
+      List<String> gens = redis.opsForValue().multiGet(
+          List.of(tenantKey(tenantId) + GENERATION, userKey(tenantId, userId) + GENERATION));
+      if (gens == null) {
+        return null;
+      }
+      return generation(gens.get(0)) + "." + generation(gens.get(1)) + ":" + version;
+    } catch (DataAccessException ex) {
+      log.debug("Privilege cache generation read failed for user {}: {}", userId, ex.getMessage());
+      return null;
+    }
+  }
+
+  private PrivilegeSet readRedis(UUID tenantId, Long userId, String tag) {
+    try {
+      String encoded = redis.opsForValue().get(userKey(tenantId, userId));
+      if (encoded == null || !encoded.startsWith(tag + ":")) {
+        return null;
+      }
+      return PrivilegeSet.fromBase64(encoded.substring(tag.length() + 1));
+    } catch (DataAccessException | IllegalArgumentException ex) {
+      log.debug("Privilege cache read failed for user {}: {}", userId, ex.getMessage());
+      return null;
+    }
+  }
+
+  private void writeRedis(UUID tenantId, Long userId, String tag, PrivilegeSet set) {
+    try {
+      redis.opsForValue().set(userKey(tenantId, userId), tag + ":" + set.toBase64(), redisTtl);
+    } catch (DataAccessException ex) {
+      log.debug("Privilege cache write failed for user {}: {}", userId, ex.getMessage());
+    }
+  }
+
+  /**
+   * Bumps the users' generations and drops their entries in one round trip. A generation
+   * outlives every entry tagged with it (twice the entry TTL), so an expired generation
+   * never lets an old entry match again.
+   */
+  private void bumpUsers(UUID tenantId, List<Long> userIds) {
+    long generationTtl = redisTtl.toMillis() * 2;
+    redis.executePipelined((RedisCallback<Object>) connection -> {
+      StringRedisConnection con = (StringRedisConnection) connection;
+      for (Long userId : userIds) {
+        String key = userKey(tenantId, userId);
+        con.incr(key + GENERATION);
+        con.pExpire(key + GENERATION, generationTtl);
+        con.del(key);
+      }
+      return null;
+    });
+  }
+
+  private static String generation(String value) {
+    return value == null ? "0" : value;
+  }
+
+  private void deleteRedis(Runnable delete) {
+    try {
+      delete.run();
+    } catch (DataAccessException ex) {
+      log.warn("Failed to evict shared privilege cache: {}", ex.getMessage());
+    }
+  }
+
+  private void publish(String message) {
+    try {
+      redis.convertAndSend(channel, message);
+    } catch (DataAccessException ex) {
+      // peers fall back to their local TTL
+      log.warn("Failed to publish privilege change: {}", ex.getMessage());
+    }
+  }
+
+  private String tenantKey(UUID tenantId) {
+    return keyPrefixStrategy.resolvePrefix() + KEY_PREFIX + tenantId;
+  }
+
+  private String userKey(UUID tenantId, Long userId) {
+    return tenantKey(tenantId) + ":" + userId;
+  }
+
+  private static void afterCommit(Runnable action) {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCommit() {
+          action.run();
+        }
+      });
+    } else {
+      action.run();
+    }
+  }
+
+  private record UserKey(UUID tenantId, long userId) {
+  }
+}
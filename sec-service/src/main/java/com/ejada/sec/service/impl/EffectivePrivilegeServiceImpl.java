@@ -0,0 +1,99 @@
+package com.ejada.sec.service.impl;
+
+import com.ejada.sec.domain.EffectivePrivilegeProjection;
+import com.ejada.sec.repository.EffectivePrivilegeViewRepository;
+import com.ejada.sec.repository.PrivilegeRepository;
+import com.ejada.sec.security.PrivilegeDictionary;
+import com.ejada.sec.security.PrivilegeSet;
+import com.ejada.sec.service.EffectivePrivilegeService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Serves authorization checks from compiled per-user privilege sets; the
+ * {@code effective_privileges} view is only used for reporting.
+ */
+@Service
+@RequiredArgsConstructor
+public class EffectivePrivilegeServiceImpl implements EffectivePrivilegeService {
+
+  private final EffectivePrivilegeViewRepository viewRepo;
+  private final PrivilegeRepository privilegeRepository;
+  private final EffectivePrivilegeCache cache;
+
+  @Value("${security.privileges.snapshot.enabled:false}")
+  private boolean snapshotEnabled;
+
+  @Override
+  public PrivilegeSet compiled(UUID tenantId, Long userId) {
+    PrivilegeDictionary dictionary = dictionary(tenantId);
+    return cache.get(tenantId, userId, dictionary,
+        () -> PrivilegeSet.of(viewRepo.findEffectiveOrdinals(userId, tenantId)));
+  }
+
+  @Override
+  public PrivilegeDictionary dictionary(UUID tenantId) {
+    return cache.dictionary(tenantId, () -> PrivilegeDictionary.of(privilegeRepository.findAllByTenantId(tenantId)));
+  }
+
+  @Override
+  public boolean hasPrivilege(UUID tenantId, Long userId, String privilegeCode) {
+    return compiled(tenantId, userId).contains(dictionary(tenantId).ordinalOf(privilegeCode));
+  }
+
+  @Override
+  public List<EffectivePrivilegeProjection> list(UUID tenantId, Long userId) {
+    return dictionary(tenantId).entries(compiled(tenantId, userId)).stream()
+        .<EffectivePrivilegeProjection>map(e -> new CompiledPrivilege(userId, e))
+        .toList();
+  }
+
+  /**
+   * Tenant-wide listing; served from the materialized snapshot when
+   * {@code security.privileges.snapshot.enabled} is set, otherwise computed from the view.
+   */
+  @Override
+  public List<EffectivePrivilegeProjection> report(UUID tenantId) {
+    return snapshotEnabled ? viewRepo.findSnapshotByTenant(tenantId) : viewRepo.findEffectiveByTenant(tenantId);
+  }
+
+  static final class CompiledPrivilege implements EffectivePrivilegeProjection {
+
+    private final Long userId;
+    private final PrivilegeDictionary.Entry entry;
+
+    CompiledPrivilege(Long userId, PrivilegeDictionary.Entry entry) {
+      this.userId = userId;
+      this.entry = entry;
+    }
+
+    @Override
+    public Long getUserId() {
+      return userId;
+    }
+
+    @Override
+    public String getCode() {
+      return entry.code();
+    }
+
+    @Override
+    public String getResource() {
+      return entry.resource();
+    }
+
+    @Override
+    public String getAction() {
+      return entry.action();
+    }
+
+    @Override
+    public Boolean getIsEffective() {
+      return Boolean.TRUE;
+    }
+  }
+}
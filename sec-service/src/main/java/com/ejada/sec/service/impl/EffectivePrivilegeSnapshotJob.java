@@ -0,0 +1,67 @@
+package com.ejada.sec.service.impl;
+
+import com.ejada.redis.starter.support.RedisLockService;
+import com.ejada.sec.repository.EffectivePrivilegeViewRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Refreshes the {@code effective_privileges_mv} reporting snapshot when privileges have
+ * changed since the last pass. Change events reach every instance, so whichever one
+ * wins the Redis lease can do the refresh; {@code CONCURRENTLY} keeps readers unblocked.
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(prefix = "security.privileges.snapshot", name = "enabled", havingValue = "true")
+public class EffectivePrivilegeSnapshotJob {
+
+  static final String LOCK_KEY = "security:jobs:effective-privileges-snapshot";
+
+  private final EffectivePrivilegeViewRepository viewRepo;
+  private final EffectivePrivilegeCache cache;
+  private final RedisLockService locks;
+  private final Duration lease;
+  private long refreshedAt = -1;
+
+  public EffectivePrivilegeSnapshotJob(
+      EffectivePrivilegeViewRepository viewRepo,
+      EffectivePrivilegeCache cache,
+      ObjectProvider<RedisLockService> lockService,
+      StringRedisTemplate redis,
+      @Value("${security.privileges.snapshot.lease:PT5M}") Duration lease) {
+    this.viewRepo = viewRepo;
+    this.cache = cache;
+    this.locks = RedisLockService.orDefault(lockService, redis);
+    this.lease = lease;
+  }
+
+  @Scheduled(
+      initialDelayString = "${security.privileges.snapshot.initial-delay:PT1M}",
+      fixedDelayString = "${security.privileges.snapshot.interval:PT5M}")
+  public void refresh() {
+    long changes = cache.changeCount();
+    if (changes == refreshedAt) {
+      return;
+    }
+    locks.runExclusive(LOCK_KEY, lease, () -> {
+      long started = System.nanoTime();
+      try {
+        viewRepo.refreshSnapshot();
+      } catch (DataAccessException e) {
+        log.warn("Effective privilege snapshot refresh failed: {}", e.getMessage());
+        return;
+      }
+      refreshedAt = changes;
+      log.info("Refreshed effective privilege snapshot in {} ms",
+          Duration.ofNanos(System.nanoTime() - started).toMillis());
+    });
+  }
+}
@@ -5,14 +5,21 @@ import com.ejada.audit.starter.api.DataClass;
 import com.ejada.audit.starter.api.annotations.Audited;
 import com.ejada.sec.domain.*;
 import com.ejada.sec.dto.*;
-import com.ejada.sec.mapper.ReferenceResolver;
 import com.ejada.sec.repository.*;
 import com.ejada.sec.service.GrantService;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
 
 @Service
 @RequiredArgsConstructor
@@ -21,10 +28,9 @@ public class GrantServiceImpl implements GrantService {
   private final UserRepository userRepository;
   private final RoleRepository roleRepository;
   private final PrivilegeRepository privilegeRepository;
-  private final UserRoleRepository userRoleRepository;
-  private final RolePrivilegeRepository rolePrivilegeRepository;
   private final UserPrivilegeRepository userPrivilegeRepository;
-  private final ReferenceResolver resolver;
+  private final EffectivePrivilegeCache privilegeCache;
+  private final GrantBulkRepository bulkRepository;
 
   @Transactional
   @Override
@@ -33,13 +39,13 @@ public class GrantServiceImpl implements GrantService {
   public void assignRolesToUser(AssignRolesToUserRequest req) {
     User user = userRepository.findById(req.getUserId())
         .orElseThrow(() -> new NoSuchElementException("User not found: " + req.getUserId()));
-    var roles = resolver.rolesByCodes(req.getTenantId(), req.getRoleCodes());
-    roles.forEach(role -> {
-      var id = new UserRoleId(user.getId(), role.getId());
-      if (!userRoleRepository.existsById(id)) {
-        userRoleRepository.save(UserRole.builder().id(id).user(user).role(role).build());
-      }
-    });
+    if (req.getRoleCodes() == null || req.getRoleCodes().isEmpty()) {
+      return;
+    }
+    Map<Long, String> roles = rolesByCodes(req.getTenantId(), req.getRoleCodes());
+    if (!bulkRepository.insertUserRoles(List.of(user.getId()), roles.keySet()).isEmpty()) {
+      privilegeCache.userChanged(user.getTenantId(), user.getId());
+    }
   }
 
   @Transactional
@@ -51,6 +57,7 @@ public class GrantServiceImpl implements GrantService {
         .orElseThrow(() -> new NoSuchElementException("User not found: " + req.getUserId()));
     user.getRoles().removeIf(ur -> req.getRoleCodes().contains(ur.getRole().getCode()));
     userRepository.save(user);
+    privilegeCache.userChanged(user.getTenantId(), user.getId());
   }
 
   @Transactional
@@ -60,13 +67,13 @@ public class GrantServiceImpl implements GrantService {
   public void grantPrivilegesToRole(GrantPrivilegesToRoleRequest req) {
     Role role = roleRepository.findByTenantIdAndCode(req.getTenantId(), req.getRoleCode())
         .orElseThrow(() -> new NoSuchElementException("Role not found: " + req.getRoleCode()));
-    var privs = resolver.privilegesByCodes(req.getTenantId(), req.getPrivilegeCodes());
-    privs.forEach(p -> {
-      var id = new RolePrivilegeId(role.getId(), p.getId());
-      if (!rolePrivilegeRepository.existsById(id)) {
-        rolePrivilegeRepository.save(RolePrivilege.builder().id(id).role(role).privilege(p).build());
-      }
-    });
+    if (req.getPrivilegeCodes() == null || req.getPrivilegeCodes().isEmpty()) {
+      return;
+    }
+    Map<Long, String> privs = privilegesByCodes(req.getTenantId(), req.getPrivilegeCodes());
+    if (!bulkRepository.insertRolePrivileges(List.of(role.getId()), privs.keySet(), null).isEmpty()) {
+      privilegeCache.tenantChanged(role.getTenantId());
+    }
   }
 
   @Transactional
@@ -78,6 +85,7 @@ public class GrantServiceImpl implements GrantService {
         .orElseThrow(() -> new NoSuchElementException("Role not found: " + req.getRoleCode()));
     role.getRolePrivileges().removeIf(rp -> req.getPrivilegeCodes().contains(rp.getPrivilege().getCode()));
     roleRepository.save(role);
+    privilegeCache.tenantChanged(role.getTenantId());
   }
 
   @Transactional
@@ -95,5 +103,108 @@ public class GrantServiceImpl implements GrantService {
         .orElse(UserPrivilege.builder().id(id).user(user).privilege(p).build());
     up.setGranted(Boolean.TRUE.equals(req.getGranted()));
     userPrivilegeRepository.save(up);
+    privilegeCache.userChanged(user.getTenantId(), user.getId());
+  }
+
+  @Transactional
+  @Override
+  @Audited(action = AuditAction.UPDATE, entity = "RolePrivilege", dataClass = DataClass.CREDENTIALS,
+      message = "Bulk grant privileges to roles")
+  public BulkGrantResult bulkGrantPrivilegesToRoles(BulkRolePrivilegesRequest req) {
+    Map<Long, String> roles = rolesByCodes(req.getTenantId(), req.getRoleCodes());
+    Map<Long, String> privs = privilegesByCodes(req.getTenantId(), req.getPrivilegeCodes());
+    var granted = bulkRepository.insertRolePrivileges(roles.keySet(), privs.keySet(), null);
+    if (!granted.isEmpty()) {
+      privilegeCache.tenantChanged(req.getTenantId());
+    }
+    return diff(roles.size() * privs.size(), granted, roles::get, privs::get);
+  }
+
+  @Transactional
+  @Override
+  @Audited(action = AuditAction.UPDATE, entity = "RolePrivilege", dataClass = DataClass.CREDENTIALS,
+      message = "Bulk revoke privileges from roles")
+  public BulkGrantResult bulkRevokePrivilegesFromRoles(BulkRolePrivilegesRequest req) {
+    Map<Long, String> roles = rolesByCodes(req.getTenantId(), req.getRoleCodes());
+    Map<Long, String> privs = privilegesByCodes(req.getTenantId(), req.getPrivilegeCodes());
+    var revoked = bulkRepository.deleteRolePrivileges(roles.keySet(), privs.keySet());
+    if (!revoked.isEmpty()) {
+      privilegeCache.tenantChanged(req.getTenantId());
+    }
+    return diff(roles.size() * privs.size(), revoked, roles::get, privs::get);
+  }
+
+  @Transactional
+  @Override
+  @Audited(action = AuditAction.UPDATE, entity = "UserRole", dataClass = DataClass.CREDENTIALS,
+      message = "Bulk assign roles to users")
+  public BulkGrantResult bulkAssignRolesToUsers(BulkUserRolesRequest req) {
+    Set<Long> users = usersOfTenant(req.getTenantId(), req.getUserIds());
+    Map<Long, String> roles = rolesByCodes(req.getTenantId(), req.getRoleCodes());
+    var assigned = bulkRepository.insertUserRoles(users, roles.keySet());
+    privilegeCache.usersChanged(req.getTenantId(), assigned.keySet());
+    return diff(users.size() * roles.size(), assigned, String::valueOf, roles::get);
+  }
+
+  @Transactional
+  @Override
+  @Audited(action = AuditAction.UPDATE, entity = "UserRole", dataClass = DataClass.CREDENTIALS,
+      message = "Bulk revoke roles from users")
+  public BulkGrantResult bulkRevokeRolesFromUsers(BulkUserRolesRequest req) {
+    Set<Long> users = usersOfTenant(req.getTenantId(), req.getUserIds());
+    Map<Long, String> roles = rolesByCodes(req.getTenantId(), req.getRoleCodes());
+    var revoked = bulkRepository.deleteUserRoles(users, roles.keySet());
+    privilegeCache.usersChanged(req.getTenantId(), revoked.keySet());
+    return diff(users.size() * roles.size(), revoked, String::valueOf, roles::get);
+  }
+
+  private Map<Long, String> rolesByCodes(UUID tenantId, List<String> codes) {
+    Set<String> wanted = new LinkedHashSet<>(codes);
+    Map<Long, String> found = new LinkedHashMap<>();
+    roleRepository.findAllByTenantIdAndCodeIn(tenantId, wanted).forEach(r -> found.put(r.getId(), r.getCode()));
+    requireAll("Role", wanted, found.values());
+    return found;
+  }
+
+  private Map<Long, String> privilegesByCodes(UUID tenantId, List<String> codes) {
+    Set<String> wanted = new LinkedHashSet<>(codes);
+    Map<Long, String> found = new LinkedHashMap<>();
+    privilegeRepository.findAllByTenantIdAndCodeIn(tenantId, wanted).forEach(p -> found.put(p.getId(), p.getCode()));
+    requireAll("Privilege", wanted, found.values());
+    return found;
+  }
+
+  private Set<Long> usersOfTenant(UUID tenantId, List<Long> ids) {
+    Set<Long> wanted = new LinkedHashSet<>(ids);
+    Set<Long> found = new LinkedHashSet<>(userRepository.findIdsByTenantIdAndIdIn(tenantId, wanted));
+    wanted.removeAll(found);
+    if (!wanted.isEmpty()) {
+      throw new NoSuchElementException("User not found: " + wanted);
+    }
+    return found;
+  }
+
+  private static void requireAll(String kind, Set<String> wanted, Collection<String> found) {
+    Set<String> missing = new LinkedHashSet<>(wanted);
+    missing.removeAll(found);
+    if (!missing.isEmpty()) {
+      throw new NoSuchElementException(kind + " not found: " + missing);
+    }
+  }
+
+  private static BulkGrantResult diff(int requested, Map<Long, List<Long>> changes,
+                                      Function<Long, String> targetName, Function<Long, String> itemName) {
+    Map<String, List<String>> named = new LinkedHashMap<>();
+    int changed = 0;
+    for (var e : changes.entrySet()) {
+      named.put(targetName.apply(e.getKey()), e.getValue().stream().map(itemName).toList());
+      changed += e.getValue().size();
+    }
+    return BulkGrantResult.builder()
+        .requested(requested)
+        .changed(changed)
+        .unchanged(requested - changed)
+        .changes(named)
+        .build();
   }
 }
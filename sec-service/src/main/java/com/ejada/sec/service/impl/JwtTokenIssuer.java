@@ -1,6 +1,7 @@
 package com.ejada.sec.service.impl;
 
 import com.ejada.crypto.JwtTokenService;
+import com.ejada.sec.service.EffectivePrivilegeService;
 import com.ejada.sec.service.TokenIssuer;
 import java.time.Duration;
 import java.util.List;
@@ -14,7 +15,13 @@ import org.springframework.stereotype.Service;
 @RequiredArgsConstructor
 public class JwtTokenIssuer implements TokenIssuer {
 
+  /** Base64url bitset of privilege ordinals, expanded by starter-security. */
+  public static final String PRIVILEGES_CLAIM = "privs";
+  /** Version of the tenant's privilege dictionary the bitset was encoded against. */
+  public static final String DICTIONARY_VERSION_CLAIM = "pdv";
+
   private final JwtTokenService jwtTokenService;
+  private final EffectivePrivilegeService effectivePrivileges;
 
   @Value("${security.jwt.issuer:sec-service}")
   private String issuer;
@@ -24,8 +31,12 @@ public class JwtTokenIssuer implements TokenIssuer {
 
   @Override
   public String issueAccessToken(UUID tenantId, Long userId, String username) {
-    Map<String, Object> claims =
-        Map.of("iss", issuer, "uid", userId, "tid", tenantId.toString());
+    Map<String, Object> claims = Map.of(
+        "iss", issuer,
+        "uid", userId,
+        "tid", tenantId.toString(),
+        PRIVILEGES_CLAIM, effectivePrivileges.compiled(tenantId, userId).toBase64(),
+        DICTIONARY_VERSION_CLAIM, effectivePrivileges.dictionary(tenantId).version());
     return jwtTokenService.createToken(
         username, tenantId.toString(), List.of(), claims, Duration.ofSeconds(accessTtlSeconds));
   }
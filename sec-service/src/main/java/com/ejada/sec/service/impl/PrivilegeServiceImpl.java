@@ -26,6 +26,7 @@ public class PrivilegeServiceImpl implements PrivilegeService {
   private final PrivilegeMapper mapper;
   private final RedisTemplate<String, Object> redisTemplate;
   private final KeyPrefixStrategy keyPrefixStrategy;
+  private final EffectivePrivilegeCache privilegeCache;
 
   private static final String PRIV_KEY_PREFIX = "priv:";
   private static final String PRIV_LIST_KEY_PREFIX = "privs:tenant:";
@@ -37,6 +38,7 @@ public class PrivilegeServiceImpl implements PrivilegeService {
     PrivilegeDto dto = mapper.toDto(p);
     redisTemplate.opsForValue().set(privKey(p.getId()), dto);
     redisTemplate.delete(privListKey(p.getTenantId()));
+    privilegeCache.tenantChanged(p.getTenantId());
     return BaseResponse.success("Privilege created", dto);
   }
 
@@ -52,16 +54,18 @@ public class PrivilegeServiceImpl implements PrivilegeService {
     PrivilegeDto dto = mapper.toDto(p);
     redisTemplate.opsForValue().set(privKey(p.getId()), dto);
     redisTemplate.delete(privListKey(p.getTenantId()));
+    privilegeCache.tenantChanged(p.getTenantId());
     return BaseResponse.success("Privilege updated", dto);
   }
 
   @Transactional
   @Override
   public BaseResponse<Void> delete(Long id) {
-    if (repository.existsById(id)) {
-      repository.deleteById(id);
+    repository.findById(id).ifPresent(p -> {
+      repository.delete(p);
       redisTemplate.delete(privKey(id));
-    }
+      privilegeCache.tenantChanged(p.getTenantId());
+    });
     // invalidate all privilege lists since tenant is unknown
     String prefix = keyPrefixStrategy.resolvePrefix() + PRIV_LIST_KEY_PREFIX;
     redisTemplate.keys(prefix + "*").forEach(redisTemplate::delete);
@@ -0,0 +1,195 @@
+package com.ejada.sec.service.impl;
+
+import com.ejada.redis.starter.support.RedisPubSubListener;
+import com.ejada.sec.repository.RefreshTokenRepository;
+import com.ejada.sec.service.RefreshTokenService.Subject;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnels;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Near-cache in front of refresh-token validation.
+ *
+ * <p>Valid tokens are cached by digest for a short TTL. A Bloom filter of revoked,
+ * unexpired digests is checked first: a hit (or false positive) bypasses the cache and
+ * goes to the database, so a revoked token can never be served from the cache. Other
+ * instances learn about revocations over Redis pub/sub, and the filter is rebuilt from
+ * the database periodically to drop expired entries and recover lost messages.</p>
+ *
+ * <p>Entries hold the token's {@link Subject}. When a user is renamed, disabled, locked
+ * or deleted, {@link #userChanged(long)} drops that user's entries here and, over the
+ * same channel, on the other instances.</p>
+ */
+@Component
+@Slf4j
+public class RefreshTokenCache extends RedisPubSubListener {
+
+  /** Prefix of channel messages that invalidate all entries of one user. */
+  static final String USER_MESSAGE_PREFIX = "user:";
+
+  private final RefreshTokenRepository repo;
+  private final StringRedisTemplate redis;
+  private final String channel;
+  private final int expectedRevocations;
+  private final double falsePositiveRate;
+  private final Cache<String, Entry> entries;
+  private final AtomicReference<BloomFilter<byte[]>> revoked = new AtomicReference<>();
+  /** Revocations seen while a rebuild is reading the database; replayed into the new filter. */
+  private volatile Set<ByteBuffer> pendingDuringRebuild;
+
+  public RefreshTokenCache(
+      RefreshTokenRepository repo,
+      StringRedisTemplate redis,
+      @Value("${security.refresh.cache.channel:security:refresh-token:revoked}") String channel,
+      @Value("${security.refresh.cache.max-size:100000}") long maxSize,
+      @Value("${security.refresh.cache.ttl:PT5M}") Duration ttl,
+      @Value("${security.refresh.cache.expected-revocations:1000000}") int expectedRevocations,
+      @Value("${security.refresh.cache.false-positive-rate:0.001}") double falsePositiveRate) {
+    this.repo = repo;
+    this.redis = redis;
+    this.channel = channel;
+    this.expectedRevocations = expectedRevocations;
+    this.falsePositiveRate = falsePositiveRate;
+    this.entries = CacheBuilder.newBuilder().maximumSize(maxSize).expireAfterWrite(ttl).build();
+    this.revoked.set(newFilter());
+  }
+
+  public String channel() {
+    return channel;
+  }
+
+  /**
+   * Cached subject of a valid token, or {@code null} if the database must be consulted.
+   */
+  public Subject find(byte[] digest, Instant now) {
+    if (revoked.get().mightContain(digest)) {
+      return null;
+    }
+    Entry entry = entries.getIfPresent(key(digest));
+    return entry != null && entry.expiresAt().isAfter(now) ? entry.subject() : null;
+  }
+
+  public void put(byte[] digest, Subject subject, Instant expiresAt) {
+    entries.put(key(digest), new Entry(subject, expiresAt));
+  }
+
+  /**
+   * Drop the cached tokens of a user whose name or account state changed, here and on
+   * the other instances, once the surrounding transaction has committed.
+   */
+  public void userChanged(long userId) {
+    afterCommit(() -> {
+      evictUser(userId);
+      try {
+        redis.convertAndSend(channel, USER_MESSAGE_PREFIX + userId);
+      } catch (DataAccessException ex) {
+        log.warn("Failed to publish refresh token invalidation for user {}: {}", userId, ex.getMessage());
+      }
+    });
+  }
+
+  /**
+   * Record a revocation locally and announce it to the other instances.
+   */
+  public void revoked(byte[] digest) {
+    markRevoked(digest);
+    try {
+      redis.convertAndSend(channel, key(digest));
+    } catch (DataAccessException ex) {
+      // other instances fall back to the cache TTL and the next filter rebuild
+      log.warn("Failed to publish refresh token revocation: {}", ex.getMessage());
+    }
+  }
+
+  @Override
+  public void handle(String topic, String payload) {
+    try {
+      if (payload.startsWith(USER_MESSAGE_PREFIX)) {
+        evictUser(Long.parseLong(payload.substring(USER_MESSAGE_PREFIX.length())));
+        return;
+      }
+      markRevoked(HexFormat.of().parseHex(payload));
+    } catch (IllegalArgumentException ex) {
+      log.warn("Ignoring malformed revocation message on {}", topic);
+    }
+  }
+
+  /**
+   * Rebuild the revocation filter from the database, dropping digests of tokens that
+   * have expired since the last rebuild.
+   */
+  @Scheduled(
+      initialDelayString = "${security.refresh.cache.rebuild-initial-delay:PT0S}",
+      fixedDelayString = "${security.refresh.cache.rebuild-interval:PT30M}")
+  public void rebuildRevocationFilter() {
+    Set<ByteBuffer> pending = ConcurrentHashMap.newKeySet();
+    pendingDuringRebuild = pending;
+    try {
+      List<byte[]> digests = repo.findRevokedTokenHashes(Instant.now());
+      BloomFilter<byte[]> filter = newFilter();
+      digests.forEach(filter::put);
+      pendingDuringRebuild = null;
+      pending.forEach(d -> filter.put(d.array()));
+      revoked.set(filter);
+      log.debug("Rebuilt refresh token revocation filter with {} entries", digests.size());
+    } catch (DataAccessException ex) {
+      pendingDuringRebuild = null;
+      log.warn("Failed to rebuild refresh token revocation filter: {}", ex.getMessage());
+    }
+  }
+
+  private void markRevoked(byte[] digest) {
+    revoked.get().put(digest);
+    Set<ByteBuffer> pending = pendingDuringRebuild;
+    if (pending != null) {
+      pending.add(ByteBuffer.wrap(digest.clone()));
+    }
+    entries.invalidate(key(digest));
+  }
+
+  private void evictUser(long userId) {
+    entries.asMap().values().removeIf(e -> e.subject().userId() == userId);
+  }
+
+  private BloomFilter<byte[]> newFilter() {
+    return BloomFilter.create(Funnels.byteArrayFunnel(), expectedRevocations, falsePositiveRate);
+  }
+
+  private static void afterCommit(Runnable action) {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCommit() {
+          action.run();
+        }
+      });
+    } else {
+      action.run();
+    }
+  }
+
+  private static String key(byte[] digest) {
+    return HexFormat.of().formatHex(digest);
+  }
+
+  private record Entry(Subject subject, Instant expiresAt) {
+  }
+}
@@ -0,0 +1,51 @@
+package com.ejada.sec.service.impl;
+
+import com.ejada.redis.starter.support.RedisLockService;
+import com.ejada.sec.service.RefreshTokenService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Periodically deletes expired refresh tokens. Only the instance holding the Redis
+ * lease runs a pass; the lease is renewed by the lock watchdog while it works.
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(prefix = "security.refresh.purge", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class RefreshTokenPurgeJob {
+
+  static final String LOCK_KEY = "security:jobs:refresh-token-purge";
+
+  private final RefreshTokenService refreshTokens;
+  private final RedisLockService locks;
+  private final Duration lease;
+
+  public RefreshTokenPurgeJob(
+      RefreshTokenService refreshTokens,
+      ObjectProvider<RedisLockService> lockService,
+      StringRedisTemplate redis,
+      @Value("${security.refresh.purge.lease:PT2M}") Duration lease) {
+    this.refreshTokens = refreshTokens;
+    this.locks = RedisLockService.orDefault(lockService, redis);
+    this.lease = lease;
+  }
+
+  @Scheduled(
+      initialDelayString = "${security.refresh.purge.initial-delay:PT1M}",
+      fixedDelayString = "${security.refresh.purge.interval:PT10M}")
+  public void purge() {
+    locks.runExclusive(LOCK_KEY, lease, () -> {
+      long started = System.nanoTime();
+      int deleted = refreshTokens.revokeExpired();
+      log.info("Purged {} expired refresh tokens in {} ms", deleted,
+          Duration.ofNanos(System.nanoTime() - started).toMillis());
+    });
+  }
+}
@@ -1,7 +1,7 @@
 package com.ejada.sec.service.impl;
 
 import com.ejada.sec.domain.RefreshToken;
-import com.ejada.sec.domain.User;
+import com.ejada.sec.domain.RefreshTokenLookup;
 import com.ejada.sec.repository.RefreshTokenRepository;
 import com.ejada.sec.repository.UserRepository;
 import com.ejada.sec.service.RefreshTokenService;
@@ -10,28 +10,44 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.Instant;
 import java.util.NoSuchElementException;
 import java.util.UUID;
 
+/**
+ * Refresh tokens are opaque random strings handed to the client; only their SHA-256
+ * digest is persisted. Validation is served from {@link RefreshTokenCache} when possible
+ * and otherwise by one lookup on the digest joined to the owning user; either way the
+ * result carries what the next token pair needs, so a refresh never loads the user entity.
+ */
 @Service
 @RequiredArgsConstructor
 public class RefreshTokenServiceImpl implements RefreshTokenService {
 
   private final RefreshTokenRepository repo;
   private final UserRepository userRepository;
+  private final RefreshTokenCache cache;
 
   @Value("${security.refresh.ttl-seconds:2592000}") // 30 days
   private long ttlSeconds;
 
+  @Value("${security.refresh.purge.chunk-size:1000}")
+  private int purgeChunkSize;
+
+  @Value("${security.refresh.purge.max-chunks:1000}")
+  private int purgeMaxChunks;
+
   @Transactional
   @Override
   public String issue(Long userId) {
     String token = UUID.randomUUID().toString();
     var now = Instant.now();
     var rt = RefreshToken.builder()
-        .user(userRepository.findById(userId).orElseThrow())
-        .token(token)
+        .user(userRepository.getReferenceById(userId))
+        .tokenHash(digest(token))
         .issuedAt(now)
         .expiresAt(now.plusSeconds(ttlSeconds))
         .build();
@@ -40,26 +56,56 @@ public class RefreshTokenServiceImpl implements RefreshTokenService {
   }
 
   @Override
-  public User validateAndGetUser(String refreshToken) {
+  public Subject validate(String refreshToken) {
     var now = Instant.now();
-    var rt = repo.findByToken(refreshToken)
-        .filter(t -> t.getRevokedAt() == null && t.getExpiresAt().isAfter(now))
-        .orElseThrow(() -> new NoSuchElementException("Invalid or expired refresh token"));
-    return rt.getUser();
+    byte[] hash = digest(refreshToken);
+    Subject subject = cache.find(hash, now);
+    if (subject == null) {
+      RefreshTokenLookup rt = repo.findLookupByTokenHash(hash)
+          .filter(t -> t.getRevokedAt() == null && t.getExpiresAt().isAfter(now))
+          .filter(t -> t.isUserEnabled() && !t.isUserLocked())
+          .orElseThrow(RefreshTokenServiceImpl::invalidToken);
+      subject = new Subject(rt.getUserId(), rt.getTenantId(), rt.getUsername());
+      cache.put(hash, subject, rt.getExpiresAt());
+    }
+    return subject;
   }
 
-  @Transactional
   @Override
   public void revoke(String refreshToken) {
-    repo.findByToken(refreshToken).ifPresent(t -> {
-      t.setRevokedAt(Instant.now());
-      repo.save(t);
-    });
+    byte[] hash = digest(refreshToken);
+    if (repo.revokeByTokenHash(hash, Instant.now()) > 0) {
+      cache.revoked(hash);
+    }
   }
 
-  @Transactional
+  /**
+   * Deletes expired tokens in bounded chunks, each committed on its own, so a large
+   * backlog never holds one long transaction.
+   */
   @Override
   public int revokeExpired() {
-    return repo.deleteByExpiresAtBefore(Instant.now());
+    var now = Instant.now();
+    int total = 0;
+    for (int i = 0; i < purgeMaxChunks; i++) {
+      int deleted = repo.deleteExpiredChunk(now, purgeChunkSize);
+      total += deleted;
+      if (deleted < purgeChunkSize) {
+        break;
+      }
+    }
+    return total;
+  }
+
+  static byte[] digest(String token) {
+    try {
+      return MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 not available", e);
+    }
+  }
+
+  private static NoSuchElementException invalidToken() {
+    return new NoSuchElementException("Invalid or expired refresh token");
   }
 }
@@ -30,6 +30,7 @@ public class RoleServiceImpl implements RoleService {
   private final ReferenceResolver resolver;
   private final RedisTemplate<String, Object> redisTemplate;
   private final KeyPrefixStrategy keyPrefixStrategy;
+  private final EffectivePrivilegeCache privilegeCache;
 
   private static final String ROLE_KEY_PREFIX = "role:";
   private static final String ROLE_LIST_KEY_PREFIX = "roles:tenant:";
@@ -66,10 +67,11 @@ public class RoleServiceImpl implements RoleService {
   @Override
     public BaseResponse<Void> delete(Long roleId) {
       log.info("Deleting role {}", roleId);
-      if (roleRepository.existsById(roleId)) {
-        roleRepository.deleteById(roleId);
+      roleRepository.findById(roleId).ifPresent(role -> {
+        roleRepository.delete(role);
         redisTemplate.delete(roleKey(roleId));
-      }
+        privilegeCache.tenantChanged(role.getTenantId());
+      });
       // invalidate tenant role list cache - tenant cannot be determined from id, so clear all
       // role lists
       String prefix = keyPrefixStrategy.resolvePrefix() + ROLE_LIST_KEY_PREFIX;
@@ -26,6 +26,8 @@ public class UserServiceImpl implements UserService {
   private final UserMapper userMapper;
   private final ReferenceResolver resolver;
   private final PasswordEncoder passwordEncoder;
+  private final EffectivePrivilegeCache privilegeCache;
+  private final RefreshTokenCache refreshTokenCache;
 
   @Transactional
   @Override
@@ -36,6 +38,7 @@ public class UserServiceImpl implements UserService {
     // attach roles by codes (if any)
     userMapper.setRolesByCodes(user, req.getRoles(), req.getTenantId(), resolver);
     user = userRepository.save(user);
+    privilegeCache.userChanged(user.getTenantId(), user.getId());
     return BaseResponse.success("User created", userMapper.toDto(user, resolver));
   }
 
@@ -48,15 +51,19 @@ public class UserServiceImpl implements UserService {
     user = userRepository.save(user);
     // roles changes typically go via GrantService, but if you pass role codes in Update, you can:
     // userMapper.setRolesByCodes(user, req.getRoles(), user.getTenantId(), resolver);
+    privilegeCache.userChanged(user.getTenantId(), user.getId());
+    refreshTokenCache.userChanged(user.getId());
     return BaseResponse.success("User updated", userMapper.toDto(user, resolver));
   }
 
   @Transactional
   @Override
   public BaseResponse<Void> delete(Long userId) {
-    if (userRepository.existsById(userId)) {
-      userRepository.deleteById(userId);
-    }
+    userRepository.findById(userId).ifPresent(user -> {
+      userRepository.delete(user);
+      privilegeCache.userChanged(user.getTenantId(), user.getId());
+      refreshTokenCache.userChanged(user.getId());
+    });
     return BaseResponse.success("User deleted", null);
   }
 
@@ -110,6 +117,7 @@ public class UserServiceImpl implements UserService {
         .orElseThrow(() -> new NoSuchElementException("User not found: " + userId));
     user.setEnabled(flag);
     userRepository.save(user);
+    refreshTokenCache.userChanged(userId);
     return BaseResponse.success(message, null);
   }
   private BaseResponse<Void> setLocked(Long userId, boolean flag, String message) {
@@ -117,6 +125,7 @@ public class UserServiceImpl implements UserService {
         .orElseThrow(() -> new NoSuchElementException("User not found: " + userId));
     user.setLocked(flag);
     userRepository.save(user);
+    refreshTokenCache.userChanged(userId);
     return BaseResponse.success(message, null);
   }
 }
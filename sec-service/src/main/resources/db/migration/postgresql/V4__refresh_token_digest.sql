@@ -0,0 +1,22 @@
+-- ==============
+-- REFRESH TOKENS: store SHA-256 digests instead of the raw token
+-- ==============
+ALTER TABLE refresh_tokens ADD COLUMN IF NOT EXISTS token_hash BYTEA;
+
+UPDATE refresh_tokens
+   SET token_hash = sha256(convert_to(token, 'UTF8'))
+ WHERE token_hash IS NULL;
+
+ALTER TABLE refresh_tokens ALTER COLUMN token_hash SET NOT NULL;
+ALTER TABLE refresh_tokens ADD CONSTRAINT ck_refresh_token_hash_len CHECK (octet_length(token_hash) = 32);
+
+DROP INDEX IF EXISTS ux_refresh_tokens_token;
+ALTER TABLE refresh_tokens DROP COLUMN IF EXISTS token;
+
+-- Covering index: validation is an index-only scan on (token_hash) returning everything it needs.
+CREATE UNIQUE INDEX IF NOT EXISTS ux_refresh_tokens_hash
+    ON refresh_tokens (token_hash) INCLUDE (id, user_id, expires_at, revoked_at);
+
+-- Revocation filter warm-up reads only revoked, still-live tokens.
+CREATE INDEX IF NOT EXISTS ix_refresh_tokens_revoked_live
+    ON refresh_tokens (expires_at) INCLUDE (token_hash) WHERE revoked_at IS NOT NULL;
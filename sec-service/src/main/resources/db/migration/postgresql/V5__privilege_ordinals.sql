@@ -0,0 +1,52 @@
+-- ==============
+-- PRIVILEGE ORDINALS: dense per-tenant index used by compiled privilege bitsets
+-- ==============
+ALTER TABLE privileges ADD COLUMN IF NOT EXISTS ordinal INTEGER;
+
+UPDATE privileges p
+   SET ordinal = o.rn
+  FROM (SELECT id, (ROW_NUMBER() OVER (PARTITION BY tenant_id ORDER BY id) - 1)::INTEGER AS rn
+          FROM privileges) o
+ WHERE p.id = o.id
+   AND p.ordinal IS NULL;
+
+ALTER TABLE privileges ALTER COLUMN ordinal SET NOT NULL;
+ALTER TABLE privileges ADD CONSTRAINT ck_priv_ordinal CHECK (ordinal >= 0);
+CREATE UNIQUE INDEX IF NOT EXISTS ux_privileges_tenant_ordinal ON privileges (tenant_id, ordinal);
+
+-- assign the next ordinal of the tenant; the advisory lock serialises concurrent inserts per tenant
+CREATE OR REPLACE FUNCTION assign_privilege_ordinal()
+RETURNS TRIGGER AS $$
+BEGIN
+  IF NEW.ordinal IS NULL THEN
+    PERFORM pg_advisory_xact_lock(hashtext('privileges:' || NEW.tenant_id::text));
+    SELECT COALESCE(MAX(ordinal) + 1, 0) INTO NEW.ordinal FROM privileges WHERE tenant_id = NEW.tenant_id;
+  END IF;
+  RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS trg_priv_assign_ordinal ON privileges;
+CREATE TRIGGER trg_priv_assign_ordinal
+BEFORE INSERT ON privileges
+FOR EACH ROW EXECUTE FUNCTION assign_privilege_ordinal();
+
+-- =========
+-- MATERIALIZED VIEW: snapshot of effective privileges for bulk reporting.
+-- Refreshed by EffectivePrivilegeSnapshotJob when security.privileges.snapshot.enabled=true.
+-- =========
+CREATE MATERIALIZED VIEW IF NOT EXISTS effective_privileges_mv AS
+SELECT DISTINCT
+    user_id,
+    tenant_id,
+    privilege_id,
+    code,
+    resource,
+    action
+FROM effective_privileges
+WHERE is_effective = TRUE
+WITH DATA;
+
+-- required by REFRESH ... CONCURRENTLY
+CREATE UNIQUE INDEX IF NOT EXISTS ux_effective_privileges_mv
+    ON effective_privileges_mv (tenant_id, user_id, privilege_id);
@@ -0,0 +1,130 @@
+package com.ejada.sec.security;
+
+import com.ejada.sec.config.LoginProtectionProperties;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class LoginThrottleTest {
+
+  private static final UUID TENANT = UUID.fromString("00000000-0000-0000-0000-0000000000aa");
+  private static final String IP = "203.0.113.7";
+
+  private final StringRedisTemplate redis = mock(StringRedisTemplate.class);
+  private final LoginProtectionProperties props = new LoginProtectionProperties();
+  private final LoginThrottle throttle = new LoginThrottle(redis, () -> "shared:", props);
+
+  @Test
+  void attemptIsCountedInTheClientsWindow() {
+    when(check()).thenReturn(0L);
+
+    throttle.checkAttempt(IP, TENANT, "Alice");
+
+    verify(redis).execute(any(), eq(List.of(
+            "shared:login:ip:" + IP + ":lock",
+            "shared:login:acct:" + TENANT + ":alice:lock",
+            "shared:login:ip:" + IP + ":attempts")),
+        anyString(), eq("60000"), eq("30"), anyString());
+  }
+
+  @Test
+  void fullWindowRejectsAndIsRememberedLocally() {
+    when(check()).thenReturn(12_000L);
+
+    LoginThrottledException first = assertThrows(LoginThrottledException.class,
+        () -> throttle.checkAttempt(IP, TENANT, "alice"));
+    assertEquals(Duration.ofMillis(12_000), first.getRetryAfter());
+
+    assertThrows(LoginThrottledException.class, () -> throttle.checkAttempt(IP, TENANT, "bob"));
+    verify(redis, times(1)).execute(any(), anyList(), any(Object[].class));
+  }
+
+  @Test
+  void clientsBehindTheSameProxyAreThrottledSeparately() {
+    when(check()).thenReturn(12_000L);
+    assertThrows(LoginThrottledException.class, () -> throttle.checkAttempt(IP, TENANT, "alice"));
+
+    when(check()).thenReturn(0L);
+    assertDoesNotThrow(() -> throttle.checkAttempt("198.51.100.4", TENANT, "alice"));
+  }
+
+  @Test
+  void failureOverTheLimitLocksIpAndAccountWithBackoff() {
+    when(failure()).thenReturn(30_000L);
+
+    throttle.recordFailure(IP, TENANT, "alice");
+
+    verify(redis).execute(any(), eq(List.of(
+            "shared:login:ip:" + IP + ":failures", "shared:login:ip:" + IP + ":lock", "shared:login:ip:" + IP + ":strikes")),
+        anyString(), eq("900000"), eq("50"), anyString(), eq("30000"), eq("3600000"), eq("86400000"));
+    verify(redis).execute(any(), eq(List.of(
+            "shared:login:acct:" + TENANT + ":alice:failures",
+            "shared:login:acct:" + TENANT + ":alice:lock",
+            "shared:login:acct:" + TENANT + ":alice:strikes")),
+        anyString(), eq("900000"), eq("5"), anyString(), eq("30000"), eq("3600000"), eq("86400000"));
+    // both keys are now blocked locally, so no further Redis round-trip is needed
+    assertThrows(LoginThrottledException.class, () -> throttle.checkAttempt("198.51.100.4", TENANT, "alice"));
+    assertThrows(LoginThrottledException.class, () -> throttle.checkAttempt(IP, TENANT, "bob"));
+    verify(redis, times(2)).execute(any(), anyList(), any(Object[].class));
+  }
+
+  @Test
+  void successClearsTheAccountLockout() {
+    when(failure()).thenReturn(0L, 30_000L);
+    throttle.recordFailure(IP, TENANT, "alice");
+    when(check()).thenReturn(0L);
+
+    throttle.recordSuccess(TENANT, "alice");
+
+    verify(redis).delete(List.of(
+        "shared:login:acct:" + TENANT + ":alice:failures", "shared:login:acct:" + TENANT + ":alice:strikes"));
+    assertDoesNotThrow(() -> throttle.checkAttempt("198.51.100.4", TENANT, "alice"));
+  }
+
+  @Test
+  void redisOutageFailsOpen() {
+    when(check()).thenThrow(new QueryTimeoutException("down"));
+
+    assertDoesNotThrow(() -> throttle.checkAttempt(IP, TENANT, "alice"));
+  }
+
+  @Test
+  void missingClientAddressIsNotPooledUnderASharedKey() {
+    assertThrows(IllegalArgumentException.class, () -> throttle.checkAttempt(null, TENANT, "alice"));
+    verifyNoInteractions(redis);
+  }
+
+  @Test
+  void disabledThrottleNeverTouchesRedis() {
+    props.setThrottleEnabled(false);
+
+    throttle.checkAttempt(null, TENANT, "alice");
+    throttle.recordFailure(IP, TENANT, "alice");
+
+    verifyNoInteractions(redis);
+  }
+
+  private Long check() {
+    return redis.execute(scriptReturning(), argThat(keys -> keys.size() == 3 && keys.get(2).endsWith(":attempts")),
+        any(Object[].class));
+  }
+
+  private Long failure() {
+    return redis.execute(scriptReturning(), argThat(keys -> keys.size() == 3 && keys.get(0).endsWith(":failures")),
+        any(Object[].class));
+  }
+
+  @SuppressWarnings("unchecked")
+  private static RedisScript<Long> scriptReturning() {
+    return any(RedisScript.class);
+  }
+}
@@ -0,0 +1,92 @@
+package com.ejada.sec.security;
+
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Capacity-planning benchmark for password hashing. Not a unit test; run manually:
+ *
+ * <pre>
+ * mvn -q test-compile exec:java -Dexec.classpathScope=test \
+ *   -Dexec.mainClass=com.ejada.sec.security.PasswordHashBenchmark \
+ *   -Dthreads=4 -Dduration=10s -Dtarget=100ms
+ * </pre>
+ *
+ * <p>Reports single-hash latency and sustained hashes per second per core for a range of
+ * BCrypt strengths and Argon2id settings, plus the costs the start-up calibration would
+ * pick for {@code target}. Login peak capacity per node is roughly
+ * {@code hashes/s/core * cores given to security.login.hashing.threads}.</p>
+ */
+public final class PasswordHashBenchmark {
+
+  private PasswordHashBenchmark() {
+  }
+
+  public static void main(String[] args) throws Exception {
+    int threads = Integer.getInteger("threads", Runtime.getRuntime().availableProcessors());
+    Duration duration = Duration.parse("PT" + System.getProperty("duration", "10s"));
+    Duration target = Duration.ofMillis(Long.parseLong(System.getProperty("target", "100ms").replace("ms", "")));
+
+    Map<String, PasswordEncoder> configs = new LinkedHashMap<>();
+    for (int strength = 10; strength <= 13; strength++) {
+      configs.put("bcrypt-" + strength, new BCryptPasswordEncoder(strength));
+    }
+    for (int memoryKb : new int[] {19_456, 47_104}) {
+      for (int iterations = 1; iterations <= 3; iterations++) {
+        configs.put("argon2id-m" + (memoryKb / 1024) + "M-t" + iterations,
+            PasswordHashCalibrator.argon2(memoryKb, 1, iterations));
+      }
+    }
+
+    System.out.printf("%-22s %12s %14s %16s%n", "config", "latency ms", "hashes/s", "hashes/s/core");
+    for (Map.Entry<String, PasswordEncoder> config : configs.entrySet()) {
+      Duration latency = PasswordHashCalibrator.measure(config.getValue());
+      double throughput = throughput(config.getValue(), threads, duration);
+      System.out.printf("%-22s %12d %14.1f %16.1f%n",
+          config.getKey(), latency.toMillis(), throughput, throughput / threads);
+    }
+
+    System.out.printf("%ncalibrated for %d ms: bcrypt strength=%d, argon2id (19 MiB) iterations=%d%n",
+        target.toMillis(),
+        PasswordHashCalibrator.bcryptStrength(target, 10, 16),
+        PasswordHashCalibrator.argon2Iterations(target, 19_456, 1, 1, 10));
+  }
+
+  private static double throughput(PasswordEncoder encoder, int threads, Duration duration) throws Exception {
+    AtomicBoolean running = new AtomicBoolean(true);
+    ExecutorService pool = Executors.newFixedThreadPool(threads);
+    try {
+      List<Future<Long>> counts = new ArrayList<>();
+      long started = System.nanoTime();
+      for (int i = 0; i < threads; i++) {
+        counts.add(pool.submit(() -> {
+          long n = 0;
+          while (running.get()) {
+            encoder.encode("benchmark-password-" + n);
+            n++;
+          }
+          return n;
+        }));
+      }
+      Thread.sleep(duration.toMillis());
+      running.set(false);
+      long total = 0;
+      for (Future<Long> count : counts) {
+        total += count.get();
+      }
+      return total / ((System.nanoTime() - started) / 1e9);
+    } finally {
+      pool.shutdownNow();
+    }
+  }
+}
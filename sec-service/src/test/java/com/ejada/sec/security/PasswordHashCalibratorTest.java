@@ -0,0 +1,41 @@
+package com.ejada.sec.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PasswordHashCalibratorTest {
+
+  @Test
+  void unreachableTargetKeepsTheMinimumCost() {
+    assertEquals(4, PasswordHashCalibrator.bcryptStrength(Duration.ZERO, 4, 6));
+    assertEquals(1, PasswordHashCalibrator.argon2Iterations(Duration.ZERO, 1024, 1, 1, 3));
+  }
+
+  @Test
+  void generousTargetIsClampedToTheMaximumCost() {
+    assertEquals(6, PasswordHashCalibrator.bcryptStrength(Duration.ofMinutes(1), 4, 6));
+    assertEquals(3, PasswordHashCalibrator.argon2Iterations(Duration.ofMinutes(1), 1024, 1, 1, 3));
+  }
+
+  @Test
+  void calibratedCostStaysWithinBounds() {
+    int strength = PasswordHashCalibrator.bcryptStrength(Duration.ofMillis(5), 4, 8);
+    assertTrue(strength >= 4 && strength <= 8);
+  }
+
+  @Test
+  void argon2EncoderUsesTheGivenParameters() {
+    String hash = PasswordHashCalibrator.argon2(1024, 1, 2).encode("secret");
+
+    assertTrue(hash.startsWith("$argon2id$v=19$m=1024,t=2,p=1$"));
+    assertTrue(PasswordHashCalibrator.argon2(1024, 1, 2).matches("secret", hash));
+  }
+
+  @Test
+  void measureReportsAPositiveDuration() {
+    assertFalse(PasswordHashCalibrator.measure(PasswordHashCalibrator.argon2(1024, 1, 1)).isNegative());
+  }
+}
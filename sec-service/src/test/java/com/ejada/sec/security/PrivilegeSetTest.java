@@ -0,0 +1,74 @@
+package com.ejada.sec.security;
+
+import com.ejada.sec.domain.Privilege;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PrivilegeSetTest {
+
+  @Test
+  void bytesAreLittleEndianByOrdinal() {
+    PrivilegeSet set = PrivilegeSet.of(List.of(0, 9, 17));
+
+    // ordinal 0 -> byte 0 bit 0, ordinal 9 -> byte 1 bit 1, ordinal 17 -> byte 2 bit 1
+    assertArrayEquals(new byte[] {0x01, 0x02, 0x02}, set.toByteArray());
+    assertEquals(3, set.size());
+    assertTrue(set.contains(9));
+    assertFalse(set.contains(8));
+    assertFalse(set.contains(-1));
+    assertFalse(set.contains(1_000));
+  }
+
+  @Test
+  void base64IsUrlSafeUnpaddedAndRoundTrips() {
+    PrivilegeSet set = PrivilegeSet.of(Set.of(3, 62, 63, 200));
+
+    String encoded = set.toBase64();
+
+    assertFalse(encoded.contains("=") || encoded.contains("+") || encoded.contains("/"));
+    assertEquals(set, PrivilegeSet.fromBase64(encoded));
+    assertEquals(List.of(3, 62, 63, 200), PrivilegeSet.fromBase64(encoded).ordinals().boxed().toList());
+  }
+
+  @Test
+  void emptySetEncodesToEmptyString() {
+    assertEquals("", PrivilegeSet.of(List.of()).toBase64());
+    assertSame(PrivilegeSet.EMPTY, PrivilegeSet.fromBase64(""));
+    assertTrue(PrivilegeSet.EMPTY.isEmpty());
+  }
+
+  @Test
+  void dictionaryTranslatesOrdinalsAndSkipsUnknownOnes() {
+    PrivilegeDictionary dictionary = PrivilegeDictionary.of(List.of(
+        privilege(1L, 2, "USER_READ"), privilege(2L, 0, "ROLE_READ"), privilege(3L, 5, "USER_CREATE")));
+
+    assertEquals(List.of("ROLE_READ", "USER_READ"), dictionary.codes(PrivilegeSet.of(List.of(0, 2, 3, 64))));
+    assertEquals(5, dictionary.ordinalOf("USER_CREATE"));
+    assertEquals(-1, dictionary.ordinalOf("MISSING"));
+    assertEquals(Arrays.asList("ROLE_READ", null, "USER_READ", null, null, "USER_CREATE"),
+        dictionary.codesByOrdinal());
+  }
+
+  @Test
+  void dictionaryVersionDependsOnOrdinalsAndCodesOnly() {
+    PrivilegeDictionary a = PrivilegeDictionary.of(List.of(privilege(1L, 0, "A"), privilege(2L, 1, "B")));
+    PrivilegeDictionary reordered = PrivilegeDictionary.of(List.of(privilege(9L, 1, "B"), privilege(8L, 0, "A")));
+    PrivilegeDictionary recoded = PrivilegeDictionary.of(List.of(privilege(1L, 0, "A"), privilege(2L, 1, "C")));
+    PrivilegeDictionary extended = PrivilegeDictionary.of(
+        List.of(privilege(1L, 0, "A"), privilege(2L, 1, "B"), privilege(3L, 2, "C")));
+
+    assertEquals(a.version(), reordered.version());
+    assertNotEquals(a.version(), recoded.version());
+    assertNotEquals(a.version(), extended.version());
+    assertTrue(a.version() >= 0);
+  }
+
+  private static Privilege privilege(long id, int ordinal, String code) {
+    return Privilege.builder().id(id).ordinal(ordinal).code(code).resource("R").action(code).build();
+  }
+}
@@ -0,0 +1,107 @@
+package com.ejada.sec.service.impl;
+
+import com.ejada.sec.domain.User;
+import com.ejada.sec.dto.AuthRequest;
+import com.ejada.sec.repository.UserRepository;
+import com.ejada.sec.security.LoginThrottle;
+import com.ejada.sec.security.LoginThrottledException;
+import com.ejada.sec.security.PasswordHashingPool;
+import com.ejada.sec.service.RefreshTokenService;
+import com.ejada.sec.service.TokenIssuer;
+import com.ejada.sec.service.UserService;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class AuthServiceImplTest {
+
+  private static final UUID TENANT = UUID.fromString("00000000-0000-0000-0000-0000000000aa");
+  private static final String LEGACY = "{bcrypt}$2a$10$legacy";
+  private static final String CURRENT = "{argon2id}$argon2id$current";
+
+  private final UserRepository userRepository = mock(UserRepository.class);
+  private final PasswordEncoder passwordEncoder = mock(PasswordEncoder.class);
+  private final PasswordHashingPool hashingPool = mock(PasswordHashingPool.class);
+  private final AuthServiceImpl service = new AuthServiceImpl(userRepository, mock(UserService.class),
+      mock(RefreshTokenService.class), passwordEncoder, mock(TokenIssuer.class), mock(LoginThrottle.class), hashingPool);
+
+  AuthServiceImplTest() {
+    when(hashingPool.verify(any())).thenAnswer(inv -> inv.<BooleanSupplier>getArgument(0).getAsBoolean());
+    when(hashingPool.run(any())).thenAnswer(inv -> inv.<Supplier<?>>getArgument(0).get());
+    when(passwordEncoder.encode(anyString())).thenReturn(CURRENT);
+    when(passwordEncoder.upgradeEncoding(LEGACY)).thenReturn(true);
+  }
+
+  @Test
+  void outdatedHashIsReplacedAfterASuccessfulLogin() {
+    givenUser(LEGACY, true);
+
+    service.login(request(), "203.0.113.7");
+
+    verify(userRepository).updatePasswordHash(7L, LEGACY, CURRENT);
+  }
+
+  @Test
+  void currentHashIsLeftAlone() {
+    givenUser(CURRENT, true);
+
+    service.login(request(), "203.0.113.7");
+
+    verify(passwordEncoder, never()).encode(anyString());
+    verify(userRepository, never()).updatePasswordHash(any(), any(), any());
+  }
+
+  @Test
+  void busyPoolNeverFailsTheLogin() {
+    givenUser(LEGACY, true);
+    doThrow(new LoginThrottledException("busy", Duration.ofSeconds(1))).when(hashingPool).run(any());
+
+    assertNotNull(service.login(request(), "203.0.113.7"));
+    verify(userRepository, never()).updatePasswordHash(any(), any(), any());
+  }
+
+  @Test
+  void failedUpdateNeverFailsTheLogin() {
+    givenUser(LEGACY, true);
+    doThrow(new QueryTimeoutException("down")).when(userRepository).updatePasswordHash(any(), any(), any());
+
+    assertNotNull(service.login(request(), "203.0.113.7"));
+  }
+
+  @Test
+  void failedCheckAgainstALegacyHashTakesAsLongAsTheDummy() {
+    when(passwordEncoder.matches(anyString(), eq(CURRENT))).thenAnswer(inv -> {
+      Thread.sleep(60);
+      return false;
+    });
+    service.initDummyHash();
+    givenUser(LEGACY, false);
+
+    long started = System.nanoTime();
+    assertThrows(NoSuchElementException.class, () -> service.login(request(), "203.0.113.7"));
+
+    assertTrue(Duration.ofNanos(System.nanoTime() - started).toMillis() >= 55);
+    verify(userRepository, never()).updatePasswordHash(any(), any(), any());
+  }
+
+  private void givenUser(String hash, boolean passwordMatches) {
+    User user = User.builder().id(7L).tenantId(TENANT).username("alice").passwordHash(hash).build();
+    when(userRepository.findLoginCandidates(TENANT, "alice")).thenReturn(List.of(user));
+    when(passwordEncoder.matches("secret", hash)).thenReturn(passwordMatches);
+  }
+
+  private static AuthRequest request() {
+    return AuthRequest.builder().tenantId(TENANT).identifier("alice").password("secret").build();
+  }
+}
@@ -0,0 +1,176 @@
+package com.ejada.sec.service.impl;
+
+import com.ejada.sec.security.PrivilegeDictionary;
+import com.ejada.sec.security.PrivilegeSet;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class EffectivePrivilegeCacheTest {
+
+  private static final UUID TENANT = UUID.fromString("00000000-0000-0000-0000-0000000000aa");
+  private static final String KEY = "shared:privs:" + TENANT + ":7";
+  private static final List<String> GENERATIONS = List.of("shared:privs:" + TENANT + ":gen", KEY + ":gen");
+
+  private final StringRedisTemplate redis = mock(StringRedisTemplate.class);
+  @SuppressWarnings("unchecked")
+  private final ValueOperations<String, String> values = mock(ValueOperations.class);
+  private final EffectivePrivilegeCache cache = new EffectivePrivilegeCache(
+      redis, () -> "shared:", "privs-changed", 100, Duration.ofMinutes(5), Duration.ofMinutes(30));
+  private final PrivilegeDictionary dictionary = PrivilegeDictionary.of(List.of());
+  private final AtomicInteger compilations = new AtomicInteger();
+
+  EffectivePrivilegeCacheTest() {
+    when(redis.opsForValue()).thenReturn(values);
+    when(values.multiGet(anyCollection())).thenReturn(Arrays.asList(null, null));
+  }
+
+  @AfterEach
+  void clearSynchronization() {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.clearSynchronization();
+    }
+  }
+
+  private Supplier<PrivilegeSet> compiler(Integer... ordinals) {
+    return () -> {
+      compilations.incrementAndGet();
+      return PrivilegeSet.of(List.of(ordinals));
+    };
+  }
+
+  @Test
+  void compiledSetIsCachedLocallyAndInRedisTaggedWithTheDictionaryVersion() {
+    PrivilegeSet first = cache.get(TENANT, 7L, dictionary, compiler(1, 4));
+    PrivilegeSet second = cache.get(TENANT, 7L, dictionary, compiler(9));
+
+    assertEquals(PrivilegeSet.of(List.of(1, 4)), first);
+    assertEquals(first, second);
+    assertEquals(1, compilations.get());
+    verify(values).set(KEY, "0.0:" + dictionary.version() + ":" + first.toBase64(), Duration.ofMinutes(30));
+  }
+
+  @Test
+  void redisEntryFromAnotherDictionaryVersionIsRecompiled() {
+    when(values.get(KEY)).thenReturn("0.0:" + (dictionary.version() + 1) + ":" + PrivilegeSet.of(List.of(2)).toBase64());
+
+    PrivilegeSet set = cache.get(TENANT, 7L, dictionary, compiler(3));
+
+    assertEquals(PrivilegeSet.of(List.of(3)), set);
+    assertEquals(1, compilations.get());
+  }
+
+  @Test
+  void redisEntryFromAnOlderGenerationIsRecompiledAndRewrittenWithTheCurrentOne() {
+    when(values.multiGet(GENERATIONS)).thenReturn(Arrays.asList("2", "3"));
+    when(values.get(KEY)).thenReturn("2.2:" + dictionary.version() + ":" + PrivilegeSet.of(List.of(2)).toBase64());
+
+    PrivilegeSet set = cache.get(TENANT, 7L, dictionary, compiler(3));
+
+    assertEquals(PrivilegeSet.of(List.of(3)), set);
+    verify(values).set(KEY, "2.3:" + dictionary.version() + ":" + set.toBase64(), Duration.ofMinutes(30));
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void grantChangeBumpsTheUserGenerationAndIsAnnounced() {
+    cache.get(TENANT, 7L, dictionary, compiler(1));
+
+    cache.userChanged(TENANT, 7L);
+    PrivilegeSet recompiled = cache.get(TENANT, 7L, dictionary, compiler(1, 2));
+
+    assertEquals(PrivilegeSet.of(List.of(1, 2)), recompiled);
+    assertEquals(2, compilations.get());
+    verify(redis).convertAndSend("privs-changed", "user:" + TENANT + ":7");
+    ArgumentCaptor<RedisCallback<Object>> pipeline = ArgumentCaptor.forClass(RedisCallback.class);
+    verify(redis).executePipelined(pipeline.capture());
+    StringRedisConnection con = mock(StringRedisConnection.class);
+    pipeline.getValue().doInRedis(con);
+    verify(con).incr(KEY + ":gen");
+    verify(con).pExpire(KEY + ":gen", Duration.ofMinutes(60).toMillis());
+    verify(con).del(KEY);
+  }
+
+  @Test
+  void tenantChangeBumpsTheTenantGeneration() {
+    cache.tenantChanged(TENANT);
+
+    verify(values).increment("shared:privs:" + TENANT + ":gen");
+    verify(redis).convertAndSend("privs-changed", "tenant:" + TENANT);
+  }
+
+  @Test
+  void setIsNotWrittenToRedisWhenItsGenerationCouldNotBeRead() {
+    when(values.multiGet(anyCollection())).thenThrow(new QueryTimeoutException("down"));
+
+    assertEquals(PrivilegeSet.of(List.of(1)), cache.get(TENANT, 7L, dictionary, compiler(1)));
+
+    verify(values, never()).set(anyString(), anyString(), any(Duration.class));
+  }
+
+  @Test
+  void grantChangeInsideATransactionIsAppliedAfterCommit() {
+    cache.get(TENANT, 7L, dictionary, compiler(1));
+    TransactionSynchronizationManager.initSynchronization();
+
+    cache.userChanged(TENANT, 7L);
+
+    verify(redis, never()).convertAndSend(anyString(), anyString());
+    assertEquals(PrivilegeSet.of(List.of(1)), cache.get(TENANT, 7L, dictionary, compiler(5)));
+
+    TransactionSynchronizationUtils.invokeAfterCommit(TransactionSynchronizationManager.getSynchronizations());
+
+    verify(redis).convertAndSend("privs-changed", "user:" + TENANT + ":7");
+    assertEquals(PrivilegeSet.of(List.of(5)), cache.get(TENANT, 7L, dictionary, compiler(5)));
+  }
+
+  @Test
+  void changeMessagesFromOtherInstancesEvictLocalEntries() {
+    UUID other = UUID.randomUUID();
+    cache.get(TENANT, 7L, dictionary, compiler(1));
+    cache.get(TENANT, 8L, dictionary, compiler(1));
+    cache.get(other, 9L, dictionary, compiler(1));
+    compilations.set(0);
+
+    cache.handle("privs-changed", "users:" + TENANT + ":7,8");
+    cache.handle("privs-changed", "tenant:" + other);
+    cache.handle("privs-changed", "garbage");
+    cache.get(TENANT, 7L, dictionary, compiler(1));
+    cache.get(TENANT, 8L, dictionary, compiler(1));
+    cache.get(other, 9L, dictionary, compiler(1));
+
+    assertEquals(3, compilations.get());
+    assertEquals(3, cache.changeCount());
+  }
+
+  @Test
+  void setCompiledWhileAChangeArrivesIsNotCached() {
+    cache.get(TENANT, 7L, dictionary, () -> {
+      cache.handle("privs-changed", "user:" + TENANT + ":7");
+      return PrivilegeSet.of(List.of(1));
+    });
+
+    cache.get(TENANT, 7L, dictionary, compiler(2));
+
+    assertEquals(1, compilations.get());
+    verify(values, times(1)).set(anyString(), anyString(), any(Duration.class));
+  }
+}
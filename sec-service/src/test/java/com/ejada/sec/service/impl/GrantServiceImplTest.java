@@ -0,0 +1,144 @@
+package com.ejada.sec.service.impl;
+
+import com.ejada.sec.domain.Privilege;
+import com.ejada.sec.domain.Role;
+import com.ejada.sec.dto.BulkGrantResult;
+import com.ejada.sec.dto.BulkRolePrivilegesRequest;
+import com.ejada.sec.dto.BulkUserRolesRequest;
+import com.ejada.sec.repository.GrantBulkRepository;
+import com.ejada.sec.repository.PrivilegeRepository;
+import com.ejada.sec.repository.RoleRepository;
+import com.ejada.sec.repository.UserPrivilegeRepository;
+import com.ejada.sec.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class GrantServiceImplTest {
+
+  private static final UUID TENANT = UUID.fromString("00000000-0000-0000-0000-0000000000aa");
+
+  private final UserRepository userRepository = mock(UserRepository.class);
+  private final RoleRepository roleRepository = mock(RoleRepository.class);
+  private final PrivilegeRepository privilegeRepository = mock(PrivilegeRepository.class);
+  private final EffectivePrivilegeCache privilegeCache = mock(EffectivePrivilegeCache.class);
+  private final GrantBulkRepository bulkRepository = mock(GrantBulkRepository.class);
+  private final GrantServiceImpl service = new GrantServiceImpl(userRepository, roleRepository,
+      privilegeRepository, mock(UserPrivilegeRepository.class), privilegeCache, bulkRepository);
+
+  GrantServiceImplTest() {
+    when(roleRepository.findAllByTenantIdAndCodeIn(eq(TENANT), anyCollection())).thenReturn(List.of(
+        Role.builder().id(1L).tenantId(TENANT).code("ADMIN").build(),
+        Role.builder().id(2L).tenantId(TENANT).code("AUDITOR").build()));
+    when(privilegeRepository.findAllByTenantIdAndCodeIn(eq(TENANT), anyCollection())).thenReturn(List.of(
+        Privilege.builder().id(10L).tenantId(TENANT).code("USER_READ").build(),
+        Privilege.builder().id(11L).tenantId(TENANT).code("USER_UPDATE").build()));
+  }
+
+  @Test
+  void bulkGrantReportsOnlyInsertedPairsAndInvalidatesTenant() {
+    when(bulkRepository.insertRolePrivileges(Set.of(1L, 2L), Set.of(10L, 11L), null))
+        .thenReturn(Map.of(2L, List.of(10L, 11L)));
+
+    BulkGrantResult result = service.bulkGrantPrivilegesToRoles(rolePrivileges());
+
+    assertEquals(4, result.getRequested());
+    assertEquals(2, result.getChanged());
+    assertEquals(2, result.getUnchanged());
+    assertEquals(Map.of("AUDITOR", List.of("USER_READ", "USER_UPDATE")), result.getChanges());
+    verify(privilegeCache).tenantChanged(TENANT);
+  }
+
+  @Test
+  void bulkGrantWithNothingNewLeavesCacheAlone() {
+    when(bulkRepository.insertRolePrivileges(any(), any(), isNull())).thenReturn(Map.of());
+
+    BulkGrantResult result = service.bulkGrantPrivilegesToRoles(rolePrivileges());
+
+    assertEquals(0, result.getChanged());
+    assertEquals(4, result.getUnchanged());
+    assertTrue(result.getChanges().isEmpty());
+    verifyNoInteractions(privilegeCache);
+  }
+
+  @Test
+  void bulkRevokeReportsDeletedPairs() {
+    when(bulkRepository.deleteRolePrivileges(Set.of(1L, 2L), Set.of(10L, 11L)))
+        .thenReturn(Map.of(1L, List.of(11L)));
+
+    BulkGrantResult result = service.bulkRevokePrivilegesFromRoles(rolePrivileges());
+
+    assertEquals(1, result.getChanged());
+    assertEquals(3, result.getUnchanged());
+    assertEquals(Map.of("ADMIN", List.of("USER_UPDATE")), result.getChanges());
+    verify(privilegeCache).tenantChanged(TENANT);
+  }
+
+  @Test
+  void unknownCodesAreRejectedBeforeAnyWrite() {
+    BulkRolePrivilegesRequest req = BulkRolePrivilegesRequest.builder().tenantId(TENANT)
+        .roleCodes(List.of("ADMIN", "GHOST")).privilegeCodes(List.of("USER_READ")).build();
+
+    NoSuchElementException e = assertThrows(NoSuchElementException.class,
+        () -> service.bulkGrantPrivilegesToRoles(req));
+
+    assertTrue(e.getMessage().contains("GHOST"));
+    verifyNoInteractions(bulkRepository, privilegeCache);
+  }
+
+  @Test
+  void bulkAssignInvalidatesOnlyUsersThatChanged() {
+    when(userRepository.findIdsByTenantIdAndIdIn(eq(TENANT), anyCollection())).thenReturn(List.of(100L, 101L, 102L));
+    when(bulkRepository.insertUserRoles(Set.of(100L, 101L, 102L), Set.of(1L, 2L)))
+        .thenReturn(Map.of(101L, List.of(1L)));
+
+    BulkGrantResult result = service.bulkAssignRolesToUsers(userRoles(100L, 101L, 102L));
+
+    assertEquals(6, result.getRequested());
+    assertEquals(1, result.getChanged());
+    assertEquals(Map.of("101", List.of("ADMIN")), result.getChanges());
+    verify(privilegeCache).usersChanged(TENANT, Set.of(101L));
+  }
+
+  @Test
+  void bulkRevokeRolesInvalidatesRevokedUsers() {
+    when(userRepository.findIdsByTenantIdAndIdIn(eq(TENANT), anyCollection())).thenReturn(List.of(100L, 101L));
+    when(bulkRepository.deleteUserRoles(Set.of(100L, 101L), Set.of(1L, 2L)))
+        .thenReturn(Map.of(100L, List.of(1L, 2L), 101L, List.of(2L)));
+
+    BulkGrantResult result = service.bulkRevokeRolesFromUsers(userRoles(100L, 101L));
+
+    assertEquals(3, result.getChanged());
+    assertEquals(1, result.getUnchanged());
+    verify(privilegeCache).usersChanged(TENANT, Set.of(100L, 101L));
+  }
+
+  @Test
+  void usersOfAnotherTenantAreRejected() {
+    when(userRepository.findIdsByTenantIdAndIdIn(eq(TENANT), anyCollection())).thenReturn(List.of(100L));
+
+    NoSuchElementException e = assertThrows(NoSuchElementException.class,
+        () -> service.bulkAssignRolesToUsers(userRoles(100L, 999L)));
+
+    assertEquals("User not found: [999]", e.getMessage());
+    verifyNoInteractions(bulkRepository, privilegeCache);
+  }
+
+  private static BulkRolePrivilegesRequest rolePrivileges() {
+    return BulkRolePrivilegesRequest.builder().tenantId(TENANT)
+        .roleCodes(List.of("ADMIN", "AUDITOR")).privilegeCodes(List.of("USER_READ", "USER_UPDATE")).build();
+  }
+
+  private static BulkUserRolesRequest userRoles(Long... userIds) {
+    return BulkUserRolesRequest.builder().tenantId(TENANT)
+        .userIds(List.of(userIds)).roleCodes(List.of("ADMIN", "AUDITOR")).build();
+  }
+}
@@ -0,0 +1,88 @@
+package com.ejada.sec.service.impl;
+
+import com.ejada.sec.repository.RefreshTokenRepository;
+import com.ejada.sec.service.RefreshTokenService.Subject;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class RefreshTokenCacheTest {
+
+  private static final UUID TENANT = UUID.randomUUID();
+
+  private final RefreshTokenRepository repo = mock(RefreshTokenRepository.class);
+  private final StringRedisTemplate redis = mock(StringRedisTemplate.class);
+  private final RefreshTokenCache cache =
+      new RefreshTokenCache(repo, redis, "revoked", 100, Duration.ofMinutes(5), 1000, 0.001);
+  private final Instant now = Instant.now();
+  private final Instant expiresAt = now.plusSeconds(600);
+
+  @Test
+  void cachedSubjectIsReturnedUntilTheTokenExpires() {
+    byte[] digest = RefreshTokenServiceImpl.digest("t1");
+    Subject subject = new Subject(7L, TENANT, "alice");
+    cache.put(digest, subject, expiresAt);
+
+    assertEquals(subject, cache.find(digest, now));
+    assertNull(cache.find(digest, expiresAt.plusSeconds(1)));
+  }
+
+  @Test
+  void revocationFromAnotherInstanceBypassesTheCache() {
+    byte[] digest = RefreshTokenServiceImpl.digest("t1");
+    cache.put(digest, new Subject(7L, TENANT, "alice"), expiresAt);
+
+    cache.handle("revoked", HexFormat.of().formatHex(digest));
+
+    assertNull(cache.find(digest, now));
+    verify(redis, never()).convertAndSend(any(), any());
+  }
+
+  @Test
+  void userChangeEvictsOnlyThatUsersTokensAndIsAnnounced() {
+    byte[] alice1 = RefreshTokenServiceImpl.digest("a1");
+    byte[] alice2 = RefreshTokenServiceImpl.digest("a2");
+    byte[] bob = RefreshTokenServiceImpl.digest("b1");
+    cache.put(alice1, new Subject(7L, TENANT, "alice"), expiresAt);
+    cache.put(alice2, new Subject(7L, TENANT, "alice"), expiresAt);
+    cache.put(bob, new Subject(8L, TENANT, "bob"), expiresAt);
+
+    cache.userChanged(7L);
+
+    assertNull(cache.find(alice1, now));
+    assertNull(cache.find(alice2, now));
+    assertNotNull(cache.find(bob, now));
+    verify(redis).convertAndSend("revoked", "user:7");
+  }
+
+  @Test
+  void userChangeMessageFromAnotherInstanceEvictsLocally() {
+    byte[] digest = RefreshTokenServiceImpl.digest("t1");
+    cache.put(digest, new Subject(7L, TENANT, "alice"), expiresAt);
+
+    cache.handle("revoked", "user:7");
+    cache.handle("revoked", "user:not-a-number");
+
+    assertNull(cache.find(digest, now));
+  }
+
+  @Test
+  void rebuildKeepsRevocationsFromTheDatabase() {
+    byte[] digest = RefreshTokenServiceImpl.digest("t1");
+    when(repo.findRevokedTokenHashes(any())).thenReturn(List.of(digest));
+    cache.rebuildRevocationFilter();
+
+    cache.put(digest, new Subject(7L, TENANT, "alice"), expiresAt);
+
+    assertNull(cache.find(digest, now));
+  }
+}
@@ -0,0 +1,118 @@
+package com.ejada.sec.service.impl;
+
+import com.ejada.sec.domain.RefreshToken;
+import com.ejada.sec.domain.RefreshTokenLookup;
+import com.ejada.sec.domain.User;
+import com.ejada.sec.repository.RefreshTokenRepository;
+import com.ejada.sec.repository.UserRepository;
+import com.ejada.sec.service.RefreshTokenService.Subject;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class RefreshTokenServiceImplTest {
+
+  private static final UUID TENANT = UUID.fromString("00000000-0000-0000-0000-000000000001");
+
+  private final RefreshTokenRepository repo = mock(RefreshTokenRepository.class);
+  private final UserRepository users = mock(UserRepository.class);
+  private final StringRedisTemplate redis = mock(StringRedisTemplate.class);
+  private final RefreshTokenCache cache =
+      new RefreshTokenCache(repo, redis, "revoked", 100, Duration.ofMinutes(5), 1000, 0.001);
+  private final RefreshTokenServiceImpl service = new RefreshTokenServiceImpl(repo, users, cache);
+
+  RefreshTokenServiceImplTest() {
+    ReflectionTestUtils.setField(service, "ttlSeconds", 3600L);
+  }
+
+  @Test
+  void digestIsSha256OfTheToken() {
+    // SHA-256("abc"), FIPS 180-2 test vector
+    assertEquals("ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad",
+        HexFormat.of().formatHex(RefreshTokenServiceImpl.digest("abc")));
+    assertEquals(32, RefreshTokenServiceImpl.digest(UUID.randomUUID().toString()).length);
+  }
+
+  @Test
+  void issuePersistsOnlyTheDigest() {
+    when(users.getReferenceById(7L)).thenReturn(User.builder().id(7L).build());
+
+    String token = service.issue(7L);
+
+    ArgumentCaptor<RefreshToken> saved = ArgumentCaptor.forClass(RefreshToken.class);
+    verify(repo).save(saved.capture());
+    assertArrayEquals(RefreshTokenServiceImpl.digest(token), saved.getValue().getTokenHash());
+    assertFalse(new String(saved.getValue().getTokenHash(), StandardCharsets.ISO_8859_1).contains(token));
+    assertEquals(Duration.ofHours(1), Duration.between(saved.getValue().getIssuedAt(), saved.getValue().getExpiresAt()));
+  }
+
+  @Test
+  void secondValidationIsServedFromTheCacheWithoutDatabaseAccess() {
+    byte[] hash = RefreshTokenServiceImpl.digest("t1");
+    when(repo.findLookupByTokenHash(any())).thenReturn(Optional.of(lookup(7L, true, false, null)));
+
+    Subject first = service.validate("t1");
+    Subject second = service.validate("t1");
+
+    assertEquals(new Subject(7L, TENANT, "alice"), first);
+    assertEquals(first, second);
+    verify(repo, times(1)).findLookupByTokenHash(hash);
+    verifyNoInteractions(users);
+  }
+
+  @Test
+  void revokedExpiredOrInactiveTokensAreRejected() {
+    when(repo.findLookupByTokenHash(RefreshTokenServiceImpl.digest("revoked")))
+        .thenReturn(Optional.of(lookup(1L, true, false, Instant.now())));
+    when(repo.findLookupByTokenHash(RefreshTokenServiceImpl.digest("disabled")))
+        .thenReturn(Optional.of(lookup(2L, false, false, null)));
+    when(repo.findLookupByTokenHash(RefreshTokenServiceImpl.digest("locked")))
+        .thenReturn(Optional.of(lookup(3L, true, true, null)));
+
+    assertThrows(NoSuchElementException.class, () -> service.validate("revoked"));
+    assertThrows(NoSuchElementException.class, () -> service.validate("disabled"));
+    assertThrows(NoSuchElementException.class, () -> service.validate("locked"));
+    assertThrows(NoSuchElementException.class, () -> service.validate("unknown"));
+  }
+
+  @Test
+  void revokeEvictsTheCachedEntryAndAnnouncesIt() {
+    byte[] hash = RefreshTokenServiceImpl.digest("t1");
+    when(repo.findLookupByTokenHash(hash)).thenReturn(Optional.of(lookup(7L, true, false, null)));
+    service.validate("t1");
+    when(repo.revokeByTokenHash(any(), any())).thenReturn(1);
+
+    service.revoke("t1");
+    when(repo.findLookupByTokenHash(hash)).thenReturn(Optional.of(lookup(7L, true, false, Instant.now())));
+
+    assertThrows(NoSuchElementException.class, () -> service.validate("t1"));
+    verify(redis).convertAndSend("revoked", HexFormat.of().formatHex(hash));
+  }
+
+  private static RefreshTokenLookup lookup(long userId, boolean enabled, boolean locked, Instant revokedAt) {
+    Instant expiresAt = Instant.now().plusSeconds(600);
+    return new RefreshTokenLookup() {
+      @Override public Long getId() { return 1L; }
+      @Override public Long getUserId() { return userId; }
+      @Override public UUID getTenantId() { return TENANT; }
+      @Override public String getUsername() { return "alice"; }
+      @Override public boolean isUserEnabled() { return enabled; }
+      @Override public boolean isUserLocked() { return locked; }
+      @Override public Instant getExpiresAt() { return expiresAt; }
+      @Override public Instant getRevokedAt() { return revokedAt; }
+    };
+  }
+}
@@ -1,5 +1,6 @@
 package com.ejada.common.context;
 
+import java.util.concurrent.Callable;
 import java.util.function.Supplier;
 
 /**
@@ -32,4 +33,45 @@ public interface ContextCarrier {
     AutoCloseable openUserScope(String id);
 
     void clearAll();
+
+    // Snapshot / propagation
+
+    /** Immutable snapshot of the current context, for hand-off to another thread. */
+    default RequestContext capture() {
+        return new RequestContext(getTenantId(), getCorrelationId(), getRequestId(), getUserId());
+    }
+
+    /**
+     * Run {@code task} with {@code context} as the current context and restore the
+     * previous one afterwards.
+     */
+    default void runWith(RequestContext context, Runnable task) {
+        RequestContext previous = capture();
+        restore(context);
+        try {
+            task.run();
+        } finally {
+            restore(previous);
+        }
+    }
+
+    /** Callable variant of {@link #runWith(RequestContext, Runnable)}. */
+    default <T> T callWith(RequestContext context, Callable<T> task) throws Exception {
+        RequestContext previous = capture();
+        restore(context);
+        try {
+            return task.call();
+        } finally {
+            restore(previous);
+        }
+    }
+
+    /** Replace the whole current context with {@code context} ({@code null} clears it). */
+    default void restore(RequestContext context) {
+        RequestContext ctx = context == null ? RequestContext.EMPTY : context;
+        setTenantId(ctx.tenantId());
+        setCorrelationId(ctx.correlationId());
+        setRequestId(ctx.requestId());
+        setUserId(ctx.userId());
+    }
 }
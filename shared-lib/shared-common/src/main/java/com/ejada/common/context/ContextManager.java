@@ -1,21 +1,23 @@
 package com.ejada.common.context;
 
 import java.util.Objects;
+import java.util.concurrent.Callable;
 import java.util.function.Supplier;
 
 /**
  * Facade over a pluggable {@link ContextCarrier}.  Provides static methods for
  * getting/setting tenant, correlation ID, request ID and user ID contexts.
- * Initially backed by a {@link ThreadLocalContextCarrier}, but can be replaced
+ * Initially backed by a {@link ScopedContextCarrier}, but can be replaced
  * via {@link #setContextCarrier(ContextCarrier)} for testing or alternative
- * context propagation mechanisms.
+ * context propagation mechanisms.  Use {@link ContextPropagation} to carry the
+ * context into executors and asynchronous callbacks.
  */
 public final class ContextManager {
 
     /**
-     * The current context carrier.  Defaults to a thread‑local implementation.
+     * The current context carrier.  Defaults to the single-record scoped implementation.
      */
-    private static volatile ContextCarrier CARRIER = new ThreadLocalContextCarrier();
+    private static volatile ContextCarrier CARRIER = new ScopedContextCarrier();
 
     private ContextManager() {
         // utility class
@@ -30,6 +32,43 @@ public final class ContextManager {
         CARRIER = Objects.requireNonNull(carrier, "carrier must not be null");
     }
 
+    /**
+     * The active context carrier.
+     */
+    public static ContextCarrier getContextCarrier() {
+        return CARRIER;
+    }
+
+    // ==================== Snapshot / propagation ====================
+
+    /**
+     * Immutable snapshot of the current context.
+     */
+    public static RequestContext capture() {
+        return CARRIER.capture();
+    }
+
+    /**
+     * Replace the whole current context; {@code null} clears it.
+     */
+    public static void restore(RequestContext context) {
+        CARRIER.restore(context);
+    }
+
+    /**
+     * Run a task with the given context and restore the previous one afterwards.
+     */
+    public static void runWith(RequestContext context, Runnable task) {
+        CARRIER.runWith(context, task);
+    }
+
+    /**
+     * Call a task with the given context and restore the previous one afterwards.
+     */
+    public static <T> T callWith(RequestContext context, Callable<T> task) throws Exception {
+        return CARRIER.callWith(context, task);
+    }
+
     // ==================== Tenant ====================
 
     public static final class Tenant {
@@ -0,0 +1,93 @@
+package com.ejada.common.context;
+
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Supplier;
+
+/**
+ * Helpers that capture the caller's {@link RequestContext} and re-establish it where the
+ * work actually runs (pooled threads, virtual threads, {@code CompletableFuture} stages).
+ *
+ * <pre>{@code
+ * CompletableFuture.supplyAsync(this::load, ContextPropagation.executor(executor));
+ * }</pre>
+ */
+public final class ContextPropagation {
+
+    private ContextPropagation() {
+        // utility class
+    }
+
+    /**
+     * Wrap a runnable so it runs with the context captured now.
+     */
+    public static Runnable wrap(Runnable task) {
+        Objects.requireNonNull(task, "task must not be null");
+        RequestContext context = ContextManager.capture();
+        if (context.isEmpty()) {
+            return task;
+        }
+        return () -> ContextManager.runWith(context, task);
+    }
+
+    /**
+     * Wrap a callable so it runs with the context captured now.
+     */
+    public static <T> Callable<T> wrapCallable(Callable<T> task) {
+        Objects.requireNonNull(task, "task must not be null");
+        RequestContext context = ContextManager.capture();
+        if (context.isEmpty()) {
+            return task;
+        }
+        return () -> ContextManager.callWith(context, task);
+    }
+
+    /**
+     * Wrap a supplier so it runs with the context captured now.
+     */
+    public static <T> Supplier<T> wrapSupplier(Supplier<T> supplier) {
+        Objects.requireNonNull(supplier, "supplier must not be null");
+        RequestContext context = ContextManager.capture();
+        if (context.isEmpty()) {
+            return supplier;
+        }
+        return () -> {
+            Object[] result = new Object[1];
+            ContextManager.runWith(context, () -> result[0] = supplier.get());
+            @SuppressWarnings("unchecked")
+            T value = (T) result[0];
+            return value;
+        };
+    }
+
+    /**
+     * Executor that propagates the submitter's context to every task.
+     */
+    public static Executor executor(Executor delegate) {
+        Objects.requireNonNull(delegate, "delegate must not be null");
+        if (delegate instanceof ContextPropagatingExecutorService || delegate instanceof ContextPropagatingExecutor) {
+            return delegate;
+        }
+        return new ContextPropagatingExecutor(delegate);
+    }
+
+    /**
+     * Executor service that propagates the submitter's context to every task.
+     */
+    public static ExecutorService executorService(ExecutorService delegate) {
+        Objects.requireNonNull(delegate, "delegate must not be null");
+        if (delegate instanceof ContextPropagatingExecutorService) {
+            return delegate;
+        }
+        return new ContextPropagatingExecutorService(delegate);
+    }
+
+    private record ContextPropagatingExecutor(Executor delegate) implements Executor {
+        @Override
+        public void execute(Runnable command) {
+            delegate.execute(wrap(command));
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.ejada.common.context;
+
+/**
+ * Immutable snapshot of the request-scoped identifiers tracked by {@link ContextManager}.
+ * Blank values are normalised to {@code null}.
+ */
+public record RequestContext(String tenantId, String correlationId, String requestId, String userId) {
+
+    /** Context with no identifiers set. */
+    public static final RequestContext EMPTY = new RequestContext(null, null, null, null);
+
+    public RequestContext {
+        tenantId = normalise(tenantId);
+        correlationId = normalise(correlationId);
+        requestId = normalise(requestId);
+        userId = normalise(userId);
+    }
+
+    public boolean isEmpty() {
+        return tenantId == null && correlationId == null && requestId == null && userId == null;
+    }
+
+    public RequestContext withTenantId(String id) {
+        return new RequestContext(id, correlationId, requestId, userId);
+    }
+
+    public RequestContext withCorrelationId(String id) {
+        return new RequestContext(tenantId, id, requestId, userId);
+    }
+
+    public RequestContext withRequestId(String id) {
+        return new RequestContext(tenantId, correlationId, id, userId);
+    }
+
+    public RequestContext withUserId(String id) {
+        return new RequestContext(tenantId, correlationId, requestId, id);
+    }
+
+    private static String normalise(String value) {
+        return value == null || value.isBlank() ? null : value;
+    }
+}
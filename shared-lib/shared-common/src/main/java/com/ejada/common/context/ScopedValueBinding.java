@@ -0,0 +1,96 @@
+package com.ejada.common.context;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+/**
+ * Reflective bridge to {@code java.lang.ScopedValue}, which is final from Java 25 and a
+ * preview API before that. Resolved once; when unavailable {@link #AVAILABLE} is
+ * {@code false} and callers fall back to a {@link ThreadLocal}.
+ *
+ * <p>Enabled automatically on Java 25+. {@code -Dshared.context.scoped-value=true}
+ * forces it on earlier runtimes that ship the API, {@code false} disables it.</p>
+ */
+final class ScopedValueBinding {
+
+    static final String PROPERTY = "shared.context.scoped-value";
+
+    static final boolean AVAILABLE;
+
+    private static final Object SCOPE;
+    private static final MethodHandle WHERE;
+    private static final MethodHandle RUN;
+    private static final MethodHandle IS_BOUND;
+    private static final MethodHandle GET;
+
+    static {
+        Object scope = null;
+        MethodHandle where = null;
+        MethodHandle run = null;
+        MethodHandle isBound = null;
+        MethodHandle get = null;
+        boolean available = false;
+        String setting = System.getProperty(PROPERTY, "auto");
+        boolean wanted = "true".equalsIgnoreCase(setting)
+                || ("auto".equalsIgnoreCase(setting) && Runtime.version().feature() >= 25);
+        if (wanted) {
+            try {
+                Class<?> type = Class.forName("java.lang.ScopedValue");
+                Class<?> carrier = Class.forName("java.lang.ScopedValue$Carrier");
+                MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+                scope = lookup.findStatic(type, "newInstance", MethodType.methodType(type)).invoke();
+                where = lookup.findStatic(type, "where", MethodType.methodType(carrier, type, Object.class));
+                run = lookup.findVirtual(carrier, "run", MethodType.methodType(void.class, Runnable.class));
+                isBound = lookup.findVirtual(type, "isBound", MethodType.methodType(boolean.class));
+                get = lookup.findVirtual(type, "get", MethodType.methodType(Object.class));
+                // Probe once so a runtime rejecting the API is detected here, not per call.
+                run.invoke(where.invoke(scope, new Cell(RequestContext.EMPTY)), (Runnable) () -> { });
+                available = true;
+            } catch (Throwable ex) {
+                available = false;
+            }
+        }
+        AVAILABLE = available;
+        SCOPE = scope;
+        WHERE = where;
+        RUN = run;
+        IS_BOUND = isBound;
+        GET = get;
+    }
+
+    private ScopedValueBinding() {
+    }
+
+    /** The cell bound to the current scope, or {@code null} outside any binding. */
+    static Cell current() {
+        try {
+            return (boolean) IS_BOUND.invoke(SCOPE) ? (Cell) GET.invoke(SCOPE) : null;
+        } catch (Throwable ex) {
+            throw new IllegalStateException("ScopedValue lookup failed", ex);
+        }
+    }
+
+    /** Run {@code task} with {@code cell} bound for its dynamic extent. */
+    static void run(Cell cell, Runnable task) {
+        try {
+            RUN.invoke(WHERE.invoke(SCOPE, cell), task);
+        } catch (RuntimeException | Error ex) {
+            throw ex;
+        } catch (Throwable ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    /**
+     * Binding target. Setters called inside a scope replace the record held here, so the
+     * value stays visible to the rest of that scope without touching a ThreadLocal.
+     */
+    static final class Cell {
+        RequestContext value;
+
+        Cell(RequestContext value) {
+            this.value = value;
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.ejada.common.context;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ScopedContextCarrierTest {
+
+    private final ContextCarrier original = ContextManager.getContextCarrier();
+
+    @AfterEach
+    void restore() {
+        ContextManager.clearHeaders();
+        ContextManager.setContextCarrier(original);
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {true, false})
+    void settersReplaceSingleRecordAndScopesRestore(boolean scopedValue) {
+        ContextManager.setContextCarrier(new ScopedContextCarrier(scopedValue));
+
+        ContextManager.Tenant.set("t1");
+        ContextManager.setCorrelationId("c1");
+        try (ContextManager.Tenant.Scope ignored = ContextManager.Tenant.openScope("t2")) {
+            assertEquals(new RequestContext("t2", "c1", null, null), ContextManager.capture());
+        }
+        assertEquals("t1", ContextManager.Tenant.get());
+
+        ContextManager.clearHeaders();
+        assertTrue(ContextManager.capture().isEmpty());
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {true, false})
+    void contextFollowsTasksIntoExecutorsAndLeavesWorkersClean(boolean scopedValue) throws Exception {
+        ContextManager.setContextCarrier(new ScopedContextCarrier(scopedValue));
+        ExecutorService pool = ContextPropagation.executorService(Executors.newSingleThreadExecutor());
+        try {
+            ContextManager.Tenant.set("tenant-a");
+            ContextManager.setRequestId("req-1");
+
+            String seen = pool.submit(() -> ContextManager.Tenant.get() + "/" + ContextManager.getRequestId())
+                    .get(5, TimeUnit.SECONDS);
+            String async = CompletableFuture
+                    .supplyAsync(ContextManager.Tenant::get, ContextPropagation.executor(pool))
+                    .get(5, TimeUnit.SECONDS);
+
+            ContextManager.clearHeaders();
+            String leaked = pool.submit(ContextManager.Tenant::get).get(5, TimeUnit.SECONDS);
+
+            assertEquals("tenant-a/req-1", seen);
+            assertEquals("tenant-a", async);
+            assertNull(leaked);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {true, false})
+    void setInsidePropagatedTaskDoesNotLeakToCaller(boolean scopedValue) {
+        ContextManager.setContextCarrier(new ScopedContextCarrier(scopedValue));
+        ContextManager.Tenant.set("outer");
+
+        ContextManager.runWith(new RequestContext("inner", null, null, null), () -> {
+            ContextManager.setUserId("u1");
+            assertEquals(new RequestContext("inner", null, null, "u1"), ContextManager.capture());
+        });
+
+        assertEquals(new RequestContext("outer", null, null, null), ContextManager.capture());
+    }
+}
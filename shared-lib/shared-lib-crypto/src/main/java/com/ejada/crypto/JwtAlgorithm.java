@@ -0,0 +1,71 @@
+package com.ejada.crypto;
+
+import java.util.Locale;
+
+/**
+ * JWS algorithms supported by {@link JwtTokenService}.
+ *
+ * <p>{@link #HS256} keeps the historical shared-secret behaviour. The asymmetric
+ * variants sign with a private key held only by the issuer while any service can
+ * verify with the public half published through a JWK Set.</p>
+ */
+public enum JwtAlgorithm {
+
+    /** HMAC with SHA-256 over a shared secret. */
+    HS256("HS256", null, null),
+
+    /** ECDSA over the P-256 curve with SHA-256. */
+    ES256("ES256", "SHA256withECDSA", "EC"),
+
+    /** Edwards-curve signatures over Ed25519. */
+    EDDSA("EdDSA", "Ed25519", "Ed25519");
+
+    private final String jwsName;
+    private final String jcaSignature;
+    private final String keyFactory;
+
+    JwtAlgorithm(String jwsName, String jcaSignature, String keyFactory) {
+        this.jwsName = jwsName;
+        this.jcaSignature = jcaSignature;
+        this.keyFactory = keyFactory;
+    }
+
+    /** Value written to the JWS {@code alg} header. */
+    public String jwsName() {
+        return jwsName;
+    }
+
+    /** JCA {@link java.security.Signature} algorithm name, {@code null} for HMAC. */
+    public String jcaSignature() {
+        return jcaSignature;
+    }
+
+    /** JCA {@link java.security.KeyFactory} algorithm name, {@code null} for HMAC. */
+    public String keyFactory() {
+        return keyFactory;
+    }
+
+    public boolean isAsymmetric() {
+        return jcaSignature != null;
+    }
+
+    /**
+     * Resolve an algorithm from configuration, accepting either the enum name or the
+     * JWS header value (e.g. {@code EdDSA}).
+     */
+    public static JwtAlgorithm from(String value) {
+        if (value == null || value.isBlank()) {
+            return HS256;
+        }
+        String normalized = value.trim().toUpperCase(Locale.ROOT);
+        for (JwtAlgorithm alg : values()) {
+            if (alg.name().equals(normalized) || alg.jwsName.toUpperCase(Locale.ROOT).equals(normalized)) {
+                return alg;
+            }
+        }
+        if ("ED25519".equals(normalized)) {
+            return EDDSA;
+        }
+        throw new IllegalArgumentException("Unsupported JWT algorithm: " + value);
+    }
+}
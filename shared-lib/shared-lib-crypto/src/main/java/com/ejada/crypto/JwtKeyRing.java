@@ -0,0 +1,73 @@
+package com.ejada.crypto;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Immutable set of asymmetric JWT keys with one active signing key.
+ *
+ * <p>Rotation is done by adding a new key, switching {@code activeKid} and keeping the
+ * previous key (optionally without its private half) until the tokens it signed have
+ * expired. Verifiers pick keys by the {@code kid} header, so no coordinated redeploy is
+ * needed.</p>
+ */
+public final class JwtKeyRing {
+
+    private final Map<String, JwtSigningKey> keys;
+    private final JwtSigningKey active;
+
+    public JwtKeyRing(Collection<JwtSigningKey> keys, String activeKid) {
+        if (keys == null || keys.isEmpty()) {
+            throw new IllegalArgumentException("key ring must contain at least one key");
+        }
+        Map<String, JwtSigningKey> byKid = new LinkedHashMap<>();
+        for (JwtSigningKey key : keys) {
+            if (byKid.putIfAbsent(key.getKid(), key) != null) {
+                throw new IllegalArgumentException("duplicate kid: " + key.getKid());
+            }
+        }
+        String kid = activeKid != null ? activeKid : keys.iterator().next().getKid();
+        JwtSigningKey selected = byKid.get(kid);
+        if (selected == null) {
+            throw new IllegalArgumentException("active kid '" + kid + "' is not part of the key ring");
+        }
+        if (!selected.canSign()) {
+            throw new IllegalArgumentException("active kid '" + kid + "' has no private key");
+        }
+        this.keys = Collections.unmodifiableMap(byKid);
+        this.active = selected;
+    }
+
+    public static JwtKeyRing of(JwtSigningKey key) {
+        return new JwtKeyRing(List.of(key), key.getKid());
+    }
+
+    /** Key currently used to sign new tokens. */
+    public JwtSigningKey active() {
+        return active;
+    }
+
+    public Optional<JwtSigningKey> find(String kid) {
+        return Optional.ofNullable(kid).map(keys::get);
+    }
+
+    public Collection<JwtSigningKey> keys() {
+        return keys.values();
+    }
+
+    /**
+     * JWK Set (RFC 7517 §5) with the public half of every key in the ring.
+     */
+    public Map<String, Object> toJwkSet() {
+        List<Map<String, Object>> jwks = new ArrayList<>(keys.size());
+        for (JwtSigningKey key : keys.values()) {
+            jwks.add(key.toPublicJwk());
+        }
+        return Map.of("keys", List.copyOf(jwks));
+    }
+}
@@ -0,0 +1,151 @@
+package com.ejada.crypto;
+
+import java.math.BigInteger;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.interfaces.ECPublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * A single asymmetric JWT key identified by its {@code kid}.
+ *
+ * <p>The private half is optional: keys that were rotated out keep only their public
+ * key so tokens issued before the rotation still verify until they expire.</p>
+ */
+public final class JwtSigningKey {
+
+    private static final int ES256_COORDINATE_LENGTH = 32;
+    private static final int ED25519_KEY_LENGTH = 32;
+
+    private final String kid;
+    private final JwtAlgorithm algorithm;
+    private final PrivateKey privateKey;
+    private final PublicKey publicKey;
+
+    public JwtSigningKey(String kid, JwtAlgorithm algorithm, PrivateKey privateKey, PublicKey publicKey) {
+        if (kid == null || kid.isBlank()) {
+            throw new IllegalArgumentException("kid must not be blank");
+        }
+        Objects.requireNonNull(algorithm, "algorithm");
+        if (!algorithm.isAsymmetric()) {
+            throw new IllegalArgumentException("JwtSigningKey requires an asymmetric algorithm, got " + algorithm);
+        }
+        this.kid = kid;
+        this.algorithm = algorithm;
+        this.privateKey = privateKey;
+        this.publicKey = Objects.requireNonNull(publicKey, "publicKey");
+    }
+
+    /**
+     * Build a key from Base64 encoded PKCS#8 (private) and X.509 (public) material.
+     *
+     * @param privateKeyBase64 may be {@code null} for verification-only keys
+     */
+    public static JwtSigningKey fromEncoded(String kid, JwtAlgorithm algorithm,
+            String privateKeyBase64, String publicKeyBase64) {
+        Objects.requireNonNull(algorithm, "algorithm");
+        if (publicKeyBase64 == null || publicKeyBase64.isBlank()) {
+            throw new IllegalArgumentException("public key must be provided for kid " + kid);
+        }
+        try {
+            KeyFactory factory = KeyFactory.getInstance(algorithm.keyFactory());
+            PublicKey pub = factory.generatePublic(new X509EncodedKeySpec(decode(publicKeyBase64)));
+            PrivateKey priv = null;
+            if (privateKeyBase64 != null && !privateKeyBase64.isBlank()) {
+                priv = factory.generatePrivate(new PKCS8EncodedKeySpec(decode(privateKeyBase64)));
+            }
+            return new JwtSigningKey(kid, algorithm, priv, pub);
+        } catch (GeneralSecurityException ex) {
+            throw new IllegalArgumentException("Invalid key material for kid " + kid, ex);
+        }
+    }
+
+    /** Generate a fresh key pair, mainly for tests and local development. */
+    public static JwtSigningKey generate(String kid, JwtAlgorithm algorithm) {
+        try {
+            KeyPairGenerator generator = KeyPairGenerator.getInstance(algorithm.keyFactory());
+            if (algorithm == JwtAlgorithm.ES256) {
+                generator.initialize(new ECGenParameterSpec("secp256r1"));
+            }
+            KeyPair pair = generator.generateKeyPair();
+            return new JwtSigningKey(kid, algorithm, pair.getPrivate(), pair.getPublic());
+        } catch (GeneralSecurityException ex) {
+            throw new IllegalStateException("Unable to generate " + algorithm + " key pair", ex);
+        }
+    }
+
+    public String getKid() {
+        return kid;
+    }
+
+    public JwtAlgorithm getAlgorithm() {
+        return algorithm;
+    }
+
+    public PrivateKey getPrivateKey() {
+        return privateKey;
+    }
+
+    public PublicKey getPublicKey() {
+        return publicKey;
+    }
+
+    public boolean canSign() {
+        return privateKey != null;
+    }
+
+    /**
+     * Public JWK representation (RFC 7517) of this key. Never includes private material.
+     */
+    public Map<String, Object> toPublicJwk() {
+        Map<String, Object> jwk = new LinkedHashMap<>();
+        Base64.Encoder b64 = Base64.getUrlEncoder().withoutPadding();
+        if (algorithm == JwtAlgorithm.ES256) {
+            ECPublicKey ec = (ECPublicKey) publicKey;
+            jwk.put("kty", "EC");
+            jwk.put("crv", "P-256");
+            jwk.put("x", b64.encodeToString(unsigned(ec.getW().getAffineX(), ES256_COORDINATE_LENGTH)));
+            jwk.put("y", b64.encodeToString(unsigned(ec.getW().getAffineY(), ES256_COORDINATE_LENGTH)));
+        } else {
+            byte[] encoded = publicKey.getEncoded();
+            jwk.put("kty", "OKP");
+            jwk.put("crv", "Ed25519");
+            jwk.put("x", b64.encodeToString(
+                    Arrays.copyOfRange(encoded, encoded.length - ED25519_KEY_LENGTH, encoded.length)));
+        }
+        jwk.put("kid", kid);
+        jwk.put("alg", algorithm.jwsName());
+        jwk.put("use", "sig");
+        return jwk;
+    }
+
+    private static byte[] unsigned(BigInteger value, int length) {
+        byte[] raw = value.toByteArray();
+        if (raw.length == length) {
+            return raw;
+        }
+        byte[] out = new byte[length];
+        if (raw.length > length) {
+            System.arraycopy(raw, raw.length - length, out, 0, length);
+        } else {
+            System.arraycopy(raw, 0, out, length - raw.length, raw.length);
+        }
+        return out;
+    }
+
+    private static byte[] decode(String base64) {
+        String trimmed = base64.replaceAll("-----[A-Z ]+-----", "").replaceAll("\\s", "");
+        return Base64.getDecoder().decode(trimmed);
+    }
+}
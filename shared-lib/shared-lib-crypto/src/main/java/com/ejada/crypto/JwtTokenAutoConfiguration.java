@@ -1,5 +1,7 @@
 package com.ejada.crypto;
 
+import java.util.ArrayList;
+import java.util.List;
 import org.springframework.boot.autoconfigure.AutoConfiguration;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
@@ -10,6 +12,26 @@ public class JwtTokenAutoConfiguration {
 
     @Bean
     public JwtTokenService jwtTokenService(JwtTokenProperties props) {
-        return JwtTokenService.withSecret(props.getSecret(), props.getTokenPeriod());
+        JwtAlgorithm algorithm = JwtAlgorithm.from(props.getAlgorithm());
+        if (!algorithm.isAsymmetric()) {
+            return JwtTokenService.withSecret(props.getSecret(), props.getTokenPeriod());
+        }
+        return JwtTokenService.withKeyRing(keyRing(props, algorithm), props.getTokenPeriod(),
+                props.getSignaturePoolSize());
+    }
+
+    private static JwtKeyRing keyRing(JwtTokenProperties props, JwtAlgorithm defaultAlgorithm) {
+        if (props.getKeys() == null || props.getKeys().isEmpty()) {
+            throw new IllegalStateException(
+                    "shared.security.jwt.keys is required when algorithm=" + defaultAlgorithm.jwsName());
+        }
+        List<JwtSigningKey> keys = new ArrayList<>(props.getKeys().size());
+        for (JwtTokenProperties.Key key : props.getKeys()) {
+            JwtAlgorithm keyAlgorithm = key.getAlgorithm() != null
+                    ? JwtAlgorithm.from(key.getAlgorithm())
+                    : defaultAlgorithm;
+            keys.add(JwtSigningKey.fromEncoded(key.getKid(), keyAlgorithm, key.getPrivateKey(), key.getPublicKey()));
+        }
+        return new JwtKeyRing(keys, props.getActiveKid());
     }
 }
@@ -1,21 +1,42 @@
 package com.ejada.crypto;
 
-import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.validation.annotation.Validated;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 
 @Validated
 @ConfigurationProperties("shared.security.jwt")
 public class JwtTokenProperties {
 
-    @NotBlank
+    /** HS256 | ES256 | EdDSA. */
+    private String algorithm = JwtAlgorithm.HS256.name();
+
+    /** Shared secret, required when algorithm = HS256. */
     private String secret;
 
     @NotNull
     private Duration tokenPeriod;
 
+    /** Key id used to sign new tokens when an asymmetric algorithm is selected. */
+    private String activeKid;
+
+    /** Asymmetric key ring; rotated-out keys may omit the private key. */
+    private List<Key> keys = new ArrayList<>();
+
+    /** Upper bound of cached {@code Signature} instances per key. */
+    private int signaturePoolSize = JwtTokenService.DEFAULT_SIGNATURE_POOL_SIZE;
+
+    public String getAlgorithm() {
+        return algorithm;
+    }
+
+    public void setAlgorithm(String algorithm) {
+        this.algorithm = algorithm;
+    }
+
     public String getSecret() {
         return secret;
     }
@@ -31,4 +52,74 @@ public class JwtTokenProperties {
     public void setTokenPeriod(Duration tokenPeriod) {
         this.tokenPeriod = tokenPeriod;
     }
+
+    public String getActiveKid() {
+        return activeKid;
+    }
+
+    public void setActiveKid(String activeKid) {
+        this.activeKid = activeKid;
+    }
+
+    public List<Key> getKeys() {
+        return keys;
+    }
+
+    public void setKeys(List<Key> keys) {
+        this.keys = keys;
+    }
+
+    public int getSignaturePoolSize() {
+        return signaturePoolSize;
+    }
+
+    public void setSignaturePoolSize(int signaturePoolSize) {
+        this.signaturePoolSize = signaturePoolSize;
+    }
+
+    public static class Key {
+
+        private String kid;
+
+        /** Defaults to the top-level algorithm. */
+        private String algorithm;
+
+        /** Base64 (or PEM) PKCS#8 private key; omit for verification-only keys. */
+        private String privateKey;
+
+        /** Base64 (or PEM) X.509 SubjectPublicKeyInfo. */
+        private String publicKey;
+
+        public String getKid() {
+            return kid;
+        }
+
+        public void setKid(String kid) {
+            this.kid = kid;
+        }
+
+        public String getAlgorithm() {
+            return algorithm;
+        }
+
+        public void setAlgorithm(String algorithm) {
+            this.algorithm = algorithm;
+        }
+
+        public String getPrivateKey() {
+            return privateKey;
+        }
+
+        public void setPrivateKey(String privateKey) {
+            this.privateKey = privateKey;
+        }
+
+        public String getPublicKey() {
+            return publicKey;
+        }
+
+        public void setPublicKey(String publicKey) {
+            this.publicKey = publicKey;
+        }
+    }
 }
@@ -1,26 +1,62 @@
 package com.ejada.crypto;
 
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.ProtectedHeader;
+import io.jsonwebtoken.security.InvalidKeyException;
 import io.jsonwebtoken.security.Keys;
+import java.security.Key;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.Date;
+import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Base64;
 import javax.crypto.SecretKey;
 
 /**
- * Simple JWT token generator using an HMAC-SHA256 secret.
+ * JWT token generator and verifier.
+ *
+ * <p>Tokens are signed either with an HMAC-SHA256 shared secret ({@link #withSecret})
+ * or with the active key of an asymmetric {@link JwtKeyRing} ({@link #withKeyRing}).
+ * Asymmetric tokens carry a {@code kid} header so verifiers can select the matching
+ * public key from the published JWK Set.</p>
  */
 public class JwtTokenService {
 
+    /** Default number of initialised {@code Signature} objects kept per key. */
+    public static final int DEFAULT_SIGNATURE_POOL_SIZE = Math.max(4, Runtime.getRuntime().availableProcessors() * 2);
+
     private final SecretKey key;
+    private final JwtKeyRing keyRing;
+    private final Map<JwtAlgorithm, PooledSignatureAlgorithm> signatureAlgorithms;
     private final Duration defaultTtl;
+    private final JwtParser parser;
 
     private JwtTokenService(SecretKey key, Duration defaultTtl) {
         this.key = key;
+        this.keyRing = null;
+        this.signatureAlgorithms = Map.of();
         this.defaultTtl = defaultTtl;
+        this.parser = Jwts.parser().verifyWith(key).build();
+    }
+
+    private JwtTokenService(JwtKeyRing keyRing, Duration defaultTtl, int signaturePoolSize) {
+        this.key = null;
+        this.keyRing = keyRing;
+        this.defaultTtl = defaultTtl;
+        Map<JwtAlgorithm, PooledSignatureAlgorithm> algorithms = new EnumMap<>(JwtAlgorithm.class);
+        for (JwtSigningKey signingKey : keyRing.keys()) {
+            algorithms.computeIfAbsent(signingKey.getAlgorithm(),
+                    alg -> new PooledSignatureAlgorithm(alg, signaturePoolSize));
+        }
+        this.signatureAlgorithms = Map.copyOf(algorithms);
+        var parserBuilder = Jwts.parser().keyLocator(this::locatePublicKey);
+        algorithms.values().forEach(alg -> parserBuilder.sig().add(alg));
+        this.parser = parserBuilder.build();
     }
 
     /**
@@ -41,6 +77,27 @@ public class JwtTokenService {
         return new JwtTokenService(key, defaultTtl);
     }
 
+    /**
+     * Create a service instance that signs with the active key of an asymmetric key ring.
+     *
+     * @param keyRing keys used for signing (active key) and verification (all keys)
+     * @return configured service
+     */
+    public static JwtTokenService withKeyRing(JwtKeyRing keyRing, Duration defaultTtl) {
+        return withKeyRing(keyRing, defaultTtl, DEFAULT_SIGNATURE_POOL_SIZE);
+    }
+
+    /**
+     * Variant of {@link #withKeyRing(JwtKeyRing, Duration)} with an explicit bound on the
+     * number of cached {@code Signature} instances per key.
+     */
+    public static JwtTokenService withKeyRing(JwtKeyRing keyRing, Duration defaultTtl, int signaturePoolSize) {
+        if (keyRing == null) {
+            throw new IllegalArgumentException("keyRing must not be null");
+        }
+        return new JwtTokenService(keyRing, defaultTtl, signaturePoolSize);
+    }
+
     /**
      * Generate a JWT token with the given subject.
      *
@@ -48,10 +105,9 @@ public class JwtTokenService {
      * @return signed JWT token
      */
     public String generateToken(String subject) {
-        var builder = Jwts.builder()
+        var builder = signedBuilder()
                 .subject(subject)
-                .issuedAt(new Date())
-                .signWith(key, Jwts.SIG.HS256);
+                .issuedAt(new Date());
         if (defaultTtl != null) {
             builder.expiration(Date.from(Instant.now().plus(defaultTtl)));
         }
@@ -70,10 +126,9 @@ public class JwtTokenService {
      */
     public String createToken(String subject, String tenant, List<String> roles,
             Map<String, Object> extraClaims, Duration ttl) {
-        var builder = Jwts.builder()
+        var builder = signedBuilder()
                 .subject(subject)
-                .issuedAt(new Date())
-                .signWith(key, Jwts.SIG.HS256);
+                .issuedAt(new Date());
 
         if (tenant != null) {
             builder.claim("tenant", tenant);
@@ -90,4 +145,48 @@ public class JwtTokenService {
         }
         return builder.compact();
     }
+
+    /**
+     * Verify a token issued by this service and return its claims.
+     *
+     * @param token compact JWS
+     * @return verified claims
+     * @throws io.jsonwebtoken.JwtException if the token is malformed, expired or not signed by a known key
+     */
+    public Claims parseClaims(String token) {
+        return parser.parseSignedClaims(token).getPayload();
+    }
+
+    /** Algorithm used for newly issued tokens. */
+    public JwtAlgorithm getAlgorithm() {
+        return keyRing != null ? keyRing.active().getAlgorithm() : JwtAlgorithm.HS256;
+    }
+
+    /**
+     * Public JWK Set for the configured keys. Empty for HS256, whose secret must never
+     * be published.
+     */
+    public Map<String, Object> jwkSet() {
+        return keyRing != null ? keyRing.toJwkSet() : Map.of("keys", List.of());
+    }
+
+    private JwtBuilder signedBuilder() {
+        if (keyRing == null) {
+            return Jwts.builder().signWith(key, Jwts.SIG.HS256);
+        }
+        JwtSigningKey active = keyRing.active();
+        return Jwts.builder()
+                .header().keyId(active.getKid()).and()
+                .signWith(active.getPrivateKey(), signatureAlgorithms.get(active.getAlgorithm()));
+    }
+
+    private Key locatePublicKey(io.jsonwebtoken.Header header) {
+        String kid = header instanceof ProtectedHeader protectedHeader ? protectedHeader.getKeyId() : null;
+        JwtSigningKey signingKey = keyRing.find(kid)
+                .orElseThrow(() -> new InvalidKeyException("Unknown JWT key id: " + kid));
+        if (!signingKey.getAlgorithm().jwsName().equals(header.getAlgorithm())) {
+            throw new InvalidKeyException("Algorithm mismatch for JWT key id: " + kid);
+        }
+        return signingKey.getPublicKey();
+    }
 }
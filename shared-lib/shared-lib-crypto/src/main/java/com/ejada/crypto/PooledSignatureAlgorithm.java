@@ -0,0 +1,186 @@
+package com.ejada.crypto;
+
+import io.jsonwebtoken.security.SecureDigestAlgorithm;
+import io.jsonwebtoken.security.SecureRequest;
+import io.jsonwebtoken.security.SignatureException;
+import io.jsonwebtoken.security.VerifySecureDigestRequest;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.Signature;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * JJWT signature algorithm that reuses initialised {@link Signature} instances.
+ *
+ * <p>{@code Signature.getInstance} walks the provider list and {@code initSign}/
+ * {@code initVerify} re-derive key state on every call. A {@code Signature} returns
+ * to its initialised state after {@code sign()}/{@code verify()}, so instances are
+ * pooled per key and handed out to one caller at a time. The pool is not tied to a
+ * thread, which keeps it effective when requests run on virtual threads.</p>
+ *
+ * <p>ECDSA signatures are transcoded between the JCA DER form and the fixed-length
+ * {@code R || S} form required by JWS (RFC 7518 §3.4).</p>
+ */
+final class PooledSignatureAlgorithm implements SecureDigestAlgorithm<PrivateKey, PublicKey> {
+
+    private static final int ES256_PART_LENGTH = 32;
+
+    private final JwtAlgorithm algorithm;
+    private final int maxPooledPerKey;
+    private final Map<Key, Pool> signers = new ConcurrentHashMap<>();
+    private final Map<Key, Pool> verifiers = new ConcurrentHashMap<>();
+
+    PooledSignatureAlgorithm(JwtAlgorithm algorithm, int maxPooledPerKey) {
+        if (!algorithm.isAsymmetric()) {
+            throw new IllegalArgumentException("Pooled signatures require an asymmetric algorithm");
+        }
+        this.algorithm = algorithm;
+        this.maxPooledPerKey = Math.max(1, maxPooledPerKey);
+    }
+
+    @Override
+    public String getId() {
+        return algorithm.jwsName();
+    }
+
+    @Override
+    public byte[] digest(SecureRequest<InputStream, PrivateKey> request) {
+        PrivateKey key = request.getKey();
+        Pool pool = signers.computeIfAbsent(key, k -> new Pool());
+        Signature signature = pool.poll();
+        try {
+            if (signature == null) {
+                signature = Signature.getInstance(algorithm.jcaSignature());
+                signature.initSign(key);
+            }
+            signature.update(readAll(request.getPayload()));
+            byte[] raw = signature.sign();
+            pool.offer(signature);
+            return algorithm == JwtAlgorithm.ES256 ? derToConcat(raw) : raw;
+        } catch (GeneralSecurityException | IOException ex) {
+            throw new SignatureException("Unable to compute " + getId() + " signature", ex);
+        }
+    }
+
+    @Override
+    public boolean verify(VerifySecureDigestRequest<PublicKey> request) {
+        PublicKey key = request.getKey();
+        Pool pool = verifiers.computeIfAbsent(key, k -> new Pool());
+        Signature signature = pool.poll();
+        try {
+            if (signature == null) {
+                signature = Signature.getInstance(algorithm.jcaSignature());
+                signature.initVerify(key);
+            }
+            byte[] digest = request.getDigest();
+            if (algorithm == JwtAlgorithm.ES256) {
+                if (digest.length != 2 * ES256_PART_LENGTH) {
+                    return false;
+                }
+                digest = concatToDer(digest);
+            }
+            signature.update(readAll(request.getPayload()));
+            boolean valid = signature.verify(digest);
+            pool.offer(signature);
+            return valid;
+        } catch (GeneralSecurityException | IOException ex) {
+            throw new SignatureException("Unable to verify " + getId() + " signature", ex);
+        }
+    }
+
+    private static byte[] readAll(InputStream in) throws IOException {
+        try (in) {
+            return in.readAllBytes();
+        }
+    }
+
+    static byte[] derToConcat(byte[] der) throws SignatureException {
+        int offset = 2;
+        if (der.length < 8 || der[0] != 0x30) {
+            throw new SignatureException("Invalid ECDSA DER signature");
+        }
+        if ((der[1] & 0xFF) == 0x81) {
+            offset = 3;
+        }
+        byte[] out = new byte[2 * ES256_PART_LENGTH];
+        offset = copyInteger(der, offset, out, 0);
+        copyInteger(der, offset, out, ES256_PART_LENGTH);
+        return out;
+    }
+
+    private static int copyInteger(byte[] der, int offset, byte[] out, int outOffset) {
+        if (der[offset] != 0x02) {
+            throw new SignatureException("Invalid ECDSA DER signature");
+        }
+        int length = der[offset + 1] & 0xFF;
+        int start = offset + 2;
+        int end = start + length;
+        while (start < end - 1 && der[start] == 0) {
+            start++;
+        }
+        int significant = end - start;
+        if (significant > ES256_PART_LENGTH) {
+            throw new SignatureException("Invalid ECDSA DER signature");
+        }
+        System.arraycopy(der, start, out, outOffset + ES256_PART_LENGTH - significant, significant);
+        return end;
+    }
+
+    static byte[] concatToDer(byte[] concat) {
+        byte[] r = derInteger(concat, 0);
+        byte[] s = derInteger(concat, ES256_PART_LENGTH);
+        int bodyLength = r.length + s.length;
+        byte[] der = new byte[2 + bodyLength];
+        der[0] = 0x30;
+        der[1] = (byte) bodyLength;
+        System.arraycopy(r, 0, der, 2, r.length);
+        System.arraycopy(s, 0, der, 2 + r.length, s.length);
+        return der;
+    }
+
+    private static byte[] derInteger(byte[] concat, int offset) {
+        int start = offset;
+        int end = offset + ES256_PART_LENGTH;
+        while (start < end - 1 && concat[start] == 0) {
+            start++;
+        }
+        int length = end - start;
+        boolean pad = (concat[start] & 0x80) != 0;
+        int contentLength = length + (pad ? 1 : 0);
+        byte[] out = new byte[2 + contentLength];
+        out[0] = 0x02;
+        out[1] = (byte) contentLength;
+        System.arraycopy(concat, start, out, 2 + (pad ? 1 : 0), length);
+        return out;
+    }
+
+    /** Bounded free-list of initialised signatures for one key. */
+    private final class Pool {
+        private final Queue<Signature> free = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger size = new AtomicInteger();
+
+        Signature poll() {
+            Signature signature = free.poll();
+            if (signature != null) {
+                size.decrementAndGet();
+            }
+            return signature;
+        }
+
+        void offer(Signature signature) {
+            if (size.incrementAndGet() <= maxPooledPerKey) {
+                free.offer(signature);
+            } else {
+                size.decrementAndGet();
+            }
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.ejada.crypto;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Manual sign/verify throughput benchmark for each supported algorithm.
+ *
+ * <p>Not picked up by Surefire. Run with:
+ * {@code mvn -pl shared-lib-crypto test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.ejada.crypto.JwtTokenServiceBenchmark}</p>
+ */
+public final class JwtTokenServiceBenchmark {
+
+    private static final Duration WARMUP = Duration.ofSeconds(3);
+    private static final Duration MEASURE = Duration.ofSeconds(5);
+
+    private JwtTokenServiceBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        Map<String, JwtTokenService> services = Map.of(
+                "HS256", JwtTokenService.withSecret("MDEyMzQ1Njc4OTAxMjM0NTY3ODkwMTIzNDU2Nzg5MDE=", Duration.ofMinutes(5)),
+                "ES256", JwtTokenService.withKeyRing(
+                        JwtKeyRing.of(JwtSigningKey.generate("es", JwtAlgorithm.ES256)), Duration.ofMinutes(5)),
+                "EdDSA", JwtTokenService.withKeyRing(
+                        JwtKeyRing.of(JwtSigningKey.generate("ed", JwtAlgorithm.EDDSA)), Duration.ofMinutes(5)));
+
+        System.out.printf("%-6s %14s %14s  (threads=%d)%n", "alg", "sign ops/s", "verify ops/s", threads);
+        for (String alg : List.of("HS256", "ES256", "EdDSA")) {
+            JwtTokenService service = services.get(alg);
+            String token = sign(service);
+            run(threads, WARMUP, () -> sign(service));
+            double sign = run(threads, MEASURE, () -> sign(service));
+            run(threads, WARMUP, () -> service.parseClaims(token));
+            double verify = run(threads, MEASURE, () -> service.parseClaims(token));
+            System.out.printf("%-6s %14.0f %14.0f%n", alg, sign, verify);
+        }
+    }
+
+    private static String sign(JwtTokenService service) {
+        return service.createToken("bench-user", "tenant", List.of("TENANT_ADMIN"), Map.of("uid", 42L), null);
+    }
+
+    private static double run(int threads, Duration duration, Runnable op) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        long deadline = System.nanoTime() + duration.toNanos();
+        try {
+            List<Future<Long>> results = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                results.add(pool.submit(() -> {
+                    long ops = 0;
+                    while (System.nanoTime() < deadline) {
+                        op.run();
+                        ops++;
+                    }
+                    return ops;
+                }));
+            }
+            long total = 0;
+            for (Future<Long> result : results) {
+                total += result.get();
+            }
+            return total / (double) duration.toSeconds();
+        } finally {
+            pool.shutdown();
+            pool.awaitTermination(1, TimeUnit.MINUTES);
+        }
+    }
+}
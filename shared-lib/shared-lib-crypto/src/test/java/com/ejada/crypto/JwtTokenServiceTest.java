@@ -1,5 +1,7 @@
 package com.ejada.crypto;
 
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
 import java.time.Duration;
@@ -30,4 +32,79 @@ class JwtTokenServiceTest {
         assertEquals(roles, parsed.getPayload().get("roles", List.class));
         assertEquals("value", parsed.getPayload().get("custom"));
     }
+
+    @Test
+    void es256TokenCarriesKidAndVerifiesWithStandardParser() {
+        JwtSigningKey signingKey = JwtSigningKey.generate("es-1", JwtAlgorithm.ES256);
+        JwtTokenService service = JwtTokenService.withKeyRing(JwtKeyRing.of(signingKey), Duration.ofMinutes(5));
+
+        String token = service.createToken("user", "tenant1", List.of("admin"), Map.of(), null);
+
+        var parsed = Jwts.parser().verifyWith(signingKey.getPublicKey()).build().parseSignedClaims(token);
+        assertEquals("ES256", parsed.getHeader().getAlgorithm());
+        assertEquals("es-1", parsed.getHeader().getKeyId());
+        assertEquals("user", parsed.getPayload().getSubject());
+        assertEquals("tenant1", service.parseClaims(token).get("tenant"));
+    }
+
+    @Test
+    void eddsaTokenVerifiesWithStandardParser() {
+        JwtSigningKey signingKey = JwtSigningKey.generate("ed-1", JwtAlgorithm.EDDSA);
+        JwtTokenService service = JwtTokenService.withKeyRing(JwtKeyRing.of(signingKey), Duration.ofMinutes(5));
+
+        String token = service.generateToken("alice");
+
+        var parsed = Jwts.parser().verifyWith(signingKey.getPublicKey()).build().parseSignedClaims(token);
+        assertEquals("EdDSA", parsed.getHeader().getAlgorithm());
+        assertEquals("alice", service.parseClaims(token).getSubject());
+    }
+
+    @Test
+    void rotatedKeyStillVerifiesPreviouslyIssuedTokens() {
+        JwtSigningKey oldKey = JwtSigningKey.generate("k1", JwtAlgorithm.ES256);
+        JwtSigningKey newKey = JwtSigningKey.generate("k2", JwtAlgorithm.EDDSA);
+        String oldToken = JwtTokenService.withKeyRing(JwtKeyRing.of(oldKey), null).generateToken("bob");
+
+        JwtSigningKey verifyOnly = new JwtSigningKey("k1", JwtAlgorithm.ES256, null, oldKey.getPublicKey());
+        JwtTokenService rotated = JwtTokenService.withKeyRing(
+                new JwtKeyRing(List.of(verifyOnly, newKey), "k2"), null);
+
+        Claims claims = rotated.parseClaims(oldToken);
+        assertEquals("bob", claims.getSubject());
+        assertEquals("carol", rotated.parseClaims(rotated.generateToken("carol")).getSubject());
+
+        JwtTokenService unrelated = JwtTokenService.withKeyRing(
+                JwtKeyRing.of(JwtSigningKey.generate("k3", JwtAlgorithm.ES256)), null);
+        assertThrows(JwtException.class, () -> unrelated.parseClaims(oldToken));
+    }
+
+    @Test
+    void jwkSetPublishesOnlyPublicKeys() {
+        JwtSigningKey es = JwtSigningKey.generate("es", JwtAlgorithm.ES256);
+        JwtSigningKey ed = JwtSigningKey.generate("ed", JwtAlgorithm.EDDSA);
+        JwtTokenService service = JwtTokenService.withKeyRing(new JwtKeyRing(List.of(es, ed), "es"), null);
+
+        @SuppressWarnings("unchecked")
+        List<Map<String, Object>> keys = (List<Map<String, Object>>) service.jwkSet().get("keys");
+        assertEquals(2, keys.size());
+        assertEquals("EC", keys.get(0).get("kty"));
+        assertEquals("OKP", keys.get(1).get("kty"));
+        keys.forEach(jwk -> assertFalse(jwk.containsKey("d")));
+
+        assertEquals(List.of(), JwtTokenService.withSecret(
+                "MDEyMzQ1Njc4OTAxMjM0NTY3ODkwMTIzNDU2Nzg5MDE=", null).jwkSet().get("keys"));
+    }
+
+    @Test
+    void encodedKeysRoundTrip() {
+        JwtSigningKey generated = JwtSigningKey.generate("es", JwtAlgorithm.ES256);
+        Base64.Encoder enc = Base64.getEncoder();
+        JwtSigningKey decoded = JwtSigningKey.fromEncoded("es", JwtAlgorithm.ES256,
+                enc.encodeToString(generated.getPrivateKey().getEncoded()),
+                enc.encodeToString(generated.getPublicKey().getEncoded()));
+
+        String token = JwtTokenService.withKeyRing(JwtKeyRing.of(decoded), null).generateToken("dave");
+        assertEquals("dave", JwtTokenService.withKeyRing(JwtKeyRing.of(generated), null)
+                .parseClaims(token).getSubject());
+    }
 }
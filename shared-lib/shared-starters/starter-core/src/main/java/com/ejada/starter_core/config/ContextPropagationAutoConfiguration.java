@@ -0,0 +1,57 @@
+package com.ejada.starter_core.config;
+
+import com.ejada.starter_core.context.ContextTaskDecorator;
+import com.ejada.starter_core.context.RequestContextAccessor;
+import io.micrometer.context.ContextRegistry;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.TaskDecorator;
+import reactor.core.publisher.Hooks;
+
+/**
+ * Propagates the request context (tenant, correlation, request and user ids) across
+ * thread hand-offs:
+ *  - a {@link TaskDecorator} picked up by Boot's {@code applicationTaskExecutor}
+ *    (platform or virtual threads) and therefore by {@code @Async}
+ *  - a context-propagation accessor so Reactor and Micrometer restore it
+ *  - Reactor automatic context propagation
+ *
+ * Disable with {@code shared.core.context.propagation.enabled=false}.
+ */
+@AutoConfiguration(before = TaskExecutionAutoConfiguration.class)
+@ConditionalOnProperty(prefix = "shared.core.context.propagation", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class ContextPropagationAutoConfiguration {
+
+  @Bean
+  @ConditionalOnMissingBean(TaskDecorator.class)
+  public ContextTaskDecorator contextTaskDecorator() {
+    return new ContextTaskDecorator();
+  }
+
+  @Configuration(proxyBeanMethods = false)
+  @ConditionalOnClass(name = "io.micrometer.context.ContextRegistry")
+  static class ContextRegistryConfiguration {
+
+    @Bean
+    InitializingBean requestContextAccessorRegistration() {
+      return () -> ContextRegistry.getInstance().registerThreadLocalAccessor(new RequestContextAccessor());
+    }
+  }
+
+  @Configuration(proxyBeanMethods = false)
+  @ConditionalOnClass(name = {"io.micrometer.context.ContextRegistry", "reactor.core.publisher.Hooks"})
+  @ConditionalOnProperty(prefix = "shared.core.context.propagation", name = "reactor", havingValue = "true", matchIfMissing = true)
+  static class ReactorConfiguration {
+
+    @Bean
+    InitializingBean reactorContextPropagation() {
+      return Hooks::enableAutomaticContextPropagation;
+    }
+  }
+}
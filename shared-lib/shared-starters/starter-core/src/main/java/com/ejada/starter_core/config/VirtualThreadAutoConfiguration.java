@@ -0,0 +1,31 @@
+package com.ejada.starter_core.config;
+
+import com.ejada.starter_core.props.VirtualThreadProps;
+import com.ejada.starter_core.threads.VirtualThreadPinningMonitor;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+
+/**
+ * Virtual-thread profile (opt-in via {@code shared.core.virtual-threads.enabled=true}).
+ * Thread switching itself is done by {@link VirtualThreadEnvironmentPostProcessor};
+ * this adds the JFR-based pinning monitor.
+ */
+@AutoConfiguration(afterName = "org.springframework.boot.actuate.autoconfigure.metrics.CompositeMeterRegistryAutoConfiguration")
+@EnableConfigurationProperties(VirtualThreadProps.class)
+@ConditionalOnProperty(prefix = "shared.core.virtual-threads", name = "enabled", havingValue = "true")
+public class VirtualThreadAutoConfiguration {
+
+  @Bean
+  @ConditionalOnBean(MeterRegistry.class)
+  @ConditionalOnMissingBean
+  @ConditionalOnProperty(prefix = "shared.core.virtual-threads.pinning", name = "enabled", havingValue = "true", matchIfMissing = true)
+  public VirtualThreadPinningMonitor virtualThreadPinningMonitor(MeterRegistry registry, VirtualThreadProps props) {
+    VirtualThreadProps.Pinning pinning = props.getPinning();
+    return new VirtualThreadPinningMonitor(registry, pinning.getThreshold(), pinning.getMaxSites(), pinning.isLogStacks());
+  }
+}
@@ -0,0 +1,34 @@
+package com.ejada.starter_core.config;
+
+import java.util.Map;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.env.EnvironmentPostProcessor;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.MapPropertySource;
+
+/**
+ * Maps {@code shared.core.virtual-threads.enabled=true} onto Boot's
+ * {@code spring.threads.virtual.enabled}, which switches Tomcat, the
+ * {@code applicationTaskExecutor} (@Async) and the task scheduler to virtual threads.
+ * Added with the lowest precedence, so an explicit {@code spring.threads.virtual.enabled}
+ * still wins.
+ */
+public class VirtualThreadEnvironmentPostProcessor implements EnvironmentPostProcessor, Ordered {
+
+  static final String SOURCE_NAME = "sharedVirtualThreads";
+
+  @Override
+  public void postProcessEnvironment(ConfigurableEnvironment environment, SpringApplication application) {
+    if (environment.getProperty("shared.core.virtual-threads.enabled", Boolean.class, false)) {
+      environment.getPropertySources().addLast(
+          new MapPropertySource(SOURCE_NAME, Map.of("spring.threads.virtual.enabled", "true")));
+    }
+  }
+
+  @Override
+  public int getOrder() {
+    // after config data has been loaded
+    return Ordered.LOWEST_PRECEDENCE;
+  }
+}
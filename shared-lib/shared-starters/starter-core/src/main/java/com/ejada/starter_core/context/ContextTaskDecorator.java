@@ -0,0 +1,37 @@
+package com.ejada.starter_core.context;
+
+import com.ejada.common.context.ContextManager;
+import com.ejada.common.context.RequestContext;
+import java.util.Map;
+import org.slf4j.MDC;
+import org.springframework.core.task.TaskDecorator;
+
+/**
+ * Carries the submitter's {@link RequestContext} and MDC into {@code @Async} and other
+ * Spring-managed executor tasks, including virtual-thread executors.
+ */
+public class ContextTaskDecorator implements TaskDecorator {
+
+    @Override
+    public Runnable decorate(Runnable runnable) {
+        RequestContext context = ContextManager.capture();
+        Map<String, String> mdc = MDC.getCopyOfContextMap();
+        return () -> {
+            Map<String, String> previousMdc = MDC.getCopyOfContextMap();
+            setMdc(mdc);
+            try {
+                ContextManager.runWith(context, runnable);
+            } finally {
+                setMdc(previousMdc);
+            }
+        };
+    }
+
+    private static void setMdc(Map<String, String> values) {
+        if (values == null) {
+            MDC.clear();
+        } else {
+            MDC.setContextMap(values);
+        }
+    }
+}
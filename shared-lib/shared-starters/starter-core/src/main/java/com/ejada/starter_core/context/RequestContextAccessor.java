@@ -0,0 +1,36 @@
+package com.ejada.starter_core.context;
+
+import com.ejada.common.context.ContextManager;
+import com.ejada.common.context.RequestContext;
+import io.micrometer.context.ThreadLocalAccessor;
+
+/**
+ * Exposes the {@link ContextManager} record to Micrometer context-propagation so Reactor
+ * (automatic context propagation) and observation-aware executors restore tenant and
+ * correlation ids on whichever thread continues the work.
+ */
+public class RequestContextAccessor implements ThreadLocalAccessor<RequestContext> {
+
+    public static final String KEY = "ejada.request-context";
+
+    @Override
+    public Object key() {
+        return KEY;
+    }
+
+    @Override
+    public RequestContext getValue() {
+        RequestContext context = ContextManager.capture();
+        return context.isEmpty() ? null : context;
+    }
+
+    @Override
+    public void setValue(RequestContext value) {
+        ContextManager.restore(value);
+    }
+
+    @Override
+    public void setValue() {
+        ContextManager.restore(RequestContext.EMPTY);
+    }
+}
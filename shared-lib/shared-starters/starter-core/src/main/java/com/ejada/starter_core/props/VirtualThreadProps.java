@@ -0,0 +1,37 @@
+package com.ejada.starter_core.props;
+
+import com.ejada.common.BaseStarterProperties;
+import java.time.Duration;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Virtual-thread execution mode ({@code shared.core.virtual-threads.*}).
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "shared.core.virtual-threads")
+public class VirtualThreadProps implements BaseStarterProperties {
+
+    /** Run Tomcat, @Async, scheduling and Kafka listeners on virtual threads. */
+    private boolean enabled = false;
+
+    private final Pinning pinning = new Pinning();
+
+    @Getter
+    @Setter
+    public static class Pinning {
+        /** Stream JFR pinning events into metrics. */
+        private boolean enabled = true;
+
+        /** Pinned periods shorter than this are ignored (JFR threshold). */
+        private Duration threshold = Duration.ofMillis(20);
+
+        /** Distinct call sites tracked as metric tags before folding into "other". */
+        private int maxSites = 50;
+
+        /** Log the stack of each newly seen pinning site once. */
+        private boolean logStacks = true;
+    }
+}
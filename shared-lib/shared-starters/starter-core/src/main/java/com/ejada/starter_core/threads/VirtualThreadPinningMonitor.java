@@ -0,0 +1,148 @@
+package com.ejada.starter_core.threads;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+
+/**
+ * Streams JFR {@code jdk.VirtualThreadPinned} events in-process and publishes them as
+ * metrics, so carrier-thread pinning (typically {@code synchronized} sections inside JDBC
+ * drivers, connection pools or JCA providers) is visible on the normal dashboards.
+ *
+ * <ul>
+ *   <li>{@code virtual.threads.pinned} timer, tagged with the first application frame
+ *       ({@code site}) and a coarse {@code category} (jdbc, crypto, other)</li>
+ *   <li>{@code virtual.threads.submit.failed} counter</li>
+ * </ul>
+ */
+@Slf4j
+public class VirtualThreadPinningMonitor implements SmartLifecycle {
+
+    static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    static final String SUBMIT_FAILED_EVENT = "jdk.VirtualThreadSubmitFailed";
+    static final String OTHER = "other";
+
+    private static final List<String> JDK_PREFIXES = List.of("java.", "javax.", "jdk.", "sun.", "com.sun.");
+    private static final List<String> JDBC_PREFIXES = List.of(
+            "java.sql.", "javax.sql.", "org.postgresql.", "com.zaxxer.hikari.", "org.hibernate.", "oracle.jdbc.");
+    private static final List<String> CRYPTO_PREFIXES = List.of(
+            "javax.crypto.", "java.security.", "sun.security.", "com.sun.crypto.", "org.bouncycastle.");
+
+    private final MeterRegistry registry;
+    private final Duration threshold;
+    private final int maxSites;
+    private final boolean logStacks;
+    private final Set<String> sites = ConcurrentHashMap.newKeySet();
+    private final Counter submitFailed;
+    private volatile RecordingStream stream;
+
+    public VirtualThreadPinningMonitor(MeterRegistry registry, Duration threshold, int maxSites, boolean logStacks) {
+        this.registry = registry;
+        this.threshold = threshold;
+        this.maxSites = maxSites;
+        this.logStacks = logStacks;
+        this.submitFailed = Counter.builder("virtual.threads.submit.failed")
+                .description("Virtual threads that could not be scheduled on a carrier")
+                .register(registry);
+    }
+
+    @Override
+    public void start() {
+        try {
+            RecordingStream rs = new RecordingStream();
+            rs.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+            rs.enable(SUBMIT_FAILED_EVENT);
+            rs.onEvent(PINNED_EVENT, this::onPinned);
+            rs.onEvent(SUBMIT_FAILED_EVENT, e -> submitFailed.increment());
+            rs.startAsync();
+            stream = rs;
+            log.info("Virtual thread pinning monitor started (threshold {})", threshold);
+        } catch (RuntimeException | LinkageError ex) {
+            // JFR can be disabled or unavailable (e.g. -XX:-FlightRecorder); never fail startup for it
+            log.warn("Virtual thread pinning monitor unavailable: {}", ex.toString());
+        }
+    }
+
+    @Override
+    public void stop() {
+        RecordingStream rs = stream;
+        stream = null;
+        if (rs != null) {
+            rs.close();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return stream != null;
+    }
+
+    private void onPinned(RecordedEvent event) {
+        List<String> frames = frames(event.getStackTrace());
+        String site = site(frames);
+        boolean first = false;
+        if (!sites.contains(site)) {
+            if (sites.size() < maxSites) {
+                first = sites.add(site);
+            } else {
+                site = OTHER;
+            }
+        }
+        Timer.builder("virtual.threads.pinned")
+                .description("Time virtual threads spent pinned to their carrier thread")
+                .tag("site", site)
+                .tag("category", category(frames))
+                .register(registry)
+                .record(event.getDuration());
+        if (first && logStacks) {
+            log.warn("Virtual thread pinned for {} ms at {}:\n\t{}", event.getDuration().toMillis(), site,
+                    String.join("\n\t", frames.subList(0, Math.min(frames.size(), 12))));
+        }
+    }
+
+    private static List<String> frames(RecordedStackTrace stackTrace) {
+        if (stackTrace == null) {
+            return List.of();
+        }
+        List<String> frames = new ArrayList<>(stackTrace.getFrames().size());
+        for (RecordedFrame frame : stackTrace.getFrames()) {
+            if (frame.isJavaFrame() && frame.getMethod() != null) {
+                frames.add(frame.getMethod().getType().getName() + "." + frame.getMethod().getName());
+            }
+        }
+        return frames;
+    }
+
+    /** First non-JDK frame, i.e. the library or application code that pinned the carrier. */
+    static String site(List<String> frames) {
+        for (String frame : frames) {
+            if (JDK_PREFIXES.stream().noneMatch(frame::startsWith)) {
+                return frame;
+            }
+        }
+        return frames.isEmpty() ? OTHER : frames.get(0);
+    }
+
+    static String category(List<String> frames) {
+        for (String frame : frames) {
+            if (JDBC_PREFIXES.stream().anyMatch(frame::startsWith)) {
+                return "jdbc";
+            }
+            if (CRYPTO_PREFIXES.stream().anyMatch(frame::startsWith)) {
+                return "crypto";
+            }
+        }
+        return OTHER;
+    }
+}
@@ -0,0 +1,174 @@
+package com.ejada.starter_core.threads;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.DispatcherServletAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.ServletWebServerFactoryAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.WebMvcAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Load-test harness comparing request throughput of the platform-thread and
+ * virtual-thread profiles. Not a unit test; run manually:
+ *
+ * <pre>
+ * ulimit -n 65535
+ * mvn -q test-compile exec:java -Dexec.classpathScope=test \
+ *   -Dexec.mainClass=com.ejada.starter_core.threads.VirtualThreadLoadHarness \
+ *   -Dconnections=2000 -Dduration=30s -Dwork=20ms
+ * </pre>
+ *
+ * <p>Each mode boots a minimal Tomcat application whose endpoint blocks for
+ * {@code work} (standing in for a JDBC round-trip), then {@code connections}
+ * concurrent clients hammer it for {@code duration} after a warm-up.</p>
+ */
+public final class VirtualThreadLoadHarness {
+
+    private VirtualThreadLoadHarness() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int connections = Integer.getInteger("connections", 2000);
+        Duration duration = Duration.parse("PT" + System.getProperty("duration", "30s"));
+        Duration warmup = Duration.parse("PT" + System.getProperty("warmup", "5s"));
+        Duration work = Duration.ofMillis(Long.parseLong(System.getProperty("work", "20ms").replace("ms", "")));
+
+        List<Result> results = new ArrayList<>();
+        for (boolean virtual : new boolean[] {false, true}) {
+            try (ConfigurableApplicationContext app = start(virtual)) {
+                int port = ((WebServerApplicationContext) app).getWebServer().getPort();
+                URI uri = URI.create("http://localhost:" + port + "/work?ms=" + work.toMillis());
+                drive(uri, connections, warmup);
+                results.add(new Result(virtual ? "virtual" : "platform", drive(uri, connections, duration)));
+            }
+        }
+
+        System.out.printf("%n%-10s %12s %10s %10s %10s %8s%n", "mode", "req/s", "p50 ms", "p99 ms", "max ms", "errors");
+        for (Result r : results) {
+            Stats s = r.stats();
+            System.out.printf("%-10s %12.0f %10.1f %10.1f %10.1f %8d%n",
+                    r.mode(), s.throughput(), s.p50(), s.p99(), s.max(), s.errors());
+        }
+    }
+
+    private static ConfigurableApplicationContext start(boolean virtual) {
+        return new SpringApplicationBuilder(HarnessApp.class)
+                .web(WebApplicationType.SERVLET)
+                .properties(
+                        "server.port=0",
+                        "server.tomcat.max-connections=20000",
+                        "server.tomcat.accept-count=2000",
+                        "shared.core.virtual-threads.enabled=" + virtual,
+                        "logging.level.root=WARN")
+                .run();
+    }
+
+    private static Stats drive(URI uri, int connections, Duration duration) throws InterruptedException {
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        HttpRequest request = HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(30)).GET().build();
+        AtomicBoolean running = new AtomicBoolean(true);
+        LongAdder errors = new LongAdder();
+        ConcurrentLinkedQueue<long[]> samples = new ConcurrentLinkedQueue<>();
+
+        long started = System.nanoTime();
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < connections; i++) {
+                clients.submit(() -> {
+                    long[] latencies = new long[1024];
+                    int n = 0;
+                    while (running.get()) {
+                        long t0 = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() != 200) {
+                                errors.increment();
+                                continue;
+                            }
+                        } catch (Exception ex) {
+                            errors.increment();
+                            continue;
+                        }
+                        if (n == latencies.length) {
+                            latencies = Arrays.copyOf(latencies, n * 2);
+                        }
+                        latencies[n++] = System.nanoTime() - t0;
+                    }
+                    samples.add(Arrays.copyOf(latencies, n));
+                });
+            }
+            Thread.sleep(duration.toMillis());
+            running.set(false);
+        }
+        double elapsedSeconds = (System.nanoTime() - started) / 1e9;
+        long[] all = samples.stream().flatMapToLong(Arrays::stream).sorted().toArray();
+        return new Stats(all, elapsedSeconds, errors.sum());
+    }
+
+    private record Result(String mode, Stats stats) {
+    }
+
+    private record Stats(long[] sortedNanos, double seconds, long errors) {
+        double throughput() {
+            return sortedNanos.length / seconds;
+        }
+
+        double p50() {
+            return percentile(0.50);
+        }
+
+        double p99() {
+            return percentile(0.99);
+        }
+
+        double max() {
+            return sortedNanos.length == 0 ? 0 : sortedNanos[sortedNanos.length - 1] / 1e6;
+        }
+
+        private double percentile(double p) {
+            if (sortedNanos.length == 0) {
+                return 0;
+            }
+            return sortedNanos[(int) Math.min(sortedNanos.length - 1, Math.floor(p * sortedNanos.length))] / 1e6;
+        }
+    }
+
+    @SpringBootConfiguration
+    @ImportAutoConfiguration({
+            ServletWebServerFactoryAutoConfiguration.class,
+            DispatcherServletAutoConfiguration.class,
+            WebMvcAutoConfiguration.class,
+            TaskExecutionAutoConfiguration.class})
+    @RestController
+    static class HarnessApp {
+
+        @GetMapping("/work")
+        String work(@RequestParam(defaultValue = "20") long ms) throws InterruptedException {
+            Thread.sleep(ms);
+            return Thread.currentThread().isVirtual() ? "virtual" : "platform";
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.ejada.starter_core.threads;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link VirtualThreadPinningMonitor}.
+ */
+class VirtualThreadPinningMonitorTest {
+
+    @Test
+    void siteIsFirstNonJdkFrameAndCategoryFollowsStack() {
+        List<String> frames = List.of(
+                "java.lang.VirtualThread.parkOnCarrierThread",
+                "java.lang.Thread.sleep",
+                "org.postgresql.core.v3.QueryExecutorImpl.execute",
+                "com.zaxxer.hikari.pool.ProxyStatement.executeQuery",
+                "com.ejada.billing.service.ConsumptionServiceImpl.track");
+
+        assertThat(VirtualThreadPinningMonitor.site(frames)).isEqualTo("org.postgresql.core.v3.QueryExecutorImpl.execute");
+        assertThat(VirtualThreadPinningMonitor.category(frames)).isEqualTo("jdbc");
+        assertThat(VirtualThreadPinningMonitor.category(List.of("javax.crypto.Cipher.doFinal"))).isEqualTo("crypto");
+        assertThat(VirtualThreadPinningMonitor.site(List.of())).isEqualTo(VirtualThreadPinningMonitor.OTHER);
+    }
+
+    @Test
+    void synchronizedSleepOnVirtualThreadIsRecorded() throws Exception {
+        // JDK 24+ no longer pins on monitors (JEP 491)
+        assumeTrue(Runtime.version().feature() < 24);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        VirtualThreadPinningMonitor monitor = new VirtualThreadPinningMonitor(registry, Duration.ofMillis(10), 10, false);
+        monitor.start();
+        assumeTrue(monitor.isRunning());
+        try {
+            Object lock = new Object();
+            long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+            while (pinnedCount(registry) == 0 && System.nanoTime() < deadline) {
+                Thread.ofVirtual().start(() -> {
+                    synchronized (lock) {
+                        try {
+                            Thread.sleep(30);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                    }
+                }).join();
+                Thread.sleep(200);
+            }
+            assertThat(pinnedCount(registry)).isPositive();
+            assertThat(registry.find("virtual.threads.pinned").timer().getId().getTag("site"))
+                    .startsWith(VirtualThreadPinningMonitorTest.class.getName());
+        } finally {
+            monitor.stop();
+        }
+    }
+
+    private static long pinnedCount(SimpleMeterRegistry registry) {
+        return registry.find("virtual.threads.pinned").timers().stream().mapToLong(Timer::count).sum();
+    }
+}
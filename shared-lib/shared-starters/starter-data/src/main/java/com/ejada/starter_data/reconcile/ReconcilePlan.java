@@ -0,0 +1,27 @@
+package com.ejada.starter_data.reconcile;
+
+import java.util.List;
+
+/**
+ * Differences between a persisted child collection and its incoming replacement.
+ *
+ * @param <E> persisted row type
+ * @param <I> incoming item type
+ */
+public record ReconcilePlan<E, I>(List<I> inserts, List<Change<E, I>> updates, List<E> deletes) {
+
+  public ReconcilePlan {
+    inserts = List.copyOf(inserts);
+    updates = List.copyOf(updates);
+    deletes = List.copyOf(deletes);
+  }
+
+  /** {@code true} when the incoming set equals the persisted one and nothing needs writing. */
+  public boolean isEmpty() {
+    return inserts.isEmpty() && updates.isEmpty() && deletes.isEmpty();
+  }
+
+  /** A persisted row whose content differs from the incoming item with the same key. */
+  public record Change<E, I>(E current, I incoming) {
+  }
+}
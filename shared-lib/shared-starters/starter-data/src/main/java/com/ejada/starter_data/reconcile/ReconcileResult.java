@@ -0,0 +1,11 @@
+package com.ejada.starter_data.reconcile;
+
+/** Row counts written by {@link KeyedReconciler#apply}. */
+public record ReconcileResult(int inserted, int updated, int deleted) {
+
+  public static final ReconcileResult NONE = new ReconcileResult(0, 0, 0);
+
+  public boolean changed() {
+    return inserted + updated + deleted > 0;
+  }
+}
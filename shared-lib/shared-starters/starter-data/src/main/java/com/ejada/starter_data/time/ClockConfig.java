@@ -1,8 +1,9 @@
 package com.ejada.starter_data.time;
 import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.context.annotation.Bean;
 import java.time.Clock;
 @AutoConfiguration
 public class ClockConfig {
-  @Bean public Clock clock(){ return Clock.systemUTC(); }
+  @Bean @ConditionalOnMissingBean public Clock clock(){ return Clock.systemUTC(); }
 }
@@ -0,0 +1,105 @@
+package com.ejada.starter_data.reconcile;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+import java.util.List;
+import java.util.Objects;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.mockito.Mockito;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+
+class KeyedReconcilerTest {
+
+  record Row(long id, String code, Integer count) {
+  }
+
+  record Item(String code, Integer count) {
+  }
+
+  private static final String INSERT = "insert";
+  private static final String UPDATE = "update";
+  private static final String DELETE = "delete";
+
+  private final JdbcTemplate jdbc = mock(JdbcTemplate.class);
+
+  private final KeyedReconciler<String, Row, Item> reconciler = KeyedReconciler
+      .<String, Row, Item>builder(Row::code, Item::code)
+      .unchangedWhen((row, item) -> Objects.equals(row.count(), item.count()))
+      .insert(INSERT, (ps, item) -> ps.setString(1, item.code()))
+      .update(UPDATE, (ps, change) -> ps.setLong(1, change.current().id()))
+      .delete(DELETE, (ps, row) -> ps.setLong(1, row.id()))
+      .batchSize(2)
+      .build();
+
+  @Test
+  void identicalSetsWriteNothing() {
+    List<Row> current = List.of(new Row(1, "A", 1), new Row(2, "B", null));
+
+    ReconcileResult result = reconciler.reconcile(jdbc, current, List.of(new Item("B", null), new Item("A", 1)));
+
+    assertSame(ReconcileResult.NONE, result);
+    verifyNoInteractions(jdbc);
+  }
+
+  @Test
+  void planSeparatesInsertsUpdatesAndDeletesByKey() {
+    List<Row> current = List.of(new Row(1, "A", 1), new Row(2, "B", 2), new Row(3, "C", 3));
+    List<Item> incoming = List.of(new Item("A", 1), new Item("B", 5), new Item("D", 4), new Item("D", 7));
+
+    ReconcilePlan<Row, Item> plan = reconciler.plan(current, incoming);
+
+    assertEquals(List.of(new Item("D", 7)), plan.inserts());
+    assertEquals(1, plan.updates().size());
+    assertEquals(new Row(2, "B", 2), plan.updates().get(0).current());
+    assertEquals(new Item("B", 5), plan.updates().get(0).incoming());
+    assertEquals(List.of(new Row(3, "C", 3)), plan.deletes());
+  }
+
+  @Test
+  void duplicatePersistedKeysAreDeletedAndEmptyIncomingClearsAll() {
+    ReconcilePlan<Row, Item> plan = reconciler.plan(
+        List.of(new Row(1, "A", 1), new Row(2, "A", 1)), List.of(new Item("A", 1)));
+    assertEquals(List.of(new Row(2, "A", 1)), plan.deletes());
+    assertTrue(plan.inserts().isEmpty() && plan.updates().isEmpty());
+
+    ReconcilePlan<Row, Item> clear = reconciler.plan(List.of(new Row(1, "A", 1)), null);
+    assertEquals(1, clear.deletes().size());
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void applyBatchesDeletesBeforeUpdatesAndInserts() {
+    ReconcileResult result = reconciler.reconcile(jdbc,
+        List.of(new Row(1, "A", 1), new Row(2, "B", 2)),
+        List.of(new Item("A", 9), new Item("C", 3)));
+
+    assertEquals(new ReconcileResult(1, 1, 1), result);
+    InOrder order = Mockito.inOrder(jdbc);
+    order.verify(jdbc).batchUpdate(eq(DELETE), any(List.class), eq(2), any(ParameterizedPreparedStatementSetter.class));
+    order.verify(jdbc).batchUpdate(eq(UPDATE), any(List.class), eq(2), any(ParameterizedPreparedStatementSetter.class));
+    order.verify(jdbc).batchUpdate(eq(INSERT), any(List.class), eq(2), any(ParameterizedPreparedStatementSetter.class));
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void onlyNonEmptyKindsAreSent() {
+    reconciler.reconcile(jdbc, List.of(new Row(1, "A", 1)), List.of(new Item("A", 2)));
+
+    verify(jdbc).batchUpdate(eq(UPDATE), any(List.class), anyInt(), any(ParameterizedPreparedStatementSetter.class));
+    verify(jdbc, never()).batchUpdate(eq(INSERT), any(List.class), anyInt(), any(ParameterizedPreparedStatementSetter.class));
+    verify(jdbc, never()).batchUpdate(eq(DELETE), any(List.class), anyInt(), any(ParameterizedPreparedStatementSetter.class));
+    verify(jdbc, never()).update(anyString());
+  }
+}
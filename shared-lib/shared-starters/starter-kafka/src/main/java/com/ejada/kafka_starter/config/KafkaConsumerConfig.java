@@ -2,20 +2,27 @@ package com.ejada.kafka_starter.config;
 
 import com.ejada.common.constants.HeaderNames;
 import com.ejada.common.context.ContextManager;
+import com.ejada.common.context.RequestContext;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.ejada.kafka_starter.props.KafkaProperties;
 import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.clients.consumer.Consumer;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.apache.kafka.common.TopicPartition;
 import org.apache.kafka.common.serialization.StringDeserializer;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.thread.Threading;
 import org.springframework.context.annotation.Bean;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.core.ConsumerFactory;
 import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
 import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.kafka.listener.RecordInterceptor;
 import org.springframework.kafka.support.ExponentialBackOffWithMaxRetries;
 import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
 import org.springframework.kafka.support.serializer.JsonDeserializer;
@@ -51,11 +58,16 @@ public class KafkaConsumerConfig {
     public ConcurrentKafkaListenerContainerFactory<String, Object> kafkaListenerContainerFactory(
             ConsumerFactory<String, Object> cf,
             KafkaTemplate<String, Object> template,
-            KafkaProperties props) {
+            KafkaProperties props,
+            Environment environment) {
 
         var factory = new ConcurrentKafkaListenerContainerFactory<String, Object>();
         factory.setConsumerFactory(cf);
         factory.setConcurrency(props.getConcurrency());
+        if (Threading.VIRTUAL.isActive(environment)) {
+            // same switch Boot uses for its own listener factory (spring.threads.virtual.enabled)
+            factory.getContainerProperties().setListenerTaskExecutor(new VirtualThreadTaskExecutor("kafka-listener-"));
+        }
 
         // --- Retry + DLT ---
         var backoff = new ExponentialBackOffWithMaxRetries(props.getMaxAttempts() - 1);
@@ -72,17 +84,37 @@ public class KafkaConsumerConfig {
         var errorHandler = new DefaultErrorHandler(recoverer, backoff);
         factory.setCommonErrorHandler(errorHandler);
 
-        factory.setRecordInterceptor((record, consumer) -> {
-            Headers headers = record.headers();
-            var header = headers.lastHeader(HeaderNames.CORRELATION_ID);
-            if (header != null) {
-                String cid = new String(header.value(), java.nio.charset.StandardCharsets.UTF_8);
-                ContextManager.setCorrelationId(cid);
-                org.slf4j.MDC.put(HeaderNames.CORRELATION_ID, cid);
+        factory.setRecordInterceptor(new RecordInterceptor<>() {
+            @Override
+            public ConsumerRecord<String, Object> intercept(ConsumerRecord<String, Object> record,
+                                                            Consumer<String, Object> consumer) {
+                Headers headers = record.headers();
+                String cid = header(headers, HeaderNames.CORRELATION_ID);
+                String tenant = header(headers, HeaderNames.X_TENANT_ID);
+                ContextManager.restore(new RequestContext(tenant, cid, null, null));
+                if (cid != null) {
+                    org.slf4j.MDC.put(HeaderNames.CORRELATION_ID, cid);
+                }
+                if (tenant != null) {
+                    org.slf4j.MDC.put(HeaderNames.X_TENANT_ID, tenant);
+                }
+                return record;
+            }
+
+            @Override
+            public void afterRecord(ConsumerRecord<String, Object> record, Consumer<String, Object> consumer) {
+                // listener threads are reused (or virtual); never leak one record's context into the next
+                ContextManager.restore(RequestContext.EMPTY);
+                org.slf4j.MDC.remove(HeaderNames.CORRELATION_ID);
+                org.slf4j.MDC.remove(HeaderNames.X_TENANT_ID);
             }
-            return record;
         });
 
         return factory;
     }
+
+    private static String header(Headers headers, String name) {
+        var header = headers.lastHeader(name);
+        return header == null ? null : new String(header.value(), java.nio.charset.StandardCharsets.UTF_8);
+    }
 }
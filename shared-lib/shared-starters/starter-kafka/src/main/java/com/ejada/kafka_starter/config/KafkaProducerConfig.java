@@ -56,6 +56,10 @@ public class KafkaProducerConfig {
         if (cid != null) {
           rec.headers().add(HeaderNames.CORRELATION_ID, cid.getBytes(java.nio.charset.StandardCharsets.UTF_8));
         }
+        String tenant = ContextManager.Tenant.get();
+        if (tenant != null && rec.headers().lastHeader(HeaderNames.X_TENANT_ID) == null) {
+          rec.headers().add(HeaderNames.X_TENANT_ID, tenant.getBytes(java.nio.charset.StandardCharsets.UTF_8));
+        }
       }
 
       @Override
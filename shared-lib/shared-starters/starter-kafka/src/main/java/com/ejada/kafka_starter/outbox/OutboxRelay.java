@@ -0,0 +1,232 @@
+package com.ejada.kafka_starter.outbox;
+
+import com.ejada.common.constants.HeaderNames;
+import com.ejada.kafka_starter.core.TopicNaming;
+import com.ejada.kafka_starter.outbox.OutboxRelayRepository.Backlog;
+import com.ejada.kafka_starter.outbox.OutboxRelayRepository.PendingEvent;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Publishes outbox rows to Kafka. Services subclass it as a scheduled component and
+ * hand it an {@link OutboxRelayRepository} for their {@link OutboxTable}.
+ *
+ * <p>Each pass claims a batch inside one transaction (see {@link OutboxRelayRepository}
+ * for the locking that lets replicas relay in parallel) and publishes it in rounds,
+ * keyed by aggregate id: a round sends the next event of every aggregate in the batch
+ * and waits for their acknowledgements, so different aggregates are pipelined while an
+ * aggregate's next event is only sent once its previous one was acknowledged. An
+ * aggregate whose event fails or times out sends nothing more in this pass, so its later
+ * events stay pending behind it and the next pass resends them in order. Delivered rows
+ * are marked processed in one update before committing; delivery is at-least-once and
+ * consumers de-duplicate on {@code x-msg-id}.</p>
+ *
+ * <p>Events go to {@code <env>.<aggregate type>.events}. Backlog size, age of the oldest
+ * pending event and publish latency are exported as {@code <prefix>.backlog},
+ * {@code <prefix>.oldest.age} and {@code <prefix>.publish.latency} when a
+ * {@link MeterRegistry} is given.</p>
+ */
+public class OutboxRelay {
+
+  public static final String EVENT_TYPE_HEADER = "x-event-type";
+  public static final String AGGREGATE_TYPE_HEADER = "x-aggregate-type";
+
+  private static final Logger log = LoggerFactory.getLogger(OutboxRelay.class);
+  private static final TypeReference<Map<String, Object>> HEADER_MAP = new TypeReference<>() { };
+
+  private final OutboxRelayRepository repo;
+  private final KafkaTemplate<String, String> kafka;
+  private final TransactionOperations tx;
+  private final ObjectMapper objectMapper;
+  private final Settings settings;
+  private final AtomicLong backlogSize = new AtomicLong();
+  private final AtomicLong oldestAgeMillis = new AtomicLong();
+  private final Timer publishLatency;
+
+  /**
+   * @param meterRegistry registry for the relay metrics, or {@code null} to export none
+   */
+  public OutboxRelay(
+      OutboxRelayRepository repo,
+      KafkaTemplate<String, String> kafka,
+      TransactionOperations tx,
+      ObjectMapper objectMapper,
+      MeterRegistry meterRegistry,
+      Settings settings) {
+    this.repo = repo;
+    this.kafka = kafka;
+    this.tx = tx;
+    this.objectMapper = objectMapper;
+    this.settings = settings;
+    if (meterRegistry != null) {
+      meterRegistry.gauge(settings.metricPrefix() + ".backlog", List.of(), backlogSize, AtomicLong::doubleValue);
+      meterRegistry.gauge(settings.metricPrefix() + ".oldest.age", List.of(), oldestAgeMillis, a -> a.get() / 1000.0);
+      this.publishLatency = Timer.builder(settings.metricPrefix() + ".publish.latency")
+          .description("Time from outbox insert to broker acknowledgement")
+          .register(meterRegistry);
+    } else {
+      this.publishLatency = null;
+    }
+  }
+
+  /** Relays full batches until a short one or {@code maxBatchesPerPass}, then refreshes the backlog. */
+  public void relay() {
+    for (int i = 0; i < settings.maxBatchesPerPass(); i++) {
+      Integer claimed = tx.execute(status -> relayBatch());
+      if (claimed == null || claimed < settings.batchSize()) {
+        break;
+      }
+    }
+    Backlog backlog = repo.backlog();
+    backlogSize.set(backlog.size());
+    oldestAgeMillis.set(backlog.oldestCreatedAt() == null ? 0
+        : Math.max(0, Duration.between(backlog.oldestCreatedAt(), OffsetDateTime.now()).toMillis()));
+  }
+
+  /** Pending events as of the last pass. */
+  public long backlogSize() {
+    return backlogSize.get();
+  }
+
+  /** Age of the oldest pending event in milliseconds as of the last pass. */
+  public long oldestAgeMillis() {
+    return oldestAgeMillis.get();
+  }
+
+  /** Claims, publishes and marks one batch; returns the number of rows claimed. */
+  int relayBatch() {
+    List<PendingEvent> batch = repo.claimBatch(settings.batchSize());
+    if (batch.isEmpty()) {
+      return 0;
+    }
+    Map<String, Deque<PendingEvent>> pending = new LinkedHashMap<>();
+    for (PendingEvent event : batch) {
+      pending.computeIfAbsent(event.aggregateType() + ':' + event.aggregateId(), k -> new ArrayDeque<>())
+          .add(event);
+    }
+    List<Long> delivered = new ArrayList<>(batch.size());
+    long deadline = System.nanoTime() + settings.sendTimeout().toNanos();
+    while (!pending.isEmpty() && System.nanoTime() < deadline) {
+      Map<String, CompletableFuture<SendResult<String, String>>> round = new HashMap<>(pending.size() * 2);
+      pending.forEach((aggregate, events) -> round.put(aggregate, send(events.peekFirst())));
+      await(round.values(), deadline);
+
+      OffsetDateTime now = OffsetDateTime.now();
+      for (var it = pending.entrySet().iterator(); it.hasNext();) {
+        var entry = it.next();
+        PendingEvent event = entry.getValue().peekFirst();
+        CompletableFuture<SendResult<String, String>> send = round.get(entry.getKey());
+        if (!send.isDone() || send.isCompletedExceptionally()) {
+          log.warn("Outbox event {} ({} {}) not delivered; holding aggregate {} for retry",
+              event.id(), event.eventType(), event.aggregateId(), entry.getKey());
+          it.remove();
+          continue;
+        }
+        delivered.add(event.id());
+        if (publishLatency != null && event.createdAt() != null) {
+          publishLatency.record(Duration.between(event.createdAt(), now));
+        }
+        entry.getValue().pollFirst();
+        if (entry.getValue().isEmpty()) {
+          it.remove();
+        }
+      }
+    }
+    repo.markProcessed(delivered);
+    return batch.size();
+  }
+
+  private static void await(Collection<CompletableFuture<SendResult<String, String>>> sends, long deadline) {
+    try {
+      CompletableFuture.allOf(sends.toArray(CompletableFuture[]::new))
+          .get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (ExecutionException | TimeoutException e) {
+      // per-event outcomes are inspected by the caller
+    }
+  }
+
+  private CompletableFuture<SendResult<String, String>> send(PendingEvent event) {
+    try {
+      ProducerRecord<String, String> record = new ProducerRecord<>(topicFor(event), event.aggregateId(), event.payload());
+      record.headers()
+          .add(HeaderNames.MESSAGE_ID, bytes(String.valueOf(event.id())))
+          .add(EVENT_TYPE_HEADER, bytes(event.eventType()))
+          .add(AGGREGATE_TYPE_HEADER, bytes(event.aggregateType()));
+      if (event.headers() != null && !event.headers().isBlank()) {
+        objectMapper.readValue(event.headers(), HEADER_MAP)
+            .forEach((k, v) -> record.headers().add(k, bytes(String.valueOf(v))));
+      }
+      return kafka.send(record);
+    } catch (Exception e) {
+      return CompletableFuture.failedFuture(e);
+    }
+  }
+
+  private String topicFor(PendingEvent event) {
+    return TopicNaming.events(settings.env(), event.aggregateType().toLowerCase(Locale.ROOT));
+  }
+
+  private static byte[] bytes(String value) {
+    return value.getBytes(StandardCharsets.UTF_8);
+  }
+
+  /** Deletes processed events older than the retention in bounded chunks. */
+  public void purge() {
+    long deleted = 0;
+    int n;
+    do {
+      n = repo.deleteProcessedChunk(settings.retention(), settings.purgeChunkSize());
+      deleted += n;
+    } while (n == settings.purgeChunkSize());
+    if (deleted > 0) {
+      log.info("Purged {} processed outbox events older than {}", deleted, settings.retention());
+    }
+  }
+
+  /**
+   * @param env               topic environment prefix ({@code shared.kafka.env})
+   * @param metricPrefix      prefix of the exported meter names
+   * @param batchSize         rows claimed per transaction
+   * @param maxBatchesPerPass full batches relayed before a pass yields
+   * @param sendTimeout       how long a batch waits for acknowledgements
+   * @param retention         how long processed rows are kept
+   * @param purgeChunkSize    rows deleted per purge statement
+   */
+  public record Settings(
+      String env,
+      String metricPrefix,
+      int batchSize,
+      int maxBatchesPerPass,
+      Duration sendTimeout,
+      Duration retention,
+      int purgeChunkSize) {
+  }
+}
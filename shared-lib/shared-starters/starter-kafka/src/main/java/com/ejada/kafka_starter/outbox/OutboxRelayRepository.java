@@ -0,0 +1,121 @@
+package com.ejada.kafka_starter.outbox;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+/**
+ * Set-based access to an outbox table for {@link OutboxRelay}. Claims, marks and purges
+ * run as single statements over id batches, never through entity loading. The
+ * statements are built once from the {@link OutboxTable}, whose names are validated
+ * identifiers.
+ */
+public class OutboxRelayRepository {
+
+  /*
+   * Rows are locked with SKIP LOCKED so relays on other replicas claim different rows,
+   * and a transaction-scoped advisory lock per aggregate keeps all pending events of
+   * one aggregate on the replica that claimed the first of them, which preserves
+   * per-aggregate order across replicas. Both are released on commit.
+   */
+  private static final String CLAIM = """
+      select o.%1$s, o.aggregate_type, o.aggregate_id, o.event_type, o.payload::text, %2$s, o.created_at
+        from %3$s o
+       where %4$s
+         and pg_try_advisory_xact_lock(hashtextextended(o.aggregate_type || ':' || o.aggregate_id, 0))
+       order by o.%1$s
+       limit ?
+         for update skip locked
+      """;
+
+  private static final String MARK_PROCESSED = "update %s set %s where %s = any(?)";
+
+  private static final String BACKLOG = "select count(*), min(o.created_at) from %s o where %s";
+
+  private static final String DELETE_PROCESSED_CHUNK = """
+      delete from %1$s
+       where %2$s in (select o.%2$s
+                        from %1$s o
+                       where %3$s
+                       limit ?)
+      """;
+
+  private final JdbcTemplate jdbc;
+  private final String claim;
+  private final String markProcessed;
+  private final String backlog;
+  private final String deleteProcessedChunk;
+
+  public OutboxRelayRepository(JdbcTemplate jdbc, OutboxTable table) {
+    this.jdbc = jdbc;
+    String pending;
+    String mark;
+    String expired;
+    if (table.publishedColumn() != null) {
+      pending = "not o." + table.publishedColumn();
+      mark = table.publishedColumn() + " = true, " + table.processedAtColumn() + " = now()";
+      expired = "o." + table.publishedColumn() + " and o." + table.processedAtColumn() + " < ?";
+    } else {
+      pending = "o." + table.processedAtColumn() + " is null";
+      mark = table.processedAtColumn() + " = now()";
+      expired = "o." + table.processedAtColumn() + " < ?";
+    }
+    String headers = table.headersColumn() == null ? "null" : "o." + table.headersColumn() + "::text";
+    this.claim = CLAIM.formatted(table.idColumn(), headers, table.table(), pending);
+    this.markProcessed = MARK_PROCESSED.formatted(table.table(), mark, table.idColumn());
+    this.backlog = BACKLOG.formatted(table.table(), pending);
+    this.deleteProcessedChunk = DELETE_PROCESSED_CHUNK.formatted(table.table(), table.idColumn(), expired);
+  }
+
+  /** Locks and returns up to {@code limit} pending events; call inside a transaction. */
+  public List<PendingEvent> claimBatch(int limit) {
+    return jdbc.query(claim, (rs, i) -> new PendingEvent(
+        rs.getLong(1),
+        rs.getString(2),
+        rs.getString(3),
+        rs.getString(4),
+        rs.getString(5),
+        rs.getString(6),
+        rs.getObject(7, OffsetDateTime.class)), limit);
+  }
+
+  public int markProcessed(List<Long> ids) {
+    if (ids.isEmpty()) {
+      return 0;
+    }
+    return jdbc.update(con -> {
+      var ps = con.prepareStatement(markProcessed);
+      ps.setArray(1, con.createArrayOf("bigint", ids.toArray()));
+      return ps;
+    });
+  }
+
+  /** Number of pending events and the creation time of the oldest ({@code null} when caught up). */
+  public Backlog backlog() {
+    return jdbc.queryForObject(backlog, (rs, i) -> new Backlog(rs.getLong(1), rs.getObject(2, OffsetDateTime.class)));
+  }
+
+  /** Deletes up to {@code limit} events processed more than {@code retention} ago. */
+  public int deleteProcessedChunk(Duration retention, int limit) {
+    Timestamp cutoff = Timestamp.from(OffsetDateTime.now(ZoneOffset.UTC).minus(retention).toInstant());
+    return jdbc.update(deleteProcessedChunk, cutoff, limit);
+  }
+
+  /** A claimed outbox row; {@code headers} is the JSON headers object, if the table has one. */
+  public record PendingEvent(
+      Long id,
+      String aggregateType,
+      String aggregateId,
+      String eventType,
+      String payload,
+      String headers,
+      OffsetDateTime createdAt) {
+  }
+
+  public record Backlog(long size, OffsetDateTime oldestCreatedAt) {
+  }
+}
@@ -0,0 +1,64 @@
+package com.ejada.kafka_starter.outbox;
+
+import java.util.regex.Pattern;
+
+/**
+ * Shape of a service's outbox table as seen by {@link OutboxRelayRepository}. Every
+ * outbox has {@code aggregate_type}, {@code aggregate_id}, {@code event_type},
+ * {@code payload} and {@code created_at}; what differs is the id column, how a row is
+ * marked delivered and whether it carries extra Kafka headers.
+ *
+ * <p>A row is pending while {@code processedAtColumn} is null, unless a
+ * {@code publishedColumn} boolean flag is configured, in which case that flag decides
+ * and the timestamp column is only stamped alongside it.</p>
+ *
+ * @param table             outbox table name
+ * @param idColumn          monotonically increasing bigint key
+ * @param processedAtColumn timestamp set when the row was delivered
+ * @param publishedColumn   optional boolean delivered flag, or {@code null}
+ * @param headersColumn     optional JSON object of extra headers, or {@code null}
+ */
+public record OutboxTable(
+    String table,
+    String idColumn,
+    String processedAtColumn,
+    String publishedColumn,
+    String headersColumn) {
+
+  private static final Pattern IDENTIFIER = Pattern.compile("[a-z_][a-z0-9_]*");
+
+  public OutboxTable {
+    requireIdentifier("table", table);
+    requireIdentifier("idColumn", idColumn);
+    requireIdentifier("processedAtColumn", processedAtColumn);
+    if (publishedColumn != null) {
+      requireIdentifier("publishedColumn", publishedColumn);
+    }
+    if (headersColumn != null) {
+      requireIdentifier("headersColumn", headersColumn);
+    }
+  }
+
+  /** An outbox pending while {@code processed_at} is null, without a headers column. */
+  public static OutboxTable of(String table, String idColumn) {
+    return new OutboxTable(table, idColumn, "processed_at", null, null);
+  }
+
+  public OutboxTable withProcessedAt(String column) {
+    return new OutboxTable(table, idColumn, column, publishedColumn, headersColumn);
+  }
+
+  public OutboxTable withPublishedFlag(String column) {
+    return new OutboxTable(table, idColumn, processedAtColumn, column, headersColumn);
+  }
+
+  public OutboxTable withHeaders(String column) {
+    return new OutboxTable(table, idColumn, processedAtColumn, publishedColumn, column);
+  }
+
+  private static void requireIdentifier(String name, String value) {
+    if (value == null || !IDENTIFIER.matcher(value).matches()) {
+      throw new IllegalArgumentException(name + " must be a plain SQL identifier: " + value);
+    }
+  }
+}
@@ -0,0 +1,67 @@
+package com.ejada.kafka_starter.outbox;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class OutboxRelayRepositoryTest {
+
+  private final JdbcTemplate jdbc = mock(JdbcTemplate.class);
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void processedAtTableIsPendingWhileTheTimestampIsNull() {
+    OutboxRelayRepository repo = new OutboxRelayRepository(jdbc, OutboxTable.of("outbox_event", "id").withHeaders("headers"));
+
+    repo.claimBatch(200);
+    repo.deleteProcessedChunk(Duration.ofDays(7), 5000);
+
+    ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+    verify(jdbc).query(sql.capture(), any(RowMapper.class), eq(200));
+    assertTrue(sql.getValue().contains("o.headers::text"));
+    assertTrue(sql.getValue().contains("where o.processed_at is null"));
+    assertTrue(sql.getValue().contains("order by o.id"));
+    assertTrue(sql.getValue().contains("for update skip locked"));
+    verify(jdbc).update(sql.capture(), any(), eq(5000));
+    assertTrue(sql.getValue().contains("where o.processed_at < ?"));
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void publishedFlagTableIsPendingWhileTheFlagIsFalse() {
+    OutboxRelayRepository repo = new OutboxRelayRepository(jdbc, OutboxTable.of("outbox_event", "outbox_event_id")
+        .withProcessedAt("published_at").withPublishedFlag("published"));
+
+    repo.claimBatch(500);
+    repo.deleteProcessedChunk(Duration.ofDays(7), 5000);
+
+    ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+    verify(jdbc).query(sql.capture(), any(RowMapper.class), eq(500));
+    assertTrue(sql.getValue().contains("select o.outbox_event_id,"));
+    assertTrue(sql.getValue().contains(", null, o.created_at"));
+    assertTrue(sql.getValue().contains("where not o.published"));
+    verify(jdbc).update(sql.capture(), any(), eq(5000));
+    assertTrue(sql.getValue().contains("where o.published and o.published_at < ?"));
+  }
+
+  @Test
+  void emptyMarkDoesNotTouchTheDatabase() {
+    assertEquals(0, new OutboxRelayRepository(jdbc, OutboxTable.of("outbox_event", "id")).markProcessed(List.of()));
+
+    verifyNoInteractions(jdbc);
+  }
+
+  @Test
+  void rejectsNamesThatAreNotPlainIdentifiers() {
+    assertThrows(IllegalArgumentException.class, () -> OutboxTable.of("outbox_event; drop table x", "id"));
+    assertThrows(IllegalArgumentException.class, () -> OutboxTable.of("outbox_event", "id").withHeaders("Headers"));
+  }
+}
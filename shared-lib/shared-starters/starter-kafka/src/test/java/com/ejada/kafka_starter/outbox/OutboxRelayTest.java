@@ -0,0 +1,184 @@
+package com.ejada.kafka_starter.outbox;
+
+import com.ejada.kafka_starter.outbox.OutboxRelayRepository.Backlog;
+import com.ejada.kafka_starter.outbox.OutboxRelayRepository.PendingEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.kafka.clients.producer.MockProducer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.mock.MockProducerFactory;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Exercises the relay against Kafka's {@link MockProducer} standing in for the broker.
+ */
+class OutboxRelayTest {
+
+  private final OutboxRelayRepository repo = mock(OutboxRelayRepository.class);
+
+  private OutboxRelay relay(MockProducer<String, String> producer) {
+    KafkaTemplate<String, String> kafka = new KafkaTemplate<>(new MockProducerFactory<>(() -> producer));
+    return new OutboxRelay(repo, kafka, TransactionOperations.withoutTransaction(), new ObjectMapper(), null,
+        new OutboxRelay.Settings("test", "test.outbox", 10, 5, Duration.ofSeconds(5), Duration.ofDays(7), 100));
+  }
+
+  /** KafkaTemplate closes non-transactional producers after each send; keep the mock open. */
+  private static MockProducer<String, String> producer(boolean autoComplete) {
+    return new MockProducer<>(autoComplete, new StringSerializer(), new StringSerializer()) {
+      @Override
+      public void close(Duration timeout) {
+      }
+    };
+  }
+
+  private static PendingEvent event(long id, String aggregateId, String type) {
+    return new PendingEvent(id, "SUBSCRIPTION", aggregateId, type, "{\"id\":" + id + "}",
+        "{\"x-tenant\":\"t1\"}", OffsetDateTime.now().minusSeconds(2));
+  }
+
+  @SuppressWarnings("unchecked")
+  private List<Long> markedIds() {
+    ArgumentCaptor<List<Long>> ids = ArgumentCaptor.forClass(List.class);
+    verify(repo).markProcessed(ids.capture());
+    return ids.getValue();
+  }
+
+  @Test
+  void publishesBatchKeyedByAggregateAndMarksAllProcessed() {
+    MockProducer<String, String> producer = producer(true);
+    when(repo.claimBatch(anyInt())).thenReturn(List.of(
+        event(1, "a", "CREATED_OR_UPDATED"), event(2, "b", "CREATED_OR_UPDATED"), event(3, "a", "STATUS_CHANGED")));
+
+    assertEquals(3, relay(producer).relayBatch());
+
+    List<ProducerRecord<String, String>> sent = producer.history();
+    assertEquals(List.of("a", "b", "a"), sent.stream().map(ProducerRecord::key).toList());
+    assertEquals("test.subscription.events", sent.get(0).topic());
+    assertEquals("STATUS_CHANGED",
+        new String(sent.get(2).headers().lastHeader("x-event-type").value(), StandardCharsets.UTF_8));
+    assertEquals("t1", new String(sent.get(0).headers().lastHeader("x-tenant").value(), StandardCharsets.UTF_8));
+    assertEquals(List.of(1L, 2L, 3L), markedIds());
+  }
+
+  @Test
+  void eventsWithoutHeadersCarryOnlyTheRelayHeaders() {
+    MockProducer<String, String> producer = producer(true);
+    when(repo.claimBatch(anyInt())).thenReturn(List.of(
+        new PendingEvent(1L, "INVOICE", "a", "ISSUED", "{}", null, OffsetDateTime.now())));
+
+    relay(producer).relayBatch();
+
+    ProducerRecord<String, String> sent = producer.history().get(0);
+    assertEquals("test.invoice.events", sent.topic());
+    assertEquals(3, sent.headers().toArray().length);
+  }
+
+  @Test
+  void nextEventOfAnAggregateWaitsForTheAckOfThePreviousOne() throws Exception {
+    MockProducer<String, String> producer = producer(false);
+    when(repo.claimBatch(anyInt())).thenReturn(List.of(
+        event(1, "a", "CREATED_OR_UPDATED"), event(2, "b", "CREATED_OR_UPDATED"), event(3, "a", "STATUS_CHANGED")));
+
+    AtomicInteger sentBeforeFirstAck = new AtomicInteger();
+    Thread broker = Thread.ofVirtual().start(() -> {
+      awaitSent(producer, 2);
+      sleep(50);
+      sentBeforeFirstAck.set(producer.history().size());
+      producer.completeNext();                                // event 1 (aggregate a)
+      producer.completeNext();                                // event 2 (aggregate b)
+      awaitSent(producer, 3);
+      producer.completeNext();                                // event 3 (aggregate a)
+    });
+    relay(producer).relayBatch();
+    broker.join();
+
+    assertEquals(2, sentBeforeFirstAck.get());
+    assertEquals(List.of(1L, 2L, 3L), markedIds());
+  }
+
+  @Test
+  void failedEventStopsItsAggregateButNotOthers() throws Exception {
+    MockProducer<String, String> producer = producer(false);
+    when(repo.claimBatch(anyInt())).thenReturn(List.of(
+        event(1, "a", "CREATED_OR_UPDATED"), event(2, "b", "CREATED_OR_UPDATED"),
+        event(3, "a", "STATUS_CHANGED"), event(4, "b", "STATUS_CHANGED")));
+
+    Thread broker = Thread.ofVirtual().start(() -> {
+      awaitSent(producer, 2);
+      producer.errorNext(new RuntimeException("broker down")); // event 1 (aggregate a)
+      producer.completeNext();                                // event 2 (aggregate b)
+      awaitSent(producer, 3);
+      producer.completeNext();                                // event 4 (aggregate b)
+    });
+    relay(producer).relayBatch();
+    broker.join();
+
+    assertEquals(List.of(2L, 4L), markedIds());
+    // event 3 is never published ahead of the failed event 1
+    assertEquals(List.of("a", "b", "b"), producer.history().stream().map(ProducerRecord::key).toList());
+  }
+
+  private static void awaitSent(MockProducer<String, String> producer, int count) {
+    while (producer.history().size() < count) {
+      Thread.onSpinWait();
+    }
+  }
+
+  private static void sleep(long millis) {
+    try {
+      Thread.sleep(millis);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  @Test
+  void emptyBatchPublishesNothing() {
+    MockProducer<String, String> producer = producer(true);
+    when(repo.claimBatch(anyInt())).thenReturn(List.of());
+
+    assertEquals(0, relay(producer).relayBatch());
+    assertTrue(producer.history().isEmpty());
+    verify(repo, never()).markProcessed(any());
+  }
+
+  @Test
+  void drainsFullBatchesInOnePassAndReportsBacklog() {
+    List<PendingEvent> full = new ArrayList<>();
+    for (long id = 1; id <= 10; id++) {
+      full.add(event(id, "sub-" + id, "CREATED_OR_UPDATED"));
+    }
+    when(repo.claimBatch(10)).thenReturn(full, full, List.of(event(11, "x", "CREATED_OR_UPDATED")));
+    when(repo.backlog()).thenReturn(new Backlog(42, OffsetDateTime.now().minusMinutes(1)));
+    OutboxRelay relay = relay(producer(true));
+
+    relay.relay();
+
+    verify(repo, times(3)).claimBatch(10);
+    assertEquals(42, relay.backlogSize());
+    assertTrue(relay.oldestAgeMillis() >= 60_000);
+  }
+
+  @Test
+  void purgeDeletesInChunksUntilShortChunk() {
+    when(repo.deleteProcessedChunk(Duration.ofDays(7), 100)).thenReturn(100, 100, 7);
+
+    relay(producer(true)).purge();
+
+    verify(repo, times(3)).deleteProcessedChunk(Duration.ofDays(7), 100);
+  }
+}
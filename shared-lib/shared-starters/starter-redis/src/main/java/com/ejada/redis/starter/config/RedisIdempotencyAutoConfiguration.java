@@ -0,0 +1,60 @@
+package com.ejada.redis.starter.config;
+
+import com.ejada.redis.starter.props.RedisProperties;
+import com.ejada.redis.starter.support.IdempotentRequestFilter;
+import com.ejada.redis.starter.support.RedisIdempotencyService;
+import com.ejada.redis.starter.support.RedisLockService;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Idempotent request replay (opt-in via {@code shared.redis.idempotency.enabled=true}).
+ * Reuses the {@link RedisLockService} bean when locks are enabled so duplicates are
+ * woken by release notifications; otherwise a polling lock service is used.
+ */
+@AutoConfiguration(after = {RedisAutoConfiguration.class, RedisLockAutoConfiguration.class})
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnClass(OncePerRequestFilter.class)
+@ConditionalOnProperty(prefix = "shared.redis.idempotency", name = "enabled", havingValue = "true")
+public class RedisIdempotencyAutoConfiguration {
+
+  @Bean
+  @ConditionalOnMissingBean
+  public RedisIdempotencyService redisIdempotencyService(StringRedisTemplate redis) {
+    return new RedisIdempotencyService(redis);
+  }
+
+  @Bean
+  @ConditionalOnMissingBean(name = "idempotentRequestFilterRegistration")
+  public FilterRegistrationBean<IdempotentRequestFilter> idempotentRequestFilterRegistration(
+      RedisIdempotencyService store,
+      StringRedisTemplate redis,
+      ObjectProvider<RedisLockService> lockService,
+      RedisProperties props) {
+    RedisProperties.Idempotency cfg = props.getIdempotency();
+    String prefix = props.getKeyPrefix() == null ? "shared" : props.getKeyPrefix();
+    IdempotentRequestFilter filter = new IdempotentRequestFilter(
+        store,
+        RedisLockService.orDefault(lockService, redis),
+        prefix,
+        cfg.getHeader(),
+        cfg.getPaths(),
+        cfg.getMethods(),
+        cfg.getTtl(),
+        cfg.getInFlightTtl(),
+        cfg.getWaitTimeout(),
+        cfg.getCompressionThreshold());
+    FilterRegistrationBean<IdempotentRequestFilter> reg = new FilterRegistrationBean<>(filter);
+    reg.setName("idempotentRequestFilter");
+    reg.setOrder(cfg.getOrder());
+    return reg;
+  }
+}
@@ -0,0 +1,64 @@
+package com.ejada.redis.starter.config;
+
+import com.ejada.redis.starter.props.RedisProperties;
+import com.ejada.redis.starter.support.RedisLockService;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Distributed lock support (opt-in via {@code shared.redis.lock.enabled=true}).
+ * Registers a shared lease-renewal scheduler and, unless disabled, a listener
+ * container for release notifications.
+ */
+@AutoConfiguration(after = RedisAutoConfiguration.class)
+@ConditionalOnProperty(prefix = "shared.redis.lock", name = "enabled", havingValue = "true")
+public class RedisLockAutoConfiguration {
+
+  @Bean(name = "redisLockScheduler", destroyMethod = "shutdownNow")
+  @ConditionalOnMissingBean(name = "redisLockScheduler")
+  public ScheduledExecutorService redisLockScheduler(RedisProperties props) {
+    AtomicInteger seq = new AtomicInteger();
+    return Executors.newScheduledThreadPool(Math.max(1, props.getLock().getWatchdogThreads()), r -> {
+      Thread t = new Thread(r, "redis-lock-watchdog-" + seq.incrementAndGet());
+      t.setDaemon(true);
+      return t;
+    });
+  }
+
+  @Bean(name = "redisLockListenerContainer")
+  @ConditionalOnMissingBean(name = "redisLockListenerContainer")
+  @ConditionalOnProperty(prefix = "shared.redis.lock", name = "notifications", havingValue = "true", matchIfMissing = true)
+  public RedisMessageListenerContainer redisLockListenerContainer(RedisConnectionFactory cf) {
+    RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+    container.setConnectionFactory(cf);
+    return container;
+  }
+
+  @Bean
+  @ConditionalOnMissingBean
+  public RedisLockService redisLockService(
+      StringRedisTemplate redis,
+      RedisProperties props,
+      @Qualifier("redisLockScheduler") ScheduledExecutorService scheduler,
+      @Qualifier("redisLockListenerContainer") ObjectProvider<RedisMessageListenerContainer> container) {
+    String prefix = props.getKeyPrefix() == null ? "shared" : props.getKeyPrefix();
+    RedisProperties.Lock lock = props.getLock();
+    return new RedisLockService(
+        redis,
+        scheduler,
+        container.getIfAvailable(),
+        lock.getFencingKey() != null ? lock.getFencingKey() : prefix + ":lock:fence",
+        lock.getReleaseChannel() != null ? lock.getReleaseChannel() : prefix + ":lock:released");
+  }
+}
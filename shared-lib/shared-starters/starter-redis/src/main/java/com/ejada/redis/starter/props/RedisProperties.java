@@ -1,6 +1,8 @@
 package com.ejada.redis.starter.props;
 
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -37,6 +39,12 @@ public class RedisProperties {
 
   private Map<String, CacheSpec> caches;
 
+  @Builder.Default
+  private Lock lock = new Lock();
+
+  @Builder.Default
+  private Idempotency idempotency = new Idempotency();
+
   @Data
   @NoArgsConstructor
   @AllArgsConstructor
@@ -47,4 +55,58 @@ public class RedisProperties {
     private Boolean cacheNulls = true;         // Spring Data Redis 3.x caches nulls by default
     private String keyPrefixOverride;
   }
+
+  @Data
+  @NoArgsConstructor
+  @AllArgsConstructor
+  @Builder
+  public static class Lock {
+    /** Expose a {@code RedisLockService} bean. */
+    @Builder.Default
+    private boolean enabled = false;
+    /** Counter key used for fencing tokens; defaults to {@code <key-prefix>:lock:fence}. */
+    private String fencingKey;
+    /** Pub/sub channel announcing releases; defaults to {@code <key-prefix>:lock:released}. */
+    private String releaseChannel;
+    /** Wake waiters through pub/sub instead of polling. */
+    @Builder.Default
+    private boolean notifications = true;
+    /** Threads of the shared lease-renewal scheduler. */
+    @Builder.Default
+    private int watchdogThreads = 1;
+  }
+
+  @Data
+  @NoArgsConstructor
+  @AllArgsConstructor
+  @Builder
+  public static class Idempotency {
+    /** Register the idempotent-replay servlet filter. */
+    @Builder.Default
+    private boolean enabled = false;
+    /** Request header carrying the client-generated request id. */
+    @Builder.Default
+    private String header = "Idempotency-Key";
+    /** Ant-style path patterns the filter applies to; empty means every path. */
+    @Builder.Default
+    private List<String> paths = new ArrayList<>();
+    /** HTTP methods the filter applies to. */
+    @Builder.Default
+    private List<String> methods = new ArrayList<>(List.of("POST", "PUT", "PATCH"));
+    /** How long a completed response is kept for replay. */
+    @Builder.Default
+    private Duration ttl = Duration.ofHours(24);
+    /** Lease of the in-flight marker; renewed while the first request is running. */
+    @Builder.Default
+    private Duration inFlightTtl = Duration.ofSeconds(30);
+    /** How long a duplicate waits for the in-flight request before getting 409. */
+    @Builder.Default
+    private Duration waitTimeout = Duration.ofSeconds(10);
+    /** Bodies at least this large are stored GZIP-compressed. */
+    @Builder.Default
+    private int compressionThreshold = 512;
+    /** Filter order; runs after security and context filters by default. */
+    @Builder.Default
+    private int order = 0;
+  }
 }
@@ -0,0 +1,105 @@
+package com.ejada.redis.starter.support;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Snapshot of a completed HTTP response kept for idempotent replay.
+ *
+ * <p>Encoded as a compact binary frame (status, headers, body); bodies at or above the
+ * compression threshold are stored GZIP-compressed.</p>
+ */
+public record CachedHttpResponse(int status, Map<String, List<String>> headers, byte[] body) {
+
+    private static final byte VERSION = 1;
+    private static final byte FLAG_GZIP = 1;
+
+    public CachedHttpResponse {
+        headers = headers == null ? Map.of() : copy(headers);
+        body = body == null ? new byte[0] : body;
+    }
+
+    public byte[] encode(int compressionThreshold) {
+        boolean gzip = body.length > 0 && body.length >= compressionThreshold;
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(body.length / (gzip ? 4 : 1) + 128);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeByte(VERSION);
+            out.writeByte(gzip ? FLAG_GZIP : 0);
+            out.writeShort(status);
+            out.writeShort(headers.size());
+            for (Map.Entry<String, List<String>> header : headers.entrySet()) {
+                out.writeUTF(header.getKey());
+                out.writeShort(header.getValue().size());
+                for (String value : header.getValue()) {
+                    out.writeUTF(value);
+                }
+            }
+            byte[] payload = gzip ? gzip(body) : body;
+            out.writeInt(payload.length);
+            out.write(payload);
+            out.flush();
+            return bytes.toByteArray();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    public static CachedHttpResponse decode(byte[] frame) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(frame))) {
+            byte version = in.readByte();
+            if (version != VERSION) {
+                throw new IllegalArgumentException("Unsupported cached response version " + version);
+            }
+            boolean gzip = (in.readByte() & FLAG_GZIP) != 0;
+            int status = in.readUnsignedShort();
+            int headerCount = in.readUnsignedShort();
+            Map<String, List<String>> headers = new LinkedHashMap<>(headerCount * 2);
+            for (int i = 0; i < headerCount; i++) {
+                String name = in.readUTF();
+                int valueCount = in.readUnsignedShort();
+                List<String> values = new ArrayList<>(valueCount);
+                for (int v = 0; v < valueCount; v++) {
+                    values.add(in.readUTF());
+                }
+                headers.put(name, values);
+            }
+            byte[] payload = in.readNBytes(in.readInt());
+            return new CachedHttpResponse(status, headers, gzip ? gunzip(payload) : payload);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private static byte[] gzip(byte[] data) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(data.length / 4 + 32);
+        try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+            out.write(data);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static byte[] gunzip(byte[] data) throws IOException {
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(data))) {
+            return in.readAllBytes();
+        }
+    }
+
+    private static Map<String, List<String>> copy(Map<String, List<String>> headers) {
+        Map<String, List<String>> copy = new LinkedHashMap<>(headers.size() * 2);
+        headers.forEach((name, values) -> copy.put(name, List.copyOf(values)));
+        return Collections.unmodifiableMap(copy);
+    }
+}
@@ -0,0 +1,204 @@
+package com.ejada.redis.starter.support;
+
+import com.ejada.common.context.ContextManager;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.security.Principal;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Replays the stored response for requests that repeat a request id.
+ *
+ * <p>The first request carrying a given id holds an auto-renewed {@link RedisLock} while
+ * the handler runs; its status, headers and (compressed) body are then stored for the
+ * configured TTL. Duplicates arriving meanwhile wait on the lock's release notification
+ * and are answered from Redis, so the handler and the database are never touched twice.
+ * Server errors (5xx) and exceptions are not stored, which lets a retry run again.</p>
+ *
+ * <p>Stored responses are scoped to the current tenant and authenticated principal, so a
+ * request id reused by another tenant or user runs its own handler instead of receiving
+ * someone else's response. The filter therefore has to run after the security and
+ * tenant-context filters (the default order does).</p>
+ *
+ * <p>Redis failures are logged and the request proceeds unguarded; handlers keep their
+ * own persistent idempotency checks as the backstop.</p>
+ */
+@Slf4j
+public class IdempotentRequestFilter extends OncePerRequestFilter {
+
+    /** Set on replayed responses. */
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final Set<String> SKIPPED_HEADERS = Set.of(
+            "set-cookie", "date", "content-length", "transfer-encoding", "connection", "keep-alive");
+
+    private final RedisIdempotencyService store;
+    private final RedisLockService locks;
+    private final String keyPrefix;
+    private final String header;
+    private final List<String> paths;
+    private final Set<String> methods;
+    private final Duration ttl;
+    private final Duration inFlightTtl;
+    private final Duration waitTimeout;
+    private final int compressionThreshold;
+    private final AntPathMatcher matcher = new AntPathMatcher();
+
+    public IdempotentRequestFilter(RedisIdempotencyService store,
+                                   RedisLockService locks,
+                                   String keyPrefix,
+                                   String header,
+                                   Collection<String> paths,
+                                   Collection<String> methods,
+                                   Duration ttl,
+                                   Duration inFlightTtl,
+                                   Duration waitTimeout,
+                                   int compressionThreshold) {
+        this.store = Objects.requireNonNull(store);
+        this.locks = Objects.requireNonNull(locks);
+        this.keyPrefix = keyPrefix;
+        this.header = Objects.requireNonNull(header);
+        this.paths = paths == null ? List.of() : List.copyOf(paths);
+        this.methods = methods == null ? Set.of() : methods.stream()
+                .map(m -> m.toUpperCase(Locale.ROOT))
+                .collect(Collectors.toUnmodifiableSet());
+        this.ttl = ttl;
+        this.inFlightTtl = inFlightTtl;
+        this.waitTimeout = waitTimeout;
+        this.compressionThreshold = compressionThreshold;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (!methods.contains(request.getMethod())) {
+            return true;
+        }
+        String id = request.getHeader(header);
+        if (id == null || id.isBlank()) {
+            return true;
+        }
+        if (paths.isEmpty()) {
+            return false;
+        }
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return paths.stream().noneMatch(pattern -> matcher.match(pattern, path));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String key = keyFor(request);
+
+        CachedHttpResponse cached;
+        RedisLock inFlight;
+        try {
+            cached = store.findResponse(key);
+            if (cached != null) {
+                replay(cached, response);
+                return;
+            }
+            inFlight = locks.tryLock(List.of(key + ":lock"), inFlightTtl, waitTimeout, true);
+        } catch (DataAccessException ex) {
+            log.warn("Idempotency store unavailable, processing {} unguarded: {}", key, ex.getMessage());
+            chain.doFilter(request, response);
+            return;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            rejectInFlight(response);
+            return;
+        }
+        if (inFlight == null) {
+            rejectInFlight(response);
+            return;
+        }
+
+        try (inFlight) {
+            // The previous holder may have completed while we were waiting for the lock.
+            cached = store.findResponse(key);
+            if (cached != null) {
+                replay(cached, response);
+                return;
+            }
+            ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+            chain.doFilter(request, wrapper);
+            if (wrapper.getStatus() < HttpStatus.INTERNAL_SERVER_ERROR.value()) {
+                save(key, wrapper);
+            }
+            wrapper.copyBodyToResponse();
+        }
+    }
+
+    private void save(String key, ContentCachingResponseWrapper wrapper) {
+        try {
+            Map<String, List<String>> headers = new LinkedHashMap<>();
+            for (String name : wrapper.getHeaderNames()) {
+                if (!SKIPPED_HEADERS.contains(name.toLowerCase(Locale.ROOT))) {
+                    headers.put(name, new ArrayList<>(wrapper.getHeaders(name)));
+                }
+            }
+            if (wrapper.getContentType() != null) {
+                headers.put(HttpHeaders.CONTENT_TYPE, List.of(wrapper.getContentType()));
+            }
+            store.storeResponse(key,
+                    new CachedHttpResponse(wrapper.getStatus(), headers, wrapper.getContentAsByteArray()),
+                    ttl, compressionThreshold);
+        } catch (DataAccessException ex) {
+            log.warn("Failed to store idempotent response for {}: {}", key, ex.getMessage());
+        }
+    }
+
+    private static void replay(CachedHttpResponse cached, HttpServletResponse response) throws IOException {
+        response.setStatus(cached.status());
+        cached.headers().forEach((name, values) -> values.forEach(value -> response.addHeader(name, value)));
+        response.setHeader(REPLAYED_HEADER, "true");
+        response.setContentLength(cached.body().length);
+        response.getOutputStream().write(cached.body());
+        response.flushBuffer();
+    }
+
+    private void rejectInFlight(HttpServletResponse response) throws IOException {
+        response.setStatus(HttpStatus.CONFLICT.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, waitTimeout.toSeconds())));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getOutputStream().write(
+                "{\"code\":\"ERR_IDEMPOTENCY_IN_PROGRESS\",\"message\":\"A request with the same id is still being processed\"}"
+                        .getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String keyFor(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        Principal principal = request.getUserPrincipal();
+        return keyPrefix + ":idem:"
+                + scope(ContextManager.Tenant.get()) + ":"
+                + scope(principal == null ? null : principal.getName()) + ":"
+                + request.getMethod() + ":" + path + ":" + request.getHeader(header).trim();
+    }
+
+    /** Encodes a key segment so values containing ':' cannot collide with other segments. */
+    private static String scope(String value) {
+        return value == null || value.isBlank() ? "-" : URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+}
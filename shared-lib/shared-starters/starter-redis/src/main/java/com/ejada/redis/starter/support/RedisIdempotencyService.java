@@ -1,13 +1,21 @@
 package com.ejada.redis.starter.support;
 
+import org.springframework.data.redis.connection.RedisStringCommands.SetOption;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.types.Expiration;
 
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.util.Objects;
 import java.util.function.Supplier;
 
 /**
  * Idempotency helper: registers a key for a TTL; rejects repeats.
+ *
+ * <p>{@link #findResponse}/{@link #storeResponse} keep the outcome of the first request
+ * so duplicates can be answered from Redis instead of being rejected; see
+ * {@link IdempotentRequestFilter}.</p>
  */
 public class RedisIdempotencyService {
 
@@ -34,4 +42,29 @@ public class RedisIdempotencyService {
         }
         return null; // duplicate request
     }
+
+    /**
+     * Cached response stored under {@code key}, or {@code null} if none (or expired).
+     */
+    public CachedHttpResponse findResponse(String key) {
+        byte[] raw = key(key);
+        byte[] frame = redis.execute((RedisCallback<byte[]>) connection -> connection.stringCommands().get(raw));
+        return frame == null ? null : CachedHttpResponse.decode(frame);
+    }
+
+    /**
+     * Store a response for replay, overwriting any previous value.
+     *
+     * @param compressionThreshold bodies of at least this many bytes are GZIP-compressed
+     */
+    public void storeResponse(String key, CachedHttpResponse response, Duration ttl, int compressionThreshold) {
+        byte[] raw = key(key);
+        byte[] frame = response.encode(compressionThreshold);
+        redis.execute((RedisCallback<Boolean>) connection ->
+                connection.stringCommands().set(raw, frame, Expiration.from(ttl), SetOption.upsert()));
+    }
+
+    private static byte[] key(String key) {
+        return key.getBytes(StandardCharsets.UTF_8);
+    }
 }
@@ -0,0 +1,101 @@
+package com.ejada.redis.starter.support;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Handle for a lock acquired through {@link RedisLockService}.
+ *
+ * <p>The {@link #fencingToken()} is strictly increasing across acquisitions. Pass it to
+ * the protected resource (e.g. a {@code WHERE fence < :token} guard) so a holder that
+ * was paused past its lease cannot overwrite work of the next holder.</p>
+ *
+ * <p>Use with try-with-resources; {@link #close()} releases the lock and stops the
+ * renewal watchdog.</p>
+ */
+public final class RedisLock implements AutoCloseable {
+
+    private final RedisLockService owner;
+    private final List<String> keys;
+    private final String token;
+    private final long fencingToken;
+    private final Duration ttl;
+    private final AtomicBoolean held = new AtomicBoolean(true);
+    private volatile ScheduledFuture<?> renewal;
+
+    RedisLock(RedisLockService owner, List<String> keys, String token, long fencingToken, Duration ttl) {
+        this.owner = owner;
+        this.keys = List.copyOf(keys);
+        this.token = token;
+        this.fencingToken = fencingToken;
+        this.ttl = ttl;
+    }
+
+    public List<String> keys() {
+        return keys;
+    }
+
+    /** Owner token stored as the lock value. */
+    public String token() {
+        return token;
+    }
+
+    /** Monotonically increasing token issued at acquisition time. */
+    public long fencingToken() {
+        return fencingToken;
+    }
+
+    public Duration ttl() {
+        return ttl;
+    }
+
+    /**
+     * {@code false} once the lock was released or the watchdog failed to renew the lease
+     * (for example because the key expired during a long GC pause).
+     */
+    public boolean isHeld() {
+        return held.get();
+    }
+
+    /** Whether a lease-renewal watchdog is attached. */
+    public boolean isAutoRenewing() {
+        ScheduledFuture<?> task = renewal;
+        return task != null && !task.isDone();
+    }
+
+    void attachRenewal(ScheduledFuture<?> task) {
+        this.renewal = task;
+    }
+
+    void markLost() {
+        held.set(false);
+        cancelRenewal();
+    }
+
+    private void cancelRenewal() {
+        ScheduledFuture<?> task = renewal;
+        if (task != null) {
+            task.cancel(false);
+        }
+    }
+
+    /**
+     * Release the lock. Safe to call more than once.
+     *
+     * @return {@code true} if this call released every key
+     */
+    public boolean unlock() {
+        cancelRenewal();
+        if (!held.compareAndSet(true, false)) {
+            return false;
+        }
+        return owner.release(keys, token) == keys.size();
+    }
+
+    @Override
+    public void close() {
+        unlock();
+    }
+}
@@ -1,49 +1,156 @@
 package com.ejada.redis.starter.support;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.dao.DataAccessException;
 import org.springframework.data.redis.core.StringRedisTemplate;
-import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
- * Simple distributed lock using SET NX PX + Lua for safe release/extend.
+ * Distributed lock using SET NX PX semantics implemented in Lua.
  * Keys are used as-is (prefix them at call sites if you use multi-tenancy).
+ *
+ * <ul>
+ *   <li>Every acquisition returns a monotonically increasing fencing token.</li>
+ *   <li>Several keys can be locked atomically (all or nothing).</li>
+ *   <li>An optional watchdog renews the lease on a shared scheduler until the lock is
+ *       released, so long-running holders do not silently lose the lock.</li>
+ *   <li>{@link #tryLock(Collection, Duration, Duration, boolean)} waits for a release
+ *       notification published by the unlock script instead of polling.</li>
+ * </ul>
+ *
+ * <p>Scripts are static {@link RedisScript} instances; the template executes them by
+ * SHA1 ({@code EVALSHA}) and only falls back to sending the body after a
+ * {@code NOSCRIPT} reply.</p>
  */
 public class RedisLockService {
 
-    private static final DefaultRedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>(
-        // if current value equals token, delete
-        "if redis.call('get', KEYS[1]) == ARGV[1] then " +
-        "  return redis.call('del', KEYS[1]) " +
-        "else " +
-        "  return 0 " +
-        "end", Long.class);
-
-    private static final DefaultRedisScript<Long> EXTEND_SCRIPT = new DefaultRedisScript<>(
-        // if owner, update ttl (pexpire)
-        "if redis.call('get', KEYS[1]) == ARGV[1] then " +
-        "  return redis.call('pexpire', KEYS[1], ARGV[2]) " +
-        "else " +
-        "  return 0 " +
-        "end", Long.class);
+    private static final Logger log = LoggerFactory.getLogger(RedisLockService.class);
+
+    /** Default fencing counter key and release channel when none are configured. */
+    public static final String DEFAULT_FENCING_KEY = "shared:lock:fence";
+    public static final String DEFAULT_RELEASE_CHANNEL = "shared:lock:released";
+
+    private static final Duration DEFAULT_WAIT_SLICE = Duration.ofMillis(200);
+
+    /**
+     * KEYS[1..n-1] lock keys, KEYS[n] fencing counter; ARGV[1] token, ARGV[2] ttl ms.
+     * Returns the fencing token on success, otherwise {@code -pttl} of the blocking key
+     * ({@code -1} when unknown).
+     */
+    private static final RedisScript<Long> ACQUIRE_SCRIPT = RedisScript.of(
+        "local n = #KEYS - 1 " +
+        "for i = 1, n do " +
+        "  if redis.call('exists', KEYS[i]) == 1 then " +
+        "    local ttl = redis.call('pttl', KEYS[i]) " +
+        "    if ttl > 0 then return -ttl end " +
+        "    return -1 " +
+        "  end " +
+        "end " +
+        "for i = 1, n do " +
+        "  redis.call('set', KEYS[i], ARGV[1], 'PX', ARGV[2]) " +
+        "end " +
+        "return redis.call('incr', KEYS[#KEYS])", Long.class);
+
+    /** Delete every key still owned by ARGV[1] and announce it on channel ARGV[2]. */
+    private static final RedisScript<Long> RELEASE_SCRIPT = RedisScript.of(
+        "local released = 0 " +
+        "for i = 1, #KEYS do " +
+        "  if redis.call('get', KEYS[i]) == ARGV[1] then " +
+        "    redis.call('del', KEYS[i]) " +
+        "    redis.call('publish', ARGV[2], KEYS[i]) " +
+        "    released = released + 1 " +
+        "  end " +
+        "end " +
+        "return released", Long.class);
+
+    /** Extend the TTL of all keys only if ARGV[1] still owns every one of them. */
+    private static final RedisScript<Long> EXTEND_SCRIPT = RedisScript.of(
+        "for i = 1, #KEYS do " +
+        "  if redis.call('get', KEYS[i]) ~= ARGV[1] then return 0 end " +
+        "end " +
+        "for i = 1, #KEYS do " +
+        "  redis.call('pexpire', KEYS[i], ARGV[2]) " +
+        "end " +
+        "return 1", Long.class);
 
     private final StringRedisTemplate redis;
+    private final ScheduledExecutorService scheduler;
+    private final String fencingKey;
+    private final String releaseChannel;
+    private final boolean notificationsEnabled;
+    private final Map<String, Waiter> waiters = new ConcurrentHashMap<>();
 
     public RedisLockService(StringRedisTemplate redis) {
+        this(redis, null, null, DEFAULT_FENCING_KEY, DEFAULT_RELEASE_CHANNEL);
+    }
+
+    /**
+     * @param scheduler         shared scheduler for lease renewal; a daemon fallback is
+     *                          used when {@code null}
+     * @param listenerContainer container used to receive release notifications; waiters
+     *                          fall back to bounded polling when {@code null}
+     */
+    public RedisLockService(StringRedisTemplate redis,
+                            ScheduledExecutorService scheduler,
+                            RedisMessageListenerContainer listenerContainer,
+                            String fencingKey,
+                            String releaseChannel) {
         this.redis = Objects.requireNonNull(redis);
+        this.scheduler = scheduler != null ? scheduler : FallbackScheduler.INSTANCE;
+        this.fencingKey = fencingKey != null ? fencingKey : DEFAULT_FENCING_KEY;
+        this.releaseChannel = releaseChannel != null ? releaseChannel : DEFAULT_RELEASE_CHANNEL;
+        this.notificationsEnabled = listenerContainer != null;
+        if (listenerContainer != null) {
+            listenerContainer.addMessageListener(
+                (message, pattern) -> onReleased(new String(message.getBody(), StandardCharsets.UTF_8)),
+                new ChannelTopic(this.releaseChannel));
+        }
     }
 
+    /**
+     * The {@code RedisLockService} bean when locks are enabled, otherwise a service with
+     * the default fencing key and polling waits over {@code redis}.
+     */
+    public static RedisLockService orDefault(ObjectProvider<RedisLockService> lockService,
+                                             StringRedisTemplate redis) {
+        return lockService.getIfAvailable(() -> new RedisLockService(redis));
+    }
+
+    /* ---------------------------------------------------------------------
+     * Token-based API (kept for existing callers)
+     * --------------------------------------------------------------------- */
+
     /**
      * Try to acquire a lock for a limited time. Returns a lock token if acquired, otherwise null.
      */
     public String tryLock(String key, Duration ttl) {
-        String token = UUID.randomUUID().toString();
-        Boolean ok = redis.opsForValue().setIfAbsent(key, token, ttl);
-        return Boolean.TRUE.equals(ok) ? token : null;
+        RedisLock lock = acquire(List.of(key), ttl, false);
+        return lock != null ? lock.token() : null;
     }
 
     /**
@@ -51,9 +158,7 @@ public class RedisLockService {
      */
     public boolean unlock(String key, String token) {
         if (token == null) return false;
-        List<String> keys = Collections.singletonList(key);
-        Long res = redis.execute(RELEASE_SCRIPT, keys, token);
-        return res != null && res == 1L;
+        return release(Collections.singletonList(key), token) == 1L;
     }
 
     /**
@@ -61,9 +166,7 @@ public class RedisLockService {
      */
     public boolean extend(String key, String token, Duration newTtl) {
         if (token == null || newTtl == null) return false;
-        String ttshared = String.valueOf(newTtl.toMillis());
-        Long res = redis.execute(EXTEND_SCRIPT, Collections.singletonList(key), token, ttshared);
-        return res != null && res == 1L;
+        return extend(Collections.singletonList(key), token, newTtl);
     }
 
     /**
@@ -74,4 +177,233 @@ public class RedisLockService {
         String cur = redis.opsForValue().get(key);
         return token.equals(cur);
     }
+
+    /* ---------------------------------------------------------------------
+     * Handle-based API
+     * --------------------------------------------------------------------- */
+
+    /**
+     * Acquire immediately or return {@code null}. No watchdog is attached.
+     */
+    public RedisLock lock(String key, Duration ttl) {
+        return acquire(List.of(key), ttl, false);
+    }
+
+    /**
+     * Wait up to {@code waitTime} for {@code key}, renewing the lease until released.
+     *
+     * @return the lock, or {@code null} if it could not be acquired in time
+     */
+    public RedisLock tryLock(String key, Duration ttl, Duration waitTime) throws InterruptedException {
+        return tryLock(List.of(key), ttl, waitTime, true);
+    }
+
+    /**
+     * Atomically acquire every key (all or nothing), waiting up to {@code waitTime}.
+     * Waiters are woken by the release notification of the current holder; expiry of
+     * an abandoned lease is covered by waiting at most its remaining TTL.
+     *
+     * @param autoRenew attach a watchdog that extends the lease every {@code ttl / 3}
+     * @return the lock, or {@code null} if it could not be acquired in time
+     */
+    public RedisLock tryLock(Collection<String> keys, Duration ttl, Duration waitTime, boolean autoRenew)
+            throws InterruptedException {
+        List<String> lockKeys = normalize(keys);
+        long deadline = System.nanoTime() + (waitTime == null ? 0L : waitTime.toNanos());
+        List<Waiter> registered = notificationsEnabled ? register(lockKeys) : List.of();
+        try {
+            while (true) {
+                // capture the signal before trying so a release in between is not missed
+                CompletableFuture<?> signal = anyOf(registered);
+                String token = UUID.randomUUID().toString();
+                long result = acquireRaw(lockKeys, ttl, token);
+                if (result > 0) {
+                    return newLock(lockKeys, token, result, ttl, autoRenew);
+                }
+                long remainingMillis = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                if (remainingMillis <= 0) {
+                    return null;
+                }
+                long blockedMillis = result < -1 ? -result : DEFAULT_WAIT_SLICE.toMillis();
+                if (!notificationsEnabled) {
+                    blockedMillis = Math.min(blockedMillis, DEFAULT_WAIT_SLICE.toMillis());
+                }
+                awaitRelease(signal, Math.max(1L, Math.min(remainingMillis, blockedMillis)));
+            }
+        } finally {
+            unregister(lockKeys, registered);
+        }
+    }
+
+    /**
+     * Runs {@code task} on whichever instance wins {@code key}, holding the lease (renewed
+     * by the watchdog) until it returns. Meant for scheduled jobs: when another instance
+     * holds the key, the lock store is unreachable or the thread is interrupted, the pass
+     * is skipped rather than failed. Exceptions thrown by {@code task} propagate after the
+     * lock is released.
+     *
+     * @return {@code true} if {@code task} ran
+     */
+    public boolean runExclusive(String key, Duration lease, Runnable task) {
+        RedisLock lock;
+        try {
+            lock = tryLock(List.of(key), lease, Duration.ZERO, true);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (DataAccessException e) {
+            log.warn("Skipping {}, lock store unavailable: {}", key, e.getMessage());
+            return false;
+        }
+        if (lock == null) {
+            log.debug("Skipping {}, held by another instance", key);
+            return false;
+        }
+        try (lock) {
+            task.run();
+            return true;
+        }
+    }
+
+    /**
+     * Atomically acquire every key without waiting.
+     *
+     * @param autoRenew attach a watchdog that extends the lease every {@code ttl / 3}
+     */
+    public RedisLock acquire(Collection<String> keys, Duration ttl, boolean autoRenew) {
+        List<String> lockKeys = normalize(keys);
+        String token = UUID.randomUUID().toString();
+        long result = acquireRaw(lockKeys, ttl, token);
+        return result > 0 ? newLock(lockKeys, token, result, ttl, autoRenew) : null;
+    }
+
+    private RedisLock newLock(List<String> keys, String token, long fence, Duration ttl, boolean autoRenew) {
+        RedisLock lock = new RedisLock(this, keys, token, fence, ttl);
+        if (autoRenew) {
+            startWatchdog(lock);
+        }
+        return lock;
+    }
+
+    long release(List<String> keys, String token) {
+        Long res = redis.execute(RELEASE_SCRIPT, keys, token, releaseChannel);
+        return res == null ? 0L : res;
+    }
+
+    private boolean extend(List<String> keys, String token, Duration ttl) {
+        Long res = redis.execute(EXTEND_SCRIPT, keys, token, String.valueOf(ttl.toMillis()));
+        return res != null && res == 1L;
+    }
+
+    private long acquireRaw(List<String> keys, Duration ttl, String token) {
+        Objects.requireNonNull(ttl, "ttl");
+        List<String> scriptKeys = new ArrayList<>(keys.size() + 1);
+        scriptKeys.addAll(keys);
+        scriptKeys.add(fencingKey);
+        Long res = redis.execute(ACQUIRE_SCRIPT, scriptKeys, token, String.valueOf(ttl.toMillis()));
+        return res == null ? -1L : res;
+    }
+
+    private void startWatchdog(RedisLock lock) {
+        long period = Math.max(1L, lock.ttl().toMillis() / 3);
+        ScheduledFuture<?> task = scheduler.scheduleAtFixedRate(() -> renew(lock), period, period, TimeUnit.MILLISECONDS);
+        lock.attachRenewal(task);
+    }
+
+    private void renew(RedisLock lock) {
+        if (!lock.isHeld()) {
+            lock.markLost();
+            return;
+        }
+        try {
+            if (!extend(lock.keys(), lock.token(), lock.ttl())) {
+                log.warn("Lost Redis lock {} (fence {}) before release", lock.keys(), lock.fencingToken());
+                lock.markLost();
+            }
+        } catch (RuntimeException ex) {
+            // transient failure: keep trying until the lease actually expires
+            log.debug("Lease renewal for {} failed: {}", lock.keys(), ex.getMessage());
+        }
+    }
+
+    /* ---------------------------------------------------------------------
+     * Release notifications
+     * --------------------------------------------------------------------- */
+
+    void onReleased(String key) {
+        Waiter waiter = waiters.get(key);
+        if (waiter != null) {
+            waiter.signal();
+        }
+    }
+
+    private List<Waiter> register(List<String> keys) {
+        List<Waiter> out = new ArrayList<>(keys.size());
+        for (String key : keys) {
+            out.add(waiters.compute(key, (k, existing) -> {
+                Waiter w = existing != null ? existing : new Waiter();
+                w.refs.incrementAndGet();
+                return w;
+            }));
+        }
+        return out;
+    }
+
+    private void unregister(List<String> keys, List<Waiter> registered) {
+        if (registered.isEmpty()) return;
+        for (String key : keys) {
+            waiters.computeIfPresent(key, (k, w) -> w.refs.decrementAndGet() <= 0 ? null : w);
+        }
+    }
+
+    private static CompletableFuture<?> anyOf(List<Waiter> registered) {
+        if (registered.isEmpty()) {
+            return new CompletableFuture<>();
+        }
+        if (registered.size() == 1) {
+            return registered.get(0).current();
+        }
+        CompletableFuture<?>[] futures = registered.stream().map(Waiter::current).toArray(CompletableFuture[]::new);
+        return CompletableFuture.anyOf(futures);
+    }
+
+    private static void awaitRelease(CompletableFuture<?> signal, long waitMillis) throws InterruptedException {
+        try {
+            signal.get(waitMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException | ExecutionException ignored) {
+            // retry acquisition: the holder's lease may have expired without a release
+        }
+    }
+
+    private static List<String> normalize(Collection<String> keys) {
+        if (keys == null || keys.isEmpty()) {
+            throw new IllegalArgumentException("at least one lock key is required");
+        }
+        // stable order and no duplicates so concurrent multi-key requests behave identically
+        return List.copyOf(new LinkedHashSet<>(keys));
+    }
+
+    /** Shared wake-up signal for all local threads waiting on one key. */
+    private static final class Waiter {
+        private final AtomicInteger refs = new AtomicInteger();
+        private final AtomicReference<CompletableFuture<Void>> future =
+            new AtomicReference<>(new CompletableFuture<>());
+
+        CompletableFuture<Void> current() {
+            return future.get();
+        }
+
+        void signal() {
+            future.getAndSet(new CompletableFuture<>()).complete(null);
+        }
+    }
+
+    /** Lazily created daemon scheduler for services built without one. */
+    private static final class FallbackScheduler {
+        static final ScheduledExecutorService INSTANCE = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "redis-lock-watchdog");
+            t.setDaemon(true);
+            return t;
+        });
+    }
 }
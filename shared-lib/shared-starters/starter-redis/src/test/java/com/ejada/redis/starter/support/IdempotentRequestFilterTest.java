@@ -0,0 +1,169 @@
+package com.ejada.redis.starter.support;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.ejada.common.context.ContextManager;
+import jakarta.servlet.FilterChain;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+/**
+ * Verifies store-and-replay behaviour of {@link IdempotentRequestFilter} against an
+ * in-memory stand-in for the Redis store.
+ */
+class IdempotentRequestFilterTest {
+
+  private final RedisIdempotencyService store = mock(RedisIdempotencyService.class);
+  private final RedisLockService locks = mock(RedisLockService.class);
+  private final Map<String, byte[]> frames = new ConcurrentHashMap<>();
+  private final AtomicInteger handled = new AtomicInteger();
+  private IdempotentRequestFilter filter;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    when(store.findResponse(anyString())).thenAnswer(inv -> {
+      byte[] frame = frames.get(inv.<String>getArgument(0));
+      return frame == null ? null : CachedHttpResponse.decode(frame);
+    });
+    doAnswer(inv -> {
+      frames.put(inv.getArgument(0), inv.<CachedHttpResponse>getArgument(1).encode(inv.getArgument(3)));
+      return null;
+    }).when(store).storeResponse(anyString(), any(), any(), anyInt());
+    when(locks.tryLock(anyCollection(), any(), any(), eq(true))).thenReturn(mock(RedisLock.class));
+    filter = new IdempotentRequestFilter(store, locks, "test", "rqUID", List.of("/orders/**"),
+        List.of("post"), Duration.ofMinutes(5), Duration.ofSeconds(5), Duration.ofSeconds(1), 16);
+  }
+
+  @AfterEach
+  void clearTenant() {
+    ContextManager.Tenant.clear();
+  }
+
+  private MockHttpServletResponse post(String path, String requestId, int status, String body) throws Exception {
+    return post(path, requestId, null, status, body);
+  }
+
+  private MockHttpServletResponse post(String path, String requestId, String user, int status, String body)
+      throws Exception {
+    MockHttpServletRequest request = new MockHttpServletRequest("POST", path);
+    if (user != null) {
+      request.setUserPrincipal(() -> user);
+    }
+    if (requestId != null) {
+      request.addHeader("rqUID", requestId);
+    }
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    FilterChain chain = (req, res) -> {
+      handled.incrementAndGet();
+      ((jakarta.servlet.http.HttpServletResponse) res).setStatus(status);
+      res.setContentType("application/json");
+      res.getOutputStream().write(body.getBytes(StandardCharsets.UTF_8));
+    };
+    filter.doFilter(request, response, chain);
+    return response;
+  }
+
+  @Test
+  void duplicateIsReplayedWithoutInvokingHandler() throws Exception {
+    String body = "{\"status\":\"ok\",\"payload\":\"" + "x".repeat(200) + "\"}";
+
+    MockHttpServletResponse first = post("/orders/1", "abc", 200, body);
+    MockHttpServletResponse second = post("/orders/1", "abc", 200, "other");
+
+    assertEquals(1, handled.get());
+    assertEquals(body, first.getContentAsString());
+    assertEquals(200, second.getStatus());
+    assertEquals(body, second.getContentAsString());
+    assertEquals("application/json", second.getContentType());
+    assertEquals("true", second.getHeader(IdempotentRequestFilter.REPLAYED_HEADER));
+    assertNull(first.getHeader(IdempotentRequestFilter.REPLAYED_HEADER));
+  }
+
+  @Test
+  void sameRequestIdFromAnotherTenantOrUserIsNotReplayed() throws Exception {
+    ContextManager.Tenant.set("tenant-a");
+    post("/orders/1", "abc", "alice", 200, "{\"owner\":\"alice\"}");
+    MockHttpServletResponse otherUser = post("/orders/1", "abc", "bob", 200, "{\"owner\":\"bob\"}");
+    ContextManager.Tenant.set("tenant-b");
+    MockHttpServletResponse otherTenant = post("/orders/1", "abc", "alice", 200, "{\"owner\":\"b-alice\"}");
+
+    assertEquals(3, handled.get());
+    assertEquals("{\"owner\":\"bob\"}", otherUser.getContentAsString());
+    assertEquals("{\"owner\":\"b-alice\"}", otherTenant.getContentAsString());
+    assertNull(otherTenant.getHeader(IdempotentRequestFilter.REPLAYED_HEADER));
+  }
+
+  @Test
+  void serverErrorsAreNotStored() throws Exception {
+    post("/orders/1", "abc", 503, "{}");
+    post("/orders/1", "abc", 201, "{}");
+
+    assertEquals(2, handled.get());
+    verify(store).storeResponse(anyString(), any(), any(), anyInt());
+  }
+
+  @Test
+  void requestsWithoutIdOrOutsidePathsPassThrough() throws Exception {
+    post("/orders/1", null, 200, "{}");
+    post("/other", "abc", 200, "{}");
+
+    assertEquals(2, handled.get());
+    verify(store, never()).findResponse(anyString());
+  }
+
+  @Test
+  void inFlightDuplicateTimesOutWithConflict() throws Exception {
+    when(locks.tryLock(anyCollection(), any(), any(), eq(true))).thenReturn(null);
+
+    MockHttpServletResponse response = post("/orders/1", "abc", 200, "{}");
+
+    assertEquals(409, response.getStatus());
+    assertEquals(0, handled.get());
+  }
+
+  @Test
+  void redisOutageFallsBackToHandler() throws Exception {
+    when(store.findResponse(anyString())).thenThrow(new RedisConnectionFailureException("down"));
+
+    MockHttpServletResponse response = post("/orders/1", "abc", 200, "{}");
+
+    assertEquals(200, response.getStatus());
+    assertEquals(1, handled.get());
+  }
+
+  @Test
+  void compressedFrameRoundTrips() {
+    byte[] body = "y".repeat(4096).getBytes(StandardCharsets.UTF_8);
+    CachedHttpResponse response = new CachedHttpResponse(201, Map.of("X-Test", List.of("a", "b")), body);
+
+    byte[] frame = response.encode(512);
+    CachedHttpResponse decoded = CachedHttpResponse.decode(frame);
+
+    assertEquals(201, decoded.status());
+    assertEquals(List.of("a", "b"), decoded.headers().get("X-Test"));
+    assertArrayEquals(body, decoded.body());
+    assertEquals(true, frame.length < body.length / 4);
+  }
+}
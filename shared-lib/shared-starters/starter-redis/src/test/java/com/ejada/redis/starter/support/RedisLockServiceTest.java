@@ -0,0 +1,180 @@
+package com.ejada.redis.starter.support;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+/**
+ * Exercises the lock handle, watchdog and release-notification logic against a
+ * scripted {@link StringRedisTemplate} mock.
+ */
+class RedisLockServiceTest {
+
+  private final StringRedisTemplate redis = mock(StringRedisTemplate.class);
+  private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+  private final Deque<Long> acquireReplies = new ConcurrentLinkedDeque<>();
+  private final AtomicLong extendReply = new AtomicLong(1);
+
+  @AfterEach
+  void shutdown() {
+    scheduler.shutdownNow();
+  }
+
+  private RedisLockService service(boolean notifications) {
+    when(redis.execute(any(RedisScript.class), anyList(), any(Object[].class))).thenAnswer(inv -> {
+      String body = inv.<RedisScript<?>>getArgument(0).getScriptAsString();
+      if (body.contains("incr")) {
+        Long reply = acquireReplies.poll();
+        return reply != null ? reply : -1L;
+      }
+      if (body.contains("pexpire")) {
+        return extendReply.get();
+      }
+      return (long) inv.<List<?>>getArgument(1).size();
+    });
+    RedisMessageListenerContainer container = notifications ? mock(RedisMessageListenerContainer.class) : null;
+    return new RedisLockService(redis, scheduler, container, "fence", "released");
+  }
+
+  @Test
+  void acquireReturnsFencingTokenAndReleases() {
+    RedisLockService service = service(false);
+    acquireReplies.add(41L);
+
+    RedisLock lock = service.acquire(List.of("a", "b", "a"), Duration.ofSeconds(5), false);
+
+    assertNotNull(lock);
+    assertEquals(41L, lock.fencingToken());
+    assertEquals(List.of("a", "b"), lock.keys());
+    assertTrue(lock.unlock());
+    assertFalse(lock.isHeld());
+    assertFalse(lock.unlock());
+  }
+
+  @Test
+  void busyLockReturnsNullWithoutWait() throws InterruptedException {
+    RedisLockService service = service(false);
+    acquireReplies.add(-5_000L);
+
+    assertNull(service.tryLock(List.of("a"), Duration.ofSeconds(5), Duration.ZERO, false));
+  }
+
+  @Test
+  void waiterIsWokenByReleaseNotification() throws Exception {
+    RedisLockService service = service(true);
+    acquireReplies.add(-60_000L);
+    acquireReplies.add(7L);
+
+    CompletableFuture<RedisLock> waiting = CompletableFuture.supplyAsync(() -> {
+      try {
+        return service.tryLock(List.of("job"), Duration.ofSeconds(5), Duration.ofSeconds(30), false);
+      } catch (InterruptedException ex) {
+        throw new IllegalStateException(ex);
+      }
+    });
+    while (acquireReplies.size() > 1) {
+      Thread.sleep(5);
+    }
+    long start = System.nanoTime();
+    while (!waiting.isDone() && System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5)) {
+      service.onReleased("job");
+      Thread.sleep(10);
+    }
+
+    RedisLock lock = waiting.get(1, TimeUnit.SECONDS);
+    assertEquals(7L, lock.fencingToken());
+  }
+
+  @Test
+  void watchdogMarksLockLostWhenRenewalFails() throws Exception {
+    RedisLockService service = service(false);
+    acquireReplies.add(1L);
+
+    RedisLock lock = service.acquire(List.of("job"), Duration.ofMillis(60), true);
+    assertTrue(lock.isAutoRenewing());
+    Thread.sleep(50);
+    assertTrue(lock.isHeld());
+
+    extendReply.set(0);
+    long start = System.nanoTime();
+    while (lock.isHeld() && System.nanoTime() - start < TimeUnit.SECONDS.toNanos(2)) {
+      Thread.sleep(10);
+    }
+    assertFalse(lock.isHeld());
+    assertFalse(lock.isAutoRenewing());
+  }
+
+  @Test
+  void runExclusiveRunsTheTaskUnderTheLeaseAndReleasesIt() {
+    RedisLockService service = service(false);
+    acquireReplies.add(3L);
+    AtomicInteger runs = new AtomicInteger();
+
+    assertTrue(service.runExclusive("job", Duration.ofSeconds(5), runs::incrementAndGet));
+
+    assertEquals(1, runs.get());
+    // acquire, then release
+    verify(redis, times(2)).execute(any(RedisScript.class), anyList(), any(Object[].class));
+  }
+
+  @Test
+  void runExclusiveSkipsWhileAnotherInstanceHoldsTheKey() {
+    RedisLockService service = service(false);
+    acquireReplies.add(-5_000L);
+    AtomicInteger runs = new AtomicInteger();
+
+    assertFalse(service.runExclusive("job", Duration.ofSeconds(5), runs::incrementAndGet));
+
+    assertEquals(0, runs.get());
+  }
+
+  @Test
+  void runExclusiveSkipsWhenTheLockStoreIsDown() {
+    when(redis.execute(any(RedisScript.class), anyList(), any(Object[].class)))
+        .thenThrow(new QueryTimeoutException("down"));
+    RedisLockService service = new RedisLockService(redis, scheduler, null, "fence", "released");
+    AtomicInteger runs = new AtomicInteger();
+
+    assertFalse(service.runExclusive("job", Duration.ofSeconds(5), runs::incrementAndGet));
+
+    assertEquals(0, runs.get());
+  }
+
+  @Test
+  void runExclusiveReleasesTheLeaseWhenTheTaskFails() {
+    RedisLockService service = service(false);
+    acquireReplies.add(3L);
+
+    assertThrows(IllegalStateException.class, () -> service.runExclusive("job", Duration.ofSeconds(5), () -> {
+      throw new IllegalStateException("boom");
+    }));
+
+    verify(redis, times(2)).execute(any(RedisScript.class), anyList(), any(Object[].class));
+  }
+}
@@ -0,0 +1,40 @@
+package com.ejada.starter_security;
+
+import com.ejada.starter_security.integration.IntegrationKeyRevocationListener;
+import com.ejada.starter_security.integration.RemoteIntegrationKeyVerifier;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+/**
+ * Subscribes the starter's {@link RemoteIntegrationKeyVerifier} to tenant-service's key
+ * change channel when the service has Redis, so revocations do not wait for the cache
+ * TTL. tenant-service itself registers its own listener.
+ */
+@AutoConfiguration(
+    after = SecurityAutoConfiguration.class,
+    afterName = {
+        "com.ejada.redis.starter.config.RedisAutoConfiguration",
+        "org.springframework.boot.autoconfigure.data.redis.RedisAutoConfiguration"})
+@ConditionalOnClass(RedisMessageListenerContainer.class)
+@ConditionalOnProperty(prefix = "shared.security.integration-keys", name = "enabled", havingValue = "true")
+public class IntegrationKeyRevocationAutoConfiguration {
+
+  @Bean(name = "integrationKeyRevocationListenerContainer")
+  @ConditionalOnMissingBean(name = "integrationKeyRevocationListenerContainer")
+  @ConditionalOnBean({RemoteIntegrationKeyVerifier.class, RedisConnectionFactory.class})
+  public RedisMessageListenerContainer integrationKeyRevocationListenerContainer(
+      RedisConnectionFactory cf, RemoteIntegrationKeyVerifier verifier, SharedSecurityProps props) {
+    RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+    container.setConnectionFactory(cf);
+    container.addMessageListener(new IntegrationKeyRevocationListener(verifier),
+        new ChannelTopic(props.getIntegrationKeys().getRevocationChannel()));
+    return container;
+  }
+}
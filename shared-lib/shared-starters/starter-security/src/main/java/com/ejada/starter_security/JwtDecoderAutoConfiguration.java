@@ -20,7 +20,9 @@ public class JwtDecoderAutoConfiguration {
     if ("jwks".equalsIgnoreCase(props.getMode())) {
       String uri = props.getJwks().getUri();
       Assert.hasText(uri, "shared.security.jwks.uri must not be null or empty when mode=jwks");
-      return NimbusJwtDecoder.withJwkSetUri(uri).build();
+      return NimbusJwtDecoder.withJwkSetUri(uri)
+          .jwsAlgorithms(algs -> algs.addAll(SecurityAutoConfiguration.jwsAlgorithms(props.getJwks())))
+          .build();
     }
 
     String secret = props.getHs256().getSecret();
@@ -2,11 +2,18 @@ package com.ejada.starter_security;
 
 import com.ejada.common.constants.HeaderNames;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ejada.starter_security.integration.IntegrationKeyAuthenticationFilter;
+import com.ejada.starter_security.integration.IntegrationKeyVerifier;
+import com.ejada.starter_security.integration.RemoteIntegrationKeyVerifier;
+import com.ejada.starter_security.privilege.PrivilegeAuthoritiesConverter;
+import com.ejada.starter_security.privilege.PrivilegeDictionarySource;
+import com.ejada.starter_security.privilege.RemotePrivilegeDictionarySource;
 import com.ejada.starter_security.web.JsonAccessDeniedHandler;
 import com.ejada.starter_security.web.JsonAuthEntryPoint;
 import java.nio.charset.StandardCharsets;
 import javax.crypto.SecretKey;
 import javax.crypto.spec.SecretKeySpec;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.autoconfigure.AutoConfiguration;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
@@ -24,6 +31,7 @@ import org.springframework.security.oauth2.core.DelegatingOAuth2TokenValidator;
 import org.springframework.security.oauth2.core.OAuth2TokenValidator;
 import org.springframework.security.oauth2.core.endpoint.OAuth2ParameterNames;
 import org.springframework.security.oauth2.jose.jws.MacAlgorithm;
+import org.springframework.security.oauth2.jose.jws.SignatureAlgorithm;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.security.oauth2.jwt.JwtClaimValidator;
 import org.springframework.security.oauth2.jwt.JwtDecoder;
@@ -57,6 +65,7 @@ import java.util.Map;
  *  - JWT required for everything else
  *  - JSON 401/403
  *  - Optional tenant propagation from JWT (JwtTenantFilter) when tenant-claim is set
+ *  - Optional integration-key authentication (X-API-Key) when integration-keys are enabled
  */
 @AutoConfiguration
 @EnableConfigurationProperties(SharedSecurityProps.class)
@@ -78,7 +87,13 @@ public class SecurityAutoConfiguration {
    * --------------------------------------------------- */
   @Bean
   @ConditionalOnMissingBean
-  public JwtAuthenticationConverter jwtAuthenticationConverter(SharedSecurityProps props) {
+  public JwtAuthenticationConverter jwtAuthenticationConverter(
+      SharedSecurityProps props, ObjectProvider<PrivilegeAuthoritiesConverter> privileges) {
+    return buildJwtAuthenticationConverter(props, privileges.getIfAvailable());
+  }
+
+  private static JwtAuthenticationConverter buildJwtAuthenticationConverter(
+      SharedSecurityProps props, PrivilegeAuthoritiesConverter privileges) {
     var conv = new JwtAuthenticationConverter();
     // Only allow roles defined in the Role enum
     var validRoles = EnumSet.allOf(Role.class).stream().map(Enum::name).collect(Collectors.toSet());
@@ -111,11 +126,54 @@ public class SecurityAutoConfiguration {
         }
       }
 
+      // Privileges (compact bitset claim)
+      if (privileges != null) {
+        out.addAll(privileges.convert(jwt));
+      }
+
       return out;
     });
     return conv;
   }
 
+  /* ---------------------------------------------------
+   * Privilege bitset claims : dictionary + expansion
+   * --------------------------------------------------- */
+  @Bean
+  @ConditionalOnProperty(prefix = "shared.security.privileges", name = "enabled", havingValue = "true")
+  @ConditionalOnMissingBean(PrivilegeDictionarySource.class)
+  public PrivilegeDictionarySource privilegeDictionarySource(SharedSecurityProps props, ObjectMapper objectMapper) {
+    var p = props.getPrivileges();
+    require(StringUtils.hasText(p.getDictionaryUri()),
+        "shared.security.privileges.dictionary-uri is required when privileges are enabled");
+    return new RemotePrivilegeDictionarySource(objectMapper, p.getDictionaryUri(), p.getDictionaryTtl(),
+        p.getMinRefreshInterval(), p.getTimeout());
+  }
+
+  @Bean
+  @ConditionalOnProperty(prefix = "shared.security.privileges", name = "enabled", havingValue = "true")
+  @ConditionalOnMissingBean
+  public PrivilegeAuthoritiesConverter privilegeAuthoritiesConverter(SharedSecurityProps props,
+                                                                     PrivilegeDictionarySource dictionaries) {
+    var p = props.getPrivileges();
+    return new PrivilegeAuthoritiesConverter(dictionaries, p.getClaim(), p.getVersionClaim(),
+        props.getTenantClaim(), p.getAuthorityPrefix());
+  }
+
+  /* ---------------------------------------------------
+   * Integration keys : cached verification + filter
+   * --------------------------------------------------- */
+  @Bean
+  @ConditionalOnProperty(prefix = "shared.security.integration-keys", name = "enabled", havingValue = "true")
+  @ConditionalOnMissingBean(IntegrationKeyVerifier.class)
+  public RemoteIntegrationKeyVerifier integrationKeyVerifier(SharedSecurityProps props, ObjectMapper objectMapper) {
+    var k = props.getIntegrationKeys();
+    require(StringUtils.hasText(k.getIntrospectionUri()),
+        "shared.security.integration-keys.introspection-uri is required when no IntegrationKeyVerifier bean exists");
+    return new RemoteIntegrationKeyVerifier(objectMapper, k.getIntrospectionUri(), k.getHeader(), k.getTimeout(),
+        k.getCacheSize(), k.getCacheTtl(), k.getNegativeCacheTtl(), k.getMaxRejectionsPerKey());
+  }
+
   /* ---------------------------------------------------
    * JwtDecoder : hs256 | jwks | issuer + validators
    * --------------------------------------------------- */
@@ -133,7 +191,9 @@ public class SecurityAutoConfiguration {
       case "jwks" -> {
         String jwksUri = Optional.ofNullable(props.getJwks()).map(SharedSecurityProps.Jwks::getUri).orElse(null);
         require(StringUtils.hasText(jwksUri), "shared.security.jwks.uri is required when mode=jwks");
-        decoder = NimbusJwtDecoder.withJwkSetUri(jwksUri).build();
+        decoder = NimbusJwtDecoder.withJwkSetUri(jwksUri)
+            .jwsAlgorithms(algs -> algs.addAll(jwsAlgorithms(props.getJwks())))
+            .build();
       }
       case "hs256" -> {
         String secret = Optional.ofNullable(props.getHs256()).map(SharedSecurityProps.Hs256::getSecret).orElse(null);
@@ -168,7 +228,8 @@ public class SecurityAutoConfiguration {
                                              SharedSecurityProps props,
                                              JwtAuthenticationConverter jwtAuthConverter,
                                              ObjectMapper objectMapper,
-                                             CorsConfigurationSource corsConfigurationSource) throws Exception {
+                                             CorsConfigurationSource corsConfigurationSource,
+                                             ObjectProvider<IntegrationKeyVerifier> integrationKeys) throws Exception {
 
     var rs = props.getResourceServer();
 
@@ -214,6 +275,13 @@ public class SecurityAutoConfiguration {
             headers.referrerPolicy(referrer -> referrer.policy(ReferrerPolicyHeaderWriter.ReferrerPolicy.STRICT_ORIGIN_WHEN_CROSS_ORIGIN));
         });
 
+    IntegrationKeyVerifier verifier = integrationKeys.getIfAvailable();
+    if (verifier != null) {
+      var k = props.getIntegrationKeys();
+      http.addFilterBefore(new IntegrationKeyAuthenticationFilter(verifier, new JsonAuthEntryPoint(objectMapper),
+          k.getHeader(), k.getAuthorityPrefix()), BearerTokenAuthenticationFilter.class);
+    }
+
     // Propagate tenant from JWT claim (after JWT auth), if configured
     if (StringUtils.hasText(props.getTenantClaim())) {
       http.addFilterAfter(new JwtTenantFilter(props.getTenantClaim()), BearerTokenAuthenticationFilter.class);
@@ -267,6 +335,19 @@ public class SecurityAutoConfiguration {
     return List.copyOf(set);
   }
 
+  /** Resolves configured JWS algorithm names, ignoring ones Nimbus cannot verify. */
+  static List<SignatureAlgorithm> jwsAlgorithms(SharedSecurityProps.Jwks jwks) {
+    List<SignatureAlgorithm> out = new ArrayList<>();
+    if (jwks.getAlgorithms() != null) {
+      for (String name : jwks.getAlgorithms()) {
+        SignatureAlgorithm alg = SignatureAlgorithm.from(name.trim());
+        if (alg != null) out.add(alg);
+      }
+    }
+    if (out.isEmpty()) out.add(SignatureAlgorithm.RS256);
+    return out;
+  }
+
   private static void require(boolean condition, String message) {
     if (!condition) throw new IllegalStateException(message);
   }
@@ -1,6 +1,8 @@
 package com.ejada.starter_security;
 
 import com.ejada.common.BaseStarterProperties;
+import com.ejada.common.constants.HeaderNames;
+import java.time.Duration;
 import java.util.List;
 import lombok.Getter;
 import lombok.Setter;
@@ -24,6 +26,10 @@ import org.springframework.validation.annotation.Validated;
  *   shared.security.resource-server.permit-all[...]
  *   shared.security.resource-server.disable-csrf
  *   shared.security.resource-server.stateless
+ *
+ * Compact privilege claims:
+ *   shared.security.privileges.enabled
+ *   shared.security.privileges.dictionary-uri
  */
 @Getter
 @Setter
@@ -62,6 +68,12 @@ public class SharedSecurityProps implements BaseStarterProperties {
   // --------- Resource Server defaults ---------
   private ResourceServer resourceServer = new ResourceServer();
 
+  // --------- Privilege bitset claims ---------
+  private Privileges privileges = new Privileges();
+
+  // --------- Integration (API) keys ---------
+  private IntegrationKeys integrationKeys = new IntegrationKeys();
+
   // ===========================================
   //            Nested types
   // ===========================================
@@ -78,6 +90,12 @@ public class SharedSecurityProps implements BaseStarterProperties {
   public static class Jwks {
     /** JWK Set URI when mode = jwks */
     private String uri;
+
+    /**
+     * JWS algorithms accepted from the JWK Set (e.g. RS256, ES256). EdDSA keys are
+     * published by sec-service but need a verifier outside Nimbus' defaults.
+     */
+    private List<String> algorithms = List.of("RS256", "ES256");
   }
 
   @Getter
@@ -104,4 +122,78 @@ public class SharedSecurityProps implements BaseStarterProperties {
     /** Allowed CORS origins. */
     private List<String> allowedOrigins = List.of();
   }
+
+  @Getter
+  @Setter
+  public static class Privileges {
+    /** Expand the privilege bitset claim into authorities. */
+    private boolean enabled = false;
+
+    /** Claim holding the base64url privilege bitset. */
+    private String claim = "privs";
+
+    /** Claim holding the dictionary version the bitset was encoded against. */
+    private String versionClaim = "pdv";
+
+    /** Prefix for privilege authorities, e.g. PRIV_USER_READ. */
+    private String authorityPrefix = "PRIV_";
+
+    /** Dictionary endpoint; {tenant} is replaced with the token's tenant claim. */
+    private String dictionaryUri;
+
+    /** Age after which a cached dictionary is reloaded in the background. */
+    private Duration dictionaryTtl = Duration.ofMinutes(5);
+
+    /** Minimum gap between reloads triggered by version mismatches, per tenant. */
+    private Duration minRefreshInterval = Duration.ofSeconds(5);
+
+    /** Timeout for dictionary requests. */
+    private Duration timeout = Duration.ofSeconds(2);
+  }
+
+  @Getter
+  @Setter
+  public static class IntegrationKeys {
+    /** Authenticate requests carrying an integration key header. */
+    private boolean enabled = false;
+
+    /** Header holding {@code <tenantId>.<keyId>.<secret>}. */
+    private String header = HeaderNames.API_KEY;
+
+    /** Prefix for key scope authorities, e.g. SCOPE_billing.read. */
+    private String authorityPrefix = "SCOPE_";
+
+    /**
+     * tenant-service endpoint that describes the key presented to it; not needed when
+     * the service provides its own {@code IntegrationKeyVerifier}.
+     */
+    private String introspectionUri;
+
+    /** Timeout for introspection requests. */
+    private Duration timeout = Duration.ofSeconds(2);
+
+    /** Maximum number of cached key records. */
+    private long cacheSize = 10_000;
+
+    /**
+     * How long a verified key is trusted before it is introspected again; bounds how long
+     * a revoked or rotated key keeps working in this service.
+     */
+    private Duration cacheTtl = Duration.ofMinutes(1);
+
+    /** How long a rejected key is remembered as rejected. */
+    private Duration negativeCacheTtl = Duration.ofSeconds(10);
+
+    /**
+     * Rejected introspections allowed per key id within {@code negativeCacheTtl}; further
+     * unseen secrets for that key id are rejected without asking tenant-service.
+     */
+    private int maxRejectionsPerKey = 5;
+
+    /**
+     * Redis pub/sub channel on which tenant-service announces key changes; subscribed when
+     * Redis is available so a revocation applies here without waiting for {@code cacheTtl}.
+     */
+    private String revocationChannel = "integration-keys:changed";
+  }
 }
@@ -0,0 +1,103 @@
+package com.ejada.starter_security.integration;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import lombok.extern.slf4j.Slf4j;
+
+import java.security.MessageDigest;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Verifies presented integration keys against a bounded cache of key records, for the
+ * service that owns the keys and can digest secrets the way they were stored.
+ *
+ * <p>Only cache misses reach the {@link IntegrationKeySource}; unknown keys are cached
+ * too (for a shorter time) so a flood of bad keys cannot reach the source either. The
+ * presented secret is always digested and compared in constant time, whether or not
+ * the key exists. Owners of the keys call {@link #invalidate} when a key is revoked,
+ * rotated or expired so the change takes effect before the cache entry would age out.</p>
+ */
+@Slf4j
+public class CachingIntegrationKeyVerifier implements IntegrationKeyVerifier {
+
+  private static final byte[] NO_DIGEST = new byte[32];
+
+  private final IntegrationKeySource source;
+  private final IntegrationKeyDigester digester;
+  private final Cache<String, Optional<IntegrationKeyRecord>> known;
+  private final Cache<String, Boolean> unknown;
+  private final Clock clock;
+
+  public CachingIntegrationKeyVerifier(IntegrationKeySource source, IntegrationKeyDigester digester,
+                                long maxSize, Duration ttl, Duration negativeTtl) {
+    this(source, digester, maxSize, ttl, negativeTtl, Clock.systemUTC());
+  }
+
+  CachingIntegrationKeyVerifier(IntegrationKeySource source, IntegrationKeyDigester digester,
+                         long maxSize, Duration ttl, Duration negativeTtl, Clock clock) {
+    this.source = source;
+    this.digester = digester;
+    this.known = CacheBuilder.newBuilder().maximumSize(maxSize).expireAfterWrite(ttl).build();
+    this.unknown = CacheBuilder.newBuilder().maximumSize(maxSize).expireAfterWrite(negativeTtl).build();
+    this.clock = clock;
+  }
+
+  @Override
+  public Optional<IntegrationKeyRecord> verify(String tenantId, String keyId, String secret) {
+    Optional<IntegrationKeyRecord> record = lookup(tenantId, keyId);
+    byte[] presented = digester.digest(secret);
+    byte[] expected = record.map(IntegrationKeyRecord::digestRef).orElse(NO_DIGEST);
+    boolean matches = MessageDigest.isEqual(presented, expected);
+    if (record.isEmpty() || !matches || !record.get().usableAt(clock.instant())) {
+      return Optional.empty();
+    }
+    return record;
+  }
+
+  @Override
+  public void invalidate(String tenantId, String keyId) {
+    String key = cacheKey(tenantId, keyId);
+    known.invalidate(key);
+    unknown.invalidate(key);
+  }
+
+  @Override
+  public void invalidateAll() {
+    known.invalidateAll();
+    unknown.invalidateAll();
+  }
+
+  private Optional<IntegrationKeyRecord> lookup(String tenantId, String keyId) {
+    String key = cacheKey(tenantId, keyId);
+    if (unknown.getIfPresent(key) != null) {
+      return Optional.empty();
+    }
+    try {
+      Optional<IntegrationKeyRecord> record = known.get(key, () -> {
+        Optional<IntegrationKeyRecord> found = source.find(tenantId, keyId);
+        if (found.isEmpty()) {
+          unknown.put(key, Boolean.TRUE);
+        }
+        return found;
+      });
+      if (record.isEmpty()) {
+        // negative results live in the shorter-lived cache only
+        known.invalidate(key);
+      }
+      return record;
+    } catch (ExecutionException ex) {
+      log.warn("Integration key lookup failed for {}/{}: {}", tenantId, keyId, ex.getCause().getMessage());
+      return Optional.empty();
+    } catch (RuntimeException ex) {
+      log.warn("Integration key lookup failed for {}/{}: {}", tenantId, keyId, ex.getMessage());
+      return Optional.empty();
+    }
+  }
+
+  private static String cacheKey(String tenantId, String keyId) {
+    return tenantId + '\n' + keyId;
+  }
+}
@@ -0,0 +1,35 @@
+package com.ejada.starter_security.integration;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+
+/**
+ * HMAC-SHA256 digester. A {@link Mac} is kept per thread so verification does not pay
+ * for provider lookup and key initialisation on every request.
+ */
+public class HmacIntegrationKeyDigester implements IntegrationKeyDigester {
+
+  private static final String ALGORITHM = "HmacSHA256";
+
+  private final ThreadLocal<Mac> macs;
+
+  public HmacIntegrationKeyDigester(byte[] key) {
+    SecretKeySpec spec = new SecretKeySpec(key.clone(), ALGORITHM);
+    this.macs = ThreadLocal.withInitial(() -> {
+      try {
+        Mac mac = Mac.getInstance(ALGORITHM);
+        mac.init(spec);
+        return mac;
+      } catch (GeneralSecurityException ex) {
+        throw new IllegalStateException("HmacSHA256 unavailable", ex);
+      }
+    });
+  }
+
+  @Override
+  public byte[] digest(String secret) {
+    return macs.get().doFinal(secret.getBytes(StandardCharsets.UTF_8));
+  }
+}
@@ -0,0 +1,62 @@
+package com.ejada.starter_security.integration;
+
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.time.Instant;
+import java.util.Set;
+
+/**
+ * Authentication established by a verified integration key; scopes become authorities.
+ */
+public class IntegrationKeyAuthentication extends AbstractAuthenticationToken {
+
+  private static final long serialVersionUID = 1L;
+
+  private final String tenantId;
+  private final String keyId;
+  private final Instant validFrom;
+  private final Instant expiresAt;
+  private final Set<String> scopes;
+
+  public IntegrationKeyAuthentication(IntegrationKeyRecord record, String authorityPrefix) {
+    super(record.scopes().stream().map(s -> new SimpleGrantedAuthority(authorityPrefix + s)).toList());
+    this.tenantId = record.tenantId();
+    this.keyId = record.keyId();
+    this.validFrom = record.validFrom();
+    this.expiresAt = record.expiresAt();
+    this.scopes = record.scopes();
+    setAuthenticated(true);
+  }
+
+  public String getTenantId() {
+    return tenantId;
+  }
+
+  public String getKeyId() {
+    return keyId;
+  }
+
+  public Instant getValidFrom() {
+    return validFrom;
+  }
+
+  public Instant getExpiresAt() {
+    return expiresAt;
+  }
+
+  /** Scopes as granted, without the authority prefix. */
+  public Set<String> getScopes() {
+    return scopes;
+  }
+
+  @Override
+  public Object getCredentials() {
+    return "";
+  }
+
+  @Override
+  public Object getPrincipal() {
+    return tenantId + ":" + keyId;
+  }
+}
@@ -0,0 +1,68 @@
+package com.ejada.starter_security.integration;
+
+import com.ejada.common.context.ContextManager;
+import com.ejada.common.constants.HeaderNames;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.AuthenticationEntryPoint;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Optional;
+
+/**
+ * Authenticates machine-to-machine calls carrying {@code <tenantId>.<keyId>.<secret>} in the
+ * configured header (default {@code X-API-Key}). Requests without the header pass through
+ * to the other authentication mechanisms; a malformed or wrong key is rejected with 401.
+ * The tenant and key ids must not contain dots; the secret may.
+ */
+public class IntegrationKeyAuthenticationFilter extends OncePerRequestFilter {
+
+  private final IntegrationKeyVerifier verifier;
+  private final AuthenticationEntryPoint entryPoint;
+  private final String header;
+  private final String authorityPrefix;
+
+  public IntegrationKeyAuthenticationFilter(IntegrationKeyVerifier verifier, AuthenticationEntryPoint entryPoint,
+                                            String header, String authorityPrefix) {
+    this.verifier = verifier;
+    this.entryPoint = entryPoint;
+    this.header = header;
+    this.authorityPrefix = authorityPrefix;
+  }
+
+  @Override
+  protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+      throws ServletException, IOException {
+    String value = request.getHeader(header);
+    if (value == null || value.isBlank()) {
+      chain.doFilter(request, response);
+      return;
+    }
+    String[] parts = value.trim().split("\\.", 3);
+    Optional<IntegrationKeyRecord> record = parts.length == 3 && !parts[2].isEmpty()
+        ? verifier.verify(parts[0], parts[1], parts[2])
+        : Optional.empty();
+    if (record.isEmpty()) {
+      SecurityContextHolder.clearContext();
+      entryPoint.commence(request, response, new BadCredentialsException("Invalid integration key"));
+      return;
+    }
+
+    SecurityContext context = SecurityContextHolder.createEmptyContext();
+    context.setAuthentication(new IntegrationKeyAuthentication(record.get(), authorityPrefix));
+    SecurityContextHolder.setContext(context);
+    ContextManager.Tenant.set(record.get().tenantId());
+    response.setHeader(HeaderNames.X_TENANT_ID, record.get().tenantId());
+    try {
+      chain.doFilter(request, response);
+    } finally {
+      ContextManager.Tenant.clear();
+    }
+  }
+}
@@ -0,0 +1,10 @@
+package com.ejada.starter_security.integration;
+
+/**
+ * Turns a presented secret into the digest stored for the key.
+ */
+@FunctionalInterface
+public interface IntegrationKeyDigester {
+
+  byte[] digest(String secret);
+}
@@ -0,0 +1,61 @@
+package com.ejada.starter_security.integration;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * What a verifier needs to know about one integration key: the digest of its secret,
+ * its validity window and the scopes it grants. Never carries the secret itself.
+ */
+public record IntegrationKeyRecord(String tenantId,
+                                   String keyId,
+                                   byte[] digest,
+                                   Instant validFrom,
+                                   Instant expiresAt,
+                                   Set<String> scopes) {
+
+  public IntegrationKeyRecord {
+    Objects.requireNonNull(tenantId, "tenantId");
+    Objects.requireNonNull(keyId, "keyId");
+    digest = digest == null ? new byte[0] : digest.clone();
+    scopes = scopes == null ? Set.of() : Set.copyOf(scopes);
+  }
+
+  @Override
+  public byte[] digest() {
+    return digest.clone();
+  }
+
+  /** True when {@code now} lies inside {@code [validFrom, expiresAt)}. */
+  public boolean usableAt(Instant now) {
+    return (validFrom == null || !validFrom.isAfter(now))
+        && (expiresAt == null || expiresAt.isAfter(now));
+  }
+
+  byte[] digestRef() {
+    return digest;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    return o instanceof IntegrationKeyRecord other
+        && tenantId.equals(other.tenantId)
+        && keyId.equals(other.keyId)
+        && Arrays.equals(digest, other.digest)
+        && Objects.equals(validFrom, other.validFrom)
+        && Objects.equals(expiresAt, other.expiresAt)
+        && scopes.equals(other.scopes);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(tenantId, keyId, Arrays.hashCode(digest), validFrom, expiresAt, scopes);
+  }
+
+  @Override
+  public String toString() {
+    return "IntegrationKeyRecord[" + tenantId + "/" + keyId + ", expiresAt=" + expiresAt + ", scopes=" + scopes + "]";
+  }
+}
@@ -0,0 +1,29 @@
+package com.ejada.starter_security.integration;
+
+import java.nio.charset.StandardCharsets;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+
+/**
+ * Applies key changes broadcast by tenant-service to the local verifier. A payload of
+ * {@code <tenantId>\n<keyId>} drops that key; anything else drops every key.
+ */
+public class IntegrationKeyRevocationListener implements MessageListener {
+
+  private final IntegrationKeyVerifier verifier;
+
+  public IntegrationKeyRevocationListener(IntegrationKeyVerifier verifier) {
+    this.verifier = verifier;
+  }
+
+  @Override
+  public void onMessage(Message message, byte[] pattern) {
+    String payload = new String(message.getBody(), StandardCharsets.UTF_8);
+    int sep = payload.indexOf('\n');
+    if (sep < 0) {
+      verifier.invalidateAll();
+      return;
+    }
+    verifier.invalidate(payload.substring(0, sep), payload.substring(sep + 1));
+  }
+}
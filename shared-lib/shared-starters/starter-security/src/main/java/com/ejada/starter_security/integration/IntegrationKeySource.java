@@ -0,0 +1,14 @@
+package com.ejada.starter_security.integration;
+
+import java.util.Optional;
+
+/**
+ * Looks up integration keys by their public identifier. Consulted by
+ * {@link CachingIntegrationKeyVerifier} on cache misses only.
+ */
+@FunctionalInterface
+public interface IntegrationKeySource {
+
+  /** The usable key {@code keyId} of {@code tenantId}, or empty if unknown, revoked or expired. */
+  Optional<IntegrationKeyRecord> find(String tenantId, String keyId);
+}
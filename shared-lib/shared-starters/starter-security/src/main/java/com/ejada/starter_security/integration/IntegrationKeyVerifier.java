@@ -0,0 +1,18 @@
+package com.ejada.starter_security.integration;
+
+import java.util.Optional;
+
+/**
+ * Checks a presented integration key. {@link CachingIntegrationKeyVerifier} is used by
+ * the service that owns the keys; other services use {@link RemoteIntegrationKeyVerifier}.
+ */
+public interface IntegrationKeyVerifier {
+
+  /** The key's record if {@code secret} matches it and the key is currently usable. */
+  Optional<IntegrationKeyRecord> verify(String tenantId, String keyId, String secret);
+
+  /** Drop one key, e.g. after revoke or rotate. */
+  void invalidate(String tenantId, String keyId);
+
+  void invalidateAll();
+}
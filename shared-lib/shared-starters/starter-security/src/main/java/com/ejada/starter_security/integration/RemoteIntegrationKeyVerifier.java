@@ -0,0 +1,180 @@
+package com.ejada.starter_security.integration;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.LinkedHashSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Verifies integration keys owned by tenant-service without holding any of its key
+ * material.
+ *
+ * <p>A key not seen before is introspected by forwarding it, in the same header, to
+ * tenant-service, which authenticates the request with that key and answers with the
+ * key's own tenant, validity window and scopes. Nothing else is disclosed and no service
+ * credential is needed: the caller can only learn about the key it presents. The answer
+ * is cached for {@code ttl} together with an HMAC of the secret under a random
+ * per-process key, so repeated calls are verified in memory and compared in constant
+ * time. Rejected secrets are remembered for {@code negativeTtl}, per secret, so a wrong
+ * secret never blocks the right one. After {@code maxRejectionsPerKey} rejections of one
+ * key id within {@code negativeTtl}, further unseen secrets for it are rejected locally,
+ * so guessing cannot turn into a stream of introspection calls; secrets already verified
+ * keep working from the cache.</p>
+ *
+ * <p>Only the first use of a key (and the first use after {@code ttl}) makes the
+ * synchronous call to tenant-service. The price is a revocation window: tenant-service
+ * broadcasts key changes on a Redis channel, applied here through {@link #invalidate}
+ * by {@link IntegrationKeyRevocationListener} within pub/sub latency. Pub/sub does not
+ * redeliver, so when Redis is unavailable or no listener is registered, a revoked or
+ * rotated key keeps working here for at most {@code ttl}.</p>
+ */
+@Slf4j
+public class RemoteIntegrationKeyVerifier implements IntegrationKeyVerifier {
+
+  private final HttpClient client;
+  private final ObjectMapper mapper;
+  private final URI uri;
+  private final String header;
+  private final Duration timeout;
+  private final IntegrationKeyDigester digester;
+  private final Cache<String, IntegrationKeyRecord> known;
+  private final Cache<String, Boolean> rejected;
+  private final Cache<String, AtomicInteger> rejectionsByKey;
+  private final int maxRejectionsPerKey;
+  private final Clock clock;
+
+  public RemoteIntegrationKeyVerifier(ObjectMapper mapper, String uri, String header, Duration timeout,
+                                      long maxSize, Duration ttl, Duration negativeTtl, int maxRejectionsPerKey) {
+    this(HttpClient.newBuilder().connectTimeout(timeout).build(), mapper, uri, header, timeout,
+        maxSize, ttl, negativeTtl, maxRejectionsPerKey, Clock.systemUTC());
+  }
+
+  RemoteIntegrationKeyVerifier(HttpClient client, ObjectMapper mapper, String uri, String header, Duration timeout,
+                               long maxSize, Duration ttl, Duration negativeTtl, int maxRejectionsPerKey,
+                               Clock clock) {
+    this.client = client;
+    this.mapper = mapper;
+    this.uri = URI.create(uri);
+    this.header = header;
+    this.timeout = timeout;
+    byte[] key = new byte[32];
+    new SecureRandom().nextBytes(key);
+    this.digester = new HmacIntegrationKeyDigester(key);
+    this.known = CacheBuilder.newBuilder().maximumSize(maxSize).expireAfterWrite(ttl).build();
+    this.rejected = CacheBuilder.newBuilder().maximumSize(maxSize).expireAfterWrite(negativeTtl).build();
+    this.rejectionsByKey = CacheBuilder.newBuilder().maximumSize(maxSize).expireAfterWrite(negativeTtl).build();
+    this.maxRejectionsPerKey = maxRejectionsPerKey;
+    this.clock = clock;
+  }
+
+  @Override
+  public Optional<IntegrationKeyRecord> verify(String tenantId, String keyId, String secret) {
+    String key = cacheKey(tenantId, keyId);
+    byte[] presented = digester.digest(secret);
+    IntegrationKeyRecord record = known.getIfPresent(key);
+    if (record == null || !MessageDigest.isEqual(presented, record.digestRef())) {
+      String attempt = key + '\n' + Base64.getEncoder().encodeToString(presented);
+      if (rejected.getIfPresent(attempt) != null) {
+        return Optional.empty();
+      }
+      AtomicInteger rejections = rejectionsByKey.getIfPresent(key);
+      if (rejections != null && rejections.get() >= maxRejectionsPerKey) {
+        log.debug("Integration key {}/{} rejected {} times; not introspecting further secrets for now",
+            tenantId, keyId, rejections.get());
+        return Optional.empty();
+      }
+      record = introspect(tenantId, keyId, secret, presented);
+      if (record == null) {
+        return Optional.empty();
+      }
+      if (!record.tenantId().equals(tenantId) || !record.keyId().equals(keyId)) {
+        log.warn("Integration key introspection answered for {}/{} instead of {}/{}",
+            record.tenantId(), record.keyId(), tenantId, keyId);
+        rejected.put(attempt, Boolean.TRUE);
+        return Optional.empty();
+      }
+      known.put(key, record);
+    }
+    return record.usableAt(clock.instant()) ? Optional.of(record) : Optional.empty();
+  }
+
+  @Override
+  public void invalidate(String tenantId, String keyId) {
+    String key = cacheKey(tenantId, keyId);
+    known.invalidate(key);
+    rejected.asMap().keySet().removeIf(k -> k.startsWith(key + '\n'));
+    rejectionsByKey.invalidate(key);
+  }
+
+  @Override
+  public void invalidateAll() {
+    known.invalidateAll();
+    rejected.invalidateAll();
+    rejectionsByKey.invalidateAll();
+  }
+
+  /** The key's record, or {@code null} if tenant-service rejected it or could not be asked. */
+  private IntegrationKeyRecord introspect(String tenantId, String keyId, String secret, byte[] digest) {
+    try {
+      HttpResponse<byte[]> response = client.send(
+          HttpRequest.newBuilder(uri).timeout(timeout).GET()
+              .header("Accept", "application/json")
+              .header(header, tenantId + '.' + keyId + '.' + secret)
+              .build(),
+          HttpResponse.BodyHandlers.ofByteArray());
+      if (response.statusCode() == 401 || response.statusCode() == 403) {
+        String key = cacheKey(tenantId, keyId);
+        rejected.put(key + '\n' + Base64.getEncoder().encodeToString(digest), Boolean.TRUE);
+        rejectionsByKey.asMap().computeIfAbsent(key, k -> new AtomicInteger()).incrementAndGet();
+        return null;
+      }
+      if (response.statusCode() != 200) {
+        log.warn("Integration key introspection returned HTTP {}", response.statusCode());
+        return null;
+      }
+      JsonNode body = mapper.readTree(response.body());
+      // tenant-service wraps the answer in its BaseResponse envelope
+      JsonNode k = body.has("data") ? body.path("data") : body;
+      Set<String> scopes = new LinkedHashSet<>();
+      k.path("scopes").forEach(s -> scopes.add(s.asText()));
+      return new IntegrationKeyRecord(
+          k.path("tenantId").asText(),
+          k.path("keyId").asText(),
+          digest,
+          instant(k.path("validFrom")),
+          instant(k.path("expiresAt")),
+          scopes);
+    } catch (IOException | IllegalArgumentException ex) {
+      log.warn("Integration key introspection failed: {}", ex.getMessage());
+      return null;
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      return null;
+    }
+  }
+
+  private static Instant instant(JsonNode node) {
+    return node.isMissingNode() || node.isNull() ? null : Instant.parse(node.asText());
+  }
+
+  private static String cacheKey(String tenantId, String keyId) {
+    return tenantId + '\n' + keyId;
+  }
+}
@@ -0,0 +1,96 @@
+package com.ejada.starter_security.privilege;
+
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.oauth2.server.resource.InvalidBearerTokenException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Expands the compact privilege claim of an access token into authorities.
+ *
+ * <p>The token carries a base64url little-endian bitset of privilege ordinals
+ * ({@code privs}) and the dictionary version it was encoded against ({@code pdv}).
+ * Expansion is a bit scan over the cached dictionary; no I/O happens once the tenant's
+ * dictionary is loaded. A token whose version differs from the cached dictionary is
+ * rejected as {@code invalid_token} (forcing the client to refresh it) and the
+ * dictionary is reloaded in the background, so either side that is stale converges.</p>
+ */
+public class PrivilegeAuthoritiesConverter implements Converter<Jwt, Collection<GrantedAuthority>> {
+
+  private final PrivilegeDictionarySource dictionaries;
+  private final String claim;
+  private final String versionClaim;
+  private final String tenantClaim;
+  private final String authorityPrefix;
+
+  public PrivilegeAuthoritiesConverter(PrivilegeDictionarySource dictionaries,
+                                       String claim,
+                                       String versionClaim,
+                                       String tenantClaim,
+                                       String authorityPrefix) {
+    this.dictionaries = Objects.requireNonNull(dictionaries);
+    this.claim = claim;
+    this.versionClaim = versionClaim;
+    this.tenantClaim = tenantClaim;
+    this.authorityPrefix = authorityPrefix == null ? "" : authorityPrefix;
+  }
+
+  @Override
+  public Collection<GrantedAuthority> convert(Jwt jwt) {
+    String encoded = jwt.getClaimAsString(claim);
+    if (!StringUtils.hasText(encoded)) {
+      return List.of();
+    }
+    String tenant = jwt.getClaimAsString(tenantClaim);
+    Object version = jwt.getClaim(versionClaim);
+    if (!StringUtils.hasText(tenant) || version == null) {
+      throw new InvalidBearerTokenException("Privilege claim without tenant or dictionary version");
+    }
+    PrivilegeDictionarySnapshot dictionary = dictionaries.find(tenant, jwt.getTokenValue());
+    if (dictionary == null) {
+      throw new InvalidBearerTokenException("Privilege dictionary unavailable");
+    }
+    if (dictionary.version() != toLong(version)) {
+      dictionaries.refresh(tenant, jwt.getTokenValue());
+      throw new InvalidBearerTokenException("Privileges changed; refresh the access token");
+    }
+
+    BitSet bits = decode(encoded);
+    List<GrantedAuthority> out = new ArrayList<>(bits.cardinality());
+    for (int i = bits.nextSetBit(0); i >= 0; i = bits.nextSetBit(i + 1)) {
+      String code = dictionary.code(i);
+      if (code != null) {
+        out.add(new SimpleGrantedAuthority(authorityPrefix + code));
+      }
+    }
+    return out;
+  }
+
+  static BitSet decode(String encoded) {
+    try {
+      return BitSet.valueOf(Base64.getUrlDecoder().decode(encoded));
+    } catch (IllegalArgumentException ex) {
+      throw new InvalidBearerTokenException("Malformed privilege claim");
+    }
+  }
+
+  private static long toLong(Object version) {
+    if (version instanceof Number n) {
+      return n.longValue();
+    }
+    try {
+      return Long.parseLong(version.toString());
+    } catch (NumberFormatException ex) {
+      throw new InvalidBearerTokenException("Malformed privilege dictionary version");
+    }
+  }
+}
@@ -0,0 +1,23 @@
+package com.ejada.starter_security.privilege;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Privilege codes of one tenant indexed by ordinal, as published by sec-service.
+ *
+ * @param version dictionary version carried in tokens; equal versions decode identically
+ * @param codes   code at each ordinal, {@code null} for unused ordinals
+ */
+public record PrivilegeDictionarySnapshot(long version, List<String> codes) {
+
+  public PrivilegeDictionarySnapshot {
+    codes = codes == null ? List.of() : Collections.unmodifiableList(new ArrayList<>(codes));
+  }
+
+  /** Code at {@code ordinal}, or {@code null} if unused or out of range. */
+  public String code(int ordinal) {
+    return ordinal >= 0 && ordinal < codes.size() ? codes.get(ordinal) : null;
+  }
+}
@@ -0,0 +1,27 @@
+package com.ejada.starter_security.privilege;
+
+/**
+ * Supplies tenant privilege dictionaries to {@link PrivilegeAuthoritiesConverter}.
+ *
+ * <p>Implementations keep dictionaries in memory; {@link #find} may load on a cold miss
+ * but must not do I/O for a tenant it has already seen. The dictionary endpoint only
+ * serves a tenant to callers authenticated for that tenant, so both methods receive the
+ * access token being expanded; remote implementations present it when loading.</p>
+ */
+public interface PrivilegeDictionarySource {
+
+  /**
+   * Current dictionary of the tenant, or {@code null} if it cannot be obtained.
+   *
+   * @param bearerToken the compact access token whose claims are being expanded
+   */
+  PrivilegeDictionarySnapshot find(String tenant, String bearerToken);
+
+  /**
+   * Hint that a token referenced a version other than the cached one. Implementations
+   * reload in the background, rate-limited per tenant.
+   *
+   * @param bearerToken the compact access token that carried the other version
+   */
+  void refresh(String tenant, String bearerToken);
+}
@@ -0,0 +1,143 @@
+package com.ejada.starter_security.privilege;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Loads dictionaries from sec-service's {@code /.well-known/privilege-dictionary/{tenant}}
+ * endpoint and keeps them in memory.
+ *
+ * <p>The first token of a tenant loads synchronously; afterwards entries are served from
+ * memory and reloaded in the background when older than the TTL or when a token carries
+ * a different version (at most once per {@code minRefreshInterval}). A failed reload
+ * keeps serving the previous dictionary.</p>
+ *
+ * <p>Requests carry the access token being expanded as their bearer credential, since
+ * sec-service only returns a tenant's dictionary to callers of that tenant. Background
+ * reloads use the most recent token seen for the tenant; if it has expired the reload
+ * fails and is retried with the next token.</p>
+ */
+@Slf4j
+public class RemotePrivilegeDictionarySource implements PrivilegeDictionarySource {
+
+  private final HttpClient client;
+  private final ObjectMapper mapper;
+  private final String uriTemplate;
+  private final Duration ttl;
+  private final Duration minRefreshInterval;
+  private final Duration timeout;
+  private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+  public RemotePrivilegeDictionarySource(ObjectMapper mapper, String uriTemplate, Duration ttl,
+                                         Duration minRefreshInterval, Duration timeout) {
+    this(HttpClient.newBuilder().connectTimeout(timeout).build(), mapper, uriTemplate, ttl, minRefreshInterval, timeout);
+  }
+
+  RemotePrivilegeDictionarySource(HttpClient client, ObjectMapper mapper, String uriTemplate, Duration ttl,
+                                  Duration minRefreshInterval, Duration timeout) {
+    this.client = client;
+    this.mapper = mapper;
+    this.uriTemplate = uriTemplate;
+    this.ttl = ttl;
+    this.minRefreshInterval = minRefreshInterval;
+    this.timeout = timeout;
+  }
+
+  @Override
+  public PrivilegeDictionarySnapshot find(String tenant, String bearerToken) {
+    Entry entry = entries.get(tenant);
+    if (entry == null) {
+      entry = entries.computeIfAbsent(tenant, t -> new Entry(load(t, bearerToken), bearerToken));
+      if (entry.snapshot == null) {
+        // don't pin a failed cold load
+        entries.remove(tenant, entry);
+      }
+      return entry.snapshot;
+    }
+    entry.bearerToken = bearerToken;
+    if (System.nanoTime() - entry.loadedAt > ttl.toNanos()) {
+      reloadAsync(tenant, entry);
+    }
+    return entry.snapshot;
+  }
+
+  @Override
+  public void refresh(String tenant, String bearerToken) {
+    Entry entry = entries.get(tenant);
+    if (entry == null) {
+      return;
+    }
+    entry.bearerToken = bearerToken;
+    if (System.nanoTime() - entry.loadedAt > minRefreshInterval.toNanos()) {
+      reloadAsync(tenant, entry);
+    }
+  }
+
+  private void reloadAsync(String tenant, Entry current) {
+    if (!current.reloading.compareAndSet(false, true)) {
+      return;
+    }
+    Thread.ofVirtual().name("privilege-dictionary-" + tenant).start(() -> {
+      String bearerToken = current.bearerToken;
+      PrivilegeDictionarySnapshot fresh = load(tenant, bearerToken);
+      if (fresh != null) {
+        entries.put(tenant, new Entry(fresh, bearerToken));
+      } else {
+        current.reloading.set(false);
+      }
+    });
+  }
+
+  private PrivilegeDictionarySnapshot load(String tenant, String bearerToken) {
+    URI uri = URI.create(uriTemplate.replace("{tenant}", URLEncoder.encode(tenant, StandardCharsets.UTF_8)));
+    HttpRequest.Builder request = HttpRequest.newBuilder(uri).timeout(timeout).GET().header("Accept", "application/json");
+    if (bearerToken != null) {
+      request.header("Authorization", "Bearer " + bearerToken);
+    }
+    try {
+      HttpResponse<byte[]> response = client.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+      if (response.statusCode() != 200) {
+        log.warn("Privilege dictionary for tenant {} returned HTTP {}", tenant, response.statusCode());
+        return null;
+      }
+      JsonNode body = mapper.readTree(response.body());
+      List<String> codes = new ArrayList<>();
+      body.path("codes").forEach(n -> codes.add(n.isNull() ? null : n.asText()));
+      return new PrivilegeDictionarySnapshot(body.path("version").asLong(), codes);
+    } catch (IOException ex) {
+      log.warn("Failed to load privilege dictionary for tenant {}: {}", tenant, ex.getMessage());
+      return null;
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      return null;
+    }
+  }
+
+  private static final class Entry {
+    final PrivilegeDictionarySnapshot snapshot;
+    final long loadedAt = System.nanoTime();
+    final AtomicBoolean reloading = new AtomicBoolean();
+    /** Latest token seen for the tenant; the credential for background reloads. */
+    volatile String bearerToken;
+
+    Entry(PrivilegeDictionarySnapshot snapshot, String bearerToken) {
+      this.snapshot = snapshot;
+      this.bearerToken = bearerToken;
+    }
+  }
+}
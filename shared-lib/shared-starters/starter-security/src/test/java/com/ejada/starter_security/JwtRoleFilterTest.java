@@ -2,8 +2,10 @@ package com.ejada.starter_security;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import com.ejada.starter_security.privilege.PrivilegeAuthoritiesConverter;
 import java.util.List;
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationConverter;
@@ -17,7 +19,8 @@ class JwtRoleFilterTest {
   void ignoresUnknownRoles() {
     SharedSecurityProps props = new SharedSecurityProps();
     SecurityAutoConfiguration cfg = new SecurityAutoConfiguration();
-    JwtAuthenticationConverter conv = cfg.jwtAuthenticationConverter(props);
+    JwtAuthenticationConverter conv = cfg.jwtAuthenticationConverter(props,
+        new StaticListableBeanFactory().getBeanProvider(PrivilegeAuthoritiesConverter.class));
 
     Jwt jwt = Jwt.withTokenValue("t").header("alg", "none")
         .claim("roles", List.of("TENANT_ADMIN", "FAKE_ROLE"))
@@ -0,0 +1,97 @@
+package com.ejada.starter_security.integration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ejada.starter_security.web.JsonAuthEntryPoint;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+/**
+ * Verifies cached integration-key verification and the authentication filter.
+ */
+class CachingIntegrationKeyVerifierTest {
+
+  private final HmacIntegrationKeyDigester digester =
+      new HmacIntegrationKeyDigester("test-hmac-key".getBytes(StandardCharsets.UTF_8));
+  private final Map<String, IntegrationKeyRecord> store = new HashMap<>();
+  private final AtomicInteger lookups = new AtomicInteger();
+  private final IntegrationKeyVerifier verifier = new CachingIntegrationKeyVerifier((tenant, keyId) -> {
+    lookups.incrementAndGet();
+    return Optional.ofNullable(store.get(tenant + "/" + keyId));
+  }, digester, 100, Duration.ofMinutes(1), Duration.ofMinutes(1));
+
+  @AfterEach
+  void clear() {
+    SecurityContextHolder.clearContext();
+  }
+
+  private void put(String tenant, String keyId, String secret, Instant expiresAt) {
+    store.put(tenant + "/" + keyId, new IntegrationKeyRecord(tenant, keyId, digester.digest(secret),
+        Instant.EPOCH, expiresAt, Set.of("billing.read")));
+  }
+
+  @Test
+  void verifiesAgainstCacheAndRejectsWrongSecret() {
+    put("1", "k1", "s3cret", Instant.now().plusSeconds(3600));
+
+    assertTrue(verifier.verify("1", "k1", "s3cret").isPresent());
+    assertTrue(verifier.verify("1", "k1", "s3cret").isPresent());
+    assertTrue(verifier.verify("1", "k1", "wrong").isEmpty());
+    assertEquals(1, lookups.get());
+  }
+
+  @Test
+  void unknownAndExpiredKeysAreRejectedAndUnknownIsCached() {
+    put("1", "old", "s", Instant.now().minusSeconds(1));
+
+    assertTrue(verifier.verify("1", "old", "s").isEmpty());
+    assertTrue(verifier.verify("1", "missing", "s").isEmpty());
+    assertTrue(verifier.verify("1", "missing", "s").isEmpty());
+    assertEquals(2, lookups.get());
+  }
+
+  @Test
+  void invalidateDropsRevokedKey() {
+    put("1", "k1", "s", Instant.now().plusSeconds(3600));
+    assertTrue(verifier.verify("1", "k1", "s").isPresent());
+
+    store.clear();
+    assertTrue(verifier.verify("1", "k1", "s").isPresent());
+    verifier.invalidate("1", "k1");
+    assertTrue(verifier.verify("1", "k1", "s").isEmpty());
+  }
+
+  @Test
+  void filterAuthenticatesWithScopesAndRejectsBadKeys() throws Exception {
+    put("7", "svc", "a.b.c", Instant.now().plusSeconds(3600));
+    IntegrationKeyAuthenticationFilter filter = new IntegrationKeyAuthenticationFilter(
+        verifier, new JsonAuthEntryPoint(new ObjectMapper().findAndRegisterModules()), "X-API-Key", "SCOPE_");
+
+    MockHttpServletRequest ok = new MockHttpServletRequest("GET", "/x");
+    ok.addHeader("X-API-Key", "7.svc.a.b.c");
+    Authentication[] seen = new Authentication[1];
+    filter.doFilter(ok, new MockHttpServletResponse(),
+        (req, res) -> seen[0] = SecurityContextHolder.getContext().getAuthentication());
+    assertInstanceOf(IntegrationKeyAuthentication.class, seen[0]);
+    assertEquals("SCOPE_billing.read", seen[0].getAuthorities().iterator().next().getAuthority());
+
+    MockHttpServletRequest bad = new MockHttpServletRequest("GET", "/x");
+    bad.addHeader("X-API-Key", "7.svc.nope");
+    MockHttpServletResponse rejected = new MockHttpServletResponse();
+    filter.doFilter(bad, rejected, (req, res) -> fail("chain must not run"));
+    assertEquals(401, rejected.getStatus());
+  }
+}
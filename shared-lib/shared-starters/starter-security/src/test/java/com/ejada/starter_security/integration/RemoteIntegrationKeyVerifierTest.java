@@ -0,0 +1,133 @@
+package com.ejada.starter_security.integration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.redis.connection.Message;
+
+/**
+ * Verifies that keys are introspected with the presented key and verified in memory afterwards.
+ */
+class RemoteIntegrationKeyVerifierTest {
+
+  private static final String KEY = "{\"data\":{\"tenantId\":\"7\",\"keyId\":\"k1\",\"validFrom\":\"2026-01-01T00:00:00Z\","
+      + "\"expiresAt\":\"2027-01-01T00:00:00Z\",\"scopes\":[\"billing.read\"]}}";
+
+  private final HttpClient client = mock(HttpClient.class);
+  private final RemoteIntegrationKeyVerifier verifier = new RemoteIntegrationKeyVerifier(client, new ObjectMapper(),
+      "http://tenant/api/v1/tenants/keys/introspect", "X-API-Key", Duration.ofSeconds(1),
+      100, Duration.ofMinutes(1), Duration.ofMinutes(1), 3,
+      Clock.fixed(Instant.parse("2026-06-01T00:00:00Z"), ZoneOffset.UTC));
+
+  @SuppressWarnings("unchecked")
+  private void respond(int status, String body) throws Exception {
+    HttpResponse<byte[]> response = mock(HttpResponse.class);
+    when(response.statusCode()).thenReturn(status);
+    when(response.body()).thenReturn(body.getBytes(StandardCharsets.UTF_8));
+    when(client.send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class))).thenReturn((HttpResponse) response);
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void firstUseIsIntrospectedWithThePresentedKeyAndLaterUsesStayInMemory() throws Exception {
+    respond(200, KEY);
+
+    IntegrationKeyRecord record = verifier.verify("7", "k1", "s.e.c.r.e.t").orElseThrow();
+    assertTrue(verifier.verify("7", "k1", "s.e.c.r.e.t").isPresent());
+
+    assertEquals(Set.of("billing.read"), record.scopes());
+    ArgumentCaptor<HttpRequest> request = ArgumentCaptor.forClass(HttpRequest.class);
+    verify(client, times(1)).send(request.capture(), any(HttpResponse.BodyHandler.class));
+    assertEquals("7.k1.s.e.c.r.e.t", request.getValue().headers().firstValue("X-API-Key").orElseThrow());
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void wrongSecretIsRejectedWithoutBlockingTheRightOne() throws Exception {
+    respond(401, "{}");
+    assertTrue(verifier.verify("7", "k1", "wrong").isEmpty());
+    assertTrue(verifier.verify("7", "k1", "wrong").isEmpty());
+    verify(client, times(1)).send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class));
+
+    respond(200, KEY);
+    assertTrue(verifier.verify("7", "k1", "right").isPresent());
+    // the cached record only matches the verified secret
+    assertTrue(verifier.verify("7", "k1", "wrong").isEmpty());
+  }
+
+  @Test
+  void unreachableTenantServiceFailsClosedWithoutPinningARejection() throws Exception {
+    respond(503, "{}");
+    assertTrue(verifier.verify("7", "k1", "right").isEmpty());
+
+    respond(200, KEY);
+    assertTrue(verifier.verify("7", "k1", "right").isPresent());
+  }
+
+  @Test
+  void answerForAnotherKeyIsNotTrusted() throws Exception {
+    respond(200, KEY);
+
+    assertTrue(verifier.verify("8", "k1", "right").isEmpty());
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void invalidateForcesAFreshIntrospection() throws Exception {
+    respond(200, KEY);
+    verifier.verify("7", "k1", "right");
+
+    verifier.invalidate("7", "k1");
+    verifier.verify("7", "k1", "right");
+
+    verify(client, times(2)).send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class));
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void rejectionsPerKeyIdAreCappedButVerifiedSecretsKeepWorking() throws Exception {
+    respond(200, KEY);
+    verifier.verify("7", "k1", "right");
+    verifier.invalidate("7", "k1");
+    verifier.verify("7", "k1", "right");
+
+    respond(401, "{}");
+    for (int i = 0; i < 10; i++) {
+      assertTrue(verifier.verify("7", "k1", "guess-" + i).isEmpty());
+    }
+
+    // 2 successful introspections, then 3 rejections before the cap
+    verify(client, times(5)).send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class));
+    assertTrue(verifier.verify("7", "k1", "right").isPresent());
+    assertTrue(verifier.verify("7", "k2", "guess").isEmpty());
+    verify(client, times(6)).send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class));
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void revocationMessageDropsTheCachedKey() throws Exception {
+    respond(200, KEY);
+    verifier.verify("7", "k1", "right");
+    Message message = mock(Message.class);
+    when(message.getBody()).thenReturn("7\nk1".getBytes(StandardCharsets.UTF_8));
+
+    new IntegrationKeyRevocationListener(verifier).onMessage(message, null);
+    respond(401, "{}");
+
+    assertTrue(verifier.verify("7", "k1", "right").isEmpty());
+    verify(client, times(2)).send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class));
+  }
+}
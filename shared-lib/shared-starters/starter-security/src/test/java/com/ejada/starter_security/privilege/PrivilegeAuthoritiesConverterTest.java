@@ -0,0 +1,76 @@
+package com.ejada.starter_security.privilege;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.BitSet;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.InvalidBearerTokenException;
+
+/**
+ * Verifies expansion of the compact privilege claim against an in-memory dictionary.
+ */
+class PrivilegeAuthoritiesConverterTest {
+
+  private final List<String> refreshed = new ArrayList<>();
+  private final PrivilegeDictionarySnapshot dictionary =
+      new PrivilegeDictionarySnapshot(42L, Arrays.asList("USER_READ", null, "ROLE_ASSIGN", "TENANT_READ"));
+
+  private final PrivilegeAuthoritiesConverter converter = new PrivilegeAuthoritiesConverter(
+      new PrivilegeDictionarySource() {
+        @Override
+        public PrivilegeDictionarySnapshot find(String tenant, String bearerToken) {
+          return "t1".equals(tenant) ? dictionary : null;
+        }
+
+        @Override
+        public void refresh(String tenant, String bearerToken) {
+          refreshed.add(tenant);
+        }
+      }, "privs", "pdv", "tenant", "PRIV_");
+
+  private static String bits(int... ordinals) {
+    BitSet set = new BitSet();
+    for (int o : ordinals) {
+      set.set(o);
+    }
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(set.toByteArray());
+  }
+
+  private static Jwt token(String privs, Object version) {
+    Jwt.Builder b = Jwt.withTokenValue("t").header("alg", "none").claim("tenant", "t1");
+    if (privs != null) {
+      b.claim("privs", privs);
+    }
+    if (version != null) {
+      b.claim("pdv", version);
+    }
+    return b.build();
+  }
+
+  @Test
+  void expandsBitsIntoPrefixedAuthorities() {
+    var authorities = converter.convert(token(bits(0, 1, 3, 70), 42L)).stream()
+        .map(GrantedAuthority::getAuthority).toList();
+
+    // ordinal 1 is unused and 70 is beyond the dictionary
+    assertEquals(List.of("PRIV_USER_READ", "PRIV_TENANT_READ"), authorities);
+  }
+
+  @Test
+  void versionMismatchRejectsTokenAndRequestsReload() {
+    assertThrows(InvalidBearerTokenException.class, () -> converter.convert(token(bits(0), "41")));
+    assertEquals(List.of("t1"), refreshed);
+  }
+
+  @Test
+  void tokensWithoutPrivilegeClaimAreUnaffected() {
+    assertTrue(converter.convert(token(null, null)).isEmpty());
+    assertThrows(InvalidBearerTokenException.class, () -> converter.convert(token(bits(0), null)));
+  }
+}
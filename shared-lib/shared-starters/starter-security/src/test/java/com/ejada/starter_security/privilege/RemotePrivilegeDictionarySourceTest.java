@@ -0,0 +1,59 @@
+package com.ejada.starter_security.privilege;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+/**
+ * Verifies that dictionary requests are authenticated with the token being expanded.
+ */
+class RemotePrivilegeDictionarySourceTest {
+
+  private final HttpClient client = mock(HttpClient.class);
+  private final RemotePrivilegeDictionarySource source = new RemotePrivilegeDictionarySource(client,
+      new ObjectMapper(), "http://sec/.well-known/privilege-dictionary/{tenant}",
+      Duration.ofMinutes(5), Duration.ofSeconds(5), Duration.ofSeconds(1));
+
+  @SuppressWarnings("unchecked")
+  private void respond(int status, String body) throws Exception {
+    HttpResponse<byte[]> response = mock(HttpResponse.class);
+    when(response.statusCode()).thenReturn(status);
+    when(response.body()).thenReturn(body.getBytes(StandardCharsets.UTF_8));
+    when(client.send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class))).thenReturn((HttpResponse) response);
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void coldLoadPresentsTheTokenAndIsServedFromMemoryAfterwards() throws Exception {
+    respond(200, "{\"version\":7,\"codes\":[\"USER_READ\",null]}");
+
+    PrivilegeDictionarySnapshot first = source.find("t1", "token-1");
+    PrivilegeDictionarySnapshot second = source.find("t1", "token-2");
+
+    assertEquals(new PrivilegeDictionarySnapshot(7L, Arrays.asList("USER_READ", null)), first);
+    assertSame(first, second);
+    ArgumentCaptor<HttpRequest> request = ArgumentCaptor.forClass(HttpRequest.class);
+    verify(client, times(1)).send(request.capture(), any(HttpResponse.BodyHandler.class));
+    assertEquals("Bearer token-1", request.getValue().headers().firstValue("Authorization").orElseThrow());
+    assertEquals("/.well-known/privilege-dictionary/t1", request.getValue().uri().getPath());
+  }
+
+  @Test
+  void rejectedColdLoadIsNotPinned() throws Exception {
+    respond(403, "{}");
+    assertNull(source.find("t1", "other-tenant-token"));
+
+    respond(200, "{\"version\":7,\"codes\":[]}");
+    assertNotNull(source.find("t1", "token-1"));
+  }
+}
@@ -1,5 +1,7 @@
 package com.ejada.billing.controller;
 
+import com.ejada.billing.dto.ProductConsumptionStts;
+import com.ejada.billing.dto.RecordProductConsumptionRq;
 import com.ejada.billing.dto.ServiceResult;
 import com.ejada.billing.dto.TrackProductConsumptionRq;
 import com.ejada.billing.dto.TrackProductConsumptionRs;
@@ -23,6 +25,16 @@ import java.util.UUID;
  *  - token: String (required; swagger shows a UUID pattern but also describes JWT)
  * Body: TrackProductConsumptionRq
  * Response: ServiceResult<TrackProductConsumptionRs>
+ *
+ * POST /subscription/product-consumption/record
+ * Headers:
+ *  - rqUID: UUID (required)
+ * Body: RecordProductConsumptionRq
+ * Response: ServiceResult<ProductConsumptionStts>
+ *
+ * Both are deduplicated on rqUID by the idempotency filter (shared.redis.idempotency), which
+ * replays the first answer to retries. Unexpected errors (EINT000) are answered with HTTP 500
+ * so they are not stored and a retry with the same rqUID runs again.
  */
 @RestController
 @RequiredArgsConstructor
@@ -37,6 +49,20 @@ public class ConsumptionController {
             @RequestHeader("token") final String token,
             @Valid @RequestBody final TrackProductConsumptionRq body) {
 
-        return ResponseEntity.ok(service.trackProductConsumption(rqUid, token, body));
+        return respond(service.trackProductConsumption(rqUid, token, body));
+    }
+
+    @PostMapping(value = "/product-consumption/record", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<ServiceResult<ProductConsumptionStts>> record(
+            @RequestHeader("rqUID") final UUID rqUid,
+            @Valid @RequestBody final RecordProductConsumptionRq body) {
+
+        return respond(service.recordProductConsumption(rqUid, body));
+    }
+
+    private static <T> ResponseEntity<ServiceResult<T>> respond(final ServiceResult<T> result) {
+        return "EINT000".equals(result.statusCode())
+                ? ResponseEntity.internalServerError().body(result)
+                : ResponseEntity.ok(result);
     }
 }
@@ -1,8 +1,13 @@
 package com.ejada.billing.controller;
 
 import com.ejada.billing.dto.ProductSubscriptionStts;
+import com.ejada.billing.dto.UsageGranularity;
+import com.ejada.billing.dto.UsageHistoryRs;
+import com.ejada.billing.dto.UsagePoint;
 import com.ejada.billing.service.ConsumptionQueryService;
+import com.ejada.billing.service.UsageRollupService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -10,12 +15,16 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.time.OffsetDateTime;
+import java.util.List;
+
 @RestController
 @RequiredArgsConstructor
 @RequestMapping("/billing")
 public class ConsumptionQueryController {
 
     private final ConsumptionQueryService service;
+    private final UsageRollupService rollups;
 
     /** Returns TRANSACTION/USER/BALANCE snapshot for a subscription. */
     @GetMapping("/subscriptions/{extSubscriptionId}/consumption")
@@ -25,4 +34,25 @@ public class ConsumptionQueryController {
 
         return ResponseEntity.ok(service.getSnapshot(extSubscriptionId, customerId));
     }
+
+    /** Usage totals per consumption type over [from, to), read from the coarsest rollups that fit. */
+    @GetMapping("/subscriptions/{extSubscriptionId}/usage")
+    public ResponseEntity<UsageHistoryRs> getUsage(
+            @PathVariable final Long extSubscriptionId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) final OffsetDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) final OffsetDateTime to) {
+
+        return ResponseEntity.ok(rollups.history(extSubscriptionId, from, to));
+    }
+
+    /** Usage per hour, day or month over [from, to). */
+    @GetMapping("/subscriptions/{extSubscriptionId}/usage/series")
+    public ResponseEntity<List<UsagePoint>> getUsageSeries(
+            @PathVariable final Long extSubscriptionId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) final OffsetDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) final OffsetDateTime to,
+            @RequestParam(defaultValue = "DAY") final UsageGranularity granularity) {
+
+        return ResponseEntity.ok(rollups.series(extSubscriptionId, granularity, from, to));
+    }
 }
@@ -1,31 +1,137 @@
 package com.ejada.billing.controller;
 
+import com.ejada.billing.dto.InvoiceAttachmentMetaDto;
 import com.ejada.billing.service.InvoiceAttachmentService;
+import com.ejada.billing.service.InvoiceAttachmentService.AttachmentView;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.ContentDisposition;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.List;
 
 @RestController
 @RequiredArgsConstructor
 @RequestMapping("/billing")
 public class InvoiceAttachmentController {
 
+    /** RFC 9530 digest of the full content, e.g. for clients verifying a resumed download. */
+    static final String REPR_DIGEST = "Repr-Digest";
+
     private final InvoiceAttachmentService svc;
 
+    /** Stores the raw request body as a new attachment of the invoice. */
+    @PostMapping("/invoices/{invoiceId}/attachments")
+    public ResponseEntity<InvoiceAttachmentMetaDto> upload(
+            @PathVariable final Long invoiceId,
+            @RequestParam final String fileName,
+            @RequestHeader(value = HttpHeaders.CONTENT_TYPE, defaultValue = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+            final MediaType contentType,
+            final InputStream body) {
+
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .body(svc.upload(invoiceId, fileName, contentType.toString(), body));
+    }
+
+    /** Attachment metadata, newest first. */
+    @GetMapping("/invoices/{invoiceId}/attachments")
+    public ResponseEntity<List<InvoiceAttachmentMetaDto>> list(@PathVariable final Long invoiceId) {
+        return ResponseEntity.ok(svc.list(invoiceId));
+    }
+
     /** Streams the latest attachment for an invoice (inline). */
     @GetMapping("/invoices/{invoiceId}/attachment")
-    public ResponseEntity<byte[]> download(@PathVariable final Long invoiceId) throws IOException {
-        var view = svc.getLatestAttachment(invoiceId);
-        return ResponseEntity.ok()
-                .contentType(MediaType.parseMediaType(view.mimeType()))
-                .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + view.fileName() + "\"")
-                .body(view.resource().getContentAsByteArray());
+    public ResponseEntity<StreamingResponseBody> download(
+            @PathVariable final Long invoiceId,
+            @RequestHeader final HttpHeaders headers) {
+
+        return serve(svc.getLatestAttachment(invoiceId), headers);
+    }
+
+    /** Streams one attachment (inline). */
+    @GetMapping("/invoices/{invoiceId}/attachments/{invoiceAttachmentId}")
+    public ResponseEntity<StreamingResponseBody> download(
+            @PathVariable final Long invoiceId,
+            @PathVariable final Long invoiceAttachmentId,
+            @RequestHeader final HttpHeaders headers) {
+
+        return serve(svc.getAttachment(invoiceId, invoiceAttachmentId), headers);
+    }
+
+    /**
+     * Full content (200), one byte range (206) or 304 when the client's copy is current.
+     * Multi-range requests get the full content, and so do a malformed {@code Range} and
+     * a range whose {@code If-Range} no longer matches the content; 416 is kept for
+     * well-formed ranges that start beyond the content.
+     */
+    static ResponseEntity<StreamingResponseBody> serve(final AttachmentView view, final HttpHeaders request) {
+        String etag = "\"" + view.sha256() + "\"";
+        long size = view.sizeBytes();
+        HttpHeaders headers = new HttpHeaders();
+        headers.setETag(etag);
+        headers.set(HttpHeaders.ACCEPT_RANGES, "bytes");
+
+        List<String> ifNoneMatch = request.getIfNoneMatch();
+        if (ifNoneMatch.contains(etag) || ifNoneMatch.contains("*")) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).headers(headers).build();
+        }
+        headers.setContentType(MediaType.parseMediaType(view.mimeType()));
+        headers.setContentDisposition(ContentDisposition.inline()
+                .filename(view.fileName(), StandardCharsets.UTF_8)
+                .build());
+        headers.set(REPR_DIGEST,
+                "sha-256=:" + Base64.getEncoder().encodeToString(HexFormat.of().parseHex(view.sha256())) + ":");
+
+        String ifRange = request.getFirst(HttpHeaders.IF_RANGE);
+        List<HttpRange> ranges;
+        try {
+            ranges = ifRange == null || ifRange.equals(etag)
+                    ? HttpRange.parseRanges(request.getFirst(HttpHeaders.RANGE))
+                    : List.of();
+        } catch (IllegalArgumentException e) {
+            // malformed or over-long Range: ignore it and send the full content (RFC 9110 14.2)
+            ranges = List.of();
+        }
+        if (ranges.size() == 1) {
+            long start;
+            long end;
+            try {
+                start = ranges.get(0).getRangeStart(size);
+                end = ranges.get(0).getRangeEnd(size);
+            } catch (IllegalArgumentException e) {
+                return unsatisfiable(size);
+            }
+            if (start >= size) {
+                return unsatisfiable(size);
+            }
+            long length = end - start + 1;
+            headers.set(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + size);
+            headers.setContentLength(length);
+            return ResponseEntity.status(HttpStatus.PARTIAL_CONTENT).headers(headers)
+                    .body(out -> view.content().copy(start, length, out));
+        }
+        headers.setContentLength(size);
+        return ResponseEntity.ok().headers(headers).body(out -> view.content().copy(0, size, out));
+    }
+
+    private static ResponseEntity<StreamingResponseBody> unsatisfiable(final long size) {
+        return ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE)
+                .header(HttpHeaders.CONTENT_RANGE, "bytes */" + size)
+                .build();
     }
 }
@@ -0,0 +1,35 @@
+package com.ejada.billing.controller;
+
+import com.ejada.billing.dto.InvoiceRunStatus;
+import com.ejada.billing.service.InvoiceRunService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.YearMonth;
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/billing/invoice-runs")
+public class InvoiceRunController {
+
+    private final InvoiceRunService service;
+
+    /** Starts (or resumes) the invoice run of a closed month, e.g. {@code period=2026-09}. */
+    @PostMapping
+    public ResponseEntity<InvoiceRunStatus> start(@RequestParam final YearMonth period) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(service.start(period));
+    }
+
+    /** Chunk progress and throughput of a run. */
+    @GetMapping("/{runId}")
+    public ResponseEntity<InvoiceRunStatus> status(@PathVariable final long runId) {
+        return ResponseEntity.ok(service.status(runId));
+    }
+}
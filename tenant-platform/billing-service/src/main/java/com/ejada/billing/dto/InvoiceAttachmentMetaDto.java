@@ -9,5 +9,6 @@ public record InvoiceAttachmentMetaDto(
         String fileName,
         String mimeType,
         OffsetDateTime createdAt,
-        Long sizeBytes
+        Long sizeBytes,
+        String sha256               // hex; also the download ETag
 ) { }
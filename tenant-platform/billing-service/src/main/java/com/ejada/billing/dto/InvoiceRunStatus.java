@@ -0,0 +1,22 @@
+package com.ejada.billing.dto;
+
+import jakarta.validation.constraints.NotNull;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+
+/**
+ * Progress of an invoice batch run. {@code invoicesPerSecond} is measured over the run's
+ * wall-clock time so far (until completion for a finished run).
+ */
+public record InvoiceRunStatus(
+        @NotNull Long runId,
+        @NotNull LocalDate periodStart,
+        @NotNull String status,     // RUNNING | COMPLETED
+        OffsetDateTime startedAt,
+        OffsetDateTime completedAt,
+        int chunks,
+        int chunksDone,
+        int chunksFailed,
+        long invoices,
+        double invoicesPerSecond
+) { }
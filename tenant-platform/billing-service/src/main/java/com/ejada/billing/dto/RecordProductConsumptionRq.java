@@ -0,0 +1,19 @@
+package com.ejada.billing.dto;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.PositiveOrZero;
+import java.math.BigDecimal;
+
+/**
+ * Record Product Consumption Request: one metered increment. {@code quantity} applies to
+ * TRANSACTION/USER, {@code amount} to BALANCE; when {@code hardLimit} is set the increment
+ * is rejected if it would take the counter past it.
+ */
+public record RecordProductConsumptionRq(
+        @NotNull Long customerId,
+        @NotNull Long subscriptionId,
+        @NotNull ConsumptionType consumptionTypCd,
+        @PositiveOrZero Long quantity,
+        @PositiveOrZero BigDecimal amount,
+        @PositiveOrZero BigDecimal hardLimit
+) { }
@@ -6,8 +6,8 @@ import java.util.List;
 /** Envelope: ServiceResult«TrackProductConsumptionRs» */
 public record ServiceResult<T>(
         @NotBlank String rqUID,
-        @NotBlank String statusCode,     // I000000 | EINT000
-        @NotBlank String statusDesc,     // Successful Operation | Unexpected Error
+        @NotBlank String statusCode,     // I000000 | ELIM000 | EINT000
+        @NotBlank String statusDesc,     // Successful Operation | Hard Limit Exceeded | Unexpected Error
         T returnedObject,
         String debugId,
         List<String> statusDtls,
@@ -25,6 +25,9 @@ public record ServiceResult<T>(
     public static <T> ServiceResult<T> ok(final String rqUID, final T body) {
         return new ServiceResult<>(rqUID, "I000000", "Successful Operation", body, null, null, Boolean.TRUE);
     }
+    public static <T> ServiceResult<T> limitExceeded(final String rqUID, final T body) {
+        return new ServiceResult<>(rqUID, "ELIM000", "Hard Limit Exceeded", body, null, null, Boolean.FALSE);
+    }
     public static <T> ServiceResult<T> error(final String rqUID, final String debugId, final List<String> details) {
         return new ServiceResult<>(rqUID, "EINT000", "Unexpected Error", null, debugId, details, Boolean.FALSE);
     }
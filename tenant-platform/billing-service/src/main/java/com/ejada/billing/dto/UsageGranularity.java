@@ -0,0 +1,6 @@
+package com.ejada.billing.dto;
+
+/** Bucket size of the usage rollups (UTC). */
+public enum UsageGranularity {
+    HOUR, DAY, MONTH
+}
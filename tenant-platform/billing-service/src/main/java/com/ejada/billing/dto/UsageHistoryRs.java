@@ -0,0 +1,26 @@
+package com.ejada.billing.dto;
+
+import jakarta.validation.constraints.NotNull;
+import java.time.OffsetDateTime;
+import java.util.List;
+
+/**
+ * Usage of a subscription over [from, to), both rounded out to whole UTC hours.
+ * {@code rollupRows} is the number of aggregate rows the answer was computed from.
+ */
+public record UsageHistoryRs(
+        @NotNull Long subscriptionId,
+        @NotNull OffsetDateTime from,
+        @NotNull OffsetDateTime to,
+        List<UsageTotal> totals,
+        long rollupRows
+) {
+    public UsageHistoryRs {
+        totals = totals == null ? List.of() : List.copyOf(totals);
+    }
+
+    @Override
+    public List<UsageTotal> totals() {
+        return List.copyOf(totals);
+    }
+}
@@ -0,0 +1,13 @@
+package com.ejada.billing.dto;
+
+import jakarta.validation.constraints.NotNull;
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+
+/** Usage of one consumption type in one rollup bucket. */
+public record UsagePoint(
+        @NotNull OffsetDateTime bucketStart,
+        @NotNull ConsumptionType consumptionTypCd,
+        long quantity,
+        BigDecimal amount
+) { }
@@ -0,0 +1,11 @@
+package com.ejada.billing.dto;
+
+import jakarta.validation.constraints.NotNull;
+import java.math.BigDecimal;
+
+/** Usage of one consumption type over a period. */
+public record UsageTotal(
+        @NotNull ConsumptionType consumptionTypCd,
+        long quantity,              // TRANSACTION/USER increments
+        BigDecimal amount           // BALANCE increments
+) { }
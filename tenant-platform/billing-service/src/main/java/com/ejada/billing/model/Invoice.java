@@ -67,6 +67,16 @@ public class Invoice {
   @Column(name = "status_cd", length = STATUS_CD_LENGTH, nullable = false)
   private String statusCd; // DRAFT | ISSUED | PAID | VOID
 
+  /** Billed period [periodStart, periodEnd); set on invoices generated by a run. */
+  @Column(name = "period_start")
+  private LocalDate periodStart;
+
+  @Column(name = "period_end")
+  private LocalDate periodEnd;
+
+  @Column(name = "invoice_run_id")
+  private Long invoiceRunId;
+
   @Column(name = "created_at", nullable = false)
   private OffsetDateTime createdAt;
 
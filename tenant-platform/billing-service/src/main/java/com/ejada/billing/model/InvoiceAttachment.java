@@ -8,7 +8,6 @@ import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
-import jakarta.persistence.Lob;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.PrePersist;
 import jakarta.persistence.Table;
@@ -31,6 +30,9 @@ public class InvoiceAttachment {
 
   private static final int FILE_NM_LENGTH = 255;
   private static final int MIME_TYP_LENGTH = 128;
+  private static final int STORAGE_CD_LENGTH = 16;
+  private static final int STORAGE_KEY_LENGTH = 512;
+  private static final int SHA256_LENGTH = 64;
   @Id
   @GeneratedValue(strategy = GenerationType.IDENTITY)
   @Column(name = "invoice_attachment_id", updatable = false, nullable = false)
@@ -46,9 +48,19 @@ public class InvoiceAttachment {
   @Column(name = "mime_typ", length = MIME_TYP_LENGTH, nullable = false)
   private String mimeTyp;
 
-  @Lob
-  @Column(name = "content", nullable = false)
-  private byte[] content;
+  /** Content store holding the bytes: FS | PG_LO. */
+  @Column(name = "storage_cd", length = STORAGE_CD_LENGTH, nullable = false)
+  private String storageCd;
+
+  @Column(name = "storage_key", length = STORAGE_KEY_LENGTH, nullable = false)
+  private String storageKey;
+
+  @Column(name = "size_bytes", nullable = false)
+  private Long sizeBytes;
+
+  /** Hex SHA-256 of the content; doubles as the download ETag. */
+  @Column(name = "sha256", length = SHA256_LENGTH, nullable = false)
+  private String sha256;
 
   @Column(name = "created_at", nullable = false)
   private OffsetDateTime createdAt;
@@ -62,13 +74,17 @@ public class InvoiceAttachment {
 
   @SuppressFBWarnings(value = "EI_EXPOSE_REP2", justification = "Invoice is a JPA entity; reference sharing is intentional")
   @Builder
-  public InvoiceAttachment(Long invoiceAttachmentId, Invoice invoice, String fileNm,
-                           String mimeTyp, byte[] content, OffsetDateTime createdAt) {
+  public InvoiceAttachment(Long invoiceAttachmentId, Invoice invoice, String fileNm, String mimeTyp,
+                           String storageCd, String storageKey, Long sizeBytes, String sha256,
+                           OffsetDateTime createdAt) {
     this.invoiceAttachmentId = invoiceAttachmentId;
     this.invoice = invoice;
     this.fileNm = fileNm;
     this.mimeTyp = mimeTyp;
-    this.content = content == null ? null : content.clone();
+    this.storageCd = storageCd;
+    this.storageKey = storageKey;
+    this.sizeBytes = sizeBytes;
+    this.sha256 = sha256;
     this.createdAt = createdAt;
   }
 
@@ -82,24 +98,11 @@ public class InvoiceAttachment {
     this.invoice = invoice;
   }
 
-  public byte[] getContent() {
-    return content == null ? null : content.clone();
-  }
-
-  public void setContent(final byte[] content) {
-    this.content = content == null ? null : content.clone();
-  }
-
   @SuppressFBWarnings("EI_EXPOSE_REP2")
   public static final class InvoiceAttachmentBuilder {
     public InvoiceAttachmentBuilder invoice(final Invoice invoice) {
       this.invoice = invoice;
       return this;
     }
-
-    public InvoiceAttachmentBuilder content(final byte[] content) {
-      this.content = content == null ? null : content.clone();
-      return this;
-    }
   }
 }
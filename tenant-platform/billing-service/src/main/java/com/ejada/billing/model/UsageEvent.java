@@ -18,6 +18,11 @@ import org.hibernate.annotations.DynamicUpdate;
 import java.time.OffsetDateTime;
 import java.util.UUID;
 
+/**
+ * Audit row of one tracking request. The table is range-partitioned by month on
+ * {@code received_at}; its primary key is (usage_event_id, received_at), ids stay unique
+ * through the shared sequence.
+ */
 @Entity
 @Table(name = "usage_event",
        indexes = {
@@ -0,0 +1,48 @@
+package com.ejada.billing.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Queue of attachment content whose {@code invoice_attachment} row was deleted while the
+ * content lives outside the database (see V10). Entries are claimed with
+ * {@code SKIP LOCKED}, so replicas sweeping at the same time take disjoint chunks.
+ */
+@Repository
+public class AttachmentOrphanRepository {
+
+    private static final String CLAIM = """
+            select invoice_attachment_orphan_id, storage_cd, storage_key
+              from invoice_attachment_orphan
+             order by invoice_attachment_orphan_id
+             limit ?
+               for update skip locked
+            """;
+
+    private static final String DELETE = "delete from invoice_attachment_orphan where invoice_attachment_orphan_id = any(?)";
+
+    private final JdbcTemplate jdbc;
+
+    public AttachmentOrphanRepository(final JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    /** Locks up to {@code limit} queued entries, oldest first; call inside a transaction. */
+    public List<Orphan> claim(final int limit) {
+        return jdbc.query(CLAIM, (rs, i) -> new Orphan(rs.getLong(1), rs.getString(2), rs.getString(3)), limit);
+    }
+
+    public int delete(final List<Orphan> orphans) {
+        Long[] ids = orphans.stream().map(Orphan::id).toArray(Long[]::new);
+        return jdbc.update(con -> {
+            var ps = con.prepareStatement(DELETE);
+            ps.setArray(1, con.createArrayOf("bigint", ids));
+            return ps;
+        });
+    }
+
+    public record Orphan(long id, String storageCd, String storageKey) {
+    }
+}
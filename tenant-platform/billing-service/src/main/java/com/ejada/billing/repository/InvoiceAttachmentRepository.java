@@ -4,10 +4,16 @@ import com.ejada.billing.model.InvoiceAttachment;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
+/** Attachment metadata; content is read through the content store named by the row. */
 @Repository
 public interface InvoiceAttachmentRepository extends JpaRepository<InvoiceAttachment, Long> {
 
     Optional<InvoiceAttachment> findFirstByInvoiceInvoiceIdOrderByCreatedAtDesc(Long invoiceId);
+
+    Optional<InvoiceAttachment> findByInvoiceAttachmentIdAndInvoiceInvoiceId(Long invoiceAttachmentId, Long invoiceId);
+
+    List<InvoiceAttachment> findByInvoiceInvoiceIdOrderByCreatedAtDesc(Long invoiceId);
 }
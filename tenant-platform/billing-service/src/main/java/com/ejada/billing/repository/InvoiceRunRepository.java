@@ -0,0 +1,323 @@
+package com.ejada.billing.repository;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.dao.DataRetrievalFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Persistence of invoice batch runs ({@code invoice_run}, {@code invoice_run_chunk}) and
+ * the set-based reads and writes a run is made of.
+ *
+ * <p>A run is split once, when it is created, into chunks of whole customers (a tenant
+ * is never split across chunks). Workers claim a chunk with {@code FOR UPDATE SKIP
+ * LOCKED} and write its invoices and the chunk's DONE marker in the same transaction:
+ * the chunk row is the checkpoint. A worker that dies mid-chunk rolls back, the chunk
+ * is PENDING again and the next worker, on any replica, picks it up. A chunk that fails
+ * is parked as FAILED so it cannot stall the others; the run stays RUNNING until it is
+ * resumed and the chunk succeeds.</p>
+ */
+@Repository
+public class InvoiceRunRepository {
+
+    public static final String RUNNING = "RUNNING";
+
+    private static final TypeReference<List<Tier>> TIERS = new TypeReference<>() { };
+
+    private static final String INSERT_RUN = """
+            insert into invoice_run (period_start, period_end, chunk_size)
+            values (?, ?, ?)
+            on conflict (period_start) do nothing
+            returning invoice_run_id
+            """;
+
+    private static final String SELECT_RUN = """
+            select invoice_run_id, period_start, period_end, status_cd, chunk_size
+              from invoice_run
+            """;
+
+    private static final String PLAN_CHUNKS = """
+            insert into invoice_run_chunk (invoice_run_id, chunk_no, first_customer_id, last_customer_id)
+            select ?, chunk_no, min(ext_customer_id), max(ext_customer_id)
+              from (select ext_customer_id,
+                           (row_number() over (order by ext_customer_id) - 1) / ? as chunk_no
+                      from (select distinct ext_customer_id from rate_card where active) c) t
+             group by chunk_no
+            on conflict do nothing
+            """;
+
+    private static final String CLAIM_CHUNK = """
+            select chunk_no, first_customer_id, last_customer_id
+              from invoice_run_chunk
+             where invoice_run_id = ? and status_cd = 'PENDING'
+             order by chunk_no
+             limit 1
+               for update skip locked
+            """;
+
+    /* Subscriptions already invoiced for the period (e.g. by hand) are skipped, never doubled. */
+    private static final String LOAD_CHUNK = """
+            select rc.ext_subscription_id, rc.ext_customer_id, rc.currency, rc.recurring_fee, rc.tax_rate,
+                   ru.consumption_typ_cd, ru.included_qty, ru.tiers::text, ru.overage_threshold,
+                   ru.overage_unit_price, coalesce(m.qty, 0), coalesce(m.amt, 0)
+              from rate_card rc
+              left join rate_card_usage ru on ru.ext_subscription_id = rc.ext_subscription_id
+              left join lateral (
+                    select sum(qty) as qty, sum(amt) as amt
+                      from usage_rollup_monthly
+                     where ext_subscription_id = rc.ext_subscription_id
+                       and consumption_typ_cd = ru.consumption_typ_cd
+                       and bucket_start >= ? and bucket_start < ?) m on true
+             where rc.active
+               and rc.ext_customer_id between ? and ?
+               and not exists (select 1 from invoice i
+                                where i.ext_subscription_id = rc.ext_subscription_id
+                                  and i.period_start = ? and i.status_cd <> 'VOID')
+             order by rc.ext_subscription_id, ru.consumption_typ_cd
+            """;
+
+    private static final String NEXT_INVOICE_IDS =
+            "select nextval('invoice_invoice_id_seq') from generate_series(1, ?)";
+
+    private static final String INSERT_INVOICE = """
+            insert into invoice (invoice_id, ext_subscription_id, ext_customer_id, currency,
+                                 subtotal_amt, tax_amt, total_amt, invoice_dt, due_dt, status_cd,
+                                 period_start, period_end, invoice_run_id)
+            values (?, ?, ?, ?, ?, ?, ?, ?, ?, 'DRAFT', ?, ?, ?)
+            """;
+
+    private static final String INSERT_ITEM = """
+            insert into invoice_item (invoice_id, line_no, item_cd, item_desc, qty, unit_price, line_total)
+            values (?, ?, ?, ?, ?, ?, ?)
+            """;
+
+    private static final String MARK_CHUNK_DONE = """
+            update invoice_run_chunk
+               set status_cd = 'DONE', invoice_cnt = ?, elapsed_ms = ?, processed_at = now()
+             where invoice_run_id = ? and chunk_no = ?
+            """;
+
+    /* Only a chunk nobody holds is parked; one another worker completed meanwhile stays DONE. */
+    private static final String MARK_CHUNK_FAILED = """
+            update invoice_run_chunk
+               set status_cd = 'FAILED', error_msg = left(?, 512), processed_at = now()
+             where invoice_run_id = ? and chunk_no = ? and status_cd = 'PENDING'
+            """;
+
+    private static final String RETRY_FAILED = """
+            update invoice_run_chunk set status_cd = 'PENDING', error_msg = null
+             where invoice_run_id = ? and status_cd = 'FAILED'
+            """;
+
+    private static final String COMPLETE_RUN = """
+            update invoice_run set status_cd = 'COMPLETED', completed_at = now()
+             where invoice_run_id = ? and status_cd = 'RUNNING'
+               and not exists (select 1 from invoice_run_chunk
+                                where invoice_run_id = ? and status_cd <> 'DONE')
+            """;
+
+    private static final String PROGRESS = """
+            select r.invoice_run_id, r.period_start, r.status_cd, r.started_at, r.completed_at,
+                   count(c.chunk_no),
+                   count(c.chunk_no) filter (where c.status_cd = 'DONE'),
+                   count(c.chunk_no) filter (where c.status_cd = 'FAILED'),
+                   coalesce(sum(c.invoice_cnt), 0),
+                   coalesce(sum(c.elapsed_ms), 0)
+              from invoice_run r
+              left join invoice_run_chunk c on c.invoice_run_id = r.invoice_run_id
+             where r.invoice_run_id = ?
+             group by r.invoice_run_id
+            """;
+
+    private final JdbcTemplate jdbc;
+    private final ObjectMapper objectMapper;
+
+    public InvoiceRunRepository(final JdbcTemplate jdbc, final ObjectMapper objectMapper) {
+        this.jdbc = jdbc;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Creates the run of a period and plans its chunks, or returns the existing one. Call
+     * in a transaction so a run is never visible without its chunks.
+     */
+    public Run createOrGet(final LocalDate periodStart, final LocalDate periodEnd, final int chunkSize) {
+        List<Long> created = jdbc.queryForList(INSERT_RUN, Long.class,
+                Date.valueOf(periodStart), Date.valueOf(periodEnd), chunkSize);
+        if (!created.isEmpty()) {
+            jdbc.update(PLAN_CHUNKS, created.get(0), chunkSize);
+        }
+        return jdbc.query(SELECT_RUN + " where period_start = ?", (rs, i) -> run(rs), Date.valueOf(periodStart))
+                .get(0);
+    }
+
+    public Optional<Run> find(final long runId) {
+        return jdbc.query(SELECT_RUN + " where invoice_run_id = ?", (rs, i) -> run(rs), runId)
+                .stream().findFirst();
+    }
+
+    public List<Run> findRunning() {
+        return jdbc.query(SELECT_RUN + " where status_cd = 'RUNNING' order by invoice_run_id", (rs, i) -> run(rs));
+    }
+
+    /**
+     * Locks the next pending chunk of the run, skipping chunks other workers hold. The lock
+     * lasts until the calling transaction ends.
+     */
+    public Optional<Chunk> claimChunk(final long runId) {
+        return jdbc.query(CLAIM_CHUNK, (rs, i) -> new Chunk(runId, rs.getInt(1), rs.getLong(2), rs.getLong(3)), runId)
+                .stream().findFirst();
+    }
+
+    /** Rate cards of the chunk's not yet invoiced subscriptions with their usage in the period. */
+    public List<RateCard> loadRateCards(final Chunk chunk, final LocalDate periodStart, final LocalDate periodEnd) {
+        Map<Long, RateCard> cards = new LinkedHashMap<>();
+        jdbc.query(LOAD_CHUNK, rs -> {
+            long sub = rs.getLong(1);
+            RateCard card = cards.get(sub);
+            if (card == null) {
+                card = new RateCard(sub, rs.getLong(2), rs.getString(3), rs.getBigDecimal(4),
+                        rs.getBigDecimal(5), new ArrayList<>());
+                cards.put(sub, card);
+            }
+            String typ = rs.getString(6);
+            if (typ != null) {
+                // BALANCE usage is metered as an amount, the other types as a count
+                BigDecimal used = "BALANCE".equals(typ) ? rs.getBigDecimal(12) : rs.getBigDecimal(11);
+                card.usage().add(new UsageCharge(typ, rs.getBigDecimal(7), tiers(sub, rs.getString(8)),
+                        rs.getBigDecimal(9), rs.getBigDecimal(10), used));
+            }
+        }, utc(periodStart), utc(periodEnd), chunk.firstCustomerId(), chunk.lastCustomerId(), Date.valueOf(periodStart));
+        return new ArrayList<>(cards.values());
+    }
+
+    /**
+     * Writes the invoices and their lines with two JDBC batches; ids are allocated up front
+     * so lines need no per-invoice round-trip.
+     */
+    public void insertInvoices(final Run run, final LocalDate invoiceDt, final LocalDate dueDt,
+                               final List<InvoiceDraft> drafts) {
+        if (drafts.isEmpty()) {
+            return;
+        }
+        List<Long> ids = jdbc.queryForList(NEXT_INVOICE_IDS, Long.class, drafts.size());
+        List<Object[]> invoices = new ArrayList<>(drafts.size());
+        List<Object[]> items = new ArrayList<>(drafts.size() * 2);
+        for (int i = 0; i < drafts.size(); i++) {
+            InvoiceDraft d = drafts.get(i);
+            long id = ids.get(i);
+            invoices.add(new Object[] {id, d.extSubscriptionId(), d.extCustomerId(), d.currency(),
+                d.subtotal(), d.tax(), d.total(), Date.valueOf(invoiceDt), Date.valueOf(dueDt),
+                Date.valueOf(run.periodStart()), Date.valueOf(run.periodEnd()), run.id()});
+            int lineNo = 1;
+            for (InvoiceLine l : d.lines()) {
+                items.add(new Object[] {id, lineNo++, l.itemCd(), l.itemDesc(), l.qty(), l.unitPrice(), l.lineTotal()});
+            }
+        }
+        jdbc.batchUpdate(INSERT_INVOICE, invoices);
+        jdbc.batchUpdate(INSERT_ITEM, items);
+    }
+
+    public void markChunkDone(final Chunk chunk, final int invoices, final long elapsedMs) {
+        jdbc.update(MARK_CHUNK_DONE, invoices, elapsedMs, chunk.runId(), chunk.chunkNo());
+    }
+
+    public void markChunkFailed(final Chunk chunk, final String error) {
+        jdbc.update(MARK_CHUNK_FAILED, error, chunk.runId(), chunk.chunkNo());
+    }
+
+    /** Puts the run's FAILED chunks back in the queue; returns how many. */
+    public int retryFailed(final long runId) {
+        return jdbc.update(RETRY_FAILED, runId);
+    }
+
+    /** Completes the run if every chunk is done; returns whether this call completed it. */
+    public boolean completeIfDone(final long runId) {
+        return jdbc.update(COMPLETE_RUN, runId, runId) == 1;
+    }
+
+    public Optional<Progress> progress(final long runId) {
+        return jdbc.query(PROGRESS, (rs, i) -> new Progress(
+                rs.getLong(1),
+                rs.getObject(2, LocalDate.class),
+                rs.getString(3),
+                rs.getObject(4, OffsetDateTime.class),
+                rs.getObject(5, OffsetDateTime.class),
+                rs.getInt(6),
+                rs.getInt(7),
+                rs.getInt(8),
+                rs.getLong(9),
+                rs.getLong(10)), runId).stream().findFirst();
+    }
+
+    private List<Tier> tiers(final long sub, final String json) {
+        if (json == null || json.isBlank()) {
+            return List.of();
+        }
+        try {
+            return objectMapper.readValue(json, TIERS);
+        } catch (JsonProcessingException e) {
+            throw new DataRetrievalFailureException("Malformed tiers in rate card of subscription " + sub, e);
+        }
+    }
+
+    private static Run run(final ResultSet rs) throws SQLException {
+        return new Run(rs.getLong(1), rs.getObject(2, LocalDate.class), rs.getObject(3, LocalDate.class),
+                rs.getString(4), rs.getInt(5));
+    }
+
+    private static OffsetDateTime utc(final LocalDate day) {
+        return day.atStartOfDay().atOffset(ZoneOffset.UTC);
+    }
+
+    /** Invoice run of the period [periodStart, periodEnd). */
+    public record Run(long id, LocalDate periodStart, LocalDate periodEnd, String status, int chunkSize) {
+    }
+
+    /** Customers [firstCustomerId, lastCustomerId] of a run. */
+    public record Chunk(long runId, int chunkNo, long firstCustomerId, long lastCustomerId) {
+    }
+
+    public record RateCard(long extSubscriptionId, long extCustomerId, String currency,
+                           BigDecimal recurringFee, BigDecimal taxRate, List<UsageCharge> usage) {
+    }
+
+    /** Usage price of one consumption type and the quantity used in the period. */
+    public record UsageCharge(String consumptionTypCd, BigDecimal includedQty, List<Tier> tiers,
+                              BigDecimal overageThreshold, BigDecimal overageUnitPrice, BigDecimal used) {
+    }
+
+    /** Graduated price band; {@code upTo} bounds the billable quantity cumulatively. */
+    public record Tier(BigDecimal upTo, BigDecimal unitPrice) {
+    }
+
+    /** Priced invoice, not yet persisted. */
+    public record InvoiceDraft(long extSubscriptionId, long extCustomerId, String currency,
+                               BigDecimal subtotal, BigDecimal tax, BigDecimal total, List<InvoiceLine> lines) {
+    }
+
+    public record InvoiceLine(String itemCd, String itemDesc, BigDecimal qty, BigDecimal unitPrice,
+                              BigDecimal lineTotal) {
+    }
+
+    /** Run state aggregated over its chunks; {@code workMs} is the summed chunk processing time. */
+    public record Progress(long runId, LocalDate periodStart, String status, OffsetDateTime startedAt,
+                           OffsetDateTime completedAt, int chunks, int chunksDone, int chunksFailed,
+                           long invoices, long workMs) {
+    }
+}
@@ -0,0 +1,227 @@
+package com.ejada.billing.repository;
+
+import com.ejada.billing.model.UsageCounter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Set-based writes for {@code usage_counter}. Any number of (subscription, type) counters
+ * are created or incremented with a single statement whose result is the post-write
+ * snapshot, so the cost of a tracking request no longer grows with its payload.
+ */
+@Repository
+public class UsageCounterBatchRepository {
+
+    /*
+     * Zero deltas are filtered by the DO UPDATE predicate so existing rows are not rewritten
+     * (no dead tuple); their values come from the pre-statement snapshot that the outer
+     * select still sees. A row inserted by a concurrent transaction that committed after
+     * that snapshot is invisible to it, so such keys come back without a counter id and
+     * are re-read by FIND_COUNTERS. Non-zero deltas are also appended to the usage_delta
+     * ledger that feeds the usage rollups.
+     */
+    private static final String UPSERT = """
+            with rq (sub_id, cust_id, typ, delta_cnt, delta_amt) as (
+                select * from unnest(?::bigint[], ?::bigint[], ?::varchar[], ?::bigint[], ?::numeric[])
+            ), up as (
+                insert into usage_counter (ext_subscription_id, ext_customer_id, consumption_typ_cd,
+                                           current_consumption, current_consumed_amt, updated_at)
+                select sub_id, cust_id, typ, delta_cnt, delta_amt, now() from rq
+                on conflict (ext_subscription_id, consumption_typ_cd) do update
+                   set current_consumption = coalesce(usage_counter.current_consumption, 0) + excluded.current_consumption,
+                       current_consumed_amt = coalesce(usage_counter.current_consumed_amt, 0) + excluded.current_consumed_amt,
+                       updated_at = now()
+                 where excluded.current_consumption <> 0 or excluded.current_consumed_amt <> 0
+                returning usage_counter_id, ext_subscription_id, ext_customer_id, consumption_typ_cd,
+                          current_consumption, current_consumed_amt, updated_at
+            ), ledger as (
+                insert into usage_delta (ext_customer_id, ext_subscription_id, consumption_typ_cd, qty, amt)
+                select cust_id, sub_id, typ, delta_cnt, delta_amt from rq
+                 where delta_cnt <> 0 or delta_amt <> 0
+            )
+            select case when up.usage_counter_id is not null then up.usage_counter_id else uc.usage_counter_id end,
+                   rq.sub_id,
+                   case when up.usage_counter_id is not null then up.ext_customer_id else coalesce(uc.ext_customer_id, rq.cust_id) end,
+                   rq.typ,
+                   case when up.usage_counter_id is not null then up.current_consumption else uc.current_consumption end,
+                   case when up.usage_counter_id is not null then up.current_consumed_amt else uc.current_consumed_amt end,
+                   case when up.usage_counter_id is not null then up.updated_at else uc.updated_at end
+              from rq
+              left join up on up.ext_subscription_id = rq.sub_id and up.consumption_typ_cd = rq.typ
+              left join usage_counter uc on uc.ext_subscription_id = rq.sub_id and uc.consumption_typ_cd = rq.typ
+            """;
+
+    /* Runs as a new statement, so under read committed it sees rows committed since UPSERT began. */
+    private static final String FIND_COUNTERS = """
+            select c.usage_counter_id, c.ext_subscription_id, c.ext_customer_id, c.consumption_typ_cd,
+                   c.current_consumption, c.current_consumed_amt, c.updated_at
+              from unnest(?::bigint[], ?::varchar[]) as k (sub_id, typ)
+              join usage_counter c on c.ext_subscription_id = k.sub_id and c.consumption_typ_cd = k.typ
+            """;
+
+    private static final String RECORD_FLUSH =
+            "insert into usage_flush_log (node_id, segment_seq) values (?, ?) on conflict do nothing";
+
+    private static final String LAST_FLUSHED_SEGMENT =
+            "select coalesce(max(segment_seq), 0) from usage_flush_log where node_id = ?";
+
+    private static final String FLUSHED_SEGMENTS =
+            "select segment_seq from usage_flush_log where node_id = ? and segment_seq >= ?";
+
+    private static final String PURGE_FLUSH_LOG =
+            "delete from usage_flush_log where node_id = ? and segment_seq < ?";
+
+    private static final RowMapper<UsageCounter> ROW_MAPPER = (rs, i) -> UsageCounter.builder()
+            .usageCounterId(rs.getObject(1, Long.class))
+            .extSubscriptionId(rs.getLong(2))
+            .extCustomerId(rs.getLong(3))
+            .consumptionTypCd(rs.getString(4))
+            .currentConsumption(rs.getObject(5, Long.class))
+            .currentConsumedAmt(rs.getBigDecimal(6))
+            .updatedAt(rs.getObject(7, OffsetDateTime.class))
+            .build();
+
+    private final JdbcTemplate jdbc;
+
+    public UsageCounterBatchRepository(final JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    /**
+     * Creates missing counters and adds the given deltas in one round-trip. Deltas for the
+     * same counter are merged first (an upsert may touch a row only once per statement).
+     *
+     * @return the resulting counters keyed by (subscription, type), in first-seen order
+     */
+    public Map<CounterKey, UsageCounter> applyDeltas(final List<CounterDelta> deltas) {
+        Map<CounterKey, CounterDelta> merged = new LinkedHashMap<>();
+        for (CounterDelta d : deltas) {
+            merged.merge(d.key(), d, CounterDelta::plus);
+        }
+        if (merged.isEmpty()) {
+            return Map.of();
+        }
+        int n = merged.size();
+        Long[] subs = new Long[n];
+        Long[] customers = new Long[n];
+        String[] types = new String[n];
+        Long[] counts = new Long[n];
+        BigDecimal[] amounts = new BigDecimal[n];
+        int i = 0;
+        for (CounterDelta d : merged.values()) {
+            subs[i] = d.extSubscriptionId();
+            customers[i] = d.extCustomerId();
+            types[i] = d.consumptionTypCd();
+            counts[i] = d.count();
+            amounts[i] = d.amount();
+            i++;
+        }
+        List<UsageCounter> rows = jdbc.query(con -> {
+            var ps = con.prepareStatement(UPSERT);
+            ps.setArray(1, con.createArrayOf("bigint", subs));
+            ps.setArray(2, con.createArrayOf("bigint", customers));
+            ps.setArray(3, con.createArrayOf("varchar", types));
+            ps.setArray(4, con.createArrayOf("bigint", counts));
+            ps.setArray(5, con.createArrayOf("numeric", amounts));
+            return ps;
+        }, ROW_MAPPER);
+
+        Map<CounterKey, UsageCounter> byKey = new LinkedHashMap<>();
+        for (CounterKey key : merged.keySet()) {
+            byKey.put(key, null);
+        }
+        List<CounterKey> unseen = new ArrayList<>();
+        for (UsageCounter c : rows) {
+            CounterKey key = new CounterKey(c.getExtSubscriptionId(), c.getConsumptionTypCd());
+            byKey.put(key, c);
+            if (c.getUsageCounterId() == null) {
+                unseen.add(key);
+            }
+        }
+        if (!unseen.isEmpty()) {
+            for (UsageCounter c : findCounters(unseen)) {
+                byKey.put(new CounterKey(c.getExtSubscriptionId(), c.getConsumptionTypCd()), c);
+            }
+        }
+        return byKey;
+    }
+
+    private List<UsageCounter> findCounters(final List<CounterKey> keys) {
+        Long[] subs = new Long[keys.size()];
+        String[] types = new String[keys.size()];
+        for (int i = 0; i < keys.size(); i++) {
+            subs[i] = keys.get(i).extSubscriptionId();
+            types[i] = keys.get(i).consumptionTypCd();
+        }
+        return jdbc.query(con -> {
+            var ps = con.prepareStatement(FIND_COUNTERS);
+            ps.setArray(1, con.createArrayOf("bigint", subs));
+            ps.setArray(2, con.createArrayOf("varchar", types));
+            return ps;
+        }, ROW_MAPPER);
+    }
+
+    /**
+     * Marks a write-behind segment as applied. Returns {@code false} when it already was,
+     * in which case the caller must not apply its deltas again; call in the same
+     * transaction as {@link #applyDeltas(List)}.
+     */
+    public boolean recordFlush(final String nodeId, final long segmentSeq) {
+        return jdbc.update(RECORD_FLUSH, nodeId, segmentSeq) == 1;
+    }
+
+    /**
+     * Highest segment recorded for {@code nodeId}, or 0. The marker of the latest flush is
+     * never purged, so this survives the loss of the node's WAL directory.
+     */
+    public long lastFlushedSegment(final String nodeId) {
+        Long seq = jdbc.queryForObject(LAST_FLUSHED_SEGMENT, Long.class, nodeId);
+        return seq == null ? 0L : seq;
+    }
+
+    /** Segments of {@code nodeId} from {@code fromSeq} on that are already applied. */
+    public Set<Long> flushedSegments(final String nodeId, final long fromSeq) {
+        return new HashSet<>(jdbc.queryForList(FLUSHED_SEGMENTS, Long.class, nodeId, fromSeq));
+    }
+
+    /** Forgets flush markers of segments below {@code segmentSeq}, which can no longer be replayed. */
+    public int purgeFlushLog(final String nodeId, final long segmentSeq) {
+        return jdbc.update(PURGE_FLUSH_LOG, nodeId, segmentSeq);
+    }
+
+    public record CounterKey(long extSubscriptionId, String consumptionTypCd) {
+    }
+
+    /** Increment of one counter; zero deltas only make sure the row exists. */
+    public record CounterDelta(long extSubscriptionId, long extCustomerId, String consumptionTypCd,
+                               long count, BigDecimal amount) {
+
+        public CounterDelta {
+            amount = amount == null ? BigDecimal.ZERO : amount;
+        }
+
+        public static CounterDelta touch(final long extSubscriptionId, final long extCustomerId,
+                                         final String consumptionTypCd) {
+            return new CounterDelta(extSubscriptionId, extCustomerId, consumptionTypCd, 0L, BigDecimal.ZERO);
+        }
+
+        public CounterKey key() {
+            return new CounterKey(extSubscriptionId, consumptionTypCd);
+        }
+
+        CounterDelta plus(final CounterDelta other) {
+            return new CounterDelta(extSubscriptionId, extCustomerId, consumptionTypCd,
+                    count + other.count, amount.add(other.amount));
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.ejada.billing.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/**
+ * Partition DDL for {@code usage_event}, which is range-partitioned by month on
+ * {@code received_at} (see V6). Partitions are named {@code usage_event_pYYYYMM}.
+ */
+@Repository
+public class UsageEventPartitionRepository {
+
+    static final String PREFIX = "usage_event_p";
+
+    private static final DateTimeFormatter SUFFIX = DateTimeFormatter.ofPattern("yyyyMM");
+
+    private static final String LIST_MONTHLY = """
+            select c.relname
+              from pg_inherits i
+              join pg_class c on c.oid = i.inhrelid
+             where i.inhparent = 'usage_event'::regclass
+               and c.relname ~ '^usage_event_p[0-9]{6}$'
+             order by c.relname
+            """;
+
+    private final JdbcTemplate jdbc;
+
+    public UsageEventPartitionRepository(final JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    /** Months that currently have an attached partition, oldest first. */
+    public List<YearMonth> attachedMonths() {
+        return jdbc.queryForList(LIST_MONTHLY, String.class).stream()
+                .map(name -> YearMonth.parse(name.substring(PREFIX.length()), SUFFIX))
+                .toList();
+    }
+
+    /** Creates the partition for {@code month} unless it exists; returns whether it was created. */
+    public boolean create(final YearMonth month) {
+        return Boolean.TRUE.equals(jdbc.queryForObject(
+                "select usage_event_create_partition(?)", Boolean.class, month.atDay(1)));
+    }
+
+    /**
+     * Detaches the partition of {@code month}; its rows leave {@code usage_event} at once
+     * and the table stays behind for archiving or {@link #drop(YearMonth)}.
+     */
+    public void detach(final YearMonth month) {
+        jdbc.execute("alter table usage_event detach partition " + name(month));
+    }
+
+    public void drop(final YearMonth month) {
+        jdbc.execute("drop table if exists " + name(month));
+    }
+
+    /** Bounds lock waits of the DDL in the current transaction so it never queues behind long readers. */
+    public void limitLockWait(final long millis) {
+        jdbc.execute("set local lock_timeout = " + Math.max(1, millis));
+    }
+
+    static String name(final YearMonth month) {
+        return PREFIX + month.format(SUFFIX);
+    }
+}
@@ -0,0 +1,208 @@
+package com.ejada.billing.repository;
+
+import com.ejada.billing.dto.ConsumptionType;
+import com.ejada.billing.dto.UsageGranularity;
+import com.ejada.billing.dto.UsagePoint;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.StringJoiner;
+
+/**
+ * Incremental maintenance and range reads of the {@code usage_rollup_*} tables.
+ *
+ * <p>The high-water mark is a transaction horizon rather than a row id: ids of a bigserial
+ * commit out of order, but every {@code usage_delta} row whose inserting transaction is
+ * older than the oldest running one ({@code pg_snapshot_xmin}) is final. Each pass rolls
+ * up the rows between the previous horizon and the current one, so every delta is counted
+ * exactly once.</p>
+ */
+@Repository
+public class UsageRollupRepository {
+
+    public static final String USAGE_PIPELINE = "usage";
+
+    private static final String LOCK_WATERMARK =
+            "select last_xmin::text from usage_rollup_watermark where pipeline = ? for update";
+
+    private static final String CURRENT_HORIZON = "select pg_snapshot_xmin(pg_current_snapshot())::text";
+
+    private static final String ADVANCE_WATERMARK =
+            "update usage_rollup_watermark set last_xmin = ?::xid8, last_run_at = now() where pipeline = ?";
+
+    /*
+     * True once a pass has run after settledAt and no ledger row dated before periodEnd is
+     * still above the watermark, i.e. waiting for a pass (or in a transaction still open).
+     */
+    private static final String ROLLED_UP_THROUGH = """
+            select w.last_run_at >= ?
+                   and not exists (select 1 from usage_delta d
+                                    where d.created_xid >= w.last_xmin and d.occurred_at < ?)
+              from usage_rollup_watermark w
+             where w.pipeline = ?
+            """;
+
+    /*
+     * Ledger rows below the watermark are already in the rollups; once also older than the
+     * retention they are deleted, oldest inserts first, in bounded chunks.
+     */
+    private static final String PRUNE_LEDGER_CHUNK = """
+            delete from usage_delta
+             where usage_delta_id in (select d.usage_delta_id
+                                        from usage_delta d
+                                        join usage_rollup_watermark w on w.pipeline = ?
+                                       where d.created_xid < w.last_xmin
+                                         and d.occurred_at < ?
+                                       order by d.created_xid
+                                       limit ?)
+            """;
+
+    private static final String MERGE = """
+                on conflict (ext_subscription_id, consumption_typ_cd, bucket_start) do update
+                   set qty = r.qty + excluded.qty,
+                       amt = r.amt + excluded.amt,
+                       delta_cnt = r.delta_cnt + excluded.delta_cnt,
+                       ext_customer_id = excluded.ext_customer_id,
+                       updated_at = now()
+            """;
+
+    /* Hourly buckets are aggregated once from the ledger; days and months from the hours. */
+    private static final String ROLL_UP = """
+            with h as (
+                select ext_subscription_id, consumption_typ_cd,
+                       date_trunc('hour', occurred_at at time zone 'UTC') as bucket,
+                       max(ext_customer_id) as ext_customer_id,
+                       sum(qty) as qty, sum(amt) as amt, count(*) as delta_cnt
+                  from usage_delta
+                 where created_xid >= ?::xid8 and created_xid < ?::xid8
+                 group by 1, 2, 3
+            ), hourly as (
+                insert into usage_rollup_hourly as r
+                       (ext_subscription_id, consumption_typ_cd, bucket_start, ext_customer_id, qty, amt, delta_cnt)
+                select ext_subscription_id, consumption_typ_cd, bucket at time zone 'UTC',
+                       ext_customer_id, qty, amt, delta_cnt
+                  from h
+            """ + MERGE + """
+            ), daily as (
+                insert into usage_rollup_daily as r
+                       (ext_subscription_id, consumption_typ_cd, bucket_start, ext_customer_id, qty, amt, delta_cnt)
+                select ext_subscription_id, consumption_typ_cd, date_trunc('day', bucket) at time zone 'UTC',
+                       max(ext_customer_id), sum(qty), sum(amt), sum(delta_cnt)
+                  from h
+                 group by 1, 2, 3
+            """ + MERGE + """
+            ), monthly as (
+                insert into usage_rollup_monthly as r
+                       (ext_subscription_id, consumption_typ_cd, bucket_start, ext_customer_id, qty, amt, delta_cnt)
+                select ext_subscription_id, consumption_typ_cd, date_trunc('month', bucket) at time zone 'UTC',
+                       max(ext_customer_id), sum(qty), sum(amt), sum(delta_cnt)
+                  from h
+                 group by 1, 2, 3
+            """ + MERGE + """
+            )
+            select coalesce(sum(delta_cnt), 0) from h
+            """;
+
+    private final JdbcTemplate jdbc;
+
+    public UsageRollupRepository(final JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    /**
+     * Rolls up ledger rows committed since the last pass and advances the watermark. Must
+     * run inside a transaction; concurrent callers serialize on the watermark row.
+     *
+     * @return number of ledger rows rolled up
+     */
+    public long rollUp(final String pipeline) {
+        String from = jdbc.queryForObject(LOCK_WATERMARK, String.class, pipeline);
+        String to = jdbc.queryForObject(CURRENT_HORIZON, String.class);
+        Long rows = jdbc.queryForObject(ROLL_UP, Long.class, from, to);
+        jdbc.update(ADVANCE_WATERMARK, to, pipeline);
+        return rows == null ? 0L : rows;
+    }
+
+    /**
+     * Whether the rollups are final for everything that occurred before {@code periodEnd}:
+     * a pass has completed after {@code settledAt} and no earlier ledger row is pending.
+     */
+    public boolean rolledUpThrough(final String pipeline, final Instant periodEnd, final Instant settledAt) {
+        List<Boolean> rows = jdbc.query(ROLLED_UP_THROUGH, (rs, i) -> rs.getBoolean(1),
+                utc(settledAt), utc(periodEnd), pipeline);
+        return !rows.isEmpty() && rows.getFirst();
+    }
+
+    /**
+     * Deletes up to {@code limit} ledger rows that were rolled up and occurred before
+     * {@code cutoff}; rows above the watermark are never touched.
+     */
+    public int pruneLedgerChunk(final String pipeline, final Instant cutoff, final int limit) {
+        return jdbc.update(PRUNE_LEDGER_CHUNK, pipeline, utc(cutoff), limit);
+    }
+
+    /**
+     * Sums usage per consumption type over the given ranges, each read from its own rollup
+     * table.
+     */
+    public List<TypeTotal> totals(final long extSubscriptionId, final List<Segment> segments) {
+        if (segments.isEmpty()) {
+            return List.of();
+        }
+        StringJoiner union = new StringJoiner(" union all ");
+        List<Object> args = new ArrayList<>(segments.size() * 3);
+        for (Segment s : segments) {
+            union.add("select consumption_typ_cd, qty, amt from " + table(s.granularity())
+                    + " where ext_subscription_id = ? and bucket_start >= ? and bucket_start < ?");
+            args.add(extSubscriptionId);
+            args.add(utc(s.from()));
+            args.add(utc(s.to()));
+        }
+        String sql = "select consumption_typ_cd, sum(qty), sum(amt), count(*) from (" + union
+                + ") u group by consumption_typ_cd order by consumption_typ_cd";
+        return jdbc.query(sql, (rs, i) -> new TypeTotal(
+                ConsumptionType.valueOf(rs.getString(1)),
+                rs.getLong(2),
+                rs.getBigDecimal(3),
+                rs.getLong(4)), args.toArray());
+    }
+
+    /** Buckets of one granularity in [from, to), oldest first. */
+    public List<UsagePoint> series(final long extSubscriptionId, final UsageGranularity granularity,
+                                   final Instant from, final Instant to) {
+        String sql = "select bucket_start, consumption_typ_cd, qty, amt from " + table(granularity)
+                + " where ext_subscription_id = ? and bucket_start >= ? and bucket_start < ?"
+                + " order by bucket_start, consumption_typ_cd";
+        return jdbc.query(sql, (rs, i) -> new UsagePoint(
+                rs.getObject(1, OffsetDateTime.class),
+                ConsumptionType.valueOf(rs.getString(2)),
+                rs.getLong(3),
+                rs.getBigDecimal(4)), extSubscriptionId, utc(from), utc(to));
+    }
+
+    private static String table(final UsageGranularity granularity) {
+        return switch (granularity) {
+            case HOUR -> "usage_rollup_hourly";
+            case DAY -> "usage_rollup_daily";
+            case MONTH -> "usage_rollup_monthly";
+        };
+    }
+
+    private static OffsetDateTime utc(final Instant t) {
+        return t.atOffset(ZoneOffset.UTC);
+    }
+
+    /** Range [from, to) answered from the {@code granularity} rollup. */
+    public record Segment(UsageGranularity granularity, Instant from, Instant to) {
+    }
+
+    /** Per-type sum over all segments and the number of rollup rows it was computed from. */
+    public record TypeTotal(ConsumptionType consumptionTypCd, long quantity, BigDecimal amount, long rows) {
+    }
+}
@@ -0,0 +1,39 @@
+package com.ejada.billing.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Where invoice attachment bytes live. Content is written and read as streams and never
+ * held in memory as a whole; the {@code invoice_attachment} row keeps the store's
+ * {@link #code()} and the returned key.
+ */
+public interface AttachmentContentStore {
+
+    /** Value of {@code invoice_attachment.storage_cd} for content in this store. */
+    String code();
+
+    /**
+     * Whether content is written through the database connection and rolled back with the
+     * metadata row. Other stores are written before the row's transaction is opened, so no
+     * pooled connection is held while an upload streams in.
+     */
+    boolean transactional();
+
+    /**
+     * Copies {@code in} to the store until end of stream and returns the key of the new
+     * content. Called inside the transaction that inserts the metadata row when the store
+     * is {@link #transactional()}, before it otherwise.
+     */
+    String write(InputStream in) throws IOException;
+
+    /** Copies {@code length} bytes starting at {@code offset} of the content to {@code out}. */
+    void read(String key, long offset, long length, OutputStream out) throws IOException;
+
+    /**
+     * Removes content whose metadata row was never committed or has since been deleted.
+     * Stores that write transactionally have nothing to do.
+     */
+    void discard(String key);
+}
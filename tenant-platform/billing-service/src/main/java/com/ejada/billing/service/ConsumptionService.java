@@ -1,5 +1,7 @@
 package com.ejada.billing.service;
 
+import com.ejada.billing.dto.ProductConsumptionStts;
+import com.ejada.billing.dto.RecordProductConsumptionRq;
 import com.ejada.billing.dto.ServiceResult;
 import com.ejada.billing.dto.TrackProductConsumptionRq;
 import com.ejada.billing.dto.TrackProductConsumptionRs;
@@ -15,4 +17,12 @@ public interface ConsumptionService {
      * Returns: ServiceResult«TrackProductConsumptionRs»
      */
     ServiceResult<TrackProductConsumptionRs> trackProductConsumption(UUID rqUid, String token, TrackProductConsumptionRq rq);
+
+    /**
+     * Implements POST /subscription/product-consumption/record
+     * Header: rqUID
+     * Body: RecordProductConsumptionRq
+     * Returns: ServiceResult«ProductConsumptionStts» with the counter after the increment
+     */
+    ServiceResult<ProductConsumptionStts> recordProductConsumption(UUID rqUid, RecordProductConsumptionRq rq);
 }
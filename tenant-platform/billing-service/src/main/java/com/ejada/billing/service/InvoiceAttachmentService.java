@@ -1,11 +1,31 @@
 package com.ejada.billing.service;
 
-import org.springframework.core.io.Resource;
+import com.ejada.billing.dto.InvoiceAttachmentMetaDto;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
 
 public interface InvoiceAttachmentService {
 
-    record AttachmentView(String fileName, String mimeType, Resource resource) { }
+    /** Copies a byte range of an attachment's content to a stream. */
+    @FunctionalInterface
+    interface ContentReader {
+        void copy(long offset, long length, OutputStream out) throws IOException;
+    }
+
+    /** Attachment metadata plus a reader over its content; no bytes are loaded up front. */
+    record AttachmentView(String fileName, String mimeType, long sizeBytes, String sha256, ContentReader content) { }
+
+    /** Streams {@code content} into the configured content store and records its metadata. */
+    InvoiceAttachmentMetaDto upload(Long invoiceId, String fileName, String mimeType, InputStream content);
+
+    /** Metadata of the invoice's attachments, newest first; never reads content. */
+    List<InvoiceAttachmentMetaDto> list(Long invoiceId);
 
     /** Returns the latest attachment for the given invoiceId. */
-    AttachmentView getLatestAttachment(final Long invoiceId);
+    AttachmentView getLatestAttachment(Long invoiceId);
+
+    AttachmentView getAttachment(Long invoiceId, Long invoiceAttachmentId);
 }
@@ -0,0 +1,20 @@
+package com.ejada.billing.service;
+
+import com.ejada.billing.dto.InvoiceRunStatus;
+
+import java.time.YearMonth;
+
+/** Batch generation of the invoices of a billing period (a calendar month). */
+public interface InvoiceRunService {
+
+    /**
+     * Starts, or resumes, the run of {@code period} in the background and returns its
+     * state. A period has one run; starting a completed one is a no-op.
+     */
+    InvoiceRunStatus start(YearMonth period);
+
+    /** Runs {@code period} to completion on the calling thread plus the worker pool. */
+    InvoiceRunStatus runToCompletion(YearMonth period);
+
+    InvoiceRunStatus status(long runId);
+}
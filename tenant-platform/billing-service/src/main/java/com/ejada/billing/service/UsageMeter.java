@@ -0,0 +1,42 @@
+package com.ejada.billing.service;
+
+import com.ejada.billing.dto.ConsumptionType;
+
+import java.math.BigDecimal;
+
+/**
+ * Accumulates metered consumption in memory and writes it to {@code usage_counter} in
+ * batches, so hot subscriptions do not serialize on counter row locks.
+ */
+public interface UsageMeter {
+
+    /**
+     * Adds {@code count}/{@code amount} to the counter of a subscription and consumption type.
+     * The increment is durable when this returns, even though the database row is only
+     * updated by the next flush.
+     *
+     * @return totals including the increment
+     */
+    Totals record(Long extSubscriptionId, Long extCustomerId, ConsumptionType type, long count, BigDecimal amount);
+
+    /**
+     * Same as {@link #record} unless the resulting value of the counter (count for
+     * TRANSACTION/USER, amount for BALANCE) would exceed {@code hardLimit}; then nothing is
+     * recorded and {@code null} is returned.
+     */
+    Totals recordWithinLimit(Long extSubscriptionId, Long extCustomerId, ConsumptionType type,
+                             long count, BigDecimal amount, BigDecimal hardLimit);
+
+    /** Persisted value plus every increment not yet flushed. */
+    Totals current(Long extSubscriptionId, ConsumptionType type);
+
+    /** Counter value as seen by limit checks. */
+    record Totals(long count, BigDecimal amount) {
+
+        public static final Totals ZERO = new Totals(0L, BigDecimal.ZERO);
+
+        public BigDecimal valueOf(final ConsumptionType type) {
+            return type == ConsumptionType.BALANCE ? amount : BigDecimal.valueOf(count);
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.ejada.billing.service;
+
+import com.ejada.billing.dto.UsageGranularity;
+import com.ejada.billing.dto.UsageHistoryRs;
+import com.ejada.billing.dto.UsagePoint;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+/** Historical usage answered from the hourly/daily/monthly rollups. */
+public interface UsageRollupService {
+
+    /**
+     * Usage per consumption type over [from, to). The range is split into the coarsest
+     * aligned buckets (whole months, then whole days, then hours at the edges), so a year is
+     * read from about a dozen monthly rows.
+     */
+    UsageHistoryRs history(Long extSubscriptionId, OffsetDateTime from, OffsetDateTime to);
+
+    /** Usage per bucket of {@code granularity} over [from, to). */
+    List<UsagePoint> series(Long extSubscriptionId, UsageGranularity granularity, OffsetDateTime from, OffsetDateTime to);
+}
@@ -0,0 +1,72 @@
+package com.ejada.billing.service.impl;
+
+import com.ejada.billing.repository.AttachmentOrphanRepository;
+import com.ejada.billing.repository.AttachmentOrphanRepository.Orphan;
+import com.ejada.billing.service.AttachmentContentStore;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Removes the content of deleted attachments from stores the database cannot reach
+ * (the delete trigger queues their keys, see {@link AttachmentOrphanRepository}). Each
+ * chunk is one transaction: claim, discard the content, delete the queue entries. A
+ * pass stops at the first short chunk.
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(prefix = "billing.attachments.orphan-sweep", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class AttachmentOrphanSweeper {
+
+    private final AttachmentOrphanRepository repo;
+    private final TransactionOperations tx;
+    private final Map<String, AttachmentContentStore> stores;
+    private final int chunkSize;
+
+    public AttachmentOrphanSweeper(
+            final AttachmentOrphanRepository repo,
+            final TransactionOperations tx,
+            final List<AttachmentContentStore> stores,
+            @Value("${billing.attachments.orphan-sweep.chunk-size:200}") final int chunkSize) {
+        this.repo = repo;
+        this.tx = tx;
+        this.stores = stores.stream().collect(Collectors.toMap(AttachmentContentStore::code, Function.identity()));
+        this.chunkSize = chunkSize;
+    }
+
+    @Scheduled(
+            initialDelayString = "${billing.attachments.orphan-sweep.initial-delay:PT1M}",
+            fixedDelayString = "${billing.attachments.orphan-sweep.interval:PT5M}")
+    public void sweep() {
+        try {
+            Integer swept;
+            do {
+                swept = tx.execute(status -> {
+                    List<Orphan> orphans = repo.claim(chunkSize);
+                    for (Orphan o : orphans) {
+                        AttachmentContentStore store = stores.get(o.storageCd());
+                        if (store == null) {
+                            log.warn("Dropping orphaned attachment {} of unknown store {}", o.storageKey(), o.storageCd());
+                        } else {
+                            store.discard(o.storageKey());
+                        }
+                    }
+                    if (!orphans.isEmpty()) {
+                        repo.delete(orphans);
+                    }
+                    return orphans.size();
+                });
+            } while (swept != null && swept == chunkSize);
+        } catch (RuntimeException e) {
+            log.warn("Attachment orphan sweep failed; retrying next interval", e);
+        }
+    }
+}
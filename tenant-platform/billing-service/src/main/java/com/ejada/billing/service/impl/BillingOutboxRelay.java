@@ -0,0 +1,63 @@
+package com.ejada.billing.service.impl;
+
+import com.ejada.kafka_starter.outbox.OutboxRelay;
+import com.ejada.kafka_starter.outbox.OutboxRelayRepository;
+import com.ejada.kafka_starter.outbox.OutboxTable;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.time.Duration;
+
+/**
+ * Schedules the shared {@link OutboxRelay} over billing's {@code outbox_event}, where a
+ * row is pending until its {@code published} flag is set. Meters are exported under
+ * {@code billing.outbox}.
+ */
+@Component
+@ConditionalOnProperty(prefix = "billing.outbox.relay", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class BillingOutboxRelay extends OutboxRelay {
+
+    static final OutboxTable TABLE = OutboxTable.of("outbox_event", "outbox_event_id")
+            .withProcessedAt("published_at")
+            .withPublishedFlag("published");
+
+    public BillingOutboxRelay(
+            final JdbcTemplate jdbc,
+            final KafkaTemplate<String, String> kafka,
+            final TransactionOperations tx,
+            final ObjectMapper objectMapper,
+            final ObjectProvider<MeterRegistry> meterRegistry,
+            @Value("${shared.kafka.env:dev}") final String env,
+            @Value("${billing.outbox.relay.batch-size:500}") final int batchSize,
+            @Value("${billing.outbox.relay.max-batches-per-pass:40}") final int maxBatchesPerPass,
+            @Value("${billing.outbox.relay.send-timeout:PT30S}") final Duration sendTimeout,
+            @Value("${billing.outbox.retention:P7D}") final Duration retention,
+            @Value("${billing.outbox.purge.chunk-size:5000}") final int purgeChunkSize) {
+        super(new OutboxRelayRepository(jdbc, TABLE), kafka, tx, objectMapper, meterRegistry.getIfAvailable(),
+                new Settings(env, "billing.outbox", batchSize, maxBatchesPerPass, sendTimeout, retention, purgeChunkSize));
+    }
+
+    @Override
+    @Scheduled(
+            initialDelayString = "${billing.outbox.relay.initial-delay:PT10S}",
+            fixedDelayString = "${billing.outbox.relay.interval:PT1S}")
+    public void relay() {
+        super.relay();
+    }
+
+    @Override
+    @Scheduled(
+            initialDelayString = "${billing.outbox.purge.initial-delay:PT5M}",
+            fixedDelayString = "${billing.outbox.purge.interval:PT1H}")
+    public void purge() {
+        super.purge();
+    }
+}
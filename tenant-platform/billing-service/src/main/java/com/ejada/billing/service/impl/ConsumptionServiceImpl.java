@@ -1,7 +1,9 @@
 package com.ejada.billing.service.impl;
 
+import com.ejada.billing.dto.ConsumptionType;
 import com.ejada.billing.dto.ProductConsumptionStts;
 import com.ejada.billing.dto.ProductSubscriptionStts;
+import com.ejada.billing.dto.RecordProductConsumptionRq;
 import com.ejada.billing.dto.ServiceResult;
 import com.ejada.billing.dto.TrackProductConsumptionRq;
 import com.ejada.billing.dto.TrackProductConsumptionRs;
@@ -9,43 +11,49 @@ import com.ejada.billing.mapper.ConsumptionResponseMapper;
 import com.ejada.billing.mapper.UsageCounterMapper;
 import com.ejada.billing.mapper.UsageEventMapper;
 import com.ejada.billing.model.UsageCounter;
-import com.ejada.billing.repository.UsageCounterRepository;
+import com.ejada.billing.repository.UsageCounterBatchRepository;
+import com.ejada.billing.repository.UsageCounterBatchRepository.CounterDelta;
+import com.ejada.billing.repository.UsageCounterBatchRepository.CounterKey;
 import com.ejada.billing.repository.UsageEventRepository;
 import com.ejada.billing.service.ConsumptionService;
+import com.ejada.billing.service.UsageMeter;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.math.BigDecimal;
 import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 @Service
 public class ConsumptionServiceImpl implements ConsumptionService {
 
-    private final UsageCounterRepository counterRepo;
+    private final UsageCounterBatchRepository counterBatchRepo;
     private final UsageEventRepository eventRepo;
     private final UsageCounterMapper counterMapper;
     private final ConsumptionResponseMapper responseMapper;
     private final UsageEventMapper eventMapper;
     private final ObjectMapper objectMapper;
+    private final UsageMeter usageMeter;
 
-    public ConsumptionServiceImpl(final UsageCounterRepository counterRepo,
+    public ConsumptionServiceImpl(final UsageCounterBatchRepository counterBatchRepo,
                                   final UsageEventRepository eventRepo,
                                   final UsageCounterMapper counterMapper,
                                   final ConsumptionResponseMapper responseMapper,
                                   final UsageEventMapper eventMapper,
-                                  final ObjectMapper objectMapper) {
-        this.counterRepo = counterRepo;
+                                  final ObjectMapper objectMapper,
+                                  final UsageMeter usageMeter) {
+        this.counterBatchRepo = counterBatchRepo;
         this.eventRepo = eventRepo;
         this.counterMapper = counterMapper;
         this.responseMapper = responseMapper;
         this.eventMapper = eventMapper;
         this.objectMapper = objectMapper.copy();
+        this.usageMeter = usageMeter;
     }
 
     @Override
@@ -54,36 +62,28 @@ public class ConsumptionServiceImpl implements ConsumptionService {
                                                                             final String token,
                                                                             final TrackProductConsumptionRq rq) {
         try {
-            // Build response per subscription
-            List<ProductSubscriptionStts> subs = new ArrayList<>();
-            if (rq.activeSubscriptions() != null) {
-                for (var sub : rq.activeSubscriptions()) {
-                    List<ProductConsumptionStts> perTypes = new ArrayList<>();
-
-                    if (sub.productConsumption() != null && !sub.productConsumption().isEmpty()) {
-                        for (var pc : sub.productConsumption()) {
-                            String typ = pc.consumptionTypCd().name(); // TRANSACTION|USER|BALANCE
-
-                            // upsert snapshot rows if missing (no mutation/increment per swagger)
-                            UsageCounter c = counterRepo
-                                    .findByExtSubscriptionIdAndConsumptionTypCd(sub.subscriptionId(), typ)
-                                    .orElseGet(() -> UsageCounter.builder()
-                                            .extSubscriptionId(sub.subscriptionId())
-                                            .extCustomerId(sub.customerId())
-                                            .consumptionTypCd(typ)
-                                            .currentConsumption(0L)
-                                            .currentConsumedAmt(BigDecimal.ZERO)
-                                            .build());
-                            c = counterRepo.save(c);
-
-                            // map entity snapshot -> DTO respecting enum rules
-                            perTypes.add(counterMapper.toDto(c));
-                        }
-                    }
-
-                    subs.add(responseMapper.toSubscriptionStts(sub.customerId(), sub.subscriptionId(), perTypes));
+            // One statement creates missing counters and returns the snapshot for every pair
+            // (no mutation/increment per swagger, hence zero deltas)
+            List<CounterDelta> deltas = new ArrayList<>();
+            for (var sub : rq.activeSubscriptions()) {
+                for (var pc : sub.productConsumption()) {
+                    deltas.add(CounterDelta.touch(sub.subscriptionId(), sub.customerId(),
+                            pc.consumptionTypCd().name())); // TRANSACTION|USER|BALANCE
                 }
             }
+            Map<CounterKey, UsageCounter> counters = counterBatchRepo.applyDeltas(deltas);
+
+            // Build response per subscription, in request order
+            List<ProductSubscriptionStts> subs = new ArrayList<>(rq.activeSubscriptions().size());
+            for (var sub : rq.activeSubscriptions()) {
+                List<ProductConsumptionStts> perTypes = new ArrayList<>(sub.productConsumption().size());
+                for (var pc : sub.productConsumption()) {
+                    UsageCounter c = counters.get(new CounterKey(sub.subscriptionId(), pc.consumptionTypCd().name()));
+                    // map entity snapshot -> DTO respecting enum rules
+                    perTypes.add(counterMapper.toDto(c));
+                }
+                subs.add(responseMapper.toSubscriptionStts(sub.customerId(), sub.subscriptionId(), perTypes));
+            }
 
             TrackProductConsumptionRs body = responseMapper.toResponse(rq.productId(), subs);
 
@@ -118,6 +118,32 @@ public class ConsumptionServiceImpl implements ConsumptionService {
         }
     }
 
+    @Override
+    public ServiceResult<ProductConsumptionStts> recordProductConsumption(final UUID rqUid,
+                                                                          final RecordProductConsumptionRq rq) {
+        try {
+            long quantity = rq.quantity() == null ? 0L : rq.quantity();
+            UsageMeter.Totals totals = rq.hardLimit() == null
+                    ? usageMeter.record(rq.subscriptionId(), rq.customerId(), rq.consumptionTypCd(), quantity, rq.amount())
+                    : usageMeter.recordWithinLimit(rq.subscriptionId(), rq.customerId(), rq.consumptionTypCd(),
+                            quantity, rq.amount(), rq.hardLimit());
+            if (totals == null) {
+                UsageMeter.Totals current = usageMeter.current(rq.subscriptionId(), rq.consumptionTypCd());
+                return ServiceResult.limitExceeded(rqUid.toString(), toStts(rq.consumptionTypCd(), current));
+            }
+            return ServiceResult.ok(rqUid.toString(), toStts(rq.consumptionTypCd(), totals));
+        } catch (RuntimeException ex) {
+            String debugId = Long.toString(System.nanoTime());
+            return ServiceResult.error(rqUid.toString(), debugId, List.of("Unexpected Error"));
+        }
+    }
+
+    private ProductConsumptionStts toStts(final ConsumptionType type, final UsageMeter.Totals totals) {
+        return new ProductConsumptionStts(type,
+                counterMapper.fillCount(type.name(), totals.count()),
+                counterMapper.fillAmount(type.name(), totals.amount()));
+    }
+
     private String toJson(final Object obj) {
         try {
             return objectMapper.writeValueAsString(obj);
@@ -0,0 +1,111 @@
+package com.ejada.billing.service.impl;
+
+import com.ejada.billing.service.AttachmentContentStore;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+/**
+ * Attachments as files under {@code billing.attachments.fs.dir}, fanned out by key prefix
+ * ({@code ab/abcdef...}). Content is written to a temporary file, forced to disk and
+ * moved into place, so a key never names a partial file. Reads hand the requested range
+ * to {@link FileChannel#transferTo}, which copies it through a small buffer. The
+ * directory must be shared by all replicas. Files of deleted rows are removed by
+ * {@link AttachmentOrphanSweeper}.
+ */
+@Component
+@Slf4j
+public class FileSystemAttachmentStore implements AttachmentContentStore {
+
+    public static final String CODE = "FS";
+
+    private static final Pattern KEY = Pattern.compile("[0-9a-f]{2}/[0-9a-f]{32}");
+    private static final long TRANSFER_CHUNK = 8L * 1024 * 1024;
+
+    private final Path root;
+
+    public FileSystemAttachmentStore(
+            @Value("${billing.attachments.fs.dir:${java.io.tmpdir}/billing-attachments}") final Path root) {
+        this.root = root;
+    }
+
+    @Override
+    public String code() {
+        return CODE;
+    }
+
+    @Override
+    public boolean transactional() {
+        return false;
+    }
+
+    @Override
+    public String write(final InputStream in) throws IOException {
+        String id = UUID.randomUUID().toString().replace("-", "");
+        String key = id.substring(0, 2) + "/" + id;
+        Path target = root.resolve(key);
+        Files.createDirectories(target.getParent());
+        Path tmp = target.resolveSibling(id + ".part");
+        try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+             ReadableByteChannel src = Channels.newChannel(in)) {
+            long pos = 0;
+            long n;
+            while ((n = ch.transferFrom(src, pos, TRANSFER_CHUNK)) > 0) {
+                pos += n;
+            }
+            ch.force(true);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(tmp);
+            throw e;
+        }
+        Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE);
+        return key;
+    }
+
+    @Override
+    public void read(final String key, final long offset, final long length, final OutputStream out)
+            throws IOException {
+        try (FileChannel ch = FileChannel.open(resolve(key), StandardOpenOption.READ)) {
+            WritableByteChannel dst = Channels.newChannel(out);
+            long pos = offset;
+            long end = offset + length;
+            while (pos < end) {
+                long n = ch.transferTo(pos, end - pos, dst);
+                if (n <= 0) {
+                    throw new IOException("Attachment " + key + " is shorter than recorded");
+                }
+                pos += n;
+            }
+        }
+    }
+
+    @Override
+    public void discard(final String key) {
+        try {
+            Files.deleteIfExists(resolve(key));
+        } catch (IOException e) {
+            log.warn("Cannot delete orphaned attachment file {}", key, e);
+        }
+    }
+
+    private Path resolve(final String key) {
+        if (!KEY.matcher(key).matches()) {
+            throw new IllegalArgumentException("Not a file store key: " + key);
+        }
+        return root.resolve(key);
+    }
+}
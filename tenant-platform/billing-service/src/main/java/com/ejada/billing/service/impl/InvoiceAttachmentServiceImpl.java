@@ -1,24 +1,204 @@
 package com.ejada.billing.service.impl;
 
+import com.ejada.billing.dto.InvoiceAttachmentMetaDto;
+import com.ejada.billing.mapper.InvoiceAttachmentMapper;
+import com.ejada.billing.model.Invoice;
 import com.ejada.billing.model.InvoiceAttachment;
 import com.ejada.billing.repository.InvoiceAttachmentRepository;
+import com.ejada.billing.repository.InvoiceRepository;
+import com.ejada.billing.service.AttachmentContentStore;
 import com.ejada.billing.service.InvoiceAttachmentService;
-import lombok.RequiredArgsConstructor;
-import org.springframework.core.io.ByteArrayResource;
+import com.ejada.common.exception.NotFoundException;
+import com.ejada.common.exception.ValidationException;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.util.unit.DataSize;
 
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Invoice attachments with content kept in an {@link AttachmentContentStore}. Uploads are
+ * hashed (SHA-256) and measured while they stream into the store selected by
+ * {@code billing.attachments.store} ({@code PG_LO} or {@code FS}); downloads read from
+ * whichever store the row names, so switching stores needs no data migration. Content
+ * for a non-transactional store is written before the transaction inserting the row is
+ * opened and discarded if that insert fails.
+ */
 @Service
-@RequiredArgsConstructor
 public class InvoiceAttachmentServiceImpl implements InvoiceAttachmentService {
 
     private final InvoiceAttachmentRepository repo;
+    private final InvoiceRepository invoiceRepo;
+    private final InvoiceAttachmentMapper mapper;
+    private final TransactionOperations tx;
+    private final Map<String, AttachmentContentStore> stores;
+    private final AttachmentContentStore writeStore;
+    private final long maxBytes;
+
+    public InvoiceAttachmentServiceImpl(
+            final InvoiceAttachmentRepository repo,
+            final InvoiceRepository invoiceRepo,
+            final InvoiceAttachmentMapper mapper,
+            final TransactionOperations tx,
+            final List<AttachmentContentStore> stores,
+            @Value("${billing.attachments.store:" + PostgresLargeObjectAttachmentStore.CODE + "}") final String store,
+            @Value("${billing.attachments.max-size:50MB}") final DataSize maxSize) {
+        this.repo = repo;
+        this.invoiceRepo = invoiceRepo;
+        this.mapper = mapper;
+        this.tx = tx;
+        this.stores = stores.stream().collect(Collectors.toMap(AttachmentContentStore::code, Function.identity()));
+        this.writeStore = this.stores.get(store);
+        if (writeStore == null) {
+            throw new IllegalStateException("Unknown billing.attachments.store '" + store + "'; expected one of "
+                    + this.stores.keySet());
+        }
+        this.maxBytes = maxSize.toBytes();
+    }
+
+    @Override
+    public InvoiceAttachmentMetaDto upload(final Long invoiceId, final String fileName, final String mimeType,
+                                           final InputStream content) {
+        if (!invoiceRepo.existsById(invoiceId)) {
+            throw new NotFoundException("Invoice not found", String.valueOf(invoiceId));
+        }
+        MessageDigest sha256 = sha256();
+        BoundedInputStream in = new BoundedInputStream(new DigestInputStream(content, sha256), maxBytes);
+        String[] key = new String[1];
+        try {
+            if (!writeStore.transactional()) {
+                key[0] = write(invoiceId, in);
+            }
+            InvoiceAttachment saved = tx.execute(status -> {
+                if (key[0] == null) {
+                    key[0] = write(invoiceId, in);
+                }
+                return repo.save(InvoiceAttachment.builder()
+                        .invoice(Invoice.ref(invoiceId))
+                        .fileNm(fileName)
+                        .mimeTyp(mimeType)
+                        .storageCd(writeStore.code())
+                        .storageKey(key[0])
+                        .sizeBytes(in.count())
+                        .sha256(HexFormat.of().formatHex(sha256.digest()))
+                        .build());
+            });
+            return mapper.toMetaDto(saved);
+        } catch (RuntimeException e) {
+            if (key[0] != null) {
+                writeStore.discard(key[0]);
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<InvoiceAttachmentMetaDto> list(final Long invoiceId) {
+        return repo.findByInvoiceInvoiceIdOrderByCreatedAtDesc(invoiceId).stream()
+                .map(mapper::toMetaDto)
+                .toList();
+    }
 
     @Override
     @Transactional(readOnly = true)
     public AttachmentView getLatestAttachment(final Long invoiceId) {
         InvoiceAttachment ia = repo.findFirstByInvoiceInvoiceIdOrderByCreatedAtDesc(invoiceId)
-                .orElseThrow(() -> new IllegalArgumentException("No attachment for invoice " + invoiceId));
-        return new AttachmentView(ia.getFileNm(), ia.getMimeTyp(), new ByteArrayResource(ia.getContent()));
+                .orElseThrow(() -> new NotFoundException("No attachment for invoice", String.valueOf(invoiceId)));
+        return view(ia);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public AttachmentView getAttachment(final Long invoiceId, final Long invoiceAttachmentId) {
+        InvoiceAttachment ia = repo.findByInvoiceAttachmentIdAndInvoiceInvoiceId(invoiceAttachmentId, invoiceId)
+                .orElseThrow(() -> new NotFoundException("Attachment not found", String.valueOf(invoiceAttachmentId)));
+        return view(ia);
+    }
+
+    private AttachmentView view(final InvoiceAttachment ia) {
+        AttachmentContentStore store = stores.get(ia.getStorageCd());
+        if (store == null) {
+            throw new IllegalStateException("Attachment " + ia.getInvoiceAttachmentId()
+                    + " is in unknown store " + ia.getStorageCd());
+        }
+        String key = ia.getStorageKey();
+        return new AttachmentView(ia.getFileNm(), ia.getMimeTyp(), ia.getSizeBytes(), ia.getSha256(),
+                (offset, length, out) -> store.read(key, offset, length, out));
+    }
+
+    private String write(final Long invoiceId, final InputStream in) {
+        try {
+            return writeStore.write(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot store attachment of invoice " + invoiceId, e);
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /** Counts bytes read and rejects content larger than the limit. */
+    private static final class BoundedInputStream extends FilterInputStream {
+
+        private final long limit;
+        private long count;
+
+        BoundedInputStream(final InputStream in, final long limit) {
+            super(in);
+            this.limit = limit;
+        }
+
+        long count() {
+            return count;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                advance(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(final byte[] b, final int off, final int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                advance(n);
+            }
+            return n;
+        }
+
+        @Override
+        public long skip(final long n) {
+            throw new UnsupportedOperationException("skip would bypass the checksum");
+        }
+
+        private void advance(final long n) {
+            count += n;
+            if (count > limit) {
+                throw new ValidationException("Attachment exceeds the maximum size of " + limit + " bytes");
+            }
+        }
     }
 }
@@ -0,0 +1,97 @@
+package com.ejada.billing.service.impl;
+
+import com.ejada.billing.repository.InvoiceRunRepository.InvoiceDraft;
+import com.ejada.billing.repository.InvoiceRunRepository.InvoiceLine;
+import com.ejada.billing.repository.InvoiceRunRepository.RateCard;
+import com.ejada.billing.repository.InvoiceRunRepository.Tier;
+import com.ejada.billing.repository.InvoiceRunRepository.UsageCharge;
+import com.ejada.moneytime.starter.money.MoneyUtils;
+
+import javax.money.MonetaryAmount;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Prices one subscription for one billing period. Pure and thread-safe.
+ *
+ * <p>Usage above the included allowance is charged through graduated tiers ({@code upTo}
+ * is cumulative over the billable quantity; the last tier is open-ended). Usage
+ * above the overage threshold leaves the tiers and is charged at the overage price.
+ * Every line total, and the tax on the subtotal, is rounded to the currency's minor
+ * unit, so the invoice total is exactly the sum of what is printed.</p>
+ */
+final class InvoiceCalculator {
+
+    static final String RECURRING = "RECURRING";
+    static final String USAGE = "USAGE";
+    static final String OVERAGE = "OVERAGE";
+
+    private final RoundingMode rounding;
+
+    InvoiceCalculator(final RoundingMode rounding) {
+        this.rounding = rounding;
+    }
+
+    InvoiceDraft price(final RateCard card) {
+        List<InvoiceLine> lines = new ArrayList<>();
+        if (card.recurringFee().signum() != 0) {
+            lines.add(line(card.currency(), RECURRING, "Recurring fee", BigDecimal.ONE, card.recurringFee()));
+        }
+        for (UsageCharge usage : card.usage()) {
+            usageLines(card.currency(), usage, lines);
+        }
+        BigDecimal subtotal = BigDecimal.ZERO;
+        for (InvoiceLine l : lines) {
+            subtotal = subtotal.add(l.lineTotal());
+        }
+        subtotal = money(card.currency(), subtotal);
+        BigDecimal tax = money(card.currency(), subtotal.multiply(card.taxRate()));
+        return new InvoiceDraft(card.extSubscriptionId(), card.extCustomerId(), card.currency(),
+                subtotal, tax, subtotal.add(tax), lines);
+    }
+
+    private void usageLines(final String currency, final UsageCharge usage, final List<InvoiceLine> lines) {
+        BigDecimal used = usage.used();
+        BigDecimal billable = used.subtract(usage.includedQty()).max(BigDecimal.ZERO);
+        BigDecimal overage = BigDecimal.ZERO;
+        if (usage.overageThreshold() != null && usage.overageUnitPrice() != null) {
+            overage = used.subtract(usage.overageThreshold().max(usage.includedQty())).max(BigDecimal.ZERO);
+        }
+        BigDecimal remaining = billable.subtract(overage);
+
+        BigDecimal floor = BigDecimal.ZERO;
+        List<Tier> tiers = usage.tiers();
+        for (int i = 0; i < tiers.size() && remaining.signum() > 0; i++) {
+            Tier tier = tiers.get(i);
+            // the last tier is open-ended whatever its bound says
+            BigDecimal qty = tier.upTo() == null || i == tiers.size() - 1
+                    ? remaining
+                    : remaining.min(tier.upTo().subtract(floor));
+            if (qty.signum() > 0) {
+                lines.add(line(currency, USAGE, usage.consumptionTypCd() + " tier " + (i + 1),
+                        qty, tier.unitPrice()));
+                remaining = remaining.subtract(qty);
+            }
+            if (tier.upTo() != null) {
+                floor = tier.upTo();
+            }
+        }
+        if (overage.signum() > 0) {
+            lines.add(line(currency, OVERAGE, usage.consumptionTypCd() + " overage",
+                    overage, usage.overageUnitPrice()));
+        }
+    }
+
+    private InvoiceLine line(final String currency, final String itemCd, final String desc,
+                             final BigDecimal qty, final BigDecimal unitPrice) {
+        return new InvoiceLine(itemCd, desc, qty, unitPrice, money(currency, qty.multiply(unitPrice)));
+    }
+
+    /* Moneta strips trailing zeros; amounts keep the currency's scale so lines print uniformly. */
+    private BigDecimal money(final String currency, final BigDecimal value) {
+        MonetaryAmount rounded = MoneyUtils.round(MoneyUtils.of(value, currency), rounding);
+        return MoneyUtils.amount(rounded).setScale(rounded.getCurrency().getDefaultFractionDigits());
+    }
+}
@@ -0,0 +1,271 @@
+package com.ejada.billing.service.impl;
+
+import com.ejada.billing.dto.InvoiceRunStatus;
+import com.ejada.billing.repository.InvoiceRunRepository;
+import com.ejada.billing.repository.InvoiceRunRepository.Chunk;
+import com.ejada.billing.repository.InvoiceRunRepository.InvoiceDraft;
+import com.ejada.billing.repository.InvoiceRunRepository.Progress;
+import com.ejada.billing.repository.InvoiceRunRepository.Run;
+import com.ejada.billing.repository.UsageRollupRepository;
+import com.ejada.billing.service.InvoiceRunService;
+import com.ejada.common.exception.NotFoundException;
+import com.ejada.common.exception.ValidationException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.math.RoundingMode;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Generates a period's invoices chunk by chunk on a pool of workers (see
+ * {@link InvoiceRunRepository} for the claiming and checkpointing). Each chunk is one
+ * transaction: read rate cards and monthly usage rollups with one query, price them with
+ * {@link InvoiceCalculator}, write invoices and lines with JDBC batches, mark the chunk
+ * DONE. Replicas started on the same period cooperate; runs left RUNNING by a crash are
+ * resumed on startup.
+ *
+ * <p>A subscription is invoiced once per period, so a run only opens after the period's
+ * usage has settled: a rollup pass must have completed at least
+ * {@code billing.invoice-run.usage-settle-time} after the period ended (covering meter
+ * flushes and rollup lag) and no ledger row of the period may still be waiting for one.</p>
+ *
+ * <p>Exports {@code billing.invoice.run.invoices} (counter),
+ * {@code billing.invoice.run.chunk} (timer) and {@code billing.invoice.run.rate}
+ * (invoices/second of the latest pass) when a {@link MeterRegistry} is present.</p>
+ */
+@Service
+@Slf4j
+public class InvoiceRunServiceImpl implements InvoiceRunService {
+
+    private final InvoiceRunRepository repo;
+    private final UsageRollupRepository rollups;
+    private final TransactionOperations tx;
+    private final Clock clock;
+    private final InvoiceCalculator calculator;
+    private final int chunkSize;
+    private final int parallelism;
+    private final int paymentTermDays;
+    private final Duration usageSettleTime;
+    private final boolean resumeOnStartup;
+    private final ExecutorService workers;
+    private final Set<Long> active = ConcurrentHashMap.newKeySet();
+    private final AtomicLong rate = new AtomicLong();
+    private final Counter invoiceCounter;
+    private final Timer chunkTimer;
+
+    public InvoiceRunServiceImpl(
+            final InvoiceRunRepository repo,
+            final UsageRollupRepository rollups,
+            final TransactionOperations tx,
+            final Clock clock,
+            final ObjectProvider<MeterRegistry> meterRegistry,
+            @Value("${shared.money.rounding-mode:HALF_EVEN}") final RoundingMode rounding,
+            @Value("${billing.invoice-run.chunk-size:500}") final int chunkSize,
+            @Value("${billing.invoice-run.parallelism:4}") final int parallelism,
+            @Value("${billing.invoice-run.payment-term-days:30}") final int paymentTermDays,
+            @Value("${billing.invoice-run.usage-settle-time:PT15M}") final Duration usageSettleTime,
+            @Value("${billing.invoice-run.resume-on-startup:true}") final boolean resumeOnStartup) {
+        this.repo = repo;
+        this.rollups = rollups;
+        this.tx = tx;
+        this.clock = clock;
+        this.calculator = new InvoiceCalculator(rounding);
+        this.chunkSize = chunkSize;
+        this.parallelism = parallelism;
+        this.paymentTermDays = paymentTermDays;
+        this.usageSettleTime = usageSettleTime;
+        this.resumeOnStartup = resumeOnStartup;
+        AtomicInteger threadNo = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(parallelism,
+                r -> Thread.ofPlatform().name("invoice-run-" + threadNo.incrementAndGet()).daemon(true).unstarted(r));
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        if (registry != null) {
+            this.invoiceCounter = Counter.builder("billing.invoice.run.invoices")
+                    .description("Invoices written by batch runs")
+                    .register(registry);
+            this.chunkTimer = Timer.builder("billing.invoice.run.chunk")
+                    .description("Time to price and write one chunk of an invoice run")
+                    .register(registry);
+            registry.gauge("billing.invoice.run.rate", List.of(), rate, AtomicLong::doubleValue);
+        } else {
+            this.invoiceCounter = null;
+            this.chunkTimer = null;
+        }
+    }
+
+    @Override
+    public InvoiceRunStatus start(final YearMonth period) {
+        Run run = open(period);
+        if (InvoiceRunRepository.RUNNING.equals(run.status()) && active.add(run.id())) {
+            Thread.ofPlatform().name("invoice-run-" + period).daemon(true).start(() -> {
+                try {
+                    execute(run);
+                } finally {
+                    active.remove(run.id());
+                }
+            });
+        }
+        return status(run.id());
+    }
+
+    @Override
+    public InvoiceRunStatus runToCompletion(final YearMonth period) {
+        Run run = open(period);
+        if (InvoiceRunRepository.RUNNING.equals(run.status())) {
+            execute(run);
+        }
+        return status(run.id());
+    }
+
+    @Override
+    public InvoiceRunStatus status(final long runId) {
+        Progress p = repo.progress(runId)
+                .orElseThrow(() -> new NotFoundException("Invoice run not found", String.valueOf(runId)));
+        OffsetDateTime end = p.completedAt() != null ? p.completedAt() : OffsetDateTime.now(clock);
+        double seconds = Math.max(Duration.between(p.startedAt(), end).toMillis(), 1) / 1000.0;
+        return new InvoiceRunStatus(p.runId(), p.periodStart(), p.status(), p.startedAt(), p.completedAt(),
+                p.chunks(), p.chunksDone(), p.chunksFailed(), p.invoices(), p.invoices() / seconds);
+    }
+
+    /** Picks up runs a crashed or redeployed instance left unfinished. */
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeUnfinished() {
+        if (!resumeOnStartup) {
+            return;
+        }
+        for (Run run : repo.findRunning()) {
+            log.info("Resuming invoice run {} for {}", run.id(), run.periodStart());
+            start(YearMonth.from(run.periodStart()));
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        workers.shutdownNow();
+    }
+
+    private Run open(final YearMonth period) {
+        if (!period.isBefore(YearMonth.now(clock))) {
+            throw new ValidationException("Billing period " + period + " has not ended yet");
+        }
+        Instant end = period.plusMonths(1).atDay(1).atStartOfDay(ZoneOffset.UTC).toInstant();
+        Instant settledAt = end.plus(usageSettleTime);
+        if (!rollups.rolledUpThrough(UsageRollupRepository.USAGE_PIPELINE, end, settledAt)) {
+            throw new ValidationException("Usage of billing period " + period
+                    + " has not settled yet; invoicing needs a usage rollup pass after " + settledAt);
+        }
+        return tx.execute(status -> {
+            Run run = repo.createOrGet(period.atDay(1), period.plusMonths(1).atDay(1), chunkSize);
+            int retried = repo.retryFailed(run.id());
+            if (retried > 0) {
+                log.info("Retrying {} failed chunks of invoice run {}", retried, run.id());
+            }
+            return run;
+        });
+    }
+
+    /** Drains the run's pending chunks with {@code parallelism} workers, then tries to complete it. */
+    private void execute(final Run run) {
+        long started = System.nanoTime();
+        List<Future<Long>> futures = new ArrayList<>(parallelism);
+        for (int i = 0; i < parallelism; i++) {
+            futures.add(workers.submit(() -> drain(run)));
+        }
+        long invoices = 0;
+        try {
+            for (Future<Long> f : futures) {
+                invoices += f.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            futures.forEach(f -> f.cancel(true));
+            return;
+        } catch (ExecutionException e) {
+            log.error("Invoice run {} worker failed", run.id(), e.getCause());
+        }
+        double seconds = Math.max(System.nanoTime() - started, 1) / 1e9;
+        rate.set(Math.round(invoices / seconds));
+        Boolean completed = tx.execute(status -> repo.completeIfDone(run.id()));
+        log.info("Invoice run {} for {}: {} invoices in {} ms ({} invoices/s){}", run.id(), run.periodStart(),
+                invoices, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started), rate.get(),
+                Boolean.TRUE.equals(completed) ? ", completed" : "");
+    }
+
+    /** Processes chunks until none is left to claim; returns the number of invoices written. */
+    private long drain(final Run run) {
+        LocalDate invoiceDt = LocalDate.now(clock);
+        LocalDate dueDt = invoiceDt.plusDays(paymentTermDays);
+        long invoices = 0;
+        while (!Thread.currentThread().isInterrupted()) {
+            Chunk[] claimed = new Chunk[1];
+            ChunkResult result;
+            try {
+                result = tx.execute(status -> {
+                    Optional<Chunk> chunk = repo.claimChunk(run.id());
+                    if (chunk.isEmpty()) {
+                        return null;
+                    }
+                    claimed[0] = chunk.get();
+                    return process(run, chunk.get(), invoiceDt, dueDt);
+                });
+            } catch (RuntimeException e) {
+                if (claimed[0] == null) {
+                    throw e;
+                }
+                log.error("Invoice run {} chunk {} failed", run.id(), claimed[0].chunkNo(), e);
+                tx.executeWithoutResult(status -> repo.markChunkFailed(claimed[0], String.valueOf(e.getMessage())));
+                continue;
+            }
+            if (result == null) {
+                break;
+            }
+            invoices += result.invoices();
+            if (invoiceCounter != null) {
+                invoiceCounter.increment(result.invoices());
+                chunkTimer.record(result.nanos(), TimeUnit.NANOSECONDS);
+            }
+        }
+        return invoices;
+    }
+
+    private ChunkResult process(final Run run, final Chunk chunk, final LocalDate invoiceDt, final LocalDate dueDt) {
+        long started = System.nanoTime();
+        List<InvoiceDraft> drafts = repo.loadRateCards(chunk, run.periodStart(), run.periodEnd()).stream()
+                .map(calculator::price)
+                .toList();
+        repo.insertInvoices(run, invoiceDt, dueDt, drafts);
+        long nanos = System.nanoTime() - started;
+        repo.markChunkDone(chunk, drafts.size(), TimeUnit.NANOSECONDS.toMillis(nanos));
+        return new ChunkResult(drafts.size(), nanos);
+    }
+
+    private record ChunkResult(int invoices, long nanos) {
+    }
+}
@@ -0,0 +1,119 @@
+package com.ejada.billing.service.impl;
+
+import com.ejada.billing.repository.UsageEventPartitionRepository;
+import com.ejada.redis.starter.support.RedisLockService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.function.Supplier;
+
+/**
+ * Keeps {@code usage_event}'s monthly partitions ahead of time and enforces retention.
+ *
+ * <p>Only the instance holding the Redis lease runs a pass. A pass creates the partitions
+ * for the current month and the next {@code premake-months}, then detaches every partition
+ * older than {@code retention-months} and, unless {@code drop-expired} is off, drops it.
+ * Each DDL statement runs in its own short transaction with a lock timeout, so a busy
+ * reader delays one step to the next pass instead of blocking inserts.</p>
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(prefix = "billing.usage-event.partitions", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class UsageEventPartitionMaintainer {
+
+    static final String LOCK_KEY = "billing:jobs:usage-event-partitions";
+
+    private final UsageEventPartitionRepository repo;
+    private final TransactionOperations tx;
+    private final RedisLockService locks;
+    private final Clock clock;
+    private final Duration lease;
+    private final int premakeMonths;
+    private final int retentionMonths;
+    private final boolean dropExpired;
+    private final Duration lockTimeout;
+
+    public UsageEventPartitionMaintainer(
+            final UsageEventPartitionRepository repo,
+            final TransactionOperations tx,
+            final ObjectProvider<RedisLockService> lockService,
+            final StringRedisTemplate redis,
+            final Clock clock,
+            @Value("${billing.usage-event.partitions.lease:PT10M}") final Duration lease,
+            @Value("${billing.usage-event.partitions.premake-months:3}") final int premakeMonths,
+            @Value("${billing.usage-event.partitions.retention-months:13}") final int retentionMonths,
+            @Value("${billing.usage-event.partitions.drop-expired:true}") final boolean dropExpired,
+            @Value("${billing.usage-event.partitions.lock-timeout:PT5S}") final Duration lockTimeout) {
+        this.repo = repo;
+        this.tx = tx;
+        this.locks = RedisLockService.orDefault(lockService, redis);
+        this.clock = clock;
+        this.lease = lease;
+        this.premakeMonths = premakeMonths;
+        this.retentionMonths = retentionMonths;
+        this.dropExpired = dropExpired;
+        this.lockTimeout = lockTimeout;
+    }
+
+    @Scheduled(
+            initialDelayString = "${billing.usage-event.partitions.initial-delay:PT1M}",
+            fixedDelayString = "${billing.usage-event.partitions.interval:PT6H}")
+    public void maintain() {
+        locks.runExclusive(LOCK_KEY, lease, () -> {
+            maintain(YearMonth.now(clock.withZone(ZoneOffset.UTC)));
+        });
+    }
+
+    /** One pass relative to {@code current}; returns the number of partitions created plus retired. */
+    int maintain(final YearMonth current) {
+        int changed = 0;
+        for (int i = 0; i <= premakeMonths; i++) {
+            YearMonth month = current.plusMonths(i);
+            if (Boolean.TRUE.equals(ddl("create", month, () -> repo.create(month)))) {
+                log.info("Created usage_event partition for {}", month);
+                changed++;
+            }
+        }
+        YearMonth oldestKept = current.minusMonths(retentionMonths);
+        for (YearMonth month : repo.attachedMonths()) {
+            if (!month.isBefore(oldestKept)) {
+                break;
+            }
+            if (ddl("detach", month, () -> {
+                repo.detach(month);
+                if (dropExpired) {
+                    repo.drop(month);
+                }
+                return Boolean.TRUE;
+            }) != null) {
+                log.info("{} usage_event partition for {} (retention {} months)",
+                        dropExpired ? "Dropped" : "Detached", month, retentionMonths);
+                changed++;
+            }
+        }
+        return changed;
+    }
+
+    private Boolean ddl(final String action, final YearMonth month, final Supplier<Boolean> step) {
+        try {
+            return tx.execute(status -> {
+                repo.limitLockWait(lockTimeout.toMillis());
+                return step.get();
+            });
+        } catch (DataAccessException e) {
+            log.warn("Could not {} usage_event partition for {}; retrying next pass: {}", action, month, e.getMessage());
+            return null;
+        }
+    }
+}
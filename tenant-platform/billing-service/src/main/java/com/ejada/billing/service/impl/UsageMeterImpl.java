@@ -0,0 +1,534 @@
+package com.ejada.billing.service.impl;
+
+import com.ejada.billing.dto.ConsumptionType;
+import com.ejada.billing.model.UsageCounter;
+import com.ejada.billing.repository.UsageCounterBatchRepository;
+import com.ejada.billing.repository.UsageCounterBatchRepository.CounterDelta;
+import com.ejada.billing.repository.UsageCounterBatchRepository.CounterKey;
+import com.ejada.billing.repository.UsageCounterRepository;
+import com.ejada.billing.service.UsageMeter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Write-behind {@link UsageMeter}.
+ *
+ * <p>Increments land in a per-(subscription, type) stripe of {@link LongAdder}s after being
+ * appended to the local {@link UsageWal}. Every {@code billing.usage.flush.interval}, or
+ * once {@code billing.usage.flush.max-events} increments are buffered, the WAL segment is
+ * sealed, the stripes are drained and the deltas are added to {@code usage_counter} with
+ * one upsert. The segment number is recorded in {@code usage_flush_log} in the same
+ * transaction, so segments replayed after a crash are applied exactly once. Segment
+ * numbers continue after the highest one recorded for {@code billing.usage.wal.node-id},
+ * so a replica whose WAL directory was lost does not reuse numbers that are already
+ * marked as applied; the node id must still be unique per replica and stable across
+ * its restarts, and the WAL directory must be persistent storage.</p>
+ *
+ * <p>Reads return the last persisted value plus in-flight and buffered deltas. With
+ * several replicas each one only sees its own buffered increments. The persisted value
+ * is refreshed by every flush that touches the counter and reloaded on read once it is
+ * older than {@code billing.usage.meter.refresh-interval}, so other replicas'
+ * increments become visible within their flush interval plus the refresh interval.</p>
+ */
+@Service
+@Slf4j
+public class UsageMeterImpl implements UsageMeter {
+
+    /** Matches {@code usage_counter.current_consumed_amt numeric(18,4)}. */
+    static final int AMOUNT_SCALE = 4;
+
+    private final UsageCounterBatchRepository batchRepo;
+    private final UsageCounterRepository counterRepo;
+    private final TransactionOperations tx;
+    private final UsageWal wal;
+    private final String nodeId;
+    private final long maxEvents;
+    private final long idleTtlNanos;
+    private final long refreshNanos;
+    private final int maxAttempts;
+    private final AtomicLong parked = new AtomicLong();
+
+    private final Map<CounterKey, Stripe> stripes = new ConcurrentHashMap<>();
+    /**
+     * Appends and hard-limit checks hold the read lock; sealing a segment and draining the
+     * stripes hold the write lock. Taken after a stripe's monitor, never before it.
+     */
+    private final ReentrantReadWriteLock walLock = new ReentrantReadWriteLock();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    /** Sealed segments not yet applied, oldest first; only touched under the flush lock. */
+    private final Deque<Batch> unflushed = new ArrayDeque<>();
+    private final AtomicLong sinceFlush = new AtomicLong();
+    private final AtomicBoolean flushQueued = new AtomicBoolean();
+    private final ExecutorService flusher = Executors.newSingleThreadExecutor(
+            r -> Thread.ofPlatform().daemon().name("usage-flush").unstarted(r));
+
+    public UsageMeterImpl(
+            final UsageCounterBatchRepository batchRepo,
+            final UsageCounterRepository counterRepo,
+            final TransactionOperations tx,
+            @Value("${billing.usage.wal.dir}") final String walDir,
+            @Value("${billing.usage.wal.node-id}") final String nodeId,
+            @Value("${billing.usage.flush.max-events:10000}") final long maxEvents,
+            @Value("${billing.usage.meter.idle-ttl:PT10M}") final Duration idleTtl,
+            @Value("${billing.usage.meter.refresh-interval:PT1S}") final Duration refreshInterval,
+            @Value("${billing.usage.flush.max-attempts:10}") final int maxAttempts,
+            final ObjectProvider<MeterRegistry> meterRegistry) {
+        this(batchRepo, counterRepo, tx, new UsageWal(Path.of(requireText(walDir, "billing.usage.wal.dir"),
+                requireText(nodeId, "billing.usage.wal.node-id"))), nodeId, maxEvents, idleTtl, refreshInterval,
+                maxAttempts, meterRegistry.getIfAvailable());
+    }
+
+    UsageMeterImpl(final UsageCounterBatchRepository batchRepo,
+                   final UsageCounterRepository counterRepo,
+                   final TransactionOperations tx,
+                   final UsageWal wal,
+                   final String nodeId,
+                   final long maxEvents,
+                   final Duration idleTtl,
+                   final Duration refreshInterval,
+                   final int maxAttempts,
+                   final MeterRegistry meterRegistry) {
+        this.batchRepo = batchRepo;
+        this.counterRepo = counterRepo;
+        this.tx = tx;
+        this.wal = wal;
+        this.nodeId = requireText(nodeId, "billing.usage.wal.node-id");
+        this.maxEvents = maxEvents;
+        this.idleTtlNanos = idleTtl.toNanos();
+        this.refreshNanos = refreshInterval.toNanos();
+        this.maxAttempts = maxAttempts;
+        if (meterRegistry != null) {
+            meterRegistry.gauge("billing.usage.wal.parked", List.of(), parked, AtomicLong::doubleValue);
+        }
+        recover();
+    }
+
+    /**
+     * Queues segments left by a previous run; the first flush applies them. Segments the
+     * flush log already marks as applied (the crash came between commit and delete) are
+     * dropped here, so the persisted value never counts them twice with the in-flight
+     * deltas. New segments are numbered after both the recovered ones and the last
+     * segment this node flushed.
+     */
+    private void recover() {
+        List<Long> segments = wal.segments();
+        Set<Long> applied = segments.isEmpty() ? Set.of() : batchRepo.flushedSegments(nodeId, segments.getFirst());
+        for (long seq : segments) {
+            if (applied.contains(seq)) {
+                wal.delete(seq);
+                continue;
+            }
+            Map<CounterKey, CounterDelta> deltas = merge(wal.read(seq));
+            for (CounterDelta d : deltas.values()) {
+                stripe(d.key(), d.extCustomerId()).inFlight(d.count(), units(d.amount()));
+            }
+            unflushed.addLast(new Batch(seq, deltas));
+        }
+        if (!segments.isEmpty()) {
+            log.info("Recovered {} usage WAL segment(s) for node {}", segments.size(), nodeId);
+        }
+        List<Long> parkedBefore = wal.parked();
+        if (!parkedBefore.isEmpty()) {
+            log.warn("Usage WAL of node {} holds {} parked segment(s) awaiting replay", nodeId, parkedBefore.size());
+        }
+        long last = Math.max(segments.isEmpty() ? 0 : segments.getLast(), batchRepo.lastFlushedSegment(nodeId));
+        last = Math.max(last, parkedBefore.isEmpty() ? 0 : parkedBefore.getLast());
+        wal.open(last + 1);
+    }
+
+    @Override
+    public Totals record(final Long extSubscriptionId, final Long extCustomerId, final ConsumptionType type,
+                         final long count, final BigDecimal amount) {
+        CounterKey key = new CounterKey(extSubscriptionId, type.name());
+        Stripe s = append(key, extCustomerId, count, amount);
+        return totals(key, s);
+    }
+
+    @Override
+    public Totals recordWithinLimit(final Long extSubscriptionId, final Long extCustomerId, final ConsumptionType type,
+                                    final long count, final BigDecimal amount, final BigDecimal hardLimit) {
+        CounterKey key = new CounterKey(extSubscriptionId, type.name());
+        Stripe s = stripe(key, extCustomerId);
+        // a first load may wait for a flush to finish, which needs the monitor
+        base(key, s);
+        // limited increments of one counter serialize here so concurrent checks cannot both pass
+        synchronized (s) {
+            Totals base = base(key, s);
+            // a seal moves pending deltas to in-flight under the write lock, so no check sees half a move
+            walLock.readLock().lock();
+            try {
+                Totals now = totals(base, s);
+                BigDecimal increment = type == ConsumptionType.BALANCE ? scaled(amount) : BigDecimal.valueOf(count);
+                if (hardLimit != null && now.valueOf(type).add(increment).compareTo(hardLimit) > 0) {
+                    return null;
+                }
+                return totals(base, append(key, extCustomerId, count, amount));
+            } finally {
+                walLock.readLock().unlock();
+            }
+        }
+    }
+
+    @Override
+    public Totals current(final Long extSubscriptionId, final ConsumptionType type) {
+        CounterKey key = new CounterKey(extSubscriptionId, type.name());
+        Stripe s = stripes.get(key);
+        if (s == null) {
+            return load(key);
+        }
+        return totals(key, s);
+    }
+
+    private Stripe append(final CounterKey key, final long extCustomerId, final long count, final BigDecimal amount) {
+        BigDecimal scaled = scaled(amount);
+        Stripe s;
+        walLock.readLock().lock();
+        try {
+            wal.append(new CounterDelta(key.extSubscriptionId(), extCustomerId, key.consumptionTypCd(), count, scaled));
+            s = stripe(key, extCustomerId);
+            s.pending(count, units(scaled));
+        } finally {
+            walLock.readLock().unlock();
+        }
+        if (sinceFlush.incrementAndGet() >= maxEvents && flushQueued.compareAndSet(false, true)) {
+            flusher.execute(() -> {
+                flushQueued.set(false);
+                flush();
+            });
+        }
+        return s;
+    }
+
+    private Stripe stripe(final CounterKey key, final long extCustomerId) {
+        return stripes.computeIfAbsent(key, k -> new Stripe(extCustomerId));
+    }
+
+    private Totals totals(final CounterKey key, final Stripe s) {
+        return totals(base(key, s), s);
+    }
+
+    private static Totals totals(final Totals base, final Stripe s) {
+        long units = s.inFlightAmount.sum() + s.pendingAmount.sum();
+        return new Totals(base.count() + s.inFlightCount.sum() + s.pendingCount.sum(),
+                base.amount().add(BigDecimal.valueOf(units, AMOUNT_SCALE)));
+    }
+
+    /**
+     * Persisted value of the counter, reloaded once older than the refresh interval. A
+     * load that overlapped a local flush of the counter may or may not include the deltas
+     * being applied, so it is discarded: a refresh keeps the cached value (the flush
+     * brings a fresh one) and a first load is retried.
+     */
+    private Totals base(final CounterKey key, final Stripe s) {
+        while (true) {
+            Totals base = s.base;
+            if (base != null && System.nanoTime() - s.baseAt < refreshNanos) {
+                return base;
+            }
+            long generation = s.generation;
+            Totals loaded;
+            try {
+                loaded = load(key);
+            } catch (RuntimeException e) {
+                if (base == null) {
+                    throw e;
+                }
+                log.debug("Usage counter {} refresh failed; keeping the cached value", key, e);
+                s.baseAt = System.nanoTime();
+                return base;
+            }
+            synchronized (s) {
+                if (s.generation == generation && s.applying == 0) {
+                    s.base(loaded);
+                } else if (s.base == base && base != null) {
+                    s.baseAt = System.nanoTime();
+                }
+                if (s.base != null) {
+                    return s.base;
+                }
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    private Totals load(final CounterKey key) {
+        return counterRepo.findByExtSubscriptionIdAndConsumptionTypCd(key.extSubscriptionId(), key.consumptionTypCd())
+                .map(UsageMeterImpl::totalsOf)
+                .orElse(Totals.ZERO);
+    }
+
+    /** Flushes on schedule; also triggered early once {@code max-events} increments are buffered. */
+    @Scheduled(
+            initialDelayString = "${billing.usage.flush.initial-delay:PT5S}",
+            fixedDelayString = "${billing.usage.flush.interval:PT1S}")
+    public void flush() {
+        if (!flushLock.tryLock()) {
+            return;
+        }
+        try {
+            seal();
+            applyUnflushed();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /** Forces WAL appends to disk; between syncs increments survive a process crash but not a host crash. */
+    @Scheduled(fixedDelayString = "${billing.usage.wal.sync-interval:PT0.2S}")
+    public void syncWal() {
+        wal.sync();
+    }
+
+    private void seal() {
+        Map<CounterKey, CounterDelta> drained = new LinkedHashMap<>();
+        long seq;
+        walLock.writeLock().lock();
+        try {
+            seq = wal.roll();
+            sinceFlush.set(0);
+            long idleBefore = System.nanoTime() - idleTtlNanos;
+            Iterator<Map.Entry<CounterKey, Stripe>> it = stripes.entrySet().iterator();
+            while (it.hasNext()) {
+                Map.Entry<CounterKey, Stripe> e = it.next();
+                Stripe s = e.getValue();
+                long count = s.pendingCount.sum();
+                long units = s.pendingAmount.sum();
+                if (count != 0 || units != 0) {
+                    // in-flight first: a read without the lock may over-count for a moment, never under-count
+                    s.inFlight(count, units);
+                    s.pending(-count, -units);
+                    CounterKey key = e.getKey();
+                    drained.put(key, new CounterDelta(key.extSubscriptionId(), s.extCustomerId,
+                            key.consumptionTypCd(), count, BigDecimal.valueOf(units, AMOUNT_SCALE)));
+                } else if (s.idleSince(idleBefore)) {
+                    it.remove();
+                }
+            }
+        } finally {
+            walLock.writeLock().unlock();
+        }
+        if (drained.isEmpty()) {
+            wal.delete(seq);
+        } else {
+            unflushed.addLast(new Batch(seq, drained));
+        }
+    }
+
+    /**
+     * Applies every queued segment in its own transaction. Deltas are additive, so a
+     * failed segment does not hold back the ones after it; it is retried on the next
+     * flush. A failure only counts toward {@code billing.usage.flush.max-attempts} in a
+     * pass where another segment was applied, so a database outage parks nothing.
+     */
+    private void applyUnflushed() {
+        boolean appliedAny = false;
+        List<Batch> failed = new ArrayList<>();
+        for (Iterator<Batch> it = unflushed.iterator(); it.hasNext();) {
+            Batch batch = it.next();
+            if (apply(batch)) {
+                it.remove();
+                appliedAny = true;
+            } else {
+                failed.add(batch);
+            }
+        }
+        if (!appliedAny) {
+            return;
+        }
+        for (Batch batch : failed) {
+            if (++batch.failures >= maxAttempts && park(batch)) {
+                unflushed.remove(batch);
+            }
+        }
+    }
+
+    private boolean apply(final Batch batch) {
+        long oldestOnDisk = wal.segments().stream().findFirst().orElse(batch.seq);
+        List<Stripe> touched = batch.deltas.keySet().stream().map(stripes::get).filter(Objects::nonNull).toList();
+        touched.forEach(s -> s.applying++);
+        Map<CounterKey, UsageCounter> snapshot;
+        try {
+            snapshot = tx.execute(status -> {
+                batchRepo.purgeFlushLog(nodeId, oldestOnDisk);
+                return batchRepo.recordFlush(nodeId, batch.seq)
+                        ? batchRepo.applyDeltas(List.copyOf(batch.deltas.values()))
+                        : Map.of();
+            });
+        } catch (RuntimeException e) {
+            touched.forEach(s -> s.applying--);
+            log.warn("Usage flush of WAL segment {} failed; {} segment(s) pending", batch.seq, unflushed.size(), e);
+            return false;
+        }
+        for (CounterDelta d : batch.deltas.values()) {
+            Stripe s = stripes.get(d.key());
+            if (s == null) {
+                continue;
+            }
+            UsageCounter c = snapshot == null ? null : snapshot.get(d.key());
+            synchronized (s) {
+                if (c != null) {
+                    s.base(totalsOf(c));
+                }
+                s.generation++;
+                s.inFlight(-d.count(), -units(d.amount()));
+                s.applying--;
+            }
+        }
+        wal.delete(batch.seq);
+        return true;
+    }
+
+    /**
+     * Sets aside a segment that keeps failing while others apply (see {@link UsageWal#park}).
+     * Its deltas leave the in-flight totals, since they will not reach the database
+     * until an operator replays the parked file.
+     */
+    private boolean park(final Batch batch) {
+        try {
+            wal.park(batch.seq);
+        } catch (UncheckedIOException e) {
+            log.error("Cannot park usage WAL segment {}; retrying it", batch.seq, e);
+            return false;
+        }
+        for (CounterDelta d : batch.deltas.values()) {
+            Stripe s = stripes.get(d.key());
+            if (s != null) {
+                synchronized (s) {
+                    s.inFlight(-d.count(), -units(d.amount()));
+                }
+            }
+        }
+        parked.incrementAndGet();
+        log.error("Parked usage WAL segment {} of node {} after {} failed attempts; {} counter(s) affected",
+                batch.seq, nodeId, batch.failures, batch.deltas.size());
+        return true;
+    }
+
+    /** Segments parked since startup. */
+    long parkedSegments() {
+        return parked.get();
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        flusher.shutdown();
+        flusher.awaitTermination(10, TimeUnit.SECONDS);
+        flush();
+        wal.close();
+    }
+
+    private static Map<CounterKey, CounterDelta> merge(final List<CounterDelta> deltas) {
+        Map<CounterKey, CounterDelta> merged = new LinkedHashMap<>();
+        for (CounterDelta d : deltas) {
+            merged.merge(d.key(), d, (a, b) -> new CounterDelta(a.extSubscriptionId(), a.extCustomerId(),
+                    a.consumptionTypCd(), a.count() + b.count(), a.amount().add(b.amount())));
+        }
+        return merged;
+    }
+
+    private static String requireText(final String value, final String property) {
+        if (value == null || value.isBlank()) {
+            throw new IllegalStateException(property + " must be set");
+        }
+        return value;
+    }
+
+    private static Totals totalsOf(final UsageCounter c) {
+        return new Totals(c.getCurrentConsumption() == null ? 0L : c.getCurrentConsumption(),
+                c.getCurrentConsumedAmt() == null ? BigDecimal.ZERO : c.getCurrentConsumedAmt());
+    }
+
+    private static BigDecimal scaled(final BigDecimal amount) {
+        return amount == null ? BigDecimal.ZERO.setScale(AMOUNT_SCALE) : amount.setScale(AMOUNT_SCALE, RoundingMode.HALF_UP);
+    }
+
+    private static long units(final BigDecimal amount) {
+        return scaled(amount).unscaledValue().longValueExact();
+    }
+
+    /** Buffered and in-flight deltas of one counter; amounts are in units of 10^-{@value #AMOUNT_SCALE}. */
+    private static final class Stripe {
+        final long extCustomerId;
+        final LongAdder pendingCount = new LongAdder();
+        final LongAdder pendingAmount = new LongAdder();
+        final LongAdder inFlightCount = new LongAdder();
+        final LongAdder inFlightAmount = new LongAdder();
+        volatile Totals base;
+        volatile long baseAt;
+        /** Bumped, under the stripe's monitor, whenever a flush of this counter completes. */
+        volatile long generation;
+        /** Flushes of this counter between their transaction start and completion; written by the flusher only. */
+        volatile int applying;
+        volatile long touchedAt = System.nanoTime();
+
+        Stripe(final long extCustomerId) {
+            this.extCustomerId = extCustomerId;
+        }
+
+        void pending(final long count, final long units) {
+            pendingCount.add(count);
+            pendingAmount.add(units);
+            touchedAt = System.nanoTime();
+        }
+
+        void inFlight(final long count, final long units) {
+            inFlightCount.add(count);
+            inFlightAmount.add(units);
+        }
+
+        boolean inFlight() {
+            return inFlightCount.sum() != 0 || inFlightAmount.sum() != 0;
+        }
+
+        void base(final Totals totals) {
+            base = totals;
+            baseAt = System.nanoTime();
+        }
+
+        boolean idleSince(final long nanos) {
+            return touchedAt - nanos < 0 && !inFlight();
+        }
+    }
+
+    /** A sealed segment waiting to be applied; {@code failures} is only touched under the flush lock. */
+    private static final class Batch {
+        final long seq;
+        final Map<CounterKey, CounterDelta> deltas;
+        int failures;
+
+        Batch(final long seq, final Map<CounterKey, CounterDelta> deltas) {
+            this.seq = seq;
+            this.deltas = deltas;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.ejada.billing.service.impl;
+
+import com.ejada.billing.repository.UsageRollupRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Folds new {@code usage_delta} rows into the hourly, daily and monthly rollups. Every
+ * replica may run it; passes serialize on the watermark row, so each delta is rolled up
+ * once. Rollups lag the ledger by the interval plus the age of the oldest open
+ * transaction in the database.
+ *
+ * <p>Rolled-up ledger rows older than {@code billing.usage.rollup.ledger-retention} are
+ * pruned in chunks of {@code billing.usage.rollup.prune.chunk-size}, one transaction
+ * each, so the ledger stays bounded by the retention.</p>
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(prefix = "billing.usage.rollup", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class UsageRollupJob {
+
+    private final UsageRollupRepository repo;
+    private final TransactionOperations tx;
+    private final Duration ledgerRetention;
+    private final int pruneChunkSize;
+
+    public UsageRollupJob(
+            final UsageRollupRepository repo,
+            final TransactionOperations tx,
+            @Value("${billing.usage.rollup.ledger-retention:P14D}") final Duration ledgerRetention,
+            @Value("${billing.usage.rollup.prune.chunk-size:10000}") final int pruneChunkSize) {
+        this.repo = repo;
+        this.tx = tx;
+        this.ledgerRetention = ledgerRetention;
+        this.pruneChunkSize = pruneChunkSize;
+    }
+
+    @Scheduled(
+            initialDelayString = "${billing.usage.rollup.initial-delay:PT30S}",
+            fixedDelayString = "${billing.usage.rollup.interval:PT1M}")
+    public void rollUp() {
+        try {
+            Long rows = tx.execute(status -> repo.rollUp(UsageRollupRepository.USAGE_PIPELINE));
+            if (rows != null && rows > 0) {
+                log.debug("Rolled up {} usage deltas", rows);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Usage rollup pass failed; retrying next interval", e);
+        }
+    }
+
+    @Scheduled(
+            initialDelayString = "${billing.usage.rollup.prune.initial-delay:PT10M}",
+            fixedDelayString = "${billing.usage.rollup.prune.interval:PT1H}")
+    public void pruneLedger() {
+        Instant cutoff = Instant.now().minus(ledgerRetention);
+        long deleted = 0;
+        try {
+            Integer n;
+            do {
+                n = tx.execute(status -> repo.pruneLedgerChunk(UsageRollupRepository.USAGE_PIPELINE, cutoff, pruneChunkSize));
+                deleted += n == null ? 0 : n;
+            } while (n != null && n == pruneChunkSize);
+        } catch (RuntimeException e) {
+            log.warn("Usage ledger prune failed after {} rows; retrying next interval", deleted, e);
+            return;
+        }
+        if (deleted > 0) {
+            log.info("Pruned {} rolled-up usage deltas older than {}", deleted, ledgerRetention);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.ejada.billing.service.impl;
+
+import com.ejada.billing.dto.UsageGranularity;
+import com.ejada.billing.dto.UsageHistoryRs;
+import com.ejada.billing.dto.UsagePoint;
+import com.ejada.billing.dto.UsageTotal;
+import com.ejada.billing.repository.UsageRollupRepository;
+import com.ejada.billing.repository.UsageRollupRepository.Segment;
+import com.ejada.billing.repository.UsageRollupRepository.TypeTotal;
+import com.ejada.billing.service.UsageRollupService;
+import com.ejada.common.exception.ValidationException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+@Service
+@RequiredArgsConstructor
+public class UsageRollupServiceImpl implements UsageRollupService {
+
+    private final UsageRollupRepository repo;
+
+    @Override
+    public UsageHistoryRs history(final Long extSubscriptionId, final OffsetDateTime from, final OffsetDateTime to) {
+        Instant start = floorHour(from);
+        Instant end = ceilHour(to);
+        List<TypeTotal> totals = repo.totals(extSubscriptionId, plan(start, end));
+        List<UsageTotal> list = new ArrayList<>(totals.size());
+        long rows = 0;
+        for (TypeTotal t : totals) {
+            list.add(new UsageTotal(t.consumptionTypCd(), t.quantity(), t.amount()));
+            rows += t.rows();
+        }
+        return new UsageHistoryRs(extSubscriptionId, start.atOffset(ZoneOffset.UTC), end.atOffset(ZoneOffset.UTC),
+                list, rows);
+    }
+
+    @Override
+    public List<UsagePoint> series(final Long extSubscriptionId, final UsageGranularity granularity,
+                                   final OffsetDateTime from, final OffsetDateTime to) {
+        return repo.series(extSubscriptionId, granularity, floorHour(from), ceilHour(to));
+    }
+
+    /**
+     * Covers [from, to) with the coarsest buckets that fit: from each position take a whole
+     * month if one starts there and ends in range, else a whole day, else an hour. Adjacent
+     * buckets of the same size are merged, giving at most five segments.
+     */
+    static List<Segment> plan(final Instant from, final Instant to) {
+        if (!from.isBefore(to)) {
+            throw new ValidationException("'from' must be before 'to'");
+        }
+        List<Segment> segments = new ArrayList<>();
+        ZonedDateTime cursor = from.atZone(ZoneOffset.UTC);
+        ZonedDateTime end = to.atZone(ZoneOffset.UTC);
+        while (cursor.isBefore(end)) {
+            UsageGranularity g;
+            ZonedDateTime next;
+            if (cursor.getDayOfMonth() == 1 && cursor.getHour() == 0 && !cursor.plusMonths(1).isAfter(end)) {
+                g = UsageGranularity.MONTH;
+                next = cursor.plusMonths(1);
+            } else if (cursor.getHour() == 0 && !cursor.plusDays(1).isAfter(end)) {
+                g = UsageGranularity.DAY;
+                next = cursor.plusDays(1);
+            } else {
+                g = UsageGranularity.HOUR;
+                next = cursor.plusHours(1);
+            }
+            Segment last = segments.isEmpty() ? null : segments.getLast();
+            if (last != null && last.granularity() == g) {
+                segments.set(segments.size() - 1, new Segment(g, last.from(), next.toInstant()));
+            } else {
+                segments.add(new Segment(g, cursor.toInstant(), next.toInstant()));
+            }
+            cursor = next;
+        }
+        return segments;
+    }
+
+    private static Instant floorHour(final OffsetDateTime t) {
+        return t.toInstant().truncatedTo(ChronoUnit.HOURS);
+    }
+
+    private static Instant ceilHour(final OffsetDateTime t) {
+        Instant floor = floorHour(t);
+        return floor.equals(t.toInstant()) ? floor : floor.plus(1, ChronoUnit.HOURS);
+    }
+}
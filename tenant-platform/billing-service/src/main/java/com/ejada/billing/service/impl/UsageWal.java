@@ -0,0 +1,182 @@
+package com.ejada.billing.service.impl;
+
+import com.ejada.billing.repository.UsageCounterBatchRepository.CounterDelta;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Append-only, segmented log of usage increments kept on local disk. Every increment is
+ * written before it is acknowledged, so increments still buffered in memory survive a
+ * process crash; {@link #sync()} additionally forces them to the device. A segment is
+ * deleted once its deltas are committed to {@code usage_counter}.
+ *
+ * <p>Records are text lines {@code subscription,customer,type,count,amount}; a torn last
+ * line left by a crash is skipped on replay.</p>
+ */
+@Slf4j
+final class UsageWal implements AutoCloseable {
+
+    private static final Pattern SEGMENT = Pattern.compile("usage-(\\d{20})\\.wal");
+    private static final Pattern PARKED = Pattern.compile("usage-(\\d{20})\\.wal\\.parked");
+
+    private final Path dir;
+    private FileChannel channel;
+    private long seq;
+
+    UsageWal(final Path dir) {
+        this.dir = dir;
+        try {
+            Files.createDirectories(dir);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create usage WAL directory " + dir, e);
+        }
+    }
+
+    /** Sequence numbers of segments on disk, oldest first. */
+    List<Long> segments() {
+        return list(SEGMENT);
+    }
+
+    /** Sequence numbers of parked segments, oldest first. */
+    List<Long> parked() {
+        return list(PARKED);
+    }
+
+    private List<Long> list(final Pattern pattern) {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.map(p -> pattern.matcher(p.getFileName().toString()))
+                    .filter(Matcher::matches)
+                    .map(m -> Long.parseLong(m.group(1)))
+                    .sorted()
+                    .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /** Increments recorded in segment {@code segmentSeq}. */
+    List<CounterDelta> read(final long segmentSeq) {
+        List<CounterDelta> deltas = new ArrayList<>();
+        try {
+            for (String line : Files.readAllLines(path(segmentSeq), StandardCharsets.UTF_8)) {
+                String[] f = line.split(",", -1);
+                if (f.length != 5) {
+                    log.warn("Skipping malformed usage WAL record in segment {}: {}", segmentSeq, line);
+                    continue;
+                }
+                try {
+                    deltas.add(new CounterDelta(Long.parseLong(f[0]), Long.parseLong(f[1]), f[2],
+                            Long.parseLong(f[3]), new BigDecimal(f[4])));
+                } catch (NumberFormatException e) {
+                    log.warn("Skipping malformed usage WAL record in segment {}: {}", segmentSeq, line);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return deltas;
+    }
+
+    /** Starts appending to a fresh segment numbered {@code segmentSeq}. */
+    synchronized void open(final long segmentSeq) {
+        try {
+            channel = FileChannel.open(path(segmentSeq),
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            seq = segmentSeq;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open usage WAL segment " + segmentSeq, e);
+        }
+    }
+
+    synchronized void append(final CounterDelta d) {
+        String line = d.extSubscriptionId() + "," + d.extCustomerId() + "," + d.consumptionTypCd() + ","
+                + d.count() + "," + d.amount().toPlainString() + "\n";
+        ByteBuffer buf = ByteBuffer.wrap(line.getBytes(StandardCharsets.UTF_8));
+        try {
+            while (buf.hasRemaining()) {
+                channel.write(buf);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot append to usage WAL segment " + seq, e);
+        }
+    }
+
+    /** Forces appended records to the storage device. */
+    synchronized void sync() {
+        if (channel == null) {
+            return;
+        }
+        try {
+            channel.force(false);
+        } catch (IOException e) {
+            log.warn("Usage WAL fsync failed for segment {}", seq, e);
+        }
+    }
+
+    /** Seals the current segment and opens the next one; returns the sealed segment's number. */
+    synchronized long roll() {
+        long sealed = seq;
+        closeChannel();
+        open(sealed + 1);
+        return sealed;
+    }
+
+    void delete(final long segmentSeq) {
+        try {
+            Files.deleteIfExists(path(segmentSeq));
+        } catch (IOException e) {
+            log.warn("Cannot delete usage WAL segment {}", segmentSeq, e);
+        }
+    }
+
+    /**
+     * Renames a segment to {@code usage-<seq>.wal.parked} so it is neither replayed nor
+     * deleted. After fixing the cause, an operator replays it by renaming it back under
+     * a sequence number above every other segment and restarting the replica.
+     */
+    void park(final long segmentSeq) {
+        Path segment = path(segmentSeq);
+        try {
+            Files.move(segment, segment.resolveSibling(segment.getFileName() + ".parked"));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot park usage WAL segment " + segmentSeq, e);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        closeChannel();
+    }
+
+    private void closeChannel() {
+        if (channel == null) {
+            return;
+        }
+        try {
+            channel.force(false);
+            channel.close();
+        } catch (IOException e) {
+            log.warn("Cannot close usage WAL segment {}", seq, e);
+        } finally {
+            channel = null;
+        }
+    }
+
+    private Path path(final long segmentSeq) {
+        return dir.resolve(String.format("usage-%020d.wal", segmentSeq));
+    }
+}
@@ -0,0 +1,31 @@
+-- *****************************************************************************
+-- Content of deleted attachments outside the database
+-- - PG_LO content is unlinked by the delete trigger itself (V8)
+-- - other stores (FS) cannot be reached from SQL, so the trigger queues the key in
+--   invoice_attachment_orphan and AttachmentOrphanSweeper removes the content
+-- *****************************************************************************
+
+create table if not exists invoice_attachment_orphan (
+  invoice_attachment_orphan_id bigserial    primary key,
+  storage_cd                   varchar(16)  not null,
+  storage_key                  varchar(512) not null,
+  queued_at                    timestamptz  not null default now()
+);
+comment on table invoice_attachment_orphan is 'Attachment content left in an external store by deleted invoice_attachment rows';
+
+create or replace function invoice_attachment_unlink_lo() returns trigger
+language plpgsql as $$
+begin
+  if old.storage_cd = 'PG_LO' then
+    begin
+      perform lo_unlink(old.storage_key::oid);
+    exception when undefined_object then
+      null;
+    end;
+  else
+    insert into invoice_attachment_orphan (storage_cd, storage_key)
+    values (old.storage_cd, old.storage_key);
+  end if;
+  return old;
+end;
+$$;
@@ -0,0 +1,12 @@
+-- Write-behind usage flushes: one row per applied WAL segment so a segment replayed
+-- after a crash is never added to usage_counter twice.
+create table if not exists usage_flush_log (
+  node_id               varchar(128) not null,
+  segment_seq           bigint       not null,
+  flushed_at            timestamptz  not null default now(),
+  primary key (node_id, segment_seq)
+);
+comment on table usage_flush_log is 'Usage WAL segments already applied to usage_counter, per node';
+
+create index if not exists idx_usage_flush_log_flushed_at
+  on usage_flush_log (flushed_at);
@@ -0,0 +1,58 @@
+-- *****************************************************************************
+-- Usage rollups
+-- - usage_delta: append-only ledger of every non-zero counter increment
+-- - usage_rollup_{hourly,daily,monthly}: aggregates per customer/subscription/type
+-- - usage_rollup_watermark: how far the ledger has been rolled up
+-- *****************************************************************************
+
+create table if not exists usage_delta (
+  usage_delta_id        bigserial    primary key,
+  ext_customer_id       bigint       not null,
+  ext_subscription_id   bigint       not null,
+  consumption_typ_cd    varchar(32)  not null,
+  qty                   bigint       not null default 0,
+  amt                   numeric(18,4) not null default 0,
+  occurred_at           timestamptz  not null default now(),
+  -- inserting transaction; rows below the oldest running transaction can no longer appear
+  created_xid           xid8         not null default pg_current_xact_id()
+);
+comment on table usage_delta is 'Ledger of applied usage_counter increments, source of the usage rollups';
+
+create index if not exists idx_usage_delta_created_xid
+  on usage_delta (created_xid);
+
+create table if not exists usage_rollup_hourly (
+  ext_subscription_id   bigint       not null,
+  consumption_typ_cd    varchar(32)  not null,
+  bucket_start          timestamptz  not null,
+  ext_customer_id       bigint       not null,
+  qty                   bigint       not null default 0,
+  amt                   numeric(18,4) not null default 0,
+  delta_cnt             bigint       not null default 0,
+  updated_at            timestamptz  not null default now(),
+  primary key (ext_subscription_id, consumption_typ_cd, bucket_start)
+);
+
+create table if not exists usage_rollup_daily (like usage_rollup_hourly including all);
+create table if not exists usage_rollup_monthly (like usage_rollup_hourly including all);
+
+comment on table usage_rollup_hourly is 'Usage per subscription & type per UTC hour';
+comment on table usage_rollup_daily is 'Usage per subscription & type per UTC day';
+comment on table usage_rollup_monthly is 'Usage per subscription & type per UTC month';
+
+create index if not exists idx_usage_rollup_hourly_customer
+  on usage_rollup_hourly (ext_customer_id, bucket_start);
+create index if not exists idx_usage_rollup_daily_customer
+  on usage_rollup_daily (ext_customer_id, bucket_start);
+create index if not exists idx_usage_rollup_monthly_customer
+  on usage_rollup_monthly (ext_customer_id, bucket_start);
+
+create table if not exists usage_rollup_watermark (
+  pipeline              varchar(64)  primary key,
+  last_xmin             xid8         not null,
+  last_run_at           timestamptz
+);
+comment on table usage_rollup_watermark is 'High-water mark (transaction horizon) of each rollup pipeline';
+
+insert into usage_rollup_watermark (pipeline, last_xmin) values ('usage', '0'::xid8)
+  on conflict do nothing;
@@ -0,0 +1,88 @@
+-- *****************************************************************************
+-- usage_event: monthly range partitions on received_at
+-- - partitions are named usage_event_pYYYYMM and created ahead of time by
+--   usage_event_create_partition(), called here and by the partition maintenance job
+-- - retention detaches/drops whole partitions instead of deleting rows
+-- - payload/status_dtls use lz4 TOAST compression where the server supports it, and a
+--   low toast_tuple_target so typical payloads are compressed, not only huge ones
+-- *****************************************************************************
+
+alter table usage_event rename to usage_event_legacy;
+alter table usage_event_legacy rename constraint usage_event_pkey to usage_event_legacy_pkey;
+alter index if exists idx_usage_event_product_time rename to idx_usage_event_legacy_product_time;
+alter index if exists idx_usage_event_rq_uid rename to idx_usage_event_legacy_rq_uid;
+
+create table usage_event (
+  usage_event_id        bigint      not null default nextval('usage_event_usage_event_id_seq'),
+  rq_uid                uuid        not null,
+  token_hash            varchar(64),
+  payload               jsonb       not null,
+  ext_product_id        bigint      not null,
+  received_at           timestamptz not null default now(),
+  processed             boolean     not null default true,
+  status_code           varchar(32) not null,
+  status_desc           varchar(128) not null,
+  status_dtls           jsonb,
+  primary key (usage_event_id, received_at)
+) partition by range (received_at);
+comment on table usage_event is 'Immutable audit of Track Product Consumption requests & outcomes (monthly partitions)';
+
+alter sequence usage_event_usage_event_id_seq owned by usage_event.usage_event_id;
+
+create index if not exists idx_usage_event_product_time
+  on usage_event (ext_product_id, received_at desc);
+create index if not exists idx_usage_event_rq_uid
+  on usage_event (rq_uid);
+
+do $$
+begin
+  alter table usage_event alter column payload set compression lz4;
+  alter table usage_event alter column status_dtls set compression lz4;
+exception when feature_not_supported or invalid_parameter_value then
+  raise notice 'lz4 compression unavailable, keeping pglz: %', sqlerrm;
+end $$;
+
+create or replace function usage_event_create_partition(p_month date) returns boolean
+language plpgsql as $$
+declare
+  v_from timestamptz := date_trunc('month', p_month::timestamp) at time zone 'UTC';
+  v_name text := 'usage_event_p' || to_char(p_month, 'YYYYMM');
+begin
+  if to_regclass(v_name) is not null then
+    return false;
+  end if;
+  execute format('create table %I partition of usage_event for values from (%L) to (%L)'
+                 || ' with (toast_tuple_target = 256)',
+                 v_name, v_from, v_from + interval '1 month');
+  begin
+    execute format('alter table %I alter column payload set compression lz4', v_name);
+    execute format('alter table %I alter column status_dtls set compression lz4', v_name);
+  exception when feature_not_supported or invalid_parameter_value then
+    null;
+  end;
+  return true;
+end $$;
+comment on function usage_event_create_partition(date) is
+  'Creates the usage_event partition holding the UTC month of p_month; false if it already exists';
+
+-- catches rows outside every monthly partition so inserts never fail
+create table if not exists usage_event_default partition of usage_event default;
+
+do $$
+declare
+  v_month date := date_trunc('month', coalesce(
+      (select min(received_at) at time zone 'UTC' from usage_event_legacy), now() at time zone 'UTC'))::date;
+begin
+  while v_month <= (date_trunc('month', now() at time zone 'UTC') + interval '3 months')::date loop
+    perform usage_event_create_partition(v_month);
+    v_month := (v_month + interval '1 month')::date;
+  end loop;
+end $$;
+
+insert into usage_event (usage_event_id, rq_uid, token_hash, payload, ext_product_id, received_at,
+                         processed, status_code, status_desc, status_dtls)
+select usage_event_id, rq_uid, token_hash, payload, ext_product_id, received_at,
+       processed, status_code, status_desc, status_dtls
+  from usage_event_legacy;
+
+drop table usage_event_legacy;
@@ -0,0 +1,73 @@
+-- *****************************************************************************
+-- Invoice generation
+-- - rate_card / rate_card_usage: what each subscription is charged
+-- - invoice_run / invoice_run_chunk: batch runs split into customer ranges; a chunk is
+--   marked DONE in the same transaction that writes its invoices, so a crashed run
+--   resumes with the chunks still PENDING; a FAILED chunk is retried when the run is resumed
+-- *****************************************************************************
+
+create table if not exists rate_card (
+  ext_subscription_id   bigint        primary key,
+  ext_customer_id       bigint        not null,
+  currency              varchar(3)    not null,
+  recurring_fee         numeric(18,4) not null default 0,
+  tax_rate              numeric(9,6)  not null default 0,   -- 0.15 = 15%
+  active                boolean       not null default true,
+  updated_at            timestamptz   not null default now()
+);
+comment on table rate_card is 'Recurring fee, currency and tax rate invoiced per subscription';
+
+create index if not exists idx_rate_card_customer
+  on rate_card (ext_customer_id) where active;
+
+create table if not exists rate_card_usage (
+  ext_subscription_id   bigint        not null references rate_card(ext_subscription_id) on delete cascade,
+  consumption_typ_cd    varchar(32)   not null
+    check (consumption_typ_cd in ('TRANSACTION','USER','BALANCE')),
+  included_qty          numeric(18,4) not null default 0,
+  -- graduated tiers over usage above included_qty: [{"upTo": 1000, "unitPrice": 0.01}, {"upTo": null, "unitPrice": 0.008}]
+  tiers                 jsonb         not null default '[]'::jsonb,
+  -- usage above the threshold is billed at overage_unit_price instead of the tiers
+  overage_threshold     numeric(18,4),
+  overage_unit_price    numeric(18,6),
+  primary key (ext_subscription_id, consumption_typ_cd)
+);
+comment on table rate_card_usage is 'Usage pricing (allowance, tiers, overage) per subscription & consumption type';
+
+alter table invoice
+  add column if not exists period_start   date,
+  add column if not exists period_end     date,
+  add column if not exists invoice_run_id bigint;
+
+create unique index if not exists uk_invoice_sub_period
+  on invoice (ext_subscription_id, period_start)
+  where period_start is not null and status_cd <> 'VOID';
+
+create table if not exists invoice_run (
+  invoice_run_id        bigserial     primary key,
+  period_start          date          not null,
+  period_end            date          not null,
+  status_cd             varchar(16)   not null default 'RUNNING',  -- RUNNING | COMPLETED
+  chunk_size            int           not null,
+  started_at            timestamptz   not null default now(),
+  completed_at          timestamptz,
+  unique (period_start)
+);
+comment on table invoice_run is 'One invoice batch run per billing period';
+
+create table if not exists invoice_run_chunk (
+  invoice_run_id        bigint        not null references invoice_run(invoice_run_id) on delete cascade,
+  chunk_no              int           not null,
+  first_customer_id     bigint        not null,
+  last_customer_id      bigint        not null,
+  status_cd             varchar(16)   not null default 'PENDING',  -- PENDING | DONE | FAILED
+  invoice_cnt           int           not null default 0,
+  elapsed_ms            bigint,
+  error_msg             varchar(512),
+  processed_at          timestamptz,
+  primary key (invoice_run_id, chunk_no)
+);
+comment on table invoice_run_chunk is 'Customer range of an invoice run; the checkpoint unit';
+
+create index if not exists idx_invoice_run_chunk_pending
+  on invoice_run_chunk (invoice_run_id, chunk_no) where status_cd = 'PENDING';
@@ -0,0 +1,49 @@
+-- *****************************************************************************
+-- Invoice attachment content moves out of the row into a content store
+-- - FS:    file under billing.attachments.fs.dir, storage_key = relative path
+-- - PG_LO: PostgreSQL large object, storage_key = oid
+-- Rows keep metadata only (size, SHA-256), so listing never reads content bytes.
+-- Existing inline bytea content is converted to large objects.
+-- *****************************************************************************
+
+alter table invoice_attachment
+  add column if not exists storage_cd  varchar(16),
+  add column if not exists storage_key varchar(512),
+  add column if not exists size_bytes  bigint,
+  add column if not exists sha256      char(64);
+
+update invoice_attachment
+   set storage_cd  = 'PG_LO',
+       storage_key = lo_from_bytea(0, content)::text,
+       size_bytes  = octet_length(content),
+       sha256      = encode(sha256(content), 'hex')
+ where storage_cd is null;
+
+alter table invoice_attachment
+  alter column storage_cd  set not null,
+  alter column storage_key set not null,
+  alter column size_bytes  set not null,
+  alter column sha256      set not null,
+  drop column content;
+
+comment on table invoice_attachment is 'Invoice attachment metadata; content lives in the content store named by storage_cd';
+
+-- Large objects are not reference counted: unlink when the owning row goes (incl. invoice cascade)
+create or replace function invoice_attachment_unlink_lo() returns trigger
+language plpgsql as $$
+begin
+  if old.storage_cd = 'PG_LO' then
+    begin
+      perform lo_unlink(old.storage_key::oid);
+    exception when undefined_object then
+      null;
+    end;
+  end if;
+  return old;
+end;
+$$;
+
+drop trigger if exists trg_invoice_attachment_unlink_lo on invoice_attachment;
+create trigger trg_invoice_attachment_unlink_lo
+  after delete on invoice_attachment
+  for each row execute function invoice_attachment_unlink_lo();
@@ -0,0 +1,14 @@
+-- *****************************************************************************
+-- Outbox relay access paths
+-- - pending rows are claimed in id order and counted for the backlog gauge
+-- - published rows are purged by age
+-- Both partial indexes stay small: pending rows are few, published rows are pruned.
+-- *****************************************************************************
+
+create index if not exists idx_outbox_pending
+  on outbox_event (outbox_event_id) include (created_at)
+  where not published;
+
+create index if not exists idx_outbox_published_at
+  on outbox_event (published_at)
+  where published;
@@ -0,0 +1,90 @@
+package com.ejada.billing.controller;
+
+import com.ejada.billing.service.InvoiceAttachmentService.AttachmentView;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InvoiceAttachmentControllerTest {
+
+    private static final byte[] DATA = "0123456789abcdefghij".getBytes(StandardCharsets.US_ASCII);
+    private static final String SHA = "aa".repeat(32);
+    private static final String ETAG = "\"" + SHA + "\"";
+
+    private static final AttachmentView VIEW = new AttachmentView("inv 1.pdf", "application/pdf", DATA.length, SHA,
+            (offset, length, out) -> out.write(Arrays.copyOfRange(DATA, (int) offset, (int) (offset + length))));
+
+    private static HttpHeaders request(final String name, final String value) {
+        HttpHeaders h = new HttpHeaders();
+        if (name != null) {
+            h.set(name, value);
+        }
+        return h;
+    }
+
+    private static String body(final ResponseEntity<StreamingResponseBody> rs) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        rs.getBody().writeTo(out);
+        return out.toString(StandardCharsets.US_ASCII);
+    }
+
+    @Test
+    void servesFullContentWithValidatorsAndChecksum() throws IOException {
+        ResponseEntity<StreamingResponseBody> rs = InvoiceAttachmentController.serve(VIEW, request(null, null));
+
+        assertEquals(HttpStatus.OK, rs.getStatusCode());
+        assertEquals(ETAG, rs.getHeaders().getETag());
+        assertEquals("bytes", rs.getHeaders().getFirst(HttpHeaders.ACCEPT_RANGES));
+        assertEquals(20, rs.getHeaders().getContentLength());
+        assertTrue(rs.getHeaders().getFirst(InvoiceAttachmentController.REPR_DIGEST).startsWith("sha-256=:qqqq"));
+        assertEquals("0123456789abcdefghij", body(rs));
+    }
+
+    @Test
+    void servesSingleRangesAsPartialContent() throws IOException {
+        ResponseEntity<StreamingResponseBody> mid = InvoiceAttachmentController.serve(VIEW, request("Range", "bytes=5-9"));
+        ResponseEntity<StreamingResponseBody> suffix = InvoiceAttachmentController.serve(VIEW, request("Range", "bytes=-3"));
+
+        assertEquals(HttpStatus.PARTIAL_CONTENT, mid.getStatusCode());
+        assertEquals("bytes 5-9/20", mid.getHeaders().getFirst(HttpHeaders.CONTENT_RANGE));
+        assertEquals(5, mid.getHeaders().getContentLength());
+        assertEquals("56789", body(mid));
+        assertEquals("hij", body(suffix));
+    }
+
+    @Test
+    void handlesConditionalAndUnsatisfiableRequests() throws IOException {
+        assertEquals(HttpStatus.NOT_MODIFIED,
+                InvoiceAttachmentController.serve(VIEW, request("If-None-Match", ETAG)).getStatusCode());
+
+        ResponseEntity<StreamingResponseBody> beyond = InvoiceAttachmentController.serve(VIEW, request("Range", "bytes=20-"));
+        assertEquals(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE, beyond.getStatusCode());
+        assertEquals("bytes */20", beyond.getHeaders().getFirst(HttpHeaders.CONTENT_RANGE));
+
+        HttpHeaders stale = request("Range", "bytes=0-4");
+        stale.set(HttpHeaders.IF_RANGE, "\"other\"");
+        ResponseEntity<StreamingResponseBody> full = InvoiceAttachmentController.serve(VIEW, stale);
+        assertEquals(HttpStatus.OK, full.getStatusCode());
+        assertEquals(20, body(full).length());
+    }
+
+    @Test
+    void malformedOrOverLongRangesAreIgnored() throws IOException {
+        String tooMany = "bytes=" + "0-0,".repeat(200) + "1-1";
+        for (String range : new String[] {"bytes=abc", "bytes=9-5", "items=0-4", tooMany}) {
+            ResponseEntity<StreamingResponseBody> rs = InvoiceAttachmentController.serve(VIEW, request("Range", range));
+
+            assertEquals(HttpStatus.OK, rs.getStatusCode(), range);
+            assertEquals("0123456789abcdefghij", body(rs));
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.ejada.billing.repository;
+
+import com.ejada.billing.model.UsageCounter;
+import com.ejada.billing.repository.UsageCounterBatchRepository.CounterDelta;
+import com.ejada.billing.repository.UsageCounterBatchRepository.CounterKey;
+import com.ejada.testsupport.IntegrationTestSupport;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** Runs the {@code applyDeltas} statement against the real billing schema. */
+class UsageCounterBatchRepositoryPostgresTest extends IntegrationTestSupport {
+
+    private static DriverManagerDataSource dataSource;
+    private static JdbcTemplate jdbc;
+
+    private UsageCounterBatchRepository repo;
+
+    @BeforeAll
+    static void migrate() {
+        DriverManagerDataSource ds = new DriverManagerDataSource(
+                POSTGRES.getJdbcUrl() + "&currentSchema=billing", POSTGRES.getUsername(), POSTGRES.getPassword());
+        dataSource = ds;
+        Flyway.configure().dataSource(ds)
+                .schemas("billing").defaultSchema("billing")
+                .locations("classpath:db/migration/common")
+                .load().migrate();
+        jdbc = new JdbcTemplate(ds);
+    }
+
+    @BeforeEach
+    void clean() {
+        jdbc.execute("truncate usage_counter, usage_delta");
+        repo = new UsageCounterBatchRepository(jdbc);
+    }
+
+    @Test
+    void duplicatePairsAreAppliedOnceWithTheSummedDelta() {
+        Map<CounterKey, UsageCounter> result = repo.applyDeltas(List.of(
+                new CounterDelta(1L, 10L, "TRANSACTION", 2L, null),
+                new CounterDelta(1L, 10L, "TRANSACTION", 3L, null),
+                new CounterDelta(2L, 20L, "BALANCE", 0L, new BigDecimal("1.5000")),
+                new CounterDelta(2L, 20L, "BALANCE", 0L, new BigDecimal("2.2500"))));
+
+        assertEquals(5L, result.get(new CounterKey(1L, "TRANSACTION")).getCurrentConsumption());
+        assertEquals(new BigDecimal("3.7500"), result.get(new CounterKey(2L, "BALANCE")).getCurrentConsumedAmt());
+        assertEquals(2, count("usage_counter"));
+        // one ledger row per merged counter, not per request line
+        assertEquals(2, count("usage_delta"));
+        assertEquals(5L, jdbc.queryForObject(
+                "select qty from usage_delta where ext_subscription_id = 1", Long.class));
+    }
+
+    @Test
+    void zeroDeltaReturnsTheExistingSnapshotWithoutRewritingIt() {
+        repo.applyDeltas(List.of(new CounterDelta(1L, 10L, "TRANSACTION", 4L, null)));
+        String xmin = jdbc.queryForObject("select xmin::text from usage_counter", String.class);
+
+        Map<CounterKey, UsageCounter> result = repo.applyDeltas(List.of(
+                CounterDelta.touch(1L, 10L, "TRANSACTION"),
+                new CounterDelta(1L, 10L, "USER", 1L, null)));
+
+        UsageCounter existing = result.get(new CounterKey(1L, "TRANSACTION"));
+        assertNotNull(existing.getUsageCounterId());
+        assertEquals(4L, existing.getCurrentConsumption());
+        assertEquals(10L, existing.getExtCustomerId());
+        assertEquals(1L, result.get(new CounterKey(1L, "USER")).getCurrentConsumption());
+        assertEquals(xmin, jdbc.queryForObject(
+                "select xmin::text from usage_counter where consumption_typ_cd = 'TRANSACTION'", String.class));
+        assertEquals(2, count("usage_delta"));
+    }
+
+    @Test
+    void zeroDeltaCreatesAMissingCounter() {
+        Map<CounterKey, UsageCounter> result = repo.applyDeltas(List.of(CounterDelta.touch(3L, 30L, "USER")));
+
+        UsageCounter created = result.get(new CounterKey(3L, "USER"));
+        assertNotNull(created.getUsageCounterId());
+        assertEquals(0L, created.getCurrentConsumption());
+        assertEquals(30L, created.getExtCustomerId());
+        assertEquals(0, count("usage_delta"));
+    }
+
+    @Test
+    void zeroDeltaSeesACounterCreatedConcurrently() throws Exception {
+        CompletableFuture<Map<CounterKey, UsageCounter>> touched;
+        try (Connection other = dataSource.getConnection()) {
+            other.setAutoCommit(false);
+            try (Statement st = other.createStatement()) {
+                st.executeUpdate("""
+                        insert into usage_counter (ext_subscription_id, ext_customer_id, consumption_typ_cd,
+                                                   current_consumption, current_consumed_amt, updated_at)
+                        values (4, 40, 'USER', 6, 0, now())
+                        """);
+            }
+            // the upsert waits on the uncommitted row with a snapshot taken before the commit
+            touched = CompletableFuture.supplyAsync(() -> repo.applyDeltas(List.of(CounterDelta.touch(4L, 40L, "USER"))));
+            Thread.sleep(300);
+            other.commit();
+        }
+
+        UsageCounter counter = touched.get(10, TimeUnit.SECONDS).get(new CounterKey(4L, "USER"));
+        assertNotNull(counter.getUsageCounterId());
+        assertEquals(6L, counter.getCurrentConsumption());
+    }
+
+    private static int count(final String table) {
+        return jdbc.queryForObject("select count(*) from " + table, Integer.class);
+    }
+}
@@ -0,0 +1,84 @@
+package com.ejada.billing.repository;
+
+import com.ejada.billing.model.UsageCounter;
+import com.ejada.billing.repository.UsageCounterBatchRepository.CounterDelta;
+import com.ejada.billing.repository.UsageCounterBatchRepository.CounterKey;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.math.BigDecimal;
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class UsageCounterBatchRepositoryTest {
+
+    private final JdbcTemplate jdbc = mock(JdbcTemplate.class);
+    private final UsageCounterBatchRepository repo = new UsageCounterBatchRepository(jdbc);
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void duplicatePairsAreMergedIntoOneArrayElement() throws Exception {
+        when(jdbc.query(any(PreparedStatementCreator.class), any(RowMapper.class))).thenReturn(List.of());
+
+        repo.applyDeltas(List.of(
+                new CounterDelta(1L, 10L, "TRANSACTION", 2L, null),
+                new CounterDelta(2L, 20L, "BALANCE", 0L, new BigDecimal("1.50")),
+                new CounterDelta(1L, 10L, "TRANSACTION", 3L, null),
+                new CounterDelta(2L, 20L, "BALANCE", 0L, new BigDecimal("2.25")),
+                CounterDelta.touch(1L, 10L, "USER")));
+
+        ArgumentCaptor<PreparedStatementCreator> psc = ArgumentCaptor.forClass(PreparedStatementCreator.class);
+        verify(jdbc).query(psc.capture(), any(RowMapper.class));
+        Connection con = mock(Connection.class);
+        when(con.prepareStatement(anyString())).thenReturn(mock(PreparedStatement.class));
+        when(con.createArrayOf(anyString(), any())).thenReturn(mock(Array.class));
+        psc.getValue().createPreparedStatement(con);
+
+        verify(con).createArrayOf("bigint", new Long[] {1L, 2L, 1L});
+        verify(con).createArrayOf("bigint", new Long[] {10L, 20L, 10L});
+        verify(con).createArrayOf("varchar", new String[] {"TRANSACTION", "BALANCE", "USER"});
+        verify(con).createArrayOf("bigint", new Long[] {5L, 0L, 0L});
+        verify(con).createArrayOf("numeric",
+                new BigDecimal[] {BigDecimal.ZERO, new BigDecimal("3.75"), BigDecimal.ZERO});
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void resultKeepsFirstSeenOrderAndNullForMissingRows() {
+        UsageCounter user = UsageCounter.builder()
+                .usageCounterId(8L).extSubscriptionId(1L).extCustomerId(10L)
+                .consumptionTypCd("USER").currentConsumption(4L).build();
+        UsageCounter tx = UsageCounter.builder()
+                .usageCounterId(7L).extSubscriptionId(1L).extCustomerId(10L)
+                .consumptionTypCd("TRANSACTION").currentConsumption(9L).build();
+        when(jdbc.query(any(PreparedStatementCreator.class), any(RowMapper.class))).thenReturn(List.of(user, tx));
+
+        Map<CounterKey, UsageCounter> result = repo.applyDeltas(List.of(
+                new CounterDelta(1L, 10L, "TRANSACTION", 1L, null),
+                CounterDelta.touch(3L, 30L, "BALANCE"),
+                CounterDelta.touch(1L, 10L, "USER")));
+
+        assertEquals(List.of(new CounterKey(1L, "TRANSACTION"), new CounterKey(3L, "BALANCE"),
+                new CounterKey(1L, "USER")), List.copyOf(result.keySet()));
+        assertSame(tx, result.get(new CounterKey(1L, "TRANSACTION")));
+        assertNull(result.get(new CounterKey(3L, "BALANCE")));
+        assertSame(user, result.get(new CounterKey(1L, "USER")));
+    }
+
+    @Test
+    void emptyBatchDoesNotTouchTheDatabase() {
+        assertTrue(repo.applyDeltas(List.of()).isEmpty());
+
+        verifyNoInteractions(jdbc);
+    }
+}
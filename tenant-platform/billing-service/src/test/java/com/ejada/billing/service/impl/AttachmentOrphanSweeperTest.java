@@ -0,0 +1,60 @@
+package com.ejada.billing.service.impl;
+
+import com.ejada.billing.repository.AttachmentOrphanRepository;
+import com.ejada.billing.repository.AttachmentOrphanRepository.Orphan;
+import com.ejada.billing.service.AttachmentContentStore;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class AttachmentOrphanSweeperTest {
+
+    private final AttachmentOrphanRepository repo = mock(AttachmentOrphanRepository.class);
+    private final TransactionOperations tx = mock(TransactionOperations.class);
+    private final AttachmentContentStore fs = mock(AttachmentContentStore.class);
+
+    @SuppressWarnings("unchecked")
+    AttachmentOrphanSweeperTest() {
+        when(tx.execute(any())).thenAnswer(inv -> inv.<TransactionCallback<Integer>>getArgument(0).doInTransaction(null));
+        when(fs.code()).thenReturn("FS");
+    }
+
+    @Test
+    void discardsQueuedContentChunkByChunk() {
+        List<Orphan> first = List.of(new Orphan(1L, "FS", "aa/1"), new Orphan(2L, "XX", "k2"));
+        List<Orphan> second = List.of(new Orphan(3L, "FS", "bb/3"));
+        when(repo.claim(2)).thenReturn(first, second);
+
+        new AttachmentOrphanSweeper(repo, tx, List.of(fs), 2).sweep();
+
+        verify(fs).discard("aa/1");
+        verify(fs).discard("bb/3");
+        verify(repo).delete(first);
+        verify(repo).delete(second);
+        verify(repo, times(2)).claim(2);
+    }
+
+    @Test
+    void emptyQueueDeletesNothing() {
+        when(repo.claim(2)).thenReturn(List.of());
+
+        new AttachmentOrphanSweeper(repo, tx, List.of(fs), 2).sweep();
+
+        verify(repo, never()).delete(anyList());
+        verify(fs, never()).discard(any());
+    }
+
+    @Test
+    void failedPassIsRetriedLater() {
+        when(repo.claim(2)).thenThrow(new QueryTimeoutException("db down"));
+
+        assertDoesNotThrow(() -> new AttachmentOrphanSweeper(repo, tx, List.of(fs), 2).sweep());
+    }
+}
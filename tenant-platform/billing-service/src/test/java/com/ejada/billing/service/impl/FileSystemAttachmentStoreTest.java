@@ -0,0 +1,74 @@
+package com.ejada.billing.service.impl;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FileSystemAttachmentStoreTest {
+
+    @TempDir
+    Path dir;
+
+    private static byte[] content(final int size) {
+        byte[] b = new byte[size];
+        for (int i = 0; i < size; i++) {
+            b[i] = (byte) (i * 31);
+        }
+        return b;
+    }
+
+    @Test
+    void writesAtomicallyAndReadsArbitraryRanges() throws IOException {
+        FileSystemAttachmentStore store = new FileSystemAttachmentStore(dir);
+        byte[] data = content(3 * 1024 * 1024 + 17);
+
+        String key = store.write(new ByteArrayInputStream(data));
+
+        try (Stream<Path> files = Files.walk(dir)) {
+            assertTrue(files.noneMatch(p -> p.toString().endsWith(".part")));
+        }
+        ByteArrayOutputStream all = new ByteArrayOutputStream();
+        store.read(key, 0, data.length, all);
+        assertArrayEquals(data, all.toByteArray());
+
+        ByteArrayOutputStream tail = new ByteArrayOutputStream();
+        store.read(key, data.length - 100, 100, tail);
+        assertArrayEquals(Arrays.copyOfRange(data, data.length - 100, data.length), tail.toByteArray());
+
+        assertThrows(IOException.class, () -> store.read(key, data.length - 10, 20, new ByteArrayOutputStream()));
+    }
+
+    @Test
+    void failedUploadLeavesNoFileAndForeignKeysAreRejected() throws IOException {
+        FileSystemAttachmentStore store = new FileSystemAttachmentStore(dir);
+        InputStream broken = new InputStream() {
+            private int left = 1000;
+
+            @Override
+            public int read() throws IOException {
+                if (left == 0) {
+                    throw new IOException("client went away");
+                }
+                left--;
+                return 1;
+            }
+        };
+
+        assertThrows(IOException.class, () -> store.write(broken));
+        try (Stream<Path> files = Files.walk(dir)) {
+            assertTrue(files.allMatch(Files::isDirectory));
+        }
+        assertThrows(IllegalArgumentException.class,
+                () -> store.read("../../etc/passwd", 0, 1, new ByteArrayOutputStream()));
+    }
+}
@@ -0,0 +1,83 @@
+package com.ejada.billing.service.impl;
+
+import com.ejada.billing.mapper.InvoiceAttachmentMapper;
+import com.ejada.billing.model.InvoiceAttachment;
+import com.ejada.billing.repository.InvoiceAttachmentRepository;
+import com.ejada.billing.repository.InvoiceRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class InvoiceAttachmentServiceImplTest {
+
+    private static final byte[] PDF = "%PDF-1.7 invoice".getBytes(StandardCharsets.US_ASCII);
+
+    @TempDir
+    Path dir;
+
+    private final InvoiceAttachmentRepository repo = mock(InvoiceAttachmentRepository.class);
+    private final InvoiceRepository invoiceRepo = mock(InvoiceRepository.class);
+    private final TransactionOperations tx = mock(TransactionOperations.class);
+
+    private InvoiceAttachmentServiceImpl service() {
+        when(invoiceRepo.existsById(1L)).thenReturn(true);
+        return new InvoiceAttachmentServiceImpl(repo, invoiceRepo, mock(InvoiceAttachmentMapper.class), tx,
+                List.of(new FileSystemAttachmentStore(dir), new PostgresLargeObjectAttachmentStore(null)),
+                FileSystemAttachmentStore.CODE, DataSize.ofMegabytes(1));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void fileContentIsWrittenBeforeTheTransactionOpens() {
+        when(tx.execute(any())).thenAnswer(inv -> {
+            assertEquals(1, files(), "content must be on disk before a connection is taken");
+            return inv.<TransactionCallback<InvoiceAttachment>>getArgument(0).doInTransaction(null);
+        });
+        when(repo.save(any())).thenAnswer(inv -> inv.getArgument(0));
+
+        service().upload(1L, "inv.pdf", "application/pdf", new ByteArrayInputStream(PDF));
+
+        ArgumentCaptor<InvoiceAttachment> row = ArgumentCaptor.forClass(InvoiceAttachment.class);
+        verify(repo).save(row.capture());
+        assertEquals(FileSystemAttachmentStore.CODE, row.getValue().getStorageCd());
+        assertEquals(PDF.length, row.getValue().getSizeBytes());
+        assertTrue(Files.exists(dir.resolve(row.getValue().getStorageKey())));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void failedInsertDiscardsTheWrittenFile() {
+        when(tx.execute(any())).thenAnswer(inv ->
+                inv.<TransactionCallback<InvoiceAttachment>>getArgument(0).doInTransaction(null));
+        when(repo.save(any())).thenThrow(new DataIntegrityViolationException("invoice gone"));
+
+        assertThrows(DataIntegrityViolationException.class,
+                () -> service().upload(1L, "inv.pdf", "application/pdf", new ByteArrayInputStream(PDF)));
+
+        assertEquals(0, files());
+    }
+
+    private long files() {
+        try (Stream<Path> paths = Files.walk(dir)) {
+            return paths.filter(Files::isRegularFile).count();
+        } catch (IOException e) {
+            throw new AssertionError(e);
+        }
+    }
+}
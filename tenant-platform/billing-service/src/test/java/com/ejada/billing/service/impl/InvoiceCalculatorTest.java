@@ -0,0 +1,62 @@
+package com.ejada.billing.service.impl;
+
+import com.ejada.billing.repository.InvoiceRunRepository.InvoiceDraft;
+import com.ejada.billing.repository.InvoiceRunRepository.InvoiceLine;
+import com.ejada.billing.repository.InvoiceRunRepository.RateCard;
+import com.ejada.billing.repository.InvoiceRunRepository.Tier;
+import com.ejada.billing.repository.InvoiceRunRepository.UsageCharge;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InvoiceCalculatorTest {
+
+    private final InvoiceCalculator calculator = new InvoiceCalculator(RoundingMode.HALF_EVEN);
+
+    private static BigDecimal d(final String v) {
+        return new BigDecimal(v);
+    }
+
+    private static RateCard card(final String currency, final String fee, final String taxRate,
+                                 final UsageCharge... usage) {
+        return new RateCard(1L, 7L, currency, d(fee), d(taxRate), List.of(usage));
+    }
+
+    @Test
+    void graduatedTiersAboveAllowanceThenOverageAboveThreshold() {
+        UsageCharge tx = new UsageCharge("TRANSACTION", d("100"),
+                List.of(new Tier(d("1000"), d("0.01")), new Tier(null, d("0.005"))),
+                d("5000"), d("0.02"), d("6100"));
+
+        InvoiceDraft inv = calculator.price(card("USD", "49.99", "0.15", tx));
+
+        assertEquals(List.of(
+                new InvoiceLine("RECURRING", "Recurring fee", BigDecimal.ONE, d("49.99"), d("49.99")),
+                new InvoiceLine("USAGE", "TRANSACTION tier 1", d("1000"), d("0.01"), d("10.00")),
+                new InvoiceLine("USAGE", "TRANSACTION tier 2", d("3900"), d("0.005"), d("19.50")),
+                new InvoiceLine("OVERAGE", "TRANSACTION overage", d("1100"), d("0.02"), d("22.00"))),
+                inv.lines());
+        assertEquals(d("101.49"), inv.subtotal());
+        assertEquals(d("15.22"), inv.tax());          // 15.2235 -> 15.22
+        assertEquals(d("116.71"), inv.total());
+    }
+
+    @Test
+    void roundsLinesHalfEvenToCurrencyMinorUnitAndBillsNothingWithinAllowance() {
+        UsageCharge users = new UsageCharge("USER", d("10"), List.of(new Tier(null, d("3"))), null, null, d("8"));
+        UsageCharge balance = new UsageCharge("BALANCE", BigDecimal.ZERO,
+                List.of(new Tier(null, d("0.0125"))), null, null, d("1"));
+
+        InvoiceDraft usd = calculator.price(card("USD", "0", "0", users, balance));
+        InvoiceDraft kwd = calculator.price(card("KWD", "1.2345", "0", balance));
+
+        assertEquals(1, usd.lines().size());
+        assertEquals(d("0.01"), usd.lines().get(0).lineTotal());   // 0.0125 -> 0.01 (half-even)
+        assertEquals(d("0.01"), usd.total());
+        assertEquals(d("1.246"), kwd.total());                   // three minor digits: 1.234 + 0.012
+    }
+}
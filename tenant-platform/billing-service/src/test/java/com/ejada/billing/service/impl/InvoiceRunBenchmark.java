@@ -0,0 +1,148 @@
+package com.ejada.billing.service.impl;
+
+import com.ejada.billing.dto.InvoiceRunStatus;
+import com.ejada.billing.repository.InvoiceRunRepository;
+import com.ejada.billing.repository.UsageRollupRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.flywaydb.core.Flyway;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.RoundingMode;
+import java.sql.Date;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+
+/**
+ * Throughput benchmark of the invoice batch run against a real PostgreSQL. Not a unit
+ * test; run manually against a scratch database (it migrates the schema and replaces the
+ * benchmark period's invoices):
+ *
+ * <pre>
+ * createdb billing_bench
+ * mvn -q test-compile exec:java -Dexec.classpathScope=test \
+ *   -Dexec.mainClass=com.ejada.billing.service.impl.InvoiceRunBenchmark \
+ *   -Djdbc.url=jdbc:postgresql://localhost:5432/billing_bench -Djdbc.user=postgres -Djdbc.password=postgres \
+ *   -Dsubscriptions=100000 -Dchunk-size=500 -Dparallelism=4 -Dinterrupt-after=3s
+ * </pre>
+ *
+ * <p>Seeds {@code subscriptions} synthetic rate cards (four per customer, every third
+ * with a per-user charge) and one month of rolled-up usage, all derived from the
+ * subscription id so every run prices the same data. With {@code interrupt-after} the
+ * first pass is shut down mid-run and a second instance resumes it from the chunk
+ * checkpoints; the report covers both.</p>
+ */
+public final class InvoiceRunBenchmark {
+
+    private static final YearMonth PERIOD = YearMonth.of(2026, 1);
+
+    private static final String SEED_RATE_CARDS = """
+            insert into rate_card (ext_subscription_id, ext_customer_id, currency, recurring_fee, tax_rate)
+            select s, (s - 1) / 4 + 1, 'USD', 10 + (s % 50) + 0.99, 0.15
+              from generate_series(1, ?) s
+            on conflict do nothing
+            """;
+
+    private static final String SEED_TRANSACTION_PRICES = """
+            insert into rate_card_usage (ext_subscription_id, consumption_typ_cd, included_qty, tiers,
+                                         overage_threshold, overage_unit_price)
+            select s, 'TRANSACTION', 1000,
+                   '[{"upTo": 10000, "unitPrice": 0.01}, {"upTo": 40000, "unitPrice": 0.0075}, {"upTo": null, "unitPrice": 0.005}]',
+                   60000, 0.02
+              from generate_series(1, ?) s
+            on conflict do nothing
+            """;
+
+    private static final String SEED_USER_PRICES = """
+            insert into rate_card_usage (ext_subscription_id, consumption_typ_cd, included_qty, tiers)
+            select s, 'USER', 5, '[{"upTo": null, "unitPrice": 4.5}]'
+              from generate_series(3, ?, 3) s
+            on conflict do nothing
+            """;
+
+    private static final String SEED_USAGE = """
+            insert into usage_rollup_monthly (ext_subscription_id, consumption_typ_cd, bucket_start,
+                                              ext_customer_id, qty, amt, delta_cnt)
+            select s, t.typ, ?, (s - 1) / 4 + 1,
+                   case t.typ when 'TRANSACTION' then (s * 7919) % 80000 else (s * 31) % 40 end, 0, 1
+              from generate_series(1, ?) s
+             cross join (values ('TRANSACTION'), ('USER')) t (typ)
+            on conflict do nothing
+            """;
+
+    private InvoiceRunBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        String url = System.getProperty("jdbc.url", "jdbc:postgresql://localhost:5432/billing_bench");
+        int subscriptions = Integer.getInteger("subscriptions", 100_000);
+        int chunkSize = Integer.getInteger("chunk-size", 500);
+        int parallelism = Integer.getInteger("parallelism", 4);
+        String interruptAfter = System.getProperty("interrupt-after");
+
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl(url);
+        config.setUsername(System.getProperty("jdbc.user", "postgres"));
+        config.setPassword(System.getProperty("jdbc.password", "postgres"));
+        config.setMaximumPoolSize(parallelism + 2);
+        config.addDataSourceProperty("reWriteBatchedInserts", "true");
+        try (HikariDataSource ds = new HikariDataSource(config)) {
+            Flyway.configure().dataSource(ds).locations("classpath:db/migration/common").load().migrate();
+            JdbcTemplate jdbc = new JdbcTemplate(ds);
+            TransactionTemplate tx = new TransactionTemplate(new DataSourceTransactionManager(ds));
+            seed(jdbc, subscriptions);
+
+            InvoiceRunRepository repo = new InvoiceRunRepository(jdbc, new ObjectMapper());
+            UsageRollupRepository rollups = new UsageRollupRepository(jdbc);
+            long started = System.nanoTime();
+            if (interruptAfter != null) {
+                InvoiceRunServiceImpl first = service(repo, rollups, tx, chunkSize, parallelism);
+                Thread pass = Thread.ofPlatform().start(() -> first.runToCompletion(PERIOD));
+                Thread.sleep(Duration.parse("PT" + interruptAfter).toMillis());
+                first.shutdown();
+                pass.join();
+                System.out.printf("interrupted after %s; resuming%n", interruptAfter);
+            }
+            InvoiceRunStatus status = service(repo, rollups, tx, chunkSize, parallelism).runToCompletion(PERIOD);
+            double seconds = (System.nanoTime() - started) / 1e9;
+
+            Long lines = jdbc.queryForObject("select count(*) from invoice_item ii join invoice i using (invoice_id)"
+                    + " where i.invoice_run_id = ?", Long.class, status.runId());
+            System.out.printf("%n%-10s %8s %8s %10s %10s %12s%n",
+                    "status", "chunks", "failed", "invoices", "lines", "invoices/s");
+            System.out.printf("%-10s %8d %8d %10d %10d %12.0f%n", status.status(), status.chunks(),
+                    status.chunksFailed(), status.invoices(), lines, status.invoices() / seconds);
+        }
+    }
+
+    private static void seed(final JdbcTemplate jdbc, final int subscriptions) {
+        LocalDate start = PERIOD.atDay(1);
+        jdbc.update("delete from invoice where period_start = ?", Date.valueOf(start));
+        jdbc.update("delete from invoice_run where period_start = ?", Date.valueOf(start));
+        jdbc.update(SEED_RATE_CARDS, subscriptions);
+        jdbc.update(SEED_TRANSACTION_PRICES, subscriptions);
+        jdbc.update(SEED_USER_PRICES, subscriptions);
+        jdbc.update(SEED_USAGE, OffsetDateTime.of(start.atStartOfDay(), ZoneOffset.UTC), subscriptions);
+        // the usage is seeded straight into the rollups, so mark them as settled
+        jdbc.update("update usage_rollup_watermark set last_run_at = now() where pipeline = ?",
+                UsageRollupRepository.USAGE_PIPELINE);
+        jdbc.execute("analyze rate_card; analyze rate_card_usage; analyze usage_rollup_monthly");
+    }
+
+    private static InvoiceRunServiceImpl service(final InvoiceRunRepository repo, final UsageRollupRepository rollups,
+                                                 final TransactionTemplate tx, final int chunkSize,
+                                                 final int parallelism) {
+        return new InvoiceRunServiceImpl(repo, rollups, tx, Clock.systemUTC(),
+                new DefaultListableBeanFactory().getBeanProvider(MeterRegistry.class), RoundingMode.HALF_EVEN,
+                chunkSize, parallelism, 30, Duration.ZERO, false);
+    }
+}
@@ -0,0 +1,96 @@
+package com.ejada.billing.service.impl;
+
+import com.ejada.billing.dto.InvoiceRunStatus;
+import com.ejada.billing.repository.InvoiceRunRepository;
+import com.ejada.billing.repository.InvoiceRunRepository.Chunk;
+import com.ejada.billing.repository.InvoiceRunRepository.Progress;
+import com.ejada.billing.repository.InvoiceRunRepository.RateCard;
+import com.ejada.billing.repository.InvoiceRunRepository.Run;
+import com.ejada.billing.repository.UsageRollupRepository;
+import com.ejada.common.exception.ValidationException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.dao.DataRetrievalFailureException;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class InvoiceRunServiceImplTest {
+
+    private static final Clock CLOCK = Clock.fixed(Instant.parse("2026-10-02T00:00:00Z"), ZoneOffset.UTC);
+    private static final LocalDate SEP = LocalDate.of(2026, 9, 1);
+    private static final LocalDate OCT = LocalDate.of(2026, 10, 1);
+    private static final Run RUN = new Run(5L, SEP, OCT, InvoiceRunRepository.RUNNING, 2);
+
+    private static final Instant SEP_END = Instant.parse("2026-10-01T00:00:00Z");
+
+    private final InvoiceRunRepository repo = mock(InvoiceRunRepository.class);
+    private final UsageRollupRepository rollups = mock(UsageRollupRepository.class);
+
+    @SuppressWarnings("unchecked")
+    private InvoiceRunServiceImpl service() {
+        return new InvoiceRunServiceImpl(repo, rollups, TransactionOperations.withoutTransaction(), CLOCK,
+                mock(ObjectProvider.class), RoundingMode.HALF_EVEN, 2, 1, 30, Duration.ofMinutes(15), false);
+    }
+
+    private static RateCard card(final long sub) {
+        return new RateCard(sub, sub, "USD", BigDecimal.TEN, BigDecimal.ZERO, List.of());
+    }
+
+    @Test
+    void checkpointsEachChunkAndParksAFailingOneWithoutStallingTheRest() {
+        Chunk c0 = new Chunk(5L, 0, 1L, 2L);
+        Chunk c1 = new Chunk(5L, 1, 3L, 4L);
+        Chunk c2 = new Chunk(5L, 2, 5L, 6L);
+        when(rollups.rolledUpThrough(UsageRollupRepository.USAGE_PIPELINE, SEP_END, SEP_END.plusSeconds(900)))
+                .thenReturn(true);
+        when(repo.createOrGet(SEP, OCT, 2)).thenReturn(RUN);
+        when(repo.claimChunk(5L)).thenReturn(Optional.of(c0), Optional.of(c1), Optional.of(c2), Optional.empty());
+        when(repo.loadRateCards(c0, SEP, OCT)).thenReturn(List.of(card(1), card(2)));
+        when(repo.loadRateCards(c1, SEP, OCT)).thenThrow(new DataRetrievalFailureException("Malformed tiers"));
+        when(repo.loadRateCards(c2, SEP, OCT)).thenReturn(List.of(card(5)));
+        when(repo.progress(5L)).thenReturn(Optional.of(new Progress(5L, SEP, InvoiceRunRepository.RUNNING,
+                OffsetDateTime.now(CLOCK).minusSeconds(2), null, 3, 2, 1, 3L, 10L)));
+
+        InvoiceRunStatus status = service().runToCompletion(YearMonth.of(2026, 9));
+
+        verify(repo).insertInvoices(eq(RUN), eq(LocalDate.of(2026, 10, 2)), eq(LocalDate.of(2026, 11, 1)),
+                argThat(drafts -> drafts.size() == 2));
+        verify(repo).markChunkDone(eq(c0), eq(2), anyLong());
+        verify(repo).markChunkFailed(c1, "Malformed tiers");
+        verify(repo).markChunkDone(eq(c2), eq(1), anyLong());
+        verify(repo).completeIfDone(5L);
+        assertEquals(1, status.chunksFailed());
+        assertEquals(1.5, status.invoicesPerSecond(), 1e-9);
+    }
+
+    @Test
+    void rejectsPeriodThatHasNotEnded() {
+        assertThrows(ValidationException.class, () -> service().start(YearMonth.of(2026, 10)));
+        verifyNoInteractions(repo);
+    }
+
+    @Test
+    void waitsUntilThePeriodsUsageIsRolledUp() {
+        when(rollups.rolledUpThrough(any(), any(), any())).thenReturn(false);
+
+        assertThrows(ValidationException.class, () -> service().runToCompletion(YearMonth.of(2026, 9)));
+
+        verify(rollups).rolledUpThrough(UsageRollupRepository.USAGE_PIPELINE, SEP_END, SEP_END.plusSeconds(900));
+        verifyNoInteractions(repo);
+    }
+}
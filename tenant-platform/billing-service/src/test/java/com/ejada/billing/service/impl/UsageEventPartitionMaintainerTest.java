@@ -0,0 +1,60 @@
+package com.ejada.billing.service.impl;
+
+import com.ejada.billing.repository.UsageEventPartitionRepository;
+import com.ejada.redis.starter.support.RedisLockService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class UsageEventPartitionMaintainerTest {
+
+    private static final YearMonth NOW = YearMonth.of(2026, 10);
+
+    private final UsageEventPartitionRepository repo = mock(UsageEventPartitionRepository.class);
+
+    @SuppressWarnings("unchecked")
+    private UsageEventPartitionMaintainer maintainer(final boolean dropExpired) {
+        return new UsageEventPartitionMaintainer(repo, TransactionOperations.withoutTransaction(),
+                mock(ObjectProvider.class, inv -> mock(RedisLockService.class)), mock(StringRedisTemplate.class),
+                Clock.systemUTC(), Duration.ofMinutes(10), 3, 13, dropExpired, Duration.ofSeconds(5));
+    }
+
+    @Test
+    void premakesFutureMonthsAndDropsPartitionsPastRetention() {
+        when(repo.create(any())).thenReturn(true);
+        when(repo.create(NOW)).thenReturn(false);
+        when(repo.attachedMonths()).thenReturn(List.of(
+                YearMonth.of(2025, 8), YearMonth.of(2025, 9), YearMonth.of(2025, 10), NOW));
+
+        assertEquals(4, maintainer(true).maintain(NOW));
+
+        for (int i = 0; i <= 3; i++) {
+            verify(repo).create(NOW.plusMonths(i));
+        }
+        verify(repo).detach(YearMonth.of(2025, 8));
+        verify(repo).drop(YearMonth.of(2025, 8));
+        verify(repo, never()).detach(YearMonth.of(2025, 9));
+    }
+
+    @Test
+    void lockTimeoutSkipsPartitionUntilNextPassAndDetachOnlyKeepsTable() {
+        when(repo.attachedMonths()).thenReturn(List.of(YearMonth.of(2025, 1), YearMonth.of(2025, 2)));
+        doThrow(new CannotAcquireLockException("lock timeout")).when(repo).detach(YearMonth.of(2025, 1));
+
+        assertEquals(1, maintainer(false).maintain(NOW));
+
+        verify(repo).detach(YearMonth.of(2025, 2));
+        verify(repo, never()).drop(any());
+    }
+}
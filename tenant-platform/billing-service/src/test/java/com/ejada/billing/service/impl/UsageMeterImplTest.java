@@ -0,0 +1,251 @@
+package com.ejada.billing.service.impl;
+
+import com.ejada.billing.dto.ConsumptionType;
+import com.ejada.billing.model.UsageCounter;
+import com.ejada.billing.repository.UsageCounterBatchRepository;
+import com.ejada.billing.repository.UsageCounterBatchRepository.CounterDelta;
+import com.ejada.billing.repository.UsageCounterBatchRepository.CounterKey;
+import com.ejada.billing.repository.UsageCounterRepository;
+import com.ejada.billing.service.UsageMeter.Totals;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class UsageMeterImplTest {
+
+    @TempDir
+    Path dir;
+
+    private final UsageCounterBatchRepository batchRepo = mock(UsageCounterBatchRepository.class);
+    private final UsageCounterRepository counterRepo = mock(UsageCounterRepository.class);
+
+    private UsageMeterImpl meter() {
+        return meter(Duration.ofMinutes(10));
+    }
+
+    private UsageMeterImpl meter(final Duration refreshInterval) {
+        return new UsageMeterImpl(batchRepo, counterRepo, TransactionOperations.withoutTransaction(),
+                new UsageWal(dir), "node-1", 1_000, Duration.ofMinutes(10), refreshInterval, 3, null);
+    }
+
+    private static UsageCounter counter(final long sub, final String typ, final long count, final String amount) {
+        return UsageCounter.builder().extSubscriptionId(sub).extCustomerId(7L).consumptionTypCd(typ)
+                .currentConsumption(count).currentConsumedAmt(new BigDecimal(amount)).build();
+    }
+
+    @Test
+    void buffersIncrementsAndFlushesOneMergedDeltaPerCounter() {
+        when(counterRepo.findByExtSubscriptionIdAndConsumptionTypCd(1L, "TRANSACTION"))
+                .thenReturn(Optional.of(counter(1, "TRANSACTION", 10, "0")));
+        when(batchRepo.recordFlush(eq("node-1"), anyLong())).thenReturn(true);
+        when(batchRepo.applyDeltas(anyList()))
+                .thenReturn(Map.of(new CounterKey(1L, "TRANSACTION"), counter(1, "TRANSACTION", 13, "0")));
+        UsageMeterImpl meter = meter();
+
+        meter.record(1L, 7L, ConsumptionType.TRANSACTION, 1, null);
+        meter.record(1L, 7L, ConsumptionType.TRANSACTION, 2, null);
+        assertEquals(13L, meter.current(1L, ConsumptionType.TRANSACTION).count());
+        verify(batchRepo, never()).applyDeltas(anyList());
+
+        meter.flush();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<CounterDelta>> deltas = ArgumentCaptor.forClass(List.class);
+        verify(batchRepo).applyDeltas(deltas.capture());
+        assertEquals(List.of(new CounterDelta(1L, 7L, "TRANSACTION", 3L, new BigDecimal("0.0000"))), deltas.getValue());
+        assertEquals(13L, meter.current(1L, ConsumptionType.TRANSACTION).count());
+        assertEquals(1, new UsageWal(dir).segments().size(), "only the open segment remains");
+    }
+
+    @Test
+    void replaysUnflushedSegmentsOnceAfterRestart() {
+        when(counterRepo.findByExtSubscriptionIdAndConsumptionTypCd(anyLong(), anyString())).thenReturn(Optional.empty());
+        UsageMeterImpl crashed = meter();
+        crashed.record(2L, 7L, ConsumptionType.BALANCE, 0, new BigDecimal("1.25"));
+        crashed.record(2L, 7L, ConsumptionType.BALANCE, 0, new BigDecimal("0.50"));
+
+        when(batchRepo.recordFlush("node-1", 1L)).thenReturn(true, false);
+        UsageMeterImpl restarted = meter();
+        assertEquals(new BigDecimal("1.7500"), restarted.current(2L, ConsumptionType.BALANCE).amount());
+        restarted.flush();
+
+        verify(batchRepo).applyDeltas(List.of(new CounterDelta(2L, 7L, "BALANCE", 0L, new BigDecimal("1.7500"))));
+
+        // a marker already recorded means the segment was applied before the crash
+        UsageWal wal = new UsageWal(dir);
+        wal.open(1);
+        wal.append(new CounterDelta(2L, 7L, "BALANCE", 0L, BigDecimal.ONE));
+        wal.close();
+        meter().flush();
+        verify(batchRepo, times(1)).applyDeltas(anyList());
+    }
+
+    @Test
+    void hardLimitRejectsIncrementThatWouldOvershoot() {
+        when(counterRepo.findByExtSubscriptionIdAndConsumptionTypCd(3L, "USER"))
+                .thenReturn(Optional.of(counter(3, "USER", 4, "0")));
+        UsageMeterImpl meter = meter();
+
+        Totals ok = meter.recordWithinLimit(3L, 7L, ConsumptionType.USER, 1, null, BigDecimal.valueOf(5));
+        Totals rejected = meter.recordWithinLimit(3L, 7L, ConsumptionType.USER, 1, null, BigDecimal.valueOf(5));
+
+        assertEquals(5L, ok.count());
+        assertNull(rejected);
+        assertEquals(5L, meter.current(3L, ConsumptionType.USER).count());
+    }
+
+    @Test
+    void segmentsAreNumberedAfterTheLastOneFlushedEvenWithAnEmptyWalDirectory() {
+        when(counterRepo.findByExtSubscriptionIdAndConsumptionTypCd(anyLong(), anyString())).thenReturn(Optional.empty());
+        when(batchRepo.lastFlushedSegment("node-1")).thenReturn(41L);
+        when(batchRepo.recordFlush(eq("node-1"), anyLong())).thenReturn(true);
+        when(batchRepo.applyDeltas(anyList())).thenReturn(Map.of());
+        UsageMeterImpl meter = meter();
+
+        meter.record(1L, 7L, ConsumptionType.TRANSACTION, 1, null);
+        meter.flush();
+
+        verify(batchRepo).recordFlush("node-1", 42L);
+        verify(batchRepo).applyDeltas(anyList());
+    }
+
+    @Test
+    void nodeIdIsRequired() {
+        assertThrows(IllegalStateException.class, () -> new UsageMeterImpl(batchRepo, counterRepo,
+                TransactionOperations.withoutTransaction(), new UsageWal(dir), " ", 1_000,
+                Duration.ofMinutes(10), Duration.ofSeconds(1), 3, null));
+    }
+
+    @Test
+    void staleValueIsReloadedSoOtherReplicasIncrementsShowUp() {
+        when(counterRepo.findByExtSubscriptionIdAndConsumptionTypCd(4L, "TRANSACTION"))
+                .thenReturn(Optional.of(counter(4, "TRANSACTION", 10, "0")),
+                        Optional.of(counter(4, "TRANSACTION", 15, "0")));
+        UsageMeterImpl meter = meter(Duration.ZERO);
+
+        assertEquals(11L, meter.record(4L, 7L, ConsumptionType.TRANSACTION, 1, null).count());
+        // another replica flushed 5 more; the locally buffered 1 is still added
+        assertEquals(16L, meter.current(4L, ConsumptionType.TRANSACTION).count());
+    }
+
+    @Test
+    void freshValueIsNotReloaded() {
+        when(counterRepo.findByExtSubscriptionIdAndConsumptionTypCd(4L, "TRANSACTION"))
+                .thenReturn(Optional.of(counter(4, "TRANSACTION", 10, "0")));
+        UsageMeterImpl meter = meter();
+
+        meter.record(4L, 7L, ConsumptionType.TRANSACTION, 1, null);
+        meter.current(4L, ConsumptionType.TRANSACTION);
+
+        verify(counterRepo, times(1)).findByExtSubscriptionIdAndConsumptionTypCd(4L, "TRANSACTION");
+    }
+
+    @Test
+    void recoveredSegmentThatWasAlreadyAppliedIsNotCountedTwice() {
+        when(counterRepo.findByExtSubscriptionIdAndConsumptionTypCd(5L, "TRANSACTION")).thenReturn(Optional.empty());
+        meter().record(5L, 7L, ConsumptionType.TRANSACTION, 3, null);
+
+        // the crash came after the segment was committed but before it was deleted
+        when(batchRepo.flushedSegments("node-1", 1L)).thenReturn(Set.of(1L));
+        when(counterRepo.findByExtSubscriptionIdAndConsumptionTypCd(5L, "TRANSACTION"))
+                .thenReturn(Optional.of(counter(5, "TRANSACTION", 13, "0")));
+        UsageMeterImpl restarted = meter();
+
+        assertEquals(13L, restarted.current(5L, ConsumptionType.TRANSACTION).count());
+        restarted.flush();
+        verify(batchRepo, never()).applyDeltas(anyList());
+    }
+
+    @Test
+    void firstLoadOverlappingTheFlushOfARecoveredSegmentWaitsForIt() throws Exception {
+        when(counterRepo.findByExtSubscriptionIdAndConsumptionTypCd(6L, "TRANSACTION"))
+                .thenReturn(Optional.of(counter(6, "TRANSACTION", 10, "0")));
+        meter().record(6L, 7L, ConsumptionType.TRANSACTION, 3, null);
+
+        AtomicReference<UsageMeterImpl> restarted = new AtomicReference<>();
+        AtomicReference<Thread> reader = new AtomicReference<>();
+        AtomicLong read = new AtomicLong();
+        when(batchRepo.recordFlush(eq("node-1"), anyLong())).thenReturn(true);
+        when(batchRepo.applyDeltas(anyList())).thenAnswer(inv -> {
+            // committed but not yet acknowledged: a load now already sees the 3
+            when(counterRepo.findByExtSubscriptionIdAndConsumptionTypCd(6L, "TRANSACTION"))
+                    .thenReturn(Optional.of(counter(6, "TRANSACTION", 13, "0")));
+            reader.set(Thread.ofVirtual().start(
+                    () -> read.set(restarted.get().current(6L, ConsumptionType.TRANSACTION).count())));
+            Thread.sleep(50);
+            assertTrue(reader.get().isAlive(), "the first load waits for the flush");
+            return Map.of(new CounterKey(6L, "TRANSACTION"), counter(6, "TRANSACTION", 13, "0"));
+        });
+        restarted.set(meter());
+
+        restarted.get().flush();
+        reader.get().join();
+
+        assertEquals(13L, read.get());
+    }
+
+    @Test
+    void segmentThatKeepsFailingIsParkedWithoutBlockingLaterOnes() {
+        when(counterRepo.findByExtSubscriptionIdAndConsumptionTypCd(anyLong(), anyString())).thenReturn(Optional.empty());
+        when(batchRepo.recordFlush(eq("node-1"), anyLong())).thenReturn(true);
+        when(batchRepo.applyDeltas(anyList())).thenAnswer(inv -> {
+            List<CounterDelta> deltas = inv.getArgument(0);
+            if (deltas.stream().anyMatch(d -> d.extSubscriptionId() == 9L)) {
+                throw new DataIntegrityViolationException("numeric field overflow");
+            }
+            return Map.of();
+        });
+        UsageMeterImpl meter = meter();
+        meter.record(9L, 7L, ConsumptionType.TRANSACTION, 1, null);
+        meter.flush();
+        assertEquals(1L, meter.current(9L, ConsumptionType.TRANSACTION).count());
+
+        for (int i = 0; i < 3; i++) {
+            meter.record(1L, 7L, ConsumptionType.TRANSACTION, 1, null);
+            meter.flush();
+        }
+
+        // every later segment was applied while segment 1 failed; after 3 counted failures it is parked
+        verify(batchRepo, times(3)).applyDeltas(List.of(new CounterDelta(1L, 7L, "TRANSACTION", 1L, new BigDecimal("0.0000"))));
+        assertEquals(1, meter.parkedSegments());
+        assertEquals(List.of(1L), new UsageWal(dir).parked());
+        assertEquals(List.of(5L), new UsageWal(dir).segments(), "only the open segment remains");
+        assertEquals(0L, meter.current(9L, ConsumptionType.TRANSACTION).count());
+    }
+
+    @Test
+    void databaseOutageParksNothing() {
+        when(counterRepo.findByExtSubscriptionIdAndConsumptionTypCd(anyLong(), anyString())).thenReturn(Optional.empty());
+        when(batchRepo.recordFlush(eq("node-1"), anyLong())).thenThrow(new QueryTimeoutException("down"));
+        UsageMeterImpl meter = meter();
+
+        for (int i = 0; i < 5; i++) {
+            meter.record(1L, 7L, ConsumptionType.TRANSACTION, 1, null);
+            meter.flush();
+        }
+
+        assertEquals(0, meter.parkedSegments());
+        assertEquals(6, new UsageWal(dir).segments().size());
+        assertEquals(5L, meter.current(1L, ConsumptionType.TRANSACTION).count());
+    }
+}
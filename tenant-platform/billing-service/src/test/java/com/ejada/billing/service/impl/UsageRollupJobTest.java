@@ -0,0 +1,41 @@
+package com.ejada.billing.service.impl;
+
+import com.ejada.billing.repository.UsageRollupRepository;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class UsageRollupJobTest {
+
+    private final UsageRollupRepository repo = mock(UsageRollupRepository.class);
+    private final UsageRollupJob job =
+            new UsageRollupJob(repo, TransactionOperations.withoutTransaction(), Duration.ofDays(14), 100);
+
+    @Test
+    void prunesRolledUpLedgerInChunksUntilShortChunk() {
+        when(repo.pruneLedgerChunk(eq(UsageRollupRepository.USAGE_PIPELINE), any(), eq(100))).thenReturn(100, 100, 3);
+
+        job.pruneLedger();
+
+        ArgumentCaptor<Instant> cutoff = ArgumentCaptor.forClass(Instant.class);
+        verify(repo, times(3)).pruneLedgerChunk(eq(UsageRollupRepository.USAGE_PIPELINE), cutoff.capture(), eq(100));
+        assertTrue(cutoff.getValue().isBefore(Instant.now().minus(Duration.ofDays(14)).plusSeconds(1)));
+        assertEquals(1, cutoff.getAllValues().stream().distinct().count());
+    }
+
+    @Test
+    void failedChunkStopsThePass() {
+        when(repo.pruneLedgerChunk(any(), any(), anyInt())).thenReturn(100).thenThrow(new IllegalStateException("db down"));
+
+        assertDoesNotThrow(job::pruneLedger);
+
+        verify(repo, times(2)).pruneLedgerChunk(any(), any(), anyInt());
+    }
+}
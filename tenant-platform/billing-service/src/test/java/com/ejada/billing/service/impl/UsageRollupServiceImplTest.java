@@ -0,0 +1,43 @@
+package com.ejada.billing.service.impl;
+
+import com.ejada.billing.dto.UsageGranularity;
+import com.ejada.billing.repository.UsageRollupRepository.Segment;
+import com.ejada.common.exception.ValidationException;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UsageRollupServiceImplTest {
+
+    private static Segment seg(final UsageGranularity g, final String from, final String to) {
+        return new Segment(g, Instant.parse(from), Instant.parse(to));
+    }
+
+    @Test
+    void wholeYearIsAnsweredFromMonthlyRollup() {
+        assertEquals(List.of(seg(UsageGranularity.MONTH, "2025-01-01T00:00:00Z", "2026-01-01T00:00:00Z")),
+                UsageRollupServiceImpl.plan(Instant.parse("2025-01-01T00:00:00Z"), Instant.parse("2026-01-01T00:00:00Z")));
+    }
+
+    @Test
+    void raggedEdgesFallBackToDaysThenHours() {
+        assertEquals(List.of(
+                        seg(UsageGranularity.HOUR, "2025-01-30T22:00:00Z", "2025-01-31T00:00:00Z"),
+                        seg(UsageGranularity.DAY, "2025-01-31T00:00:00Z", "2025-02-01T00:00:00Z"),
+                        seg(UsageGranularity.MONTH, "2025-02-01T00:00:00Z", "2025-04-01T00:00:00Z"),
+                        seg(UsageGranularity.DAY, "2025-04-01T00:00:00Z", "2025-04-03T00:00:00Z"),
+                        seg(UsageGranularity.HOUR, "2025-04-03T00:00:00Z", "2025-04-03T05:00:00Z")),
+                UsageRollupServiceImpl.plan(Instant.parse("2025-01-30T22:00:00Z"), Instant.parse("2025-04-03T05:00:00Z")));
+    }
+
+    @Test
+    void shortRangeStaysHourlyAndEmptyRangeIsRejected() {
+        assertEquals(List.of(seg(UsageGranularity.HOUR, "2025-03-10T00:00:00Z", "2025-03-10T06:00:00Z")),
+                UsageRollupServiceImpl.plan(Instant.parse("2025-03-10T00:00:00Z"), Instant.parse("2025-03-10T06:00:00Z")));
+        assertThrows(ValidationException.class,
+                () -> UsageRollupServiceImpl.plan(Instant.parse("2025-03-10T00:00:00Z"), Instant.parse("2025-03-10T00:00:00Z")));
+    }
+}
@@ -0,0 +1,23 @@
+package com.ejada.subscription.config;
+
+import com.ejada.subscription.service.impl.EntitlementServiceImpl;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+/** Subscribes the entitlement snapshot to change broadcasts from other instances. */
+@Configuration
+public class EntitlementSnapshotConfig {
+
+    @Bean
+    public RedisMessageListenerContainer entitlementListenerContainer(
+            final RedisConnectionFactory connectionFactory,
+            final EntitlementServiceImpl entitlements) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(entitlements, new ChannelTopic(entitlements.channel()));
+        return container;
+    }
+}
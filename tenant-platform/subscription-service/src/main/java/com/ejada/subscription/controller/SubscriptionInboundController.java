@@ -1,10 +1,17 @@
 package com.ejada.subscription.controller;
 
+import com.ejada.subscription.dto.BulkNotificationItem;
+import com.ejada.subscription.dto.BulkNotificationRs;
 import com.ejada.subscription.dto.ReceiveSubscriptionNotificationRq;
 import com.ejada.subscription.dto.ReceiveSubscriptionNotificationRs;
 import com.ejada.subscription.dto.ReceiveSubscriptionUpdateRq;
 import com.ejada.subscription.dto.ServiceResult;
+import com.ejada.subscription.service.SubscriptionBulkInboundService;
 import com.ejada.subscription.service.SubscriptionInboundService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.MediaType;
@@ -16,6 +23,9 @@ import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
 import java.util.UUID;
 
 @RestController
@@ -25,6 +35,9 @@ import java.util.UUID;
 public class SubscriptionInboundController {
 
     private final SubscriptionInboundService service;
+    private final SubscriptionBulkInboundService bulkService;
+    @SuppressFBWarnings("EI_EXPOSE_REP2")
+    private final ObjectMapper objectMapper;
 
     @PostMapping(
         value = "/receiveSubscriptionNotification",
@@ -52,4 +65,35 @@ public class SubscriptionInboundController {
         ServiceResult<Void> result = service.receiveSubscriptionUpdate(rqUid, token, body);
         return ResponseEntity.ok(result);
     }
+
+    /** Bulk replay as a JSON array of {@link BulkNotificationItem}. */
+    @PostMapping(
+        value = "/receiveSubscriptionNotifications",
+        consumes = MediaType.APPLICATION_JSON_VALUE
+    )
+    public ResponseEntity<ServiceResult<BulkNotificationRs>> receiveSubscriptionNotifications(
+            @RequestBody final List<BulkNotificationItem> body) {
+
+        return ResponseEntity.ok(bulkService.receiveSubscriptionNotifications(body));
+    }
+
+    /** Bulk replay as newline-delimited JSON, one {@link BulkNotificationItem} per line. */
+    @PostMapping(
+        value = "/receiveSubscriptionNotifications",
+        consumes = MediaType.APPLICATION_NDJSON_VALUE
+    )
+    public ResponseEntity<ServiceResult<BulkNotificationRs>> receiveSubscriptionNotificationsNdjson(
+            final InputStream body) throws IOException {
+
+        List<BulkNotificationItem> items;
+        try (MappingIterator<BulkNotificationItem> it =
+                     objectMapper.readerFor(BulkNotificationItem.class).readValues(body)) {
+            items = it.readAll();
+        } catch (JsonProcessingException ex) {
+            String line = ex.getLocation() == null ? "?" : String.valueOf(ex.getLocation().getLineNr());
+            return ResponseEntity.badRequest().body(new ServiceResult<>("EINT000", "Invalid Request",
+                    "{\"message\":\"malformed NDJSON at line " + line + "\"}", null));
+        }
+        return ResponseEntity.ok(bulkService.receiveSubscriptionNotifications(items));
+    }
 }
@@ -0,0 +1,12 @@
+package com.ejada.subscription.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+
+import java.util.UUID;
+
+/** One notification of a bulk replay; {@code rqUid} and {@code token} stand in for the per-call headers. */
+public record BulkNotificationItem(
+        @NotNull UUID rqUid,
+        String token,
+        @NotNull @Valid ReceiveSubscriptionNotificationRq request) { }
@@ -0,0 +1,11 @@
+package com.ejada.subscription.dto;
+
+import java.util.UUID;
+
+/** Per-item outcome of a bulk replay, in request order. */
+public record BulkNotificationResult(
+        UUID rqUid,
+        String statusCode,          // I000000 | EINT000
+        String statusDescription,
+        String statusDetails,
+        boolean duplicate) { }      // already received earlier or repeated within the batch
@@ -0,0 +1,15 @@
+package com.ejada.subscription.dto;
+
+import java.util.List;
+
+public record BulkNotificationRs(
+        int received,
+        int processed,
+        int duplicates,
+        int failed,
+        List<BulkNotificationResult> results) {
+
+    public BulkNotificationRs {
+        results = results == null ? List.of() : List.copyOf(results);
+    }
+}
@@ -0,0 +1,26 @@
+package com.ejada.subscription.dto;
+
+import java.math.BigDecimal;
+
+/** Outcome of an in-memory entitlement check against the compiled snapshot. */
+public record EntitlementDecision(
+    boolean allowed,
+    Outcome outcome,
+    String featureKey,
+    String enforcement,        // ALLOW | BLOCK | ALLOW_WITH_OVERAGE (null when not entitled)
+    BigDecimal softLimit,
+    BigDecimal hardLimit,      // null = unlimited
+    BigDecimal overageAmount,  // amount above the hard limit billed as overage
+    String limitWindow,
+    long snapshotVersion
+) {
+
+    public enum Outcome {
+        ALLOWED,
+        SOFT_LIMIT_EXCEEDED,
+        OVERAGE,
+        LIMIT_EXCEEDED,
+        DISABLED,
+        NOT_ENTITLED
+    }
+}
@@ -0,0 +1,152 @@
+package com.ejada.subscription.repository;
+
+import com.ejada.subscription.model.EntitlementCache;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+/**
+ * Set-based writes and snapshot reads for {@code entitlement_cache}. A subscription's
+ * compiled entitlements are replaced with one batched upsert plus one delete of the
+ * keys that disappeared, instead of per-row entity merges.
+ */
+@Repository
+public class EntitlementCacheBatchRepository {
+
+    /* Unchanged rows are skipped by the WHERE clause so recompiling is write-free. */
+    private static final String UPSERT = """
+            insert into entitlement_cache (subscription_id, feature_key, enabled, enforcement, soft_limit, hard_limit,
+                                           limit_window, measure_unit, overage_enabled, overage_unit_price,
+                                           overage_currency, effective_from, effective_to, source_meta)
+            values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?::jsonb)
+            on conflict (subscription_id, feature_key) do update
+               set enabled = excluded.enabled,
+                   enforcement = excluded.enforcement,
+                   soft_limit = excluded.soft_limit,
+                   hard_limit = excluded.hard_limit,
+                   limit_window = excluded.limit_window,
+                   measure_unit = excluded.measure_unit,
+                   overage_enabled = excluded.overage_enabled,
+                   overage_unit_price = excluded.overage_unit_price,
+                   overage_currency = excluded.overage_currency,
+                   effective_from = excluded.effective_from,
+                   effective_to = excluded.effective_to,
+                   source_meta = excluded.source_meta,
+                   updated_at = now()
+             where (entitlement_cache.enabled, entitlement_cache.enforcement, entitlement_cache.soft_limit,
+                    entitlement_cache.hard_limit, entitlement_cache.limit_window, entitlement_cache.measure_unit,
+                    entitlement_cache.overage_enabled, entitlement_cache.overage_unit_price,
+                    entitlement_cache.overage_currency, entitlement_cache.effective_from,
+                    entitlement_cache.effective_to, entitlement_cache.source_meta)
+                   is distinct from
+                   (excluded.enabled, excluded.enforcement, excluded.soft_limit, excluded.hard_limit,
+                    excluded.limit_window, excluded.measure_unit, excluded.overage_enabled,
+                    excluded.overage_unit_price, excluded.overage_currency, excluded.effective_from,
+                    excluded.effective_to, excluded.source_meta)
+            """;
+
+    private static final String DELETE_STALE =
+            "delete from entitlement_cache where subscription_id = ? and not (feature_key = any(?))";
+
+    private static final String SELECT_ACTIVE = """
+            select s.ext_customer_id, e.subscription_id, e.feature_key, e.enabled, e.enforcement, e.soft_limit,
+                   e.hard_limit, e.limit_window, e.measure_unit, e.overage_enabled, e.overage_unit_price,
+                   e.overage_currency, e.effective_from, e.effective_to
+              from entitlement_cache e
+              join subscription s on s.subscription_id = e.subscription_id
+             where s.is_deleted = false
+               and (e.effective_to is null or e.effective_to > now())
+            """;
+
+    private static final String SELECT_ACTIVE_FOR_CUSTOMER = SELECT_ACTIVE + " and s.ext_customer_id = ?";
+
+    private static final RowMapper<EntitlementRow> ROW_MAPPER = (rs, i) -> new EntitlementRow(
+            rs.getLong(1),
+            rs.getLong(2),
+            rs.getString(3),
+            rs.getBoolean(4),
+            rs.getString(5),
+            rs.getBigDecimal(6),
+            rs.getBigDecimal(7),
+            rs.getString(8),
+            rs.getString(9),
+            rs.getBoolean(10),
+            rs.getBigDecimal(11),
+            rs.getString(12),
+            rs.getObject(13, OffsetDateTime.class),
+            rs.getObject(14, OffsetDateTime.class));
+
+    private final JdbcTemplate jdbc;
+
+    public EntitlementCacheBatchRepository(final JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    /**
+     * Makes {@code compiled} the complete entitlement set of {@code subscriptionId}:
+     * upserts every row in one JDBC batch and deletes keys no longer present.
+     */
+    public void replaceForSubscription(final long subscriptionId, final List<EntitlementCache> compiled) {
+        jdbc.batchUpdate(UPSERT, compiled, compiled.size(), (ps, e) -> {
+            ps.setLong(1, subscriptionId);
+            ps.setString(2, e.getFeatureKey());
+            ps.setBoolean(3, Boolean.TRUE.equals(e.getEnabled()));
+            ps.setString(4, e.getEnforcement());
+            ps.setBigDecimal(5, e.getSoftLimit());
+            ps.setBigDecimal(6, e.getHardLimit());
+            ps.setString(7, e.getLimitWindow());
+            ps.setString(8, e.getMeasureUnit());
+            ps.setBoolean(9, Boolean.TRUE.equals(e.getOverageEnabled()));
+            ps.setBigDecimal(10, e.getOverageUnitPrice());
+            ps.setString(11, e.getOverageCurrency());
+            ps.setTimestamp(12, timestamp(e.getEffectiveFrom()));
+            ps.setTimestamp(13, timestamp(e.getEffectiveTo()));
+            ps.setObject(14, e.getSourceMeta(), Types.VARCHAR);
+        });
+        String[] keys = compiled.stream().map(EntitlementCache::getFeatureKey).toArray(String[]::new);
+        jdbc.update(con -> {
+            var ps = con.prepareStatement(DELETE_STALE);
+            ps.setLong(1, subscriptionId);
+            ps.setArray(2, con.createArrayOf("varchar", keys));
+            return ps;
+        });
+    }
+
+    /** Entitlements of all live subscriptions that have not ended yet. */
+    public List<EntitlementRow> findActive() {
+        return jdbc.query(SELECT_ACTIVE, ROW_MAPPER);
+    }
+
+    /** Same as {@link #findActive()} restricted to one customer. */
+    public List<EntitlementRow> findActiveByCustomer(final long extCustomerId) {
+        return jdbc.query(SELECT_ACTIVE_FOR_CUSTOMER, ROW_MAPPER, extCustomerId);
+    }
+
+    private static Timestamp timestamp(final OffsetDateTime t) {
+        return t == null ? null : Timestamp.from(t.withOffsetSameInstant(ZoneOffset.UTC).toInstant());
+    }
+
+    public record EntitlementRow(
+            long extCustomerId,
+            long subscriptionId,
+            String featureKey,
+            boolean enabled,
+            String enforcement,
+            BigDecimal softLimit,
+            BigDecimal hardLimit,
+            String limitWindow,
+            String measureUnit,
+            boolean overageEnabled,
+            BigDecimal overageUnitPrice,
+            String overageCurrency,
+            OffsetDateTime effectiveFrom,
+            OffsetDateTime effectiveTo) {
+    }
+}
@@ -0,0 +1,93 @@
+package com.ejada.subscription.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Types;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * JDBC batch access to the inbound audit and outbox tables for bulk notification replays:
+ * one lookup for the whole batch, and one batched insert or single update per chunk.
+ */
+@Repository
+public class InboundBatchRepository {
+
+    private static final String FIND_STATUSES =
+            "select rq_uid, status_code from inbound_notification_audit where endpoint = ? and rq_uid = any(?)";
+
+    private static final String INSERT_AUDIT =
+            "insert into inbound_notification_audit (rq_uid, endpoint, token_hash, payload) values (?, ?, ?, ?::jsonb)";
+
+    private static final String MARK_PROCESSED = """
+            update inbound_notification_audit
+               set processed = true, processed_at = now(), status_code = ?, status_desc = ?
+             where endpoint = ?
+               and rq_uid = any(?)
+            """;
+
+    private static final String INSERT_OUTBOX =
+            "insert into outbox_event (aggregate_type, aggregate_id, event_type, payload) values (?, ?, ?, ?::jsonb)";
+
+    private final JdbcTemplate jdbc;
+
+    public InboundBatchRepository(final JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    /** Status codes of the audit rows already recorded for {@code rqUids} (null while in flight). */
+    public Map<UUID, String> findStatuses(final String endpoint, final Collection<UUID> rqUids) {
+        Map<UUID, String> statuses = new HashMap<>();
+        if (rqUids.isEmpty()) {
+            return statuses;
+        }
+        jdbc.query(con -> {
+            var ps = con.prepareStatement(FIND_STATUSES);
+            ps.setString(1, endpoint);
+            ps.setArray(2, con.createArrayOf("uuid", rqUids.toArray()));
+            return ps;
+        }, rs -> {
+            statuses.put(rs.getObject(1, UUID.class), rs.getString(2));
+        });
+        return statuses;
+    }
+
+    public void insertAudits(final String endpoint, final List<AuditRow> rows) {
+        jdbc.batchUpdate(INSERT_AUDIT, rows, rows.size(), (ps, row) -> {
+            ps.setObject(1, row.rqUid());
+            ps.setString(2, endpoint);
+            ps.setString(3, row.tokenHash());
+            ps.setObject(4, row.payload(), Types.VARCHAR);
+        });
+    }
+
+    public int markProcessed(final String endpoint, final List<UUID> rqUids, final String code, final String desc) {
+        return jdbc.update(con -> {
+            var ps = con.prepareStatement(MARK_PROCESSED);
+            ps.setString(1, code);
+            ps.setString(2, desc);
+            ps.setString(3, endpoint);
+            ps.setArray(4, con.createArrayOf("uuid", rqUids.toArray()));
+            return ps;
+        });
+    }
+
+    public void insertOutbox(final List<OutboxRow> rows) {
+        jdbc.batchUpdate(INSERT_OUTBOX, rows, rows.size(), (ps, row) -> {
+            ps.setString(1, row.aggregateType());
+            ps.setString(2, row.aggregateId());
+            ps.setString(3, row.eventType());
+            ps.setObject(4, row.payload(), Types.VARCHAR);
+        });
+    }
+
+    public record AuditRow(UUID rqUid, String tokenHash, String payload) {
+    }
+
+    public record OutboxRow(String aggregateType, String aggregateId, String eventType, String payload) {
+    }
+}
@@ -0,0 +1,207 @@
+package com.ejada.subscription.repository;
+
+import com.ejada.starter_data.reconcile.KeyedReconciler;
+import com.ejada.starter_data.reconcile.ReconcileResult;
+import com.ejada.subscription.model.SubscriptionAdditionalService;
+import com.ejada.subscription.model.SubscriptionFeature;
+import com.ejada.subscription.model.SubscriptionProductProperty;
+import com.ejada.subscription.model.YesNoBooleanConverter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Keyed reconciliation of a subscription's child collections. Persisted rows are read
+ * with plain JDBC (outside the persistence context) and compared with the incoming
+ * set by natural key, so a notification that repeats the current state writes nothing:
+ * <ul>
+ *   <li>features by {@code feature_cd};</li>
+ *   <li>additional services by {@code product_additional_service_id};</li>
+ *   <li>product properties by {@code property_cd}.</li>
+ * </ul>
+ */
+@Repository
+public class SubscriptionChildrenRepository {
+
+    private static final YesNoBooleanConverter YES_NO = new YesNoBooleanConverter();
+    private static final int AMOUNT_SCALE = 4;
+
+    private static final KeyedReconciler<String, SubscriptionFeature, SubscriptionFeature> FEATURES =
+            KeyedReconciler.<String, SubscriptionFeature, SubscriptionFeature>builder(
+                            SubscriptionFeature::getFeatureCd, SubscriptionFeature::getFeatureCd)
+                    .unchangedWhen((cur, in) -> Objects.equals(cur.getFeatureCount(), in.getFeatureCount()))
+                    .insert("insert into subscription_feature (subscription_id, feature_cd, feature_count) values (?, ?, ?)",
+                            (ps, in) -> {
+                                ps.setLong(1, in.getSubscription().getSubscriptionId());
+                                ps.setString(2, in.getFeatureCd());
+                                ps.setObject(3, in.getFeatureCount(), Types.INTEGER);
+                            })
+                    .update("update subscription_feature set feature_count = ?, updated_at = now()"
+                                    + " where subscription_feature_id = ?",
+                            (ps, c) -> {
+                                ps.setObject(1, c.incoming().getFeatureCount(), Types.INTEGER);
+                                ps.setLong(2, c.current().getSubscriptionFeatureId());
+                            })
+                    .delete("delete from subscription_feature where subscription_feature_id = ?",
+                            (ps, cur) -> ps.setLong(1, cur.getSubscriptionFeatureId()))
+                    .build();
+
+    private static final KeyedReconciler<Long, SubscriptionAdditionalService, SubscriptionAdditionalService> SERVICES =
+            KeyedReconciler.<Long, SubscriptionAdditionalService, SubscriptionAdditionalService>builder(
+                            SubscriptionAdditionalService::getProductAdditionalServiceId,
+                            SubscriptionAdditionalService::getProductAdditionalServiceId)
+                    .unchangedWhen(SubscriptionChildrenRepository::sameService)
+                    .insert("""
+                            insert into subscription_additional_service
+                                   (service_cd, service_name_en, service_name_ar, service_desc_en, service_desc_ar,
+                                    service_price, total_amount, currency, is_countable, requested_count,
+                                    payment_type_cd, subscription_id, product_additional_service_id)
+                            values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+                            """,
+                            (ps, in) -> {
+                                bindService(ps, in);
+                                ps.setLong(12, in.getSubscription().getSubscriptionId());
+                                ps.setLong(13, in.getProductAdditionalServiceId());
+                            })
+                    .update("""
+                            update subscription_additional_service
+                               set service_cd = ?, service_name_en = ?, service_name_ar = ?, service_desc_en = ?,
+                                   service_desc_ar = ?, service_price = ?, total_amount = ?, currency = ?,
+                                   is_countable = ?, requested_count = ?, payment_type_cd = ?, updated_at = now()
+                             where subscription_additional_service_id = ?
+                            """,
+                            (ps, c) -> {
+                                bindService(ps, c.incoming());
+                                ps.setLong(12, c.current().getSubscriptionAdditionalServiceId());
+                            })
+                    .delete("delete from subscription_additional_service where subscription_additional_service_id = ?",
+                            (ps, cur) -> ps.setLong(1, cur.getSubscriptionAdditionalServiceId()))
+                    .build();
+
+    private static final KeyedReconciler<String, SubscriptionProductProperty, SubscriptionProductProperty> PROPERTIES =
+            KeyedReconciler.<String, SubscriptionProductProperty, SubscriptionProductProperty>builder(
+                            SubscriptionProductProperty::getPropertyCd, SubscriptionProductProperty::getPropertyCd)
+                    .unchangedWhen((cur, in) -> Objects.equals(cur.getPropertyValue(), in.getPropertyValue()))
+                    .insert("insert into subscription_product_property (subscription_id, property_cd, property_value)"
+                                    + " values (?, ?, ?)",
+                            (ps, in) -> {
+                                ps.setLong(1, in.getSubscription().getSubscriptionId());
+                                ps.setString(2, in.getPropertyCd());
+                                ps.setString(3, in.getPropertyValue());
+                            })
+                    .update("update subscription_product_property set property_value = ?"
+                                    + " where subscription_product_property_id = ?",
+                            (ps, c) -> {
+                                ps.setString(1, c.incoming().getPropertyValue());
+                                ps.setLong(2, c.current().getSubscriptionProductPropertyId());
+                            })
+                    .delete("delete from subscription_product_property where subscription_product_property_id = ?",
+                            (ps, cur) -> ps.setLong(1, cur.getSubscriptionProductPropertyId()))
+                    .build();
+
+    private final JdbcTemplate jdbc;
+
+    public SubscriptionChildrenRepository(final JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    public ReconcileResult reconcileFeatures(final long subscriptionId, final List<SubscriptionFeature> incoming) {
+        List<SubscriptionFeature> current = jdbc.query(
+                "select subscription_feature_id, feature_cd, feature_count from subscription_feature where subscription_id = ?",
+                (rs, i) -> {
+                    SubscriptionFeature f = SubscriptionFeature.ref(rs.getLong(1));
+                    f.setFeatureCd(rs.getString(2));
+                    f.setFeatureCount(rs.getObject(3, Integer.class));
+                    return f;
+                },
+                subscriptionId);
+        return FEATURES.reconcile(jdbc, current, incoming);
+    }
+
+    public ReconcileResult reconcileAdditionalServices(final long subscriptionId,
+                                                       final List<SubscriptionAdditionalService> incoming) {
+        List<SubscriptionAdditionalService> current = jdbc.query("""
+                select subscription_additional_service_id, product_additional_service_id, service_cd,
+                       service_name_en, service_name_ar, service_desc_en, service_desc_ar, service_price,
+                       total_amount, currency, is_countable, requested_count, payment_type_cd
+                  from subscription_additional_service
+                 where subscription_id = ?
+                """,
+                (rs, i) -> {
+                    SubscriptionAdditionalService s = SubscriptionAdditionalService.ref(rs.getLong(1));
+                    s.setProductAdditionalServiceId(rs.getLong(2));
+                    s.setServiceCd(rs.getString(3));
+                    s.setServiceNameEn(rs.getString(4));
+                    s.setServiceNameAr(rs.getString(5));
+                    s.setServiceDescEn(rs.getString(6));
+                    s.setServiceDescAr(rs.getString(7));
+                    s.setServicePrice(rs.getBigDecimal(8));
+                    s.setTotalAmount(rs.getBigDecimal(9));
+                    s.setCurrency(rs.getString(10));
+                    s.setIsCountable(YES_NO.convertToEntityAttribute(rs.getString(11)));
+                    s.setRequestedCount(rs.getObject(12, Long.class));
+                    s.setPaymentTypeCd(rs.getString(13));
+                    return s;
+                },
+                subscriptionId);
+        return SERVICES.reconcile(jdbc, current, incoming);
+    }
+
+    public ReconcileResult reconcileProductProperties(final long subscriptionId,
+                                                      final List<SubscriptionProductProperty> incoming) {
+        List<SubscriptionProductProperty> current = jdbc.query(
+                "select subscription_product_property_id, property_cd, property_value"
+                        + " from subscription_product_property where subscription_id = ?",
+                (rs, i) -> {
+                    SubscriptionProductProperty p = SubscriptionProductProperty.ref(rs.getLong(1));
+                    p.setPropertyCd(rs.getString(2));
+                    p.setPropertyValue(rs.getString(3));
+                    return p;
+                },
+                subscriptionId);
+        return PROPERTIES.reconcile(jdbc, current, incoming);
+    }
+
+    private static void bindService(final PreparedStatement ps, final SubscriptionAdditionalService s)
+            throws SQLException {
+        ps.setString(1, s.getServiceCd());
+        ps.setString(2, s.getServiceNameEn());
+        ps.setString(3, s.getServiceNameAr());
+        ps.setString(4, s.getServiceDescEn());
+        ps.setString(5, s.getServiceDescAr());
+        ps.setBigDecimal(6, s.getServicePrice());
+        ps.setBigDecimal(7, s.getTotalAmount());
+        ps.setString(8, s.getCurrency());
+        ps.setString(9, YES_NO.convertToDatabaseColumn(s.getIsCountable()));
+        ps.setObject(10, s.getRequestedCount(), Types.BIGINT);
+        ps.setString(11, s.getPaymentTypeCd());
+    }
+
+    private static boolean sameService(final SubscriptionAdditionalService a, final SubscriptionAdditionalService b) {
+        return Objects.equals(a.getServiceCd(), b.getServiceCd())
+                && Objects.equals(a.getServiceNameEn(), b.getServiceNameEn())
+                && Objects.equals(a.getServiceNameAr(), b.getServiceNameAr())
+                && Objects.equals(a.getServiceDescEn(), b.getServiceDescEn())
+                && Objects.equals(a.getServiceDescAr(), b.getServiceDescAr())
+                && sameAmount(a.getServicePrice(), b.getServicePrice())
+                && sameAmount(a.getTotalAmount(), b.getTotalAmount())
+                && Objects.equals(a.getCurrency(), b.getCurrency())
+                && Boolean.TRUE.equals(a.getIsCountable()) == Boolean.TRUE.equals(b.getIsCountable())
+                && Objects.equals(a.getRequestedCount(), b.getRequestedCount())
+                && Objects.equals(a.getPaymentTypeCd(), b.getPaymentTypeCd());
+    }
+
+    /* Amounts are stored as numeric(18,4); compare at that scale so rounding is not a change. */
+    private static boolean sameAmount(final BigDecimal a, final BigDecimal b) {
+        return a == null ? b == null
+                : b != null && a.setScale(AMOUNT_SCALE, RoundingMode.HALF_UP)
+                        .compareTo(b.setScale(AMOUNT_SCALE, RoundingMode.HALF_UP)) == 0;
+    }
+}
@@ -0,0 +1,92 @@
+package com.ejada.subscription.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Set-based expiry of lapsed subscriptions for the lifecycle sweeper. Each chunk is one
+ * {@code UPDATE ... RETURNING} over a keyset page of {@code (end_dt, subscription_id)},
+ * served by {@code idx_sub_active_end_dt}. Only ACTIVE and SUSPENDED rows lapse; the
+ * predicate matches the index's, so CANCELED and EXPIRED rows are neither read nor indexed.
+ */
+@Repository
+public class SubscriptionExpiryRepository {
+
+    private static final String EXPIRE_CHUNK = """
+            WITH due AS (
+                SELECT subscription_id
+                  FROM subscription
+                 WHERE is_deleted = false
+                   AND subscription_stts_cd IN ('ACTIVE', 'SUSPENDED')
+                   AND end_dt < ?
+                   AND (end_dt, subscription_id) > (?, ?)
+                 ORDER BY end_dt, subscription_id
+                 LIMIT ?
+                   FOR UPDATE SKIP LOCKED
+            )
+            UPDATE subscription s
+               SET subscription_stts_cd = 'EXPIRED',
+                   updated_at = now(),
+                   updated_by = ?
+              FROM due
+             WHERE s.subscription_id = due.subscription_id
+            RETURNING s.subscription_id, s.ext_subscription_id, s.ext_customer_id, s.end_dt
+            """;
+
+    private static final String DISABLE_ENTITLEMENTS = """
+            UPDATE entitlement_cache
+               SET enabled = false, updated_at = now()
+             WHERE subscription_id = any(?)
+               AND enabled
+            """;
+
+    private final JdbcTemplate jdbc;
+
+    public SubscriptionExpiryRepository(final JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    /**
+     * Marks up to {@code limit} subscriptions that ended before {@code today} and sort after
+     * {@code after} as EXPIRED; rows locked by concurrent writers are skipped.
+     */
+    public List<ExpiredSubscription> expireChunk(final LocalDate today, final Cursor after, final int limit,
+                                                 final String actor) {
+        return jdbc.query(EXPIRE_CHUNK,
+                (rs, i) -> new ExpiredSubscription(
+                        rs.getLong(1), rs.getLong(2), rs.getLong(3), rs.getObject(4, LocalDate.class)),
+                Date.valueOf(today), Date.valueOf(after.endDt()), after.subscriptionId(), limit, actor);
+    }
+
+    /** Disables the compiled entitlements of the given subscriptions. */
+    public int disableEntitlements(final List<Long> subscriptionIds) {
+        if (subscriptionIds.isEmpty()) {
+            return 0;
+        }
+        return jdbc.update(con -> {
+            var ps = con.prepareStatement(DISABLE_ENTITLEMENTS);
+            ps.setArray(1, con.createArrayOf("bigint", subscriptionIds.toArray()));
+            return ps;
+        });
+    }
+
+    public record ExpiredSubscription(long subscriptionId, long extSubscriptionId, long extCustomerId,
+                                      LocalDate endDt) {
+    }
+
+    /** Keyset position: the last {@code (end_dt, subscription_id)} already visited. */
+    public record Cursor(LocalDate endDt, long subscriptionId) {
+
+        public static final Cursor START = new Cursor(LocalDate.of(1900, 1, 1), 0L);
+
+        public Cursor max(final ExpiredSubscription s) {
+            int cmp = s.endDt().compareTo(endDt);
+            return cmp > 0 || (cmp == 0 && s.subscriptionId() > subscriptionId)
+                    ? new Cursor(s.endDt(), s.subscriptionId()) : this;
+        }
+    }
+}
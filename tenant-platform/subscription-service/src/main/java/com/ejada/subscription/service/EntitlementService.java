@@ -0,0 +1,21 @@
+package com.ejada.subscription.service;
+
+import com.ejada.subscription.dto.EntitlementDecision;
+
+import java.math.BigDecimal;
+
+public interface EntitlementService {
+
+    /**
+     * Decides whether {@code amount} units of {@code featureKey} are within the customer's
+     * entitlement. {@code amount} is the usage total for the limit window including the
+     * request; {@code null} checks only that the feature is granted.
+     */
+    EntitlementDecision checkEntitlement(Long extCustomerId, String featureKey, BigDecimal amount);
+
+    /** Version of the snapshot decisions are currently served from. */
+    long snapshotVersion();
+
+    /** Reloads the entitlements of every customer from {@code entitlement_cache}. */
+    void reload();
+}
@@ -0,0 +1,4 @@
+package com.ejada.subscription.service;
+
+/** Published when a customer's compiled entitlements were rewritten. */
+public record EntitlementsChangedEvent(Long extCustomerId) { }
@@ -0,0 +1,16 @@
+package com.ejada.subscription.service;
+
+import com.ejada.subscription.dto.BulkNotificationItem;
+import com.ejada.subscription.dto.BulkNotificationRs;
+import com.ejada.subscription.dto.ServiceResult;
+
+import java.util.List;
+
+public interface SubscriptionBulkInboundService {
+
+    /**
+     * Applies a replay of subscription notifications, skipping rqUIDs already received,
+     * and reports one result per item in request order.
+     */
+    ServiceResult<BulkNotificationRs> receiveSubscriptionNotifications(List<BulkNotificationItem> items);
+}
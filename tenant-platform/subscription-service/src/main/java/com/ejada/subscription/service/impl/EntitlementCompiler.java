@@ -0,0 +1,221 @@
+package com.ejada.subscription.service.impl;
+
+import com.ejada.subscription.model.EntitlementCache;
+import com.ejada.subscription.model.Subscription;
+import com.ejada.subscription.model.SubscriptionAdditionalService;
+import com.ejada.subscription.model.SubscriptionFeature;
+import com.ejada.subscription.model.SubscriptionProductProperty;
+import com.ejada.subscription.repository.EntitlementCacheBatchRepository;
+import com.ejada.subscription.repository.SubscriptionAdditionalServiceRepository;
+import com.ejada.subscription.repository.SubscriptionFeatureRepository;
+import com.ejada.subscription.repository.SubscriptionProductPropertyRepository;
+import com.ejada.subscription.service.EntitlementsChangedEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Derives the per-feature entitlements of a subscription and stores them in
+ * {@code entitlement_cache}.
+ *
+ * <p>Sources, later ones overriding earlier ones for the same key:</p>
+ * <ol>
+ *   <li>subscription limits as {@code USERS}, {@code TRANSACTIONS} and {@code BALANCE};</li>
+ *   <li>subscription features by {@code feature_cd}, limited to {@code feature_count} when set;</li>
+ *   <li>additional services by {@code service_cd}, limited to {@code requested_count} when countable;</li>
+ *   <li>product properties named {@code entitlement.<featureKey>.<attribute>} with attributes
+ *       {@code enforcement}, {@code soft-limit}, {@code hard-limit}, {@code limit-window},
+ *       {@code overage-unit-price} and {@code overage-currency}.</li>
+ * </ol>
+ *
+ * <p>Entitlements are effective from the start date to the end of the end date (UTC) and are
+ * compiled disabled while the subscription is suspended, cancelled, expired or deleted.</p>
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class EntitlementCompiler {
+
+    static final String USERS = "USERS";
+    static final String TRANSACTIONS = "TRANSACTIONS";
+    static final String BALANCE = "BALANCE";
+
+    private static final String PROPERTY_PREFIX = "entitlement.";
+    private static final int FEATURE_KEY_LENGTH = 96;
+    private static final Set<String> INACTIVE_STATUSES = Set.of("SUSPENDED", "CANCELED", "EXPIRED");
+
+    private final SubscriptionFeatureRepository featureRepo;
+    private final SubscriptionAdditionalServiceRepository additionalServiceRepo;
+    private final SubscriptionProductPropertyRepository propertyRepo;
+    private final EntitlementCacheBatchRepository entitlementRepo;
+    private final ApplicationEventPublisher events;
+
+    @SuppressFBWarnings("EI_EXPOSE_REP2")
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Recompiles and stores the entitlements of {@code sub}; call inside the transaction
+     * that changed the subscription. Snapshots refresh once it commits.
+     */
+    public void compile(final Subscription sub) {
+        Long id = sub.getSubscriptionId();
+        List<EntitlementCache> compiled = compile(sub,
+                featureRepo.findBySubscriptionSubscriptionId(id),
+                additionalServiceRepo.findBySubscriptionSubscriptionId(id),
+                propertyRepo.findBySubscriptionSubscriptionId(id));
+        entitlementRepo.replaceForSubscription(id, compiled);
+        events.publishEvent(new EntitlementsChangedEvent(sub.getExtCustomerId()));
+    }
+
+    List<EntitlementCache> compile(final Subscription sub,
+                                   final List<SubscriptionFeature> features,
+                                   final List<SubscriptionAdditionalService> services,
+                                   final List<SubscriptionProductProperty> properties) {
+        Map<String, EntitlementCache> byKey = new LinkedHashMap<>();
+
+        limit(byKey, sub, USERS, "USER", sub.getUnlimitedUsersFlag(), decimal(sub.getUsersLimit()),
+                sub.getUsersLimitResetType());
+        limit(byKey, sub, TRANSACTIONS, "TRANSACTION", sub.getUnlimitedTransFlag(),
+                decimal(sub.getTransactionsLimit()), sub.getTransLimitResetType());
+        limit(byKey, sub, BALANCE, "AMOUNT", Boolean.FALSE, sub.getBalanceLimit(), sub.getBalanceLimitResetType());
+
+        for (SubscriptionFeature f : features) {
+            BigDecimal count = decimal(f.getFeatureCount());
+            put(byKey, entry(sub, f.getFeatureCd(), count, null, count == null ? null : "UNIT",
+                    meta("FEATURE", f.getFeatureCd())));
+        }
+
+        for (SubscriptionAdditionalService s : services) {
+            boolean countable = Boolean.TRUE.equals(s.getIsCountable());
+            BigDecimal count = countable ? decimal(s.getRequestedCount()) : null;
+            EntitlementCache e = entry(sub, s.getServiceCd(), count, null, count == null ? null : "UNIT",
+                    meta("ADDITIONAL_SERVICE", s.getServiceCd()));
+            e.setOverageUnitPrice(s.getServicePrice());
+            e.setOverageCurrency(s.getCurrency());
+            put(byKey, e);
+        }
+
+        Map<String, Map<String, String>> overrides = new LinkedHashMap<>();
+        for (SubscriptionProductProperty p : properties) {
+            String cd = p.getPropertyCd();
+            int dot = cd == null ? -1 : cd.lastIndexOf('.');
+            if (cd != null && cd.startsWith(PROPERTY_PREFIX) && dot > PROPERTY_PREFIX.length()) {
+                overrides.computeIfAbsent(cd.substring(PROPERTY_PREFIX.length(), dot), k -> new LinkedHashMap<>())
+                        .put(cd.substring(dot + 1).toLowerCase(Locale.ROOT), p.getPropertyValue());
+            }
+        }
+        overrides.forEach((key, attributes) -> applyOverrides(byKey, sub, key, attributes));
+
+        List<EntitlementCache> out = new ArrayList<>(byKey.values());
+        for (EntitlementCache e : out) {
+            e.setOverageEnabled(EntitlementSnapshot.ALLOW_WITH_OVERAGE.equals(e.getEnforcement())
+                    && e.getOverageUnitPrice() != null);
+        }
+        return out;
+    }
+
+    private void limit(final Map<String, EntitlementCache> byKey, final Subscription sub, final String key,
+                       final String unit, final Boolean unlimited, final BigDecimal limit, final String window) {
+        if (Boolean.TRUE.equals(unlimited)) {
+            put(byKey, entry(sub, key, null, window, unit, meta("SUBSCRIPTION", key)));
+        } else if (limit != null) {
+            put(byKey, entry(sub, key, limit, window, unit, meta("SUBSCRIPTION", key)));
+        }
+    }
+
+    private EntitlementCache entry(final Subscription sub, final String key, final BigDecimal hardLimit,
+                                   final String window, final String unit, final String sourceMeta) {
+        EntitlementCache e = new EntitlementCache();
+        e.setSubscription(sub);
+        e.setFeatureKey(key);
+        e.setEnabled(isActive(sub));
+        e.setEnforcement(hardLimit == null ? EntitlementSnapshot.ALLOW : EntitlementSnapshot.BLOCK);
+        e.setHardLimit(hardLimit);
+        e.setLimitWindow(window);
+        e.setMeasureUnit(unit);
+        e.setEffectiveFrom(sub.getStartDt().atStartOfDay().atOffset(ZoneOffset.UTC));
+        e.setEffectiveTo(sub.getEndDt() == null ? null
+                : sub.getEndDt().plusDays(1).atStartOfDay().atOffset(ZoneOffset.UTC));
+        e.setSourceMeta(sourceMeta);
+        return e;
+    }
+
+    private void put(final Map<String, EntitlementCache> byKey, final EntitlementCache e) {
+        String key = e.getFeatureKey();
+        if (key == null || key.isBlank() || key.length() > FEATURE_KEY_LENGTH) {
+            log.warn("Skipping entitlement with invalid key '{}' for subscription {}",
+                    key, e.getSubscription().getSubscriptionId());
+            return;
+        }
+        byKey.put(key, e);
+    }
+
+    private void applyOverrides(final Map<String, EntitlementCache> byKey, final Subscription sub,
+                                final String key, final Map<String, String> attributes) {
+        EntitlementCache e = byKey.get(key);
+        if (e == null) {
+            e = entry(sub, key, null, null, null, meta("PRODUCT_PROPERTY", key));
+            put(byKey, e);
+        }
+        for (Map.Entry<String, String> attribute : attributes.entrySet()) {
+            String value = attribute.getValue() == null ? "" : attribute.getValue().trim();
+            try {
+                switch (attribute.getKey()) {
+                    case "enforcement" -> e.setEnforcement(enforcement(value));
+                    case "soft-limit" -> e.setSoftLimit(new BigDecimal(value));
+                    case "hard-limit" -> e.setHardLimit(new BigDecimal(value));
+                    case "limit-window" -> e.setLimitWindow(value);
+                    case "overage-unit-price" -> e.setOverageUnitPrice(new BigDecimal(value));
+                    case "overage-currency" -> e.setOverageCurrency(value);
+                    default -> log.warn("Unknown entitlement attribute {}{}.{} on subscription {}",
+                            PROPERTY_PREFIX, key, attribute.getKey(), sub.getSubscriptionId());
+                }
+            } catch (IllegalArgumentException ex) {
+                log.warn("Ignoring invalid entitlement property {}{}.{}='{}' on subscription {}",
+                        PROPERTY_PREFIX, key, attribute.getKey(), value, sub.getSubscriptionId());
+            }
+        }
+        // A priced overage without an explicit enforcement means the limit may be exceeded.
+        if (!attributes.containsKey("enforcement") && attributes.containsKey("overage-unit-price")
+                && e.getOverageUnitPrice() != null) {
+            e.setEnforcement(EntitlementSnapshot.ALLOW_WITH_OVERAGE);
+        }
+    }
+
+    private static String enforcement(final String value) {
+        String v = value.trim().toUpperCase(Locale.ROOT);
+        return switch (v) {
+            case EntitlementSnapshot.ALLOW, EntitlementSnapshot.BLOCK, EntitlementSnapshot.ALLOW_WITH_OVERAGE -> v;
+            default -> throw new IllegalArgumentException("enforcement " + value);
+        };
+    }
+
+    private static boolean isActive(final Subscription sub) {
+        return !Boolean.TRUE.equals(sub.getIsDeleted())
+                && (sub.getSubscriptionSttsCd() == null || !INACTIVE_STATUSES.contains(sub.getSubscriptionSttsCd()));
+    }
+
+    private String meta(final String source, final String code) {
+        try {
+            return objectMapper.writeValueAsString(Map.of("source", source, "code", String.valueOf(code)));
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private static BigDecimal decimal(final Number n) {
+        return n == null ? null : BigDecimal.valueOf(n.longValue());
+    }
+}
@@ -0,0 +1,152 @@
+package com.ejada.subscription.service.impl;
+
+import com.ejada.redis.starter.config.KeyPrefixStrategy;
+import com.ejada.redis.starter.support.RedisPubSubListener;
+import com.ejada.subscription.dto.EntitlementDecision;
+import com.ejada.subscription.repository.EntitlementCacheBatchRepository;
+import com.ejada.subscription.service.EntitlementService;
+import com.ejada.subscription.service.EntitlementsChangedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Serves entitlement checks from an in-memory {@link EntitlementSnapshot}.
+ *
+ * <p>The snapshot is loaded at startup and rebuilt periodically as a safety net. Committed
+ * recompilations reload only the affected customer, locally and — via Redis pub/sub — on
+ * every other instance. Each swap bumps the snapshot version reported with decisions.</p>
+ *
+ * <p>Reads run outside the swap lock, so every read takes a sequence number before it
+ * starts and a swap is dropped when a read started later already published that
+ * customer. A full reload re-applies the customers reloaded while it was reading, so a
+ * slow full read never overwrites a newer per-customer swap.</p>
+ */
+@Service
+@Slf4j
+public class EntitlementServiceImpl extends RedisPubSubListener implements EntitlementService {
+
+    private static final String ALL = "*";
+
+    private final EntitlementCacheBatchRepository repo;
+    private final StringRedisTemplate redis;
+    private final String channel;
+    private final AtomicLong versions = new AtomicLong();
+    private final AtomicLong reads = new AtomicLong();
+    /** Read sequence of the last full reload published. Guarded by {@code this}. */
+    private long fullRead;
+    /** Read sequence of each customer reload published since the last full reload. Guarded by {@code this}. */
+    private final Map<Long, Long> customerReads = new HashMap<>();
+    private volatile EntitlementSnapshot snapshot = EntitlementSnapshot.EMPTY;
+
+    public EntitlementServiceImpl(final EntitlementCacheBatchRepository repo,
+                                  final StringRedisTemplate redis,
+                                  final KeyPrefixStrategy keyPrefixStrategy,
+                                  @Value("${subscription.entitlements.channel:entitlements:changed}")
+                                  final String channel) {
+        this.repo = repo;
+        this.redis = redis;
+        this.channel = keyPrefixStrategy.resolvePrefix() + channel;
+    }
+
+    public String channel() {
+        return channel;
+    }
+
+    @Override
+    public EntitlementDecision checkEntitlement(final Long extCustomerId, final String featureKey,
+                                                final BigDecimal amount) {
+        return snapshot.check(extCustomerId, featureKey, amount, OffsetDateTime.now());
+    }
+
+    @Override
+    public long snapshotVersion() {
+        return snapshot.version();
+    }
+
+    @Override
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(
+            initialDelayString = "${subscription.entitlements.refresh-interval:PT5M}",
+            fixedDelayString = "${subscription.entitlements.refresh-interval:PT5M}")
+    public void reload() {
+        try {
+            long read = reads.incrementAndGet();
+            var rows = repo.findActive();
+            synchronized (this) {
+                if (read < fullRead) {
+                    return;
+                }
+                long version = versions.incrementAndGet();
+                List<Long> newer = new ArrayList<>();
+                customerReads.entrySet().removeIf(e -> {
+                    if (e.getValue() < read) {
+                        return true;
+                    }
+                    newer.add(e.getKey());
+                    return false;
+                });
+                fullRead = read;
+                snapshot = EntitlementSnapshot.of(version, rows).withCustomersOf(version, snapshot, newer);
+            }
+            log.debug("Loaded entitlement snapshot v{} for {} customers", snapshot.version(), snapshot.customerCount());
+        } catch (DataAccessException ex) {
+            log.warn("Entitlement snapshot reload failed, serving v{}: {}", snapshot.version(), ex.getMessage());
+        }
+    }
+
+    void reload(final long extCustomerId) {
+        try {
+            long read = reads.incrementAndGet();
+            var rows = repo.findActiveByCustomer(extCustomerId);
+            synchronized (this) {
+                if (read < fullRead || read < customerReads.getOrDefault(extCustomerId, 0L)) {
+                    return;
+                }
+                customerReads.put(extCustomerId, read);
+                snapshot = snapshot.withCustomer(versions.incrementAndGet(), extCustomerId, rows);
+            }
+        } catch (DataAccessException ex) {
+            log.warn("Entitlement reload for customer {} failed: {}", extCustomerId, ex.getMessage());
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onEntitlementsChanged(final EntitlementsChangedEvent event) {
+        String payload = event.extCustomerId() == null ? ALL : event.extCustomerId().toString();
+        if (event.extCustomerId() == null) {
+            reload();
+        } else {
+            reload(event.extCustomerId());
+        }
+        try {
+            redis.convertAndSend(channel, payload);
+        } catch (DataAccessException ex) {
+            log.warn("Failed to broadcast entitlement change for customer {}: {}", payload, ex.getMessage());
+        }
+    }
+
+    @Override
+    public void handle(final String topic, final String payload) {
+        try {
+            reload(Long.parseLong(payload));
+        } catch (NumberFormatException ex) {
+            reload();
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.ejada.subscription.service.impl;
+
+import com.ejada.subscription.dto.EntitlementDecision;
+import com.ejada.subscription.dto.EntitlementDecision.Outcome;
+import com.ejada.subscription.repository.EntitlementCacheBatchRepository.EntitlementRow;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable, versioned view of the compiled entitlements keyed by customer and feature.
+ * Lookups are two hash probes plus a scan of the (almost always single) subscriptions
+ * granting the feature; updates build a new instance that is swapped in atomically.
+ *
+ * <p>Customers are spread over {@value #SHARDS} immutable shards, so replacing one
+ * customer copies only its shard and the shard table rather than every customer.</p>
+ */
+final class EntitlementSnapshot {
+
+    static final int SHARDS = 64;
+    private static final int SHARD_SHIFT = Integer.SIZE - Integer.numberOfTrailingZeros(SHARDS);
+
+    static final EntitlementSnapshot EMPTY = new EntitlementSnapshot(0, emptyShards(), 0);
+
+    static final String ALLOW = "ALLOW";
+    static final String BLOCK = "BLOCK";
+    static final String ALLOW_WITH_OVERAGE = "ALLOW_WITH_OVERAGE";
+
+    /* Latest-starting grant first, so a renewal overlapping its predecessor wins. */
+    private static final Comparator<EntitlementRow> NEWEST_FIRST =
+            Comparator.comparing(EntitlementRow::effectiveFrom, Comparator.nullsLast(Comparator.reverseOrder()));
+
+    private final long version;
+    private final Map<Long, Map<String, EntitlementRow[]>>[] shards;
+    private final int customerCount;
+
+    private EntitlementSnapshot(final long version, final Map<Long, Map<String, EntitlementRow[]>>[] shards,
+                                final int customerCount) {
+        this.version = version;
+        this.shards = shards;
+        this.customerCount = customerCount;
+    }
+
+    static EntitlementSnapshot of(final long version, final List<EntitlementRow> rows) {
+        Map<Long, List<EntitlementRow>> grouped = new HashMap<>();
+        for (EntitlementRow row : rows) {
+            grouped.computeIfAbsent(row.extCustomerId(), k -> new ArrayList<>()).add(row);
+        }
+        Map<Long, Map<String, EntitlementRow[]>>[] shards = emptyShards();
+        grouped.forEach((customer, customerRows) -> {
+            int shard = shard(customer);
+            if (shards[shard].isEmpty()) {
+                shards[shard] = new HashMap<>();
+            }
+            shards[shard].put(customer, index(customerRows));
+        });
+        return new EntitlementSnapshot(version, shards, grouped.size());
+    }
+
+    /** Copy of this snapshot with one customer's entitlements replaced by {@code rows}. */
+    EntitlementSnapshot withCustomer(final long newVersion, final long extCustomerId, final List<EntitlementRow> rows) {
+        return with(newVersion, extCustomerId, rows.isEmpty() ? null : index(rows));
+    }
+
+    /** Copy of this snapshot with the given customers' entitlements taken from {@code source}. */
+    EntitlementSnapshot withCustomersOf(final long newVersion, final EntitlementSnapshot source,
+                                        final Collection<Long> extCustomerIds) {
+        EntitlementSnapshot result = this;
+        for (Long customer : extCustomerIds) {
+            result = result.with(newVersion, customer, source.shards[shard(customer)].get(customer));
+        }
+        return result;
+    }
+
+    private EntitlementSnapshot with(final long newVersion, final long extCustomerId,
+                                     final Map<String, EntitlementRow[]> features) {
+        int shard = shard(extCustomerId);
+        Map<Long, Map<String, EntitlementRow[]>> copy = new HashMap<>(shards[shard]);
+        Map<String, EntitlementRow[]> previous = features == null
+                ? copy.remove(extCustomerId)
+                : copy.put(extCustomerId, features);
+        Map<Long, Map<String, EntitlementRow[]>>[] table = shards.clone();
+        table[shard] = copy;
+        int count = customerCount + (features == null ? 0 : 1) - (previous == null ? 0 : 1);
+        return new EntitlementSnapshot(newVersion, table, count);
+    }
+
+    long version() {
+        return version;
+    }
+
+    int customerCount() {
+        return customerCount;
+    }
+
+    EntitlementDecision check(final Long extCustomerId, final String featureKey, final BigDecimal amount,
+                              final OffsetDateTime now) {
+        Map<String, EntitlementRow[]> features = extCustomerId == null ? null : shards[shard(extCustomerId)].get(extCustomerId);
+        EntitlementRow[] grants = features == null || featureKey == null ? null : features.get(featureKey);
+        EntitlementRow grant = grants == null ? null : effective(grants, now);
+        if (grant == null) {
+            return new EntitlementDecision(false, Outcome.NOT_ENTITLED, featureKey, null, null, null, null, null,
+                    version);
+        }
+        if (!grant.enabled()) {
+            return decision(false, Outcome.DISABLED, grant, null);
+        }
+        BigDecimal requested = amount == null ? BigDecimal.ZERO : amount;
+        BigDecimal hard = grant.hardLimit();
+        if (hard != null && requested.compareTo(hard) > 0) {
+            return switch (grant.enforcement()) {
+                case ALLOW_WITH_OVERAGE -> grant.overageEnabled()
+                        ? decision(true, Outcome.OVERAGE, grant, requested.subtract(hard))
+                        : decision(false, Outcome.LIMIT_EXCEEDED, grant, null);
+                case ALLOW -> decision(true, Outcome.LIMIT_EXCEEDED, grant, null);
+                default -> decision(false, Outcome.LIMIT_EXCEEDED, grant, null);
+            };
+        }
+        BigDecimal soft = grant.softLimit();
+        if (soft != null && requested.compareTo(soft) > 0) {
+            return decision(true, Outcome.SOFT_LIMIT_EXCEEDED, grant, null);
+        }
+        return decision(true, Outcome.ALLOWED, grant, null);
+    }
+
+    private EntitlementDecision decision(final boolean allowed, final Outcome outcome, final EntitlementRow grant,
+                                         final BigDecimal overage) {
+        return new EntitlementDecision(allowed, outcome, grant.featureKey(), grant.enforcement(), grant.softLimit(),
+                grant.hardLimit(), overage, grant.limitWindow(), version);
+    }
+
+    private static EntitlementRow effective(final EntitlementRow[] grants, final OffsetDateTime now) {
+        for (EntitlementRow grant : grants) {
+            boolean started = grant.effectiveFrom() == null || !grant.effectiveFrom().isAfter(now);
+            boolean ended = grant.effectiveTo() != null && !grant.effectiveTo().isAfter(now);
+            if (started && !ended) {
+                return grant;
+            }
+        }
+        return null;
+    }
+
+    private static int shard(final long extCustomerId) {
+        return (Long.hashCode(extCustomerId) * 0x9E3779B9) >>> SHARD_SHIFT;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<Long, Map<String, EntitlementRow[]>>[] emptyShards() {
+        Map<Long, Map<String, EntitlementRow[]>>[] shards = new Map[SHARDS];
+        Arrays.fill(shards, Map.of());
+        return shards;
+    }
+
+    private static Map<String, EntitlementRow[]> index(final List<EntitlementRow> rows) {
+        Map<String, List<EntitlementRow>> byFeature = new HashMap<>();
+        for (EntitlementRow row : rows) {
+            byFeature.computeIfAbsent(row.featureKey(), k -> new ArrayList<>(1)).add(row);
+        }
+        Map<String, EntitlementRow[]> index = new HashMap<>(byFeature.size() * 2);
+        byFeature.forEach((key, grants) -> {
+            grants.sort(NEWEST_FIRST);
+            index.put(key, grants.toArray(EntitlementRow[]::new));
+        });
+        return Map.copyOf(index);
+    }
+}
@@ -0,0 +1,199 @@
+package com.ejada.subscription.service.impl;
+
+import com.ejada.subscription.dto.BulkNotificationItem;
+import com.ejada.subscription.dto.BulkNotificationResult;
+import com.ejada.subscription.dto.BulkNotificationRs;
+import com.ejada.subscription.dto.ReceiveSubscriptionNotificationRs;
+import com.ejada.subscription.dto.ServiceResult;
+import com.ejada.subscription.model.Subscription;
+import com.ejada.subscription.repository.InboundBatchRepository;
+import com.ejada.subscription.repository.InboundBatchRepository.AuditRow;
+import com.ejada.subscription.repository.InboundBatchRepository.OutboxRow;
+import com.ejada.subscription.service.SubscriptionBulkInboundService;
+import com.ejada.subscription.service.SubscriptionInboundService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static com.ejada.subscription.service.impl.SubscriptionInboundServiceImpl.EP_NOTIFICATION;
+import static com.ejada.subscription.service.impl.SubscriptionInboundServiceImpl.sha256;
+
+/**
+ * Bulk replay of {@code receiveSubscriptionNotification}.
+ *
+ * <p>Items are validated, de-duplicated within the batch and against the audit table with a
+ * single lookup, then applied in chunks of {@code subscription.inbound.bulk.chunk-size}, one
+ * transaction per chunk: audit rows and outbox events are written as JDBC batches and marked
+ * processed with one update. If a chunk fails it is rolled back and its items are replayed
+ * one by one through the single-item path, so one bad item costs its chunk a retry rather
+ * than failing its neighbours.</p>
+ */
+@Service
+@Slf4j
+public class SubscriptionBulkInboundServiceImpl implements SubscriptionBulkInboundService {
+
+    private static final String OK_CODE = "I000000";
+    private static final String OK_DESC = "Successful Operation";
+    private static final String ERR_CODE = "EINT000";
+
+    private final InboundBatchRepository batchRepo;
+    private final SubscriptionNotificationApplier applier;
+    private final SubscriptionInboundService single;
+    private final TransactionOperations tx;
+    private final Validator validator;
+    @SuppressFBWarnings("EI_EXPOSE_REP2")
+    private final ObjectMapper objectMapper;
+    private final int chunkSize;
+    private final int maxItems;
+
+    public SubscriptionBulkInboundServiceImpl(
+            final InboundBatchRepository batchRepo,
+            final SubscriptionNotificationApplier applier,
+            final SubscriptionInboundService single,
+            final TransactionOperations tx,
+            final Validator validator,
+            final ObjectMapper objectMapper,
+            @Value("${subscription.inbound.bulk.chunk-size:100}") final int chunkSize,
+            @Value("${subscription.inbound.bulk.max-items:5000}") final int maxItems) {
+        this.batchRepo = batchRepo;
+        this.applier = applier;
+        this.single = single;
+        this.tx = tx;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.chunkSize = chunkSize;
+        this.maxItems = maxItems;
+    }
+
+    @Override
+    public ServiceResult<BulkNotificationRs> receiveSubscriptionNotifications(final List<BulkNotificationItem> items) {
+        if (items == null || items.isEmpty()) {
+            return ok(new BulkNotificationRs(0, 0, 0, 0, List.of()));
+        }
+        if (items.size() > maxItems) {
+            return new ServiceResult<>(ERR_CODE, "Invalid Request",
+                    jsonMsg("at most " + maxItems + " notifications per request"), null);
+        }
+
+        BulkNotificationResult[] results = new BulkNotificationResult[items.size()];
+        Map<UUID, Integer> firstIndex = new LinkedHashMap<>();
+        for (int i = 0; i < items.size(); i++) {
+            BulkNotificationItem item = items.get(i);
+            String violations = violations(item);
+            if (violations != null) {
+                results[i] = new BulkNotificationResult(item == null ? null : item.rqUid(), ERR_CODE,
+                        "Invalid Request", jsonMsg(violations), false);
+            } else if (firstIndex.putIfAbsent(item.rqUid(), i) != null) {
+                results[i] = new BulkNotificationResult(item.rqUid(), OK_CODE, OK_DESC, null, true);
+            }
+        }
+
+        Map<UUID, String> seen = batchRepo.findStatuses(EP_NOTIFICATION, firstIndex.keySet());
+        List<Integer> pending = new ArrayList<>(firstIndex.size());
+        firstIndex.forEach((rqUid, i) -> {
+            if (seen.containsKey(rqUid)) {
+                String code = seen.get(rqUid);
+                results[i] = new BulkNotificationResult(rqUid, code == null ? OK_CODE : code,
+                        code == null || OK_CODE.equals(code) ? OK_DESC : "Previously Failed", null, true);
+            } else {
+                pending.add(i);
+            }
+        });
+
+        for (int from = 0; from < pending.size(); from += chunkSize) {
+            List<Integer> chunk = pending.subList(from, Math.min(from + chunkSize, pending.size()));
+            try {
+                tx.executeWithoutResult(status -> applyChunk(items, chunk));
+                chunk.forEach(i -> results[i] = new BulkNotificationResult(items.get(i).rqUid(), OK_CODE, OK_DESC,
+                        null, false));
+            } catch (RuntimeException ex) {
+                log.warn("Bulk notification chunk of {} failed, replaying items individually: {}",
+                        chunk.size(), ex.toString());
+                chunk.forEach(i -> results[i] = replayOne(items.get(i)));
+            }
+        }
+
+        List<BulkNotificationResult> list = Arrays.asList(results);
+        int duplicates = (int) list.stream().filter(BulkNotificationResult::duplicate).count();
+        int failed = (int) list.stream().filter(r -> !r.duplicate() && !OK_CODE.equals(r.statusCode())).count();
+        return ok(new BulkNotificationRs(items.size(), items.size() - duplicates - failed, duplicates, failed, list));
+    }
+
+    private void applyChunk(final List<BulkNotificationItem> items, final List<Integer> chunk) {
+        List<AuditRow> audits = new ArrayList<>(chunk.size());
+        for (int i : chunk) {
+            BulkNotificationItem item = items.get(i);
+            audits.add(new AuditRow(item.rqUid(), sha256(item.token()), writeJson(item.request())));
+        }
+        batchRepo.insertAudits(EP_NOTIFICATION, audits);
+
+        List<OutboxRow> outbox = new ArrayList<>(chunk.size());
+        for (int i : chunk) {
+            Subscription sub = applier.apply(items.get(i).request());
+            outbox.add(new OutboxRow("SUBSCRIPTION", sub.getSubscriptionId().toString(), "CREATED_OR_UPDATED",
+                    writeJson(Map.of("extSubscriptionId", sub.getExtSubscriptionId(),
+                            "extCustomerId", sub.getExtCustomerId()))));
+        }
+        batchRepo.insertOutbox(outbox);
+        batchRepo.markProcessed(EP_NOTIFICATION, audits.stream().map(AuditRow::rqUid).toList(), OK_CODE, OK_DESC);
+    }
+
+    private BulkNotificationResult replayOne(final BulkNotificationItem item) {
+        try {
+            ServiceResult<ReceiveSubscriptionNotificationRs> rs =
+                    single.receiveSubscriptionNotification(item.rqUid(), item.token(), item.request());
+            return new BulkNotificationResult(item.rqUid(), rs.statusCode(), rs.statusDescription(),
+                    rs.statusDetails(), false);
+        } catch (RuntimeException ex) {
+            log.error("Bulk notification {} failed", item.rqUid(), ex);
+            return new BulkNotificationResult(item.rqUid(), ERR_CODE, "Unexpected Error",
+                    jsonMsg("processing failed"), false);
+        }
+    }
+
+    private String violations(final BulkNotificationItem item) {
+        if (item == null) {
+            return "item is null";
+        }
+        Set<ConstraintViolation<BulkNotificationItem>> violations = validator.validate(item);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(v -> v.getPropertyPath() + " " + v.getMessage())
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+
+    private String writeJson(final Object o) {
+        try {
+            return objectMapper.writeValueAsString(o);
+        } catch (JsonProcessingException e) {
+            return "{\"error\":\"serialize\"}";
+        }
+    }
+
+    private static String jsonMsg(final String msg) {
+        String safe = msg == null ? "" : msg.replace("\"", "'");
+        return "{\"message\":\"" + safe + "\"}";
+    }
+
+    private static ServiceResult<BulkNotificationRs> ok(final BulkNotificationRs rs) {
+        return new ServiceResult<>(OK_CODE, OK_DESC, null, rs);
+    }
+}
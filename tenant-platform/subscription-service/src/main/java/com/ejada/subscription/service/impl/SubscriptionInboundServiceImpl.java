@@ -1,34 +1,20 @@
 package com.ejada.subscription.service.impl;
 
-import com.ejada.subscription.dto.ProductPropertyDto;
 import com.ejada.subscription.dto.ReceiveSubscriptionNotificationRq;
 import com.ejada.subscription.dto.ReceiveSubscriptionNotificationRs;
 import com.ejada.subscription.dto.ReceiveSubscriptionUpdateRq;
 import com.ejada.subscription.dto.ServiceResult;
-import com.ejada.subscription.dto.SubscriptionAdditionalServiceDto;
-import com.ejada.subscription.dto.SubscriptionFeatureDto;
-import com.ejada.subscription.dto.SubscriptionInfoDto;
 import com.ejada.subscription.dto.SubscriptionUpdateType;
-import com.ejada.subscription.mapper.SubscriptionAdditionalServiceMapper;
 import com.ejada.subscription.mapper.SubscriptionEnvironmentIdentifierMapper;
-import com.ejada.subscription.mapper.SubscriptionFeatureMapper;
-import com.ejada.subscription.mapper.SubscriptionMapper;
-import com.ejada.subscription.mapper.SubscriptionProductPropertyMapper;
 import com.ejada.subscription.mapper.SubscriptionUpdateEventMapper;
 import com.ejada.subscription.model.InboundNotificationAudit;
 import com.ejada.subscription.model.OutboxEvent;
 import com.ejada.subscription.model.Subscription;
-import com.ejada.subscription.model.SubscriptionAdditionalService;
 import com.ejada.subscription.model.SubscriptionEnvironmentIdentifier;
-import com.ejada.subscription.model.SubscriptionFeature;
-import com.ejada.subscription.model.SubscriptionProductProperty;
 import com.ejada.subscription.repository.InboundNotificationAuditRepository;
 import com.ejada.subscription.repository.IdempotentRequestRepository;
 import com.ejada.subscription.repository.OutboxEventRepository;
-import com.ejada.subscription.repository.SubscriptionAdditionalServiceRepository;
 import com.ejada.subscription.repository.SubscriptionEnvironmentIdentifierRepository;
-import com.ejada.subscription.repository.SubscriptionFeatureRepository;
-import com.ejada.subscription.repository.SubscriptionProductPropertyRepository;
 import com.ejada.subscription.repository.SubscriptionRepository;
 import com.ejada.subscription.repository.SubscriptionUpdateEventRepository;
 import com.ejada.subscription.service.SubscriptionInboundService;
@@ -45,7 +31,6 @@ import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.time.LocalDate;
 import java.time.OffsetDateTime;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -63,9 +48,6 @@ public class SubscriptionInboundServiceImpl implements SubscriptionInboundServic
 
     // Repositories
     private final SubscriptionRepository subscriptionRepo;
-    private final SubscriptionFeatureRepository featureRepo;
-    private final SubscriptionAdditionalServiceRepository additionalServiceRepo;
-    private final SubscriptionProductPropertyRepository propertyRepo;
     private final SubscriptionEnvironmentIdentifierRepository envIdRepo;
 
     private final InboundNotificationAuditRepository auditRepo;
@@ -75,18 +57,17 @@ public class SubscriptionInboundServiceImpl implements SubscriptionInboundServic
     private final IdempotentRequestRepository idemRepo; // optional second guard by rqUID
 
     // Mappers
-    private final SubscriptionMapper subscriptionMapper;
-    private final SubscriptionFeatureMapper featureMapper;
-    private final SubscriptionAdditionalServiceMapper additionalServiceMapper;
-    private final SubscriptionProductPropertyMapper propertyMapper;
     private final SubscriptionEnvironmentIdentifierMapper envIdMapper;
     private final SubscriptionUpdateEventMapper updateEventMapper;
 
+    private final SubscriptionNotificationApplier notificationApplier;
+    private final EntitlementCompiler entitlementCompiler;
+
     // JSON
     @SuppressFBWarnings("EI_EXPOSE_REP2")
     private final ObjectMapper objectMapper;
 
-    private static final String EP_NOTIFICATION = "RECEIVE_NOTIFICATION";
+    static final String EP_NOTIFICATION = "RECEIVE_NOTIFICATION";
     private static final String EP_UPDATE       = "RECEIVE_UPDATE";
 
     // -------------------------------------------------------------------------
@@ -121,27 +102,8 @@ public class SubscriptionInboundServiceImpl implements SubscriptionInboundServic
         audit = auditRepo.save(audit);
 
         try {
-            // 3) Upsert subscription
-            SubscriptionInfoDto si = rq.subscriptionInfo();
-            Subscription sub = subscriptionRepo
-                    .findByExtSubscriptionIdAndExtCustomerId(si.subscriptionId(), si.customerId())
-                    .orElse(null);
-
-            if (sub == null) {
-                sub = subscriptionMapper.toEntity(si);
-            } else {
-                subscriptionMapper.update(sub, si);
-            }
-
-            if (sub.getEndDt() == null) {
-                sub.setEndDt(Optional.ofNullable(si.endDt()).orElse(LocalDate.now()));
-            }
-            sub = subscriptionRepo.save(sub);
-
-            // 4) Replace children from payload
-            replaceFeatures(sub, si.subscriptionFeatureLst());
-            replaceAdditionalServices(sub, si.subscriptionAdditionalServicesLst());
-            replaceProductProperties(sub, rq.productProperties());
+            // 3-4) Upsert subscription, reconcile children, recompile entitlements
+            Subscription sub = notificationApplier.apply(rq);
 
             // 5) (Optional) environment identifiers (if provisioning already occurred)
             List<SubscriptionEnvironmentIdentifier> envIds =
@@ -195,6 +157,7 @@ public class SubscriptionInboundServiceImpl implements SubscriptionInboundServic
             // Support both enum and string in DTO
             transitionStatus(sub, rq.subscriptionUpdateType());
             subscriptionRepo.save(sub);
+            entitlementCompiler.compile(sub);
 
             // 5) Mark event processed, audit + outbox
             event.setProcessed(true);
@@ -223,48 +186,6 @@ public class SubscriptionInboundServiceImpl implements SubscriptionInboundServic
     // Private helpers
     // -------------------------------------------------------------------------
 
-    private void replaceFeatures(final Subscription sub, final List<SubscriptionFeatureDto> dtos) {
-        var existing = featureRepo.findBySubscriptionSubscriptionId(sub.getSubscriptionId());
-        if (!existing.isEmpty()) {
-            featureRepo.deleteAllInBatch(existing);
-        }
-        if (dtos != null && !dtos.isEmpty()) {
-            var mapped = new ArrayList<SubscriptionFeature>(dtos.size());
-            for (var d : dtos) {
-                mapped.add(featureMapper.toEntity(d, sub));
-            }
-            featureRepo.saveAll(mapped);
-        }
-    }
-
-    private void replaceAdditionalServices(final Subscription sub, final List<SubscriptionAdditionalServiceDto> dtos) {
-        var existing = additionalServiceRepo.findBySubscriptionSubscriptionId(sub.getSubscriptionId());
-        if (!existing.isEmpty()) {
-            additionalServiceRepo.deleteAllInBatch(existing);
-        }
-        if (dtos != null && !dtos.isEmpty()) {
-            var mapped = new ArrayList<SubscriptionAdditionalService>(dtos.size());
-            for (var d : dtos) {
-                mapped.add(additionalServiceMapper.toEntity(d, sub));
-            }
-            additionalServiceRepo.saveAll(mapped);
-        }
-    }
-
-    private void replaceProductProperties(final Subscription sub, final List<ProductPropertyDto> dtos) {
-        var existing = propertyRepo.findBySubscriptionSubscriptionId(sub.getSubscriptionId());
-        if (!existing.isEmpty()) {
-            propertyRepo.deleteAllInBatch(existing);
-        }
-        if (dtos != null && !dtos.isEmpty()) {
-            var mapped = new ArrayList<SubscriptionProductProperty>(dtos.size());
-            for (var d : dtos) {
-                mapped.add(propertyMapper.toEntity(d, sub));
-            }
-            propertyRepo.saveAll(mapped);
-        }
-    }
-
     // String-based version (kept for flexibility)
     private void transitionStatus(final Subscription sub, final String updateType) {
         switch (updateType) {
@@ -296,7 +217,7 @@ public class SubscriptionInboundServiceImpl implements SubscriptionInboundServic
         }
     }
 
-    private String sha256(final String s) {
+    static String sha256(final String s) {
         if (s == null) {
             return null;
         }
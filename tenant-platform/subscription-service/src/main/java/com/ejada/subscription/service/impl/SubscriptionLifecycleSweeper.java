@@ -0,0 +1,163 @@
+package com.ejada.subscription.service.impl;
+
+import com.ejada.redis.starter.support.RedisLockService;
+import com.ejada.subscription.model.OutboxEvent;
+import com.ejada.subscription.repository.OutboxEventRepository;
+import com.ejada.subscription.repository.SubscriptionExpiryRepository;
+import com.ejada.subscription.repository.SubscriptionExpiryRepository.Cursor;
+import com.ejada.subscription.repository.SubscriptionExpiryRepository.ExpiredSubscription;
+import com.ejada.subscription.service.EntitlementsChangedEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Expires subscriptions whose end date has passed without an upstream update.
+ *
+ * <p>Only the instance holding the Redis lease runs a pass. A pass walks live subscriptions
+ * in {@code (end_dt, subscription_id)} order, one transaction per chunk: a single
+ * set-based update marks the chunk EXPIRED, disables its compiled entitlements and emits
+ * one {@code SUBSCRIPTION/EXPIRED_BATCH} outbox event listing the chunk. Entitlement
+ * snapshots reload the affected customers once the chunk commits.</p>
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(prefix = "subscription.lifecycle.expiry", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class SubscriptionLifecycleSweeper {
+
+    static final String LOCK_KEY = "subscription:jobs:lifecycle-expiry";
+    static final String ACTOR = "system:lifecycle-sweeper";
+    static final String AGGREGATE_TYPE = "SUBSCRIPTION";
+    static final String AGGREGATE_ID = "lifecycle-expiry";
+    static final String EVENT_TYPE = "EXPIRED_BATCH";
+
+    private final SubscriptionExpiryRepository repo;
+    private final OutboxEventRepository outboxRepo;
+    private final TransactionOperations tx;
+    private final ApplicationEventPublisher events;
+    private final RedisLockService locks;
+    private final Clock clock;
+    @SuppressFBWarnings("EI_EXPOSE_REP2")
+    private final ObjectMapper objectMapper;
+    private final Duration lease;
+    private final int chunkSize;
+    private final int maxChunks;
+
+    public SubscriptionLifecycleSweeper(
+            final SubscriptionExpiryRepository repo,
+            final OutboxEventRepository outboxRepo,
+            final TransactionOperations tx,
+            final ApplicationEventPublisher events,
+            final ObjectProvider<RedisLockService> lockService,
+            final StringRedisTemplate redis,
+            final Clock clock,
+            final ObjectMapper objectMapper,
+            @Value("${subscription.lifecycle.expiry.lease:PT5M}") final Duration lease,
+            @Value("${subscription.lifecycle.expiry.chunk-size:500}") final int chunkSize,
+            @Value("${subscription.lifecycle.expiry.max-chunks:200}") final int maxChunks) {
+        this.repo = repo;
+        this.outboxRepo = outboxRepo;
+        this.tx = tx;
+        this.events = events;
+        this.locks = RedisLockService.orDefault(lockService, redis);
+        this.clock = clock;
+        this.objectMapper = objectMapper;
+        this.lease = lease;
+        this.chunkSize = chunkSize;
+        this.maxChunks = maxChunks;
+    }
+
+    @Scheduled(
+            initialDelayString = "${subscription.lifecycle.expiry.initial-delay:PT1M}",
+            fixedDelayString = "${subscription.lifecycle.expiry.interval:PT15M}")
+    public void sweep() {
+        locks.runExclusive(LOCK_KEY, lease, () -> {
+            long started = System.nanoTime();
+            int expired = sweep(LocalDate.now(clock));
+            if (expired > 0) {
+                log.info("Expired {} subscriptions in {} ms", expired,
+                        Duration.ofNanos(System.nanoTime() - started).toMillis());
+            }
+        });
+    }
+
+    /** Runs chunks until one comes back short; returns the number of subscriptions expired. */
+    int sweep(final LocalDate today) {
+        Cursor cursor = Cursor.START;
+        int expired = 0;
+        for (int chunk = 0; chunk < maxChunks; chunk++) {
+            final Cursor after = cursor;
+            List<ExpiredSubscription> done = tx.execute(status -> expireChunk(today, after));
+            if (done == null || done.isEmpty()) {
+                break;
+            }
+            expired += done.size();
+            for (ExpiredSubscription s : done) {
+                cursor = cursor.max(s);
+            }
+            if (done.size() < chunkSize) {
+                break;
+            }
+        }
+        return expired;
+    }
+
+    private List<ExpiredSubscription> expireChunk(final LocalDate today, final Cursor after) {
+        List<ExpiredSubscription> expired = repo.expireChunk(today, after, chunkSize, ACTOR);
+        if (expired.isEmpty()) {
+            return expired;
+        }
+        repo.disableEntitlements(expired.stream().map(ExpiredSubscription::subscriptionId).toList());
+
+        OutboxEvent ev = new OutboxEvent();
+        ev.setAggregateType(AGGREGATE_TYPE);
+        ev.setAggregateId(AGGREGATE_ID);
+        ev.setEventType(EVENT_TYPE);
+        ev.setPayload(payload(today, expired));
+        outboxRepo.save(ev);
+
+        Set<Long> customers = new LinkedHashSet<>();
+        expired.forEach(s -> customers.add(s.extCustomerId()));
+        customers.forEach(c -> events.publishEvent(new EntitlementsChangedEvent(c)));
+        return expired;
+    }
+
+    private String payload(final LocalDate today, final List<ExpiredSubscription> expired) {
+        List<Map<String, Object>> items = expired.stream().map(s -> {
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("subscriptionId", s.subscriptionId());
+            item.put("extSubscriptionId", s.extSubscriptionId());
+            item.put("extCustomerId", s.extCustomerId());
+            item.put("endDt", s.endDt().toString());
+            return item;
+        }).toList();
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("newStatus", "EXPIRED");
+        body.put("asOf", today.toString());
+        body.put("count", items.size());
+        body.put("subscriptions", items);
+        try {
+            return objectMapper.writeValueAsString(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialise expiry batch", e);
+        }
+    }
+}
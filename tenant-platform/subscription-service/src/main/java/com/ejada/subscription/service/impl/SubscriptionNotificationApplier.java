@@ -0,0 +1,99 @@
+package com.ejada.subscription.service.impl;
+
+import com.ejada.subscription.dto.ProductPropertyDto;
+import com.ejada.subscription.dto.ReceiveSubscriptionNotificationRq;
+import com.ejada.subscription.dto.SubscriptionAdditionalServiceDto;
+import com.ejada.subscription.dto.SubscriptionFeatureDto;
+import com.ejada.subscription.dto.SubscriptionInfoDto;
+import com.ejada.subscription.mapper.SubscriptionAdditionalServiceMapper;
+import com.ejada.subscription.mapper.SubscriptionFeatureMapper;
+import com.ejada.subscription.mapper.SubscriptionMapper;
+import com.ejada.subscription.mapper.SubscriptionProductPropertyMapper;
+import com.ejada.subscription.model.Subscription;
+import com.ejada.subscription.model.SubscriptionAdditionalService;
+import com.ejada.subscription.model.SubscriptionFeature;
+import com.ejada.subscription.model.SubscriptionProductProperty;
+import com.ejada.subscription.repository.SubscriptionChildrenRepository;
+import com.ejada.subscription.repository.SubscriptionRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Applies the state carried by a subscription notification: upserts the subscription,
+ * reconciles its children and recompiles its entitlements. Runs in the caller's
+ * transaction and lets failures propagate; auditing and outbox are left to callers.
+ */
+@Component
+@RequiredArgsConstructor
+public class SubscriptionNotificationApplier {
+
+    private final SubscriptionRepository subscriptionRepo;
+    private final SubscriptionChildrenRepository childrenRepo;
+
+    private final SubscriptionMapper subscriptionMapper;
+    private final SubscriptionFeatureMapper featureMapper;
+    private final SubscriptionAdditionalServiceMapper additionalServiceMapper;
+    private final SubscriptionProductPropertyMapper propertyMapper;
+
+    private final EntitlementCompiler entitlementCompiler;
+
+    public Subscription apply(final ReceiveSubscriptionNotificationRq rq) {
+        SubscriptionInfoDto si = rq.subscriptionInfo();
+        Subscription sub = subscriptionRepo
+                .findByExtSubscriptionIdAndExtCustomerId(si.subscriptionId(), si.customerId())
+                .orElse(null);
+
+        if (sub == null) {
+            sub = subscriptionMapper.toEntity(si);
+        } else {
+            subscriptionMapper.update(sub, si);
+        }
+
+        if (sub.getEndDt() == null) {
+            sub.setEndDt(Optional.ofNullable(si.endDt()).orElse(LocalDate.now()));
+        }
+        sub = subscriptionRepo.save(sub);
+
+        // Reconcile children with payload (writes only what changed)
+        reconcileFeatures(sub, si.subscriptionFeatureLst());
+        reconcileAdditionalServices(sub, si.subscriptionAdditionalServicesLst());
+        reconcileProductProperties(sub, rq.productProperties());
+        entitlementCompiler.compile(sub);
+        return sub;
+    }
+
+    private void reconcileFeatures(final Subscription sub, final List<SubscriptionFeatureDto> dtos) {
+        var incoming = new ArrayList<SubscriptionFeature>(dtos == null ? 0 : dtos.size());
+        if (dtos != null) {
+            for (var d : dtos) {
+                incoming.add(featureMapper.toEntity(d, sub));
+            }
+        }
+        childrenRepo.reconcileFeatures(sub.getSubscriptionId(), incoming);
+    }
+
+    private void reconcileAdditionalServices(final Subscription sub, final List<SubscriptionAdditionalServiceDto> dtos) {
+        var incoming = new ArrayList<SubscriptionAdditionalService>(dtos == null ? 0 : dtos.size());
+        if (dtos != null) {
+            for (var d : dtos) {
+                incoming.add(additionalServiceMapper.toEntity(d, sub));
+            }
+        }
+        childrenRepo.reconcileAdditionalServices(sub.getSubscriptionId(), incoming);
+    }
+
+    private void reconcileProductProperties(final Subscription sub, final List<ProductPropertyDto> dtos) {
+        var incoming = new ArrayList<SubscriptionProductProperty>(dtos == null ? 0 : dtos.size());
+        if (dtos != null) {
+            for (var d : dtos) {
+                incoming.add(propertyMapper.toEntity(d, sub));
+            }
+        }
+        childrenRepo.reconcileProductProperties(sub.getSubscriptionId(), incoming);
+    }
+}
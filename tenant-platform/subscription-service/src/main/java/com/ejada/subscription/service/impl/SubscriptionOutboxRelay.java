@@ -0,0 +1,63 @@
+package com.ejada.subscription.service.impl;
+
+import com.ejada.kafka_starter.outbox.OutboxRelay;
+import com.ejada.kafka_starter.outbox.OutboxRelayRepository;
+import com.ejada.kafka_starter.outbox.OutboxTable;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.time.Duration;
+
+/**
+ * Schedules the shared {@link OutboxRelay} over subscription's {@code outbox_event},
+ * where a row is pending until {@code processed_at} is set and its {@code headers}
+ * object is copied onto the Kafka record. Meters are exported under
+ * {@code subscription.outbox}.
+ */
+@Component
+@ConditionalOnProperty(prefix = "subscription.outbox.relay", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class SubscriptionOutboxRelay extends OutboxRelay {
+
+    static final OutboxTable TABLE = OutboxTable.of("outbox_event", "id").withHeaders("headers");
+
+    public SubscriptionOutboxRelay(
+            final JdbcTemplate jdbc,
+            final KafkaTemplate<String, String> kafka,
+            final TransactionOperations tx,
+            final ObjectMapper objectMapper,
+            final ObjectProvider<MeterRegistry> meterRegistry,
+            @Value("${shared.kafka.env:dev}") final String env,
+            @Value("${subscription.outbox.relay.batch-size:200}") final int batchSize,
+            @Value("${subscription.outbox.relay.max-batches-per-pass:20}") final int maxBatchesPerPass,
+            @Value("${subscription.outbox.relay.send-timeout:PT30S}") final Duration sendTimeout,
+            @Value("${subscription.outbox.retention:P7D}") final Duration retention,
+            @Value("${subscription.outbox.purge.chunk-size:5000}") final int purgeChunkSize) {
+        super(new OutboxRelayRepository(jdbc, TABLE), kafka, tx, objectMapper, meterRegistry.getIfAvailable(),
+                new Settings(env, "subscription.outbox", batchSize, maxBatchesPerPass, sendTimeout, retention,
+                        purgeChunkSize));
+    }
+
+    @Override
+    @Scheduled(
+            initialDelayString = "${subscription.outbox.relay.initial-delay:PT10S}",
+            fixedDelayString = "${subscription.outbox.relay.interval:PT1S}")
+    public void relay() {
+        super.relay();
+    }
+
+    @Override
+    @Scheduled(
+            initialDelayString = "${subscription.outbox.purge.initial-delay:PT5M}",
+            fixedDelayString = "${subscription.outbox.purge.interval:PT1H}")
+    public void purge() {
+        super.purge();
+    }
+}
@@ -0,0 +1,5 @@
+-- ========= Outbox relay =========
+-- Claim scan: pending rows in id order.
+create index if not exists idx_outbox_pending_id on outbox_event(id) where processed_at is null;
+-- Cleanup scan: processed rows by age.
+create index if not exists idx_outbox_processed_at on outbox_event(processed_at) where processed_at is not null;
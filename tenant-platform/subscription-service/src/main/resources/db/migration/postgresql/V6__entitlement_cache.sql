@@ -0,0 +1,23 @@
+-- ========= Compiled entitlements (one row per subscription + feature) =========
+create table IF NOT EXISTS entitlement_cache (
+  entitlement_cache_id bigserial primary key,
+  subscription_id      bigint       not null references subscription(subscription_id),
+  feature_key          varchar(96)  not null,      -- feature_cd | service_cd | USERS | TRANSACTIONS | BALANCE
+  enabled              boolean      not null default true,
+  enforcement          varchar(24)  not null,      -- ALLOW | BLOCK | ALLOW_WITH_OVERAGE
+  soft_limit           numeric(18,3),
+  hard_limit           numeric(18,3),              -- null = unlimited
+  limit_window         varchar(24),                -- FULL_SUBSCRIPTION_PERIOD | PAYMENT_FREQUENCY_PERIOD
+  measure_unit         varchar(24),
+  overage_enabled      boolean      not null default false,
+  overage_unit_price   numeric(18,4),
+  overage_currency     varchar(3),
+  effective_from       timestamptz  not null default now(),
+  effective_to         timestamptz,
+  source_meta          jsonb,
+  created_at           timestamptz  not null default now(),
+  updated_at           timestamptz,
+  constraint uk_entitlement unique (subscription_id, feature_key)
+);
+
+create index if not exists idx_ec_feature on entitlement_cache(feature_key);
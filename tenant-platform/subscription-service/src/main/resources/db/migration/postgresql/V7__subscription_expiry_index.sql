@@ -0,0 +1,4 @@
+-- ========= Lifecycle sweeper =========
+-- Keyset scan of live, not-yet-expired subscriptions in end date order.
+create index if not exists idx_sub_active_end_dt on subscription(end_dt, subscription_id)
+  where is_deleted = false and subscription_stts_cd <> 'EXPIRED';
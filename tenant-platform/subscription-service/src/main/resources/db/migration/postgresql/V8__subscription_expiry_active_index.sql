@@ -0,0 +1,6 @@
+-- ========= Lifecycle sweeper =========
+-- Only ACTIVE and SUSPENDED subscriptions lapse into EXPIRED; CANCELED rows are terminal
+-- and must not be picked up (or kept in the index) by the sweeper.
+drop index if exists idx_sub_active_end_dt;
+create index if not exists idx_sub_active_end_dt on subscription(end_dt, subscription_id)
+  where is_deleted = false and subscription_stts_cd in ('ACTIVE', 'SUSPENDED');
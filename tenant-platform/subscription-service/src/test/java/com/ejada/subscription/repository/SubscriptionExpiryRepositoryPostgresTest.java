@@ -0,0 +1,74 @@
+package com.ejada.subscription.repository;
+
+import com.ejada.subscription.repository.SubscriptionExpiryRepository.Cursor;
+import com.ejada.subscription.repository.SubscriptionExpiryRepository.ExpiredSubscription;
+import com.ejada.testsupport.IntegrationTestSupport;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** Runs the expiry statement against the real subscription schema. */
+class SubscriptionExpiryRepositoryPostgresTest extends IntegrationTestSupport {
+
+    private static final LocalDate TODAY = LocalDate.of(2026, 3, 1);
+
+    private static JdbcTemplate jdbc;
+
+    private SubscriptionExpiryRepository repo;
+
+    @BeforeAll
+    static void migrate() {
+        DriverManagerDataSource ds = new DriverManagerDataSource(
+                POSTGRES.getJdbcUrl() + "&currentSchema=subscription", POSTGRES.getUsername(), POSTGRES.getPassword());
+        Flyway.configure().dataSource(ds)
+                .schemas("subscription").defaultSchema("subscription")
+                .locations("classpath:db/migration/postgresql")
+                .load().migrate();
+        jdbc = new JdbcTemplate(ds);
+    }
+
+    @BeforeEach
+    void clean() {
+        jdbc.execute("truncate subscription cascade");
+        repo = new SubscriptionExpiryRepository(jdbc);
+    }
+
+    private void insert(final long extId, final String status, final String endDt) {
+        jdbc.update("""
+                insert into subscription (ext_subscription_id, ext_customer_id, ext_product_id, ext_tier_id,
+                                          start_dt, end_dt, subscription_stts_cd)
+                values (?, 7, 1, 1, date '2025-01-01', ?::date, ?)
+                """, extId, endDt, status);
+    }
+
+    private String status(final long extId) {
+        return jdbc.queryForObject(
+                "select subscription_stts_cd from subscription where ext_subscription_id = ?", String.class, extId);
+    }
+
+    @Test
+    void expiresLapsedActiveAndSuspendedButLeavesCanceledAlone() {
+        insert(1, "ACTIVE", "2026-01-31");
+        insert(2, "SUSPENDED", "2026-02-01");
+        insert(3, "CANCELED", "2026-01-15");
+        insert(4, "ACTIVE", "2026-06-30");
+
+        List<ExpiredSubscription> expired = repo.expireChunk(TODAY, Cursor.START, 10, "test");
+
+        assertEquals(List.of(1L, 2L), expired.stream().map(ExpiredSubscription::extSubscriptionId).sorted().toList());
+        assertEquals("EXPIRED", status(1));
+        assertEquals("EXPIRED", status(2));
+        assertEquals("CANCELED", status(3));
+        assertEquals("ACTIVE", status(4));
+        assertNull(jdbc.queryForObject(
+                "select updated_by from subscription where ext_subscription_id = 3", String.class));
+    }
+}
@@ -0,0 +1,157 @@
+package com.ejada.subscription.service.impl;
+
+import com.ejada.subscription.dto.EntitlementDecision;
+import com.ejada.subscription.dto.EntitlementDecision.Outcome;
+import com.ejada.subscription.model.EntitlementCache;
+import com.ejada.subscription.model.Subscription;
+import com.ejada.subscription.model.SubscriptionAdditionalService;
+import com.ejada.subscription.model.SubscriptionFeature;
+import com.ejada.subscription.model.SubscriptionProductProperty;
+import com.ejada.subscription.repository.EntitlementCacheBatchRepository;
+import com.ejada.subscription.repository.EntitlementCacheBatchRepository.EntitlementRow;
+import com.ejada.subscription.repository.SubscriptionAdditionalServiceRepository;
+import com.ejada.subscription.repository.SubscriptionFeatureRepository;
+import com.ejada.subscription.repository.SubscriptionProductPropertyRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class EntitlementCompilerTest {
+
+    private static final long CUSTOMER = 42L;
+    private static final OffsetDateTime NOW = OffsetDateTime.now();
+
+    private final EntitlementCompiler compiler = new EntitlementCompiler(
+            mock(SubscriptionFeatureRepository.class),
+            mock(SubscriptionAdditionalServiceRepository.class),
+            mock(SubscriptionProductPropertyRepository.class),
+            mock(EntitlementCacheBatchRepository.class),
+            mock(ApplicationEventPublisher.class),
+            new ObjectMapper());
+
+    private static Subscription subscription(final String status) {
+        Subscription sub = Subscription.ref(7L);
+        sub.setExtCustomerId(CUSTOMER);
+        sub.setSubscriptionSttsCd(status);
+        sub.setStartDt(LocalDate.now().minusDays(10));
+        sub.setEndDt(LocalDate.now().plusDays(10));
+        sub.setUsersLimit(5L);
+        sub.setUsersLimitResetType("FULL_SUBSCRIPTION_PERIOD");
+        sub.setUnlimitedTransFlag(Boolean.TRUE);
+        return sub;
+    }
+
+    private static SubscriptionFeature feature(final String cd, final Integer count) {
+        SubscriptionFeature f = new SubscriptionFeature();
+        f.setFeatureCd(cd);
+        f.setFeatureCount(count);
+        return f;
+    }
+
+    private static SubscriptionAdditionalService service(final String cd, final long count) {
+        SubscriptionAdditionalService s = new SubscriptionAdditionalService();
+        s.setServiceCd(cd);
+        s.setIsCountable(Boolean.TRUE);
+        s.setRequestedCount(count);
+        s.setServicePrice(new BigDecimal("2.5000"));
+        s.setCurrency("SAR");
+        return s;
+    }
+
+    private static SubscriptionProductProperty property(final String cd, final String value) {
+        SubscriptionProductProperty p = new SubscriptionProductProperty();
+        p.setPropertyCd(cd);
+        p.setPropertyValue(value);
+        return p;
+    }
+
+    private List<EntitlementCache> compileDefault(final String status) {
+        return compiler.compile(subscription(status),
+                List.of(feature("REPORTS", null), feature("BRANCHES", 3)),
+                List.of(service("SMS", 100)),
+                List.of(property("entitlement.SMS.overage-unit-price", "0.0500"),
+                        property("entitlement.SMS.soft-limit", "80"),
+                        property("entitlement.BRANCHES.enforcement", "allow"),
+                        property("theme", "dark")));
+    }
+
+    private static EntitlementSnapshot snapshot(final List<EntitlementCache> compiled) {
+        return EntitlementSnapshot.of(1, compiled.stream().map(e -> new EntitlementRow(
+                CUSTOMER, 7L, e.getFeatureKey(), e.getEnabled(), e.getEnforcement(), e.getSoftLimit(),
+                e.getHardLimit(), e.getLimitWindow(), e.getMeasureUnit(), e.getOverageEnabled(),
+                e.getOverageUnitPrice(), e.getOverageCurrency(), e.getEffectiveFrom(), e.getEffectiveTo())).toList());
+    }
+
+    @Test
+    void compilesLimitsFeaturesServicesAndOverrides() {
+        Map<String, EntitlementCache> byKey = compileDefault("ACTIVE").stream()
+                .collect(Collectors.toMap(EntitlementCache::getFeatureKey, Function.identity()));
+
+        assertEquals(List.of("USERS", "TRANSACTIONS", "BRANCHES", "REPORTS", "SMS").stream().sorted().toList(),
+                byKey.keySet().stream().sorted().toList());
+        assertEquals("BLOCK", byKey.get("USERS").getEnforcement());
+        assertEquals(new BigDecimal(5), byKey.get("USERS").getHardLimit());
+        assertNull(byKey.get("TRANSACTIONS").getHardLimit());
+        assertEquals("ALLOW", byKey.get("REPORTS").getEnforcement());
+        assertEquals("ALLOW", byKey.get("BRANCHES").getEnforcement());
+
+        EntitlementCache sms = byKey.get("SMS");
+        assertEquals("ALLOW_WITH_OVERAGE", sms.getEnforcement());
+        assertTrue(sms.getOverageEnabled());
+        assertEquals(new BigDecimal("0.0500"), sms.getOverageUnitPrice());
+        assertEquals(new BigDecimal(80), sms.getSoftLimit());
+        assertTrue(sms.getEffectiveTo().isAfter(NOW));
+    }
+
+    @Test
+    void snapshotDecidesLimitsSoftLimitsAndOverage() {
+        EntitlementSnapshot snapshot = snapshot(compileDefault("ACTIVE"));
+
+        assertEquals(Outcome.ALLOWED, snapshot.check(CUSTOMER, "REPORTS", null, NOW).outcome());
+        assertEquals(Outcome.ALLOWED, snapshot.check(CUSTOMER, "USERS", BigDecimal.valueOf(5), NOW).outcome());
+
+        EntitlementDecision users = snapshot.check(CUSTOMER, "USERS", BigDecimal.valueOf(6), NOW);
+        assertFalse(users.allowed());
+        assertEquals(Outcome.LIMIT_EXCEEDED, users.outcome());
+
+        EntitlementDecision branches = snapshot.check(CUSTOMER, "BRANCHES", BigDecimal.valueOf(4), NOW);
+        assertTrue(branches.allowed());
+        assertEquals(Outcome.LIMIT_EXCEEDED, branches.outcome());
+
+        assertEquals(Outcome.SOFT_LIMIT_EXCEEDED, snapshot.check(CUSTOMER, "SMS", BigDecimal.valueOf(90), NOW).outcome());
+        EntitlementDecision sms = snapshot.check(CUSTOMER, "SMS", BigDecimal.valueOf(130), NOW);
+        assertTrue(sms.allowed());
+        assertEquals(Outcome.OVERAGE, sms.outcome());
+        assertEquals(BigDecimal.valueOf(30), sms.overageAmount());
+
+        assertEquals(Outcome.NOT_ENTITLED, snapshot.check(CUSTOMER, "UNKNOWN", null, NOW).outcome());
+        assertEquals(Outcome.NOT_ENTITLED, snapshot.check(99L, "REPORTS", null, NOW).outcome());
+        assertEquals(Outcome.NOT_ENTITLED, snapshot.check(CUSTOMER, "REPORTS", null, NOW.plusDays(30)).outcome());
+    }
+
+    @Test
+    void suspendedSubscriptionCompilesDisabledAndCustomerSwapBumpsVersion() {
+        EntitlementSnapshot active = snapshot(compileDefault("ACTIVE"));
+        EntitlementSnapshot suspended = snapshot(compileDefault("SUSPENDED"));
+
+        EntitlementDecision decision = suspended.check(CUSTOMER, "REPORTS", null, NOW);
+        assertFalse(decision.allowed());
+        assertEquals(Outcome.DISABLED, decision.outcome());
+
+        EntitlementSnapshot cleared = active.withCustomer(2, CUSTOMER, List.of());
+        assertEquals(2, cleared.version());
+        assertEquals(Outcome.NOT_ENTITLED, cleared.check(CUSTOMER, "REPORTS", null, NOW).outcome());
+        assertEquals(Outcome.ALLOWED, active.check(CUSTOMER, "REPORTS", null, NOW).outcome());
+    }
+}
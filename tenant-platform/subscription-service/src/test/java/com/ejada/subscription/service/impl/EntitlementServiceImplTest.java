@@ -0,0 +1,93 @@
+package com.ejada.subscription.service.impl;
+
+import com.ejada.subscription.repository.EntitlementCacheBatchRepository;
+import com.ejada.subscription.repository.EntitlementCacheBatchRepository.EntitlementRow;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class EntitlementServiceImplTest {
+
+    private static final String FEATURE = "api.calls";
+
+    private final EntitlementCacheBatchRepository repo = mock(EntitlementCacheBatchRepository.class);
+    private final EntitlementServiceImpl service =
+            new EntitlementServiceImpl(repo, mock(StringRedisTemplate.class), () -> "test:", "entitlements:changed");
+
+    private static EntitlementRow row(final long customer, final long hardLimit) {
+        return new EntitlementRow(customer, 1L, FEATURE, true, EntitlementSnapshot.BLOCK, null,
+                BigDecimal.valueOf(hardLimit), "MONTHLY", "CALL", false, null, null, null, null);
+    }
+
+    private BigDecimal hardLimit(final long customer) {
+        return service.checkEntitlement(customer, FEATURE, BigDecimal.ZERO).hardLimit();
+    }
+
+    @Test
+    void fullReloadKeepsACustomerReloadedWhileItWasReading() {
+        when(repo.findActive()).thenAnswer(inv -> {
+            service.reload(42L);
+            return List.of(row(42L, 10), row(7L, 5));
+        });
+        when(repo.findActiveByCustomer(42L)).thenReturn(List.of(row(42L, 20)));
+
+        service.reload();
+
+        assertEquals(BigDecimal.valueOf(20), hardLimit(42L));
+        assertEquals(BigDecimal.valueOf(5), hardLimit(7L));
+    }
+
+    @Test
+    void customerReloadThatStartedFirstDoesNotOverwriteANewerOne() {
+        when(repo.findActiveByCustomer(42L))
+                .thenAnswer(inv -> {
+                    service.reload(42L);
+                    return List.of(row(42L, 10));
+                })
+                .thenReturn(List.of(row(42L, 20)));
+
+        service.reload(42L);
+
+        assertEquals(BigDecimal.valueOf(20), hardLimit(42L));
+    }
+
+    @Test
+    void customerReadStartedBeforeAFullReloadIsDropped() {
+        when(repo.findActiveByCustomer(42L)).thenAnswer(inv -> {
+            service.reload();
+            return List.of(row(42L, 10));
+        });
+        when(repo.findActive()).thenReturn(List.of(row(42L, 20)));
+
+        service.reload(42L);
+
+        assertEquals(BigDecimal.valueOf(20), hardLimit(42L));
+    }
+
+    @Test
+    void customerUpdatesTouchOnlyThatCustomer() {
+        List<EntitlementRow> rows = new ArrayList<>();
+        for (long customer = 1; customer <= 500; customer++) {
+            rows.add(row(customer, customer));
+        }
+        EntitlementSnapshot base = EntitlementSnapshot.of(1, rows);
+
+        EntitlementSnapshot updated = base.withCustomer(2, 42L, List.of(row(42L, 1000)))
+                .withCustomer(3, 43L, List.of())
+                .withCustomer(4, 9000L, List.of(row(9000L, 1)));
+
+        assertEquals(500, base.customerCount());
+        assertEquals(500, updated.customerCount());
+        assertEquals(BigDecimal.valueOf(42), base.check(42L, FEATURE, BigDecimal.ZERO, null).hardLimit());
+        assertEquals(BigDecimal.valueOf(1000), updated.check(42L, FEATURE, BigDecimal.ZERO, null).hardLimit());
+        assertFalse(updated.check(43L, FEATURE, BigDecimal.ZERO, null).allowed());
+        assertEquals(BigDecimal.valueOf(41), updated.check(41L, FEATURE, BigDecimal.ZERO, null).hardLimit());
+        assertEquals(4, updated.version());
+    }
+}
@@ -0,0 +1,118 @@
+package com.ejada.subscription.service.impl;
+
+import com.ejada.subscription.dto.BulkNotificationItem;
+import com.ejada.subscription.dto.BulkNotificationResult;
+import com.ejada.subscription.dto.BulkNotificationRs;
+import com.ejada.subscription.dto.ServiceResult;
+import com.ejada.subscription.model.Subscription;
+import com.ejada.subscription.repository.InboundBatchRepository;
+import com.ejada.subscription.service.SubscriptionInboundService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Path;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class SubscriptionBulkInboundServiceImplTest {
+
+    private final InboundBatchRepository batchRepo = mock(InboundBatchRepository.class);
+    private final SubscriptionNotificationApplier applier = mock(SubscriptionNotificationApplier.class);
+    private final SubscriptionInboundService single = mock(SubscriptionInboundService.class);
+    private final Validator validator = mock(Validator.class);
+
+    private final SubscriptionBulkInboundServiceImpl service = new SubscriptionBulkInboundServiceImpl(
+            batchRepo, applier, single, TransactionOperations.withoutTransaction(), validator, new ObjectMapper(), 2, 10);
+
+    private static BulkNotificationItem item(final UUID rqUid) {
+        return new BulkNotificationItem(rqUid, "token", null);
+    }
+
+    private static Subscription sub(final long id) {
+        Subscription s = Subscription.ref(id);
+        s.setExtSubscriptionId(100 + id);
+        s.setExtCustomerId(7L);
+        return s;
+    }
+
+    @Test
+    void deduplicatesWithOneLookupAndAppliesInChunks() {
+        UUID a = UUID.randomUUID();
+        UUID b = UUID.randomUUID();
+        UUID c = UUID.randomUUID();
+        UUID old = UUID.randomUUID();
+        when(batchRepo.findStatuses(eq(SubscriptionInboundServiceImpl.EP_NOTIFICATION), any()))
+                .thenReturn(Map.of(old, "I000000"));
+        when(applier.apply(any())).thenReturn(sub(1));
+
+        ServiceResult<BulkNotificationRs> rs = service.receiveSubscriptionNotifications(
+                List.of(item(a), item(b), item(a), item(old), item(c)));
+
+        BulkNotificationRs body = rs.payload();
+        assertEquals(5, body.received());
+        assertEquals(3, body.processed());
+        assertEquals(2, body.duplicates());
+        assertEquals(0, body.failed());
+        assertEquals(List.of(false, false, true, true, false),
+                body.results().stream().map(BulkNotificationResult::duplicate).toList());
+
+        verify(batchRepo, times(1)).findStatuses(any(), argThat((Collection<UUID> ids) -> ids.size() == 4));
+        verify(batchRepo, times(2)).insertAudits(any(), anyList());
+        verify(batchRepo, times(2)).insertOutbox(anyList());
+        verify(batchRepo).markProcessed(any(), eq(List.of(a, b)), eq("I000000"), any());
+        verify(batchRepo).markProcessed(any(), eq(List.of(c)), eq("I000000"), any());
+        verifyNoInteractions(single);
+    }
+
+    @Test
+    void failedChunkIsReplayedItemByItem() {
+        UUID a = UUID.randomUUID();
+        UUID b = UUID.randomUUID();
+        when(batchRepo.findStatuses(any(), any())).thenReturn(Map.of());
+        when(applier.apply(any())).thenReturn(sub(1)).thenThrow(new DataIntegrityViolationException("boom"));
+        when(single.receiveSubscriptionNotification(eq(a), any(), any()))
+                .thenReturn(new ServiceResult<>("I000000", "Successful Operation", null, null));
+        when(single.receiveSubscriptionNotification(eq(b), any(), any()))
+                .thenReturn(new ServiceResult<>("EINT000", "Unexpected Error", null, null));
+
+        BulkNotificationRs body = service.receiveSubscriptionNotifications(List.of(item(a), item(b))).payload();
+
+        assertEquals(1, body.processed());
+        assertEquals(1, body.failed());
+        assertEquals("EINT000", body.results().get(1).statusCode());
+        verify(batchRepo, never()).markProcessed(any(), anyList(), any(), any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void invalidItemsAreReportedWithoutBeingApplied() {
+        UUID a = UUID.randomUUID();
+        BulkNotificationItem bad = new BulkNotificationItem(null, null, null);
+        ConstraintViolation<BulkNotificationItem> violation = mock(ConstraintViolation.class);
+        when(violation.getPropertyPath()).thenReturn(mock(Path.class));
+        when(violation.getMessage()).thenReturn("must not be null");
+        when(validator.validate(bad)).thenReturn(Set.of(violation));
+        when(batchRepo.findStatuses(any(), any())).thenReturn(Map.of());
+        when(applier.apply(any())).thenReturn(sub(1));
+
+        BulkNotificationRs body = service.receiveSubscriptionNotifications(List.of(bad, item(a))).payload();
+
+        assertEquals(1, body.failed());
+        assertEquals(1, body.processed());
+        assertEquals("Invalid Request", body.results().get(0).statusDescription());
+        verify(applier, times(1)).apply(any());
+    }
+}
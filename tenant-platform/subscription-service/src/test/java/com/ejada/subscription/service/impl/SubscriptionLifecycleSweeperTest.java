@@ -0,0 +1,79 @@
+package com.ejada.subscription.service.impl;
+
+import com.ejada.redis.starter.support.RedisLockService;
+import com.ejada.subscription.model.OutboxEvent;
+import com.ejada.subscription.repository.OutboxEventRepository;
+import com.ejada.subscription.repository.SubscriptionExpiryRepository;
+import com.ejada.subscription.repository.SubscriptionExpiryRepository.Cursor;
+import com.ejada.subscription.repository.SubscriptionExpiryRepository.ExpiredSubscription;
+import com.ejada.subscription.service.EntitlementsChangedEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class SubscriptionLifecycleSweeperTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2026, 3, 1);
+
+    private final SubscriptionExpiryRepository repo = mock(SubscriptionExpiryRepository.class);
+    private final OutboxEventRepository outboxRepo = mock(OutboxEventRepository.class);
+    private final ApplicationEventPublisher events = mock(ApplicationEventPublisher.class);
+
+    @SuppressWarnings("unchecked")
+    private final SubscriptionLifecycleSweeper sweeper = new SubscriptionLifecycleSweeper(
+            repo, outboxRepo, TransactionOperations.withoutTransaction(), events,
+            mock(ObjectProvider.class, inv -> mock(RedisLockService.class)), mock(StringRedisTemplate.class),
+            Clock.systemUTC(), new ObjectMapper(), Duration.ofMinutes(1), 2, 10);
+
+    private static ExpiredSubscription sub(final long id, final long customer, final String endDt) {
+        return new ExpiredSubscription(id, 1000 + id, customer, LocalDate.parse(endDt));
+    }
+
+    @Test
+    void walksChunksByKeysetAndEmitsOneOutboxEventPerChunk() {
+        when(repo.expireChunk(eq(TODAY), eq(Cursor.START), eq(2), any()))
+                .thenReturn(List.of(sub(3, 7, "2026-01-05"), sub(9, 7, "2026-01-04")));
+        when(repo.expireChunk(eq(TODAY), eq(new Cursor(LocalDate.parse("2026-01-05"), 3)), eq(2), any()))
+                .thenReturn(List.of(sub(4, 8, "2026-02-01")));
+
+        assertEquals(3, sweeper.sweep(TODAY));
+
+        verify(repo, times(2)).expireChunk(eq(TODAY), any(), eq(2), eq(SubscriptionLifecycleSweeper.ACTOR));
+        verify(repo).disableEntitlements(List.of(3L, 9L));
+        verify(repo).disableEntitlements(List.of(4L));
+
+        ArgumentCaptor<OutboxEvent> outbox = ArgumentCaptor.forClass(OutboxEvent.class);
+        verify(outboxRepo, times(2)).save(outbox.capture());
+        OutboxEvent first = outbox.getAllValues().get(0);
+        assertEquals("EXPIRED_BATCH", first.getEventType());
+        assertTrue(first.getPayload().contains("\"count\":2"));
+
+        verify(events).publishEvent(new EntitlementsChangedEvent(7L));
+        verify(events).publishEvent(new EntitlementsChangedEvent(8L));
+    }
+
+    @Test
+    void emptyFirstChunkWritesNothing() {
+        when(repo.expireChunk(any(), any(), anyInt(), any())).thenReturn(List.of());
+
+        assertEquals(0, sweeper.sweep(TODAY));
+
+        verify(repo, never()).disableEntitlements(anyList());
+        verifyNoInteractions(outboxRepo, events);
+    }
+}
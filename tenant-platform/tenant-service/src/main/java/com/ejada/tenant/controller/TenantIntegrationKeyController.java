@@ -1,5 +1,7 @@
 package com.ejada.tenant.controller;
 
+import com.ejada.starter_security.integration.IntegrationKeyAuthentication;
+import com.ejada.tenant.dto.IntegrationKeyIntrospectionRes;
 import com.ejada.tenant.dto.TenantIntegrationKeyCreateReq;
 import com.ejada.tenant.dto.TenantIntegrationKeyRes;
 import com.ejada.tenant.dto.TenantIntegrationKeyUpdateReq;
@@ -20,6 +22,8 @@ import org.springdoc.core.annotations.ParameterObject;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.core.Authentication;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -110,4 +114,21 @@ public class TenantIntegrationKeyController {
         service.revoke(tikId);
         return ResponseEntity.noContent().build();
     }
-}
\ No newline at end of file
+
+    @Operation(summary = "Introspect the presented integration key",
+            description = "Tenant, validity window and scopes of the integration key that authenticated this request. "
+                    + "Used by other services to verify keys they have not seen yet; describes no other key")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Key described successfully"),
+            @ApiResponse(responseCode = "401", description = "Invalid integration key"),
+            @ApiResponse(responseCode = "403", description = "Request not authenticated with an integration key")
+    })
+    @GetMapping("/introspect")
+    public ResponseEntity<BaseResponse<IntegrationKeyIntrospectionRes>> introspect(
+            final Authentication authentication) {
+        if (!(authentication instanceof IntegrationKeyAuthentication key)) {
+            throw new AccessDeniedException("Integration key authentication required");
+        }
+        return ResponseEntity.ok(BaseResponse.success("Integration key", IntegrationKeyIntrospectionRes.of(key)));
+    }
+}
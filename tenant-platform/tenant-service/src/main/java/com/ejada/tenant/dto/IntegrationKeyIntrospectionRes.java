@@ -0,0 +1,25 @@
+package com.ejada.tenant.dto;
+
+import com.ejada.starter_security.integration.IntegrationKeyAuthentication;
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.time.Instant;
+import java.util.List;
+
+/** The integration key that authenticated the request, as consumed by starter-security's remote verifier. */
+@Schema(name = "IntegrationKeyIntrospectionRes")
+public record IntegrationKeyIntrospectionRes(
+        String tenantId,
+        String keyId,
+        Instant validFrom,
+        Instant expiresAt,
+        List<String> scopes
+) {
+    public IntegrationKeyIntrospectionRes {
+        scopes = scopes == null ? List.of() : List.copyOf(scopes);
+    }
+
+    public static IntegrationKeyIntrospectionRes of(final IntegrationKeyAuthentication key) {
+        return new IntegrationKeyIntrospectionRes(key.getTenantId(), key.getKeyId(),
+                key.getValidFrom(), key.getExpiresAt(), List.copyOf(key.getScopes()));
+    }
+}
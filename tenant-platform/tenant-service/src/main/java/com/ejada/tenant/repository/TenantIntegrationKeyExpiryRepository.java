@@ -0,0 +1,48 @@
+package com.ejada.tenant.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Set-based expiry marking for integration keys. Each call marks one bounded chunk in a
+ * single statement and returns what it marked, so callers never load key entities.
+ */
+@Repository
+public class TenantIntegrationKeyExpiryRepository {
+
+    private static final String MARK_EXPIRED_CHUNK = """
+            WITH due AS (
+                SELECT tik_id
+                  FROM tenant_integration_key
+                 WHERE is_deleted = FALSE
+                   AND status <> 'EXPIRED'
+                   AND expires_at < now()
+                 ORDER BY expires_at
+                 LIMIT ?
+                   FOR UPDATE SKIP LOCKED
+            )
+            UPDATE tenant_integration_key k
+               SET status = 'EXPIRED'
+              FROM due
+             WHERE k.tik_id = due.tik_id
+            RETURNING k.tik_id, k.tenant_id, k.key_id
+            """;
+
+    private final JdbcTemplate jdbc;
+
+    public TenantIntegrationKeyExpiryRepository(final JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    /** Marks up to {@code limit} overdue keys EXPIRED and returns them. */
+    public List<ExpiredKey> markExpiredChunk(final int limit) {
+        return jdbc.query(MARK_EXPIRED_CHUNK,
+                (rs, i) -> new ExpiredKey(rs.getLong(1), rs.getInt(2), rs.getString(3)),
+                limit);
+    }
+
+    public record ExpiredKey(Long tikId, Integer tenantId, String keyId) {
+    }
+}
@@ -71,16 +71,6 @@ public interface TenantIntegrationKeyRepository extends JpaRepository<TenantInte
     Optional<TenantIntegrationKey> findUsableKey(@Param("tenantId") Integer tenantId,
                                                  @Param("keyId") String keyId);
 
-    // Expired but not marked EXPIRED (useful for maintenance jobs)
-    @Query("""
-           select k
-             from TenantIntegrationKey k
-            where k.isDeleted = false
-              and k.expiresAt <= CURRENT_TIMESTAMP
-              and k.status <> com.ejada.tenant.model.TenantIntegrationKey$Status.EXPIRED
-           """)
-    List<TenantIntegrationKey> findAllExpiredAndNotMarked();
-
     // Optional soft-delete convenience (if you prefer doing it in repository)
     @Modifying(clearAutomatically = true, flushAutomatically = true)
     @Query("""
@@ -0,0 +1,8 @@
+package com.ejada.tenant.security;
+
+/**
+ * Published when an integration key is created, changed or revoked; verification caches
+ * drop the key once the surrounding transaction commits.
+ */
+public record IntegrationKeyChangedEvent(Integer tenantId, String keyId) {
+}
@@ -0,0 +1,60 @@
+package com.ejada.tenant.security;
+
+import com.ejada.redis.starter.support.RedisPubSubListener;
+import com.ejada.starter_security.integration.IntegrationKeyVerifier;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Keeps the integration-key verification caches of all tenant-service instances coherent:
+ * committed key changes are dropped locally and broadcast to peers over Redis pub/sub.
+ * The channel is not key-prefixed, so the starter's remote verifiers in other services
+ * receive the same broadcast.
+ */
+@Component
+@Slf4j
+public class IntegrationKeyInvalidator extends RedisPubSubListener {
+
+    private final IntegrationKeyVerifier verifier;
+    private final StringRedisTemplate redis;
+    private final String channel;
+
+    public IntegrationKeyInvalidator(final IntegrationKeyVerifier verifier,
+                                     final StringRedisTemplate redis,
+                                     @Value("${shared.security.integration-keys.revocation-channel:integration-keys:changed}")
+                                     final String channel) {
+        this.verifier = verifier;
+        this.redis = redis;
+        this.channel = channel;
+    }
+
+    public String channel() {
+        return channel;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onKeyChanged(final IntegrationKeyChangedEvent event) {
+        String tenantId = String.valueOf(event.tenantId());
+        verifier.invalidate(tenantId, event.keyId());
+        try {
+            redis.convertAndSend(channel, tenantId + '\n' + event.keyId());
+        } catch (DataAccessException ex) {
+            log.warn("Failed to broadcast integration key change {}/{}: {}", tenantId, event.keyId(), ex.getMessage());
+        }
+    }
+
+    @Override
+    public void handle(final String topic, final String payload) {
+        int sep = payload.indexOf('\n');
+        if (sep < 0) {
+            verifier.invalidateAll();
+            return;
+        }
+        verifier.invalidate(payload.substring(0, sep), payload.substring(sep + 1));
+    }
+}
@@ -0,0 +1,89 @@
+package com.ejada.tenant.security;
+
+import com.ejada.crypto.CryptoFacade;
+import com.ejada.starter_security.integration.CachingIntegrationKeyVerifier;
+import com.ejada.starter_security.integration.IntegrationKeyDigester;
+import com.ejada.starter_security.integration.IntegrationKeyRecord;
+import com.ejada.starter_security.integration.IntegrationKeySource;
+import com.ejada.starter_security.integration.IntegrationKeyVerifier;
+import com.ejada.tenant.model.TenantIntegrationKey;
+import com.ejada.tenant.repository.TenantIntegrationKeyRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.LinkedHashSet;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Integration-key verification for tenant-service itself. Keys are looked up in the
+ * database on cache misses only and digested with the same {@link CryptoFacade} signer
+ * that stored them; the starter's filter then authenticates {@code X-API-Key} requests.
+ */
+@Configuration
+public class IntegrationKeyVerificationConfig {
+
+    @Bean
+    public IntegrationKeySource integrationKeySource(final TenantIntegrationKeyRepository repo) {
+        return (tenantId, keyId) -> {
+            Integer tenant;
+            try {
+                tenant = Integer.valueOf(tenantId);
+            } catch (NumberFormatException ex) {
+                return Optional.empty();
+            }
+            return repo.findUsableKey(tenant, keyId).map(IntegrationKeyVerificationConfig::toRecord);
+        };
+    }
+
+    @Bean
+    public IntegrationKeyDigester integrationKeyDigester(final CryptoFacade crypto) {
+        return secret -> {
+            try {
+                return crypto.sign(secret.getBytes(StandardCharsets.UTF_8));
+            } catch (GeneralSecurityException ex) {
+                throw new IllegalStateException("Could not digest integration key secret", ex);
+            }
+        };
+    }
+
+    @Bean
+    public IntegrationKeyVerifier integrationKeyVerifier(
+            final IntegrationKeySource source,
+            final IntegrationKeyDigester digester,
+            @Value("${tenant.integration-keys.cache.max-size:10000}") final long maxSize,
+            @Value("${tenant.integration-keys.cache.ttl:PT5M}") final Duration ttl,
+            @Value("${tenant.integration-keys.cache.negative-ttl:PT10S}") final Duration negativeTtl) {
+        return new CachingIntegrationKeyVerifier(source, digester, maxSize, ttl, negativeTtl);
+    }
+
+    @Bean
+    public RedisMessageListenerContainer integrationKeyListenerContainer(
+            final RedisConnectionFactory connectionFactory,
+            final IntegrationKeyInvalidator invalidator) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(invalidator, new ChannelTopic(invalidator.channel()));
+        return container;
+    }
+
+    public static IntegrationKeyRecord toRecord(final TenantIntegrationKey key) {
+        String[] scopes = key.getScopes();
+        return new IntegrationKeyRecord(
+                String.valueOf(key.getTenant().getId()),
+                key.getKeyId(),
+                Base64.getDecoder().decode(key.getKeySecret()),
+                key.getValidFrom() == null ? null : key.getValidFrom().toInstant(),
+                key.getExpiresAt() == null ? null : key.getExpiresAt().toInstant(),
+                scopes == null ? Set.of() : new LinkedHashSet<>(Arrays.asList(scopes)));
+    }
+}
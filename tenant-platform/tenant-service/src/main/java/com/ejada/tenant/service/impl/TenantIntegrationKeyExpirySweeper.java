@@ -0,0 +1,86 @@
+package com.ejada.tenant.service.impl;
+
+import com.ejada.redis.starter.support.RedisLockService;
+import com.ejada.tenant.repository.TenantIntegrationKeyExpiryRepository;
+import com.ejada.tenant.repository.TenantIntegrationKeyExpiryRepository.ExpiredKey;
+import com.ejada.tenant.security.IntegrationKeyChangedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Marks expired integration keys EXPIRED in bounded chunks, one transaction per chunk,
+ * and publishes a change event per marked key so verification caches drop it as soon
+ * as the chunk commits. Only the instance holding the Redis lease runs a pass.
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(prefix = "tenant.integration-keys.expiry", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class TenantIntegrationKeyExpirySweeper {
+
+    static final String LOCK_KEY = "tenant:jobs:integration-key-expiry";
+
+    private final TenantIntegrationKeyExpiryRepository repo;
+    private final TransactionTemplate tx;
+    private final ApplicationEventPublisher events;
+    private final RedisLockService locks;
+    private final Duration lease;
+    private final int chunkSize;
+    private final int maxChunks;
+
+    public TenantIntegrationKeyExpirySweeper(
+            final TenantIntegrationKeyExpiryRepository repo,
+            final TransactionTemplate tx,
+            final ApplicationEventPublisher events,
+            final ObjectProvider<RedisLockService> lockService,
+            final StringRedisTemplate redis,
+            @Value("${tenant.integration-keys.expiry.lease:PT2M}") final Duration lease,
+            @Value("${tenant.integration-keys.expiry.chunk-size:500}") final int chunkSize,
+            @Value("${tenant.integration-keys.expiry.max-chunks:100}") final int maxChunks) {
+        this.repo = repo;
+        this.tx = tx;
+        this.events = events;
+        this.locks = RedisLockService.orDefault(lockService, redis);
+        this.lease = lease;
+        this.chunkSize = chunkSize;
+        this.maxChunks = maxChunks;
+    }
+
+    @Scheduled(
+            initialDelayString = "${tenant.integration-keys.expiry.initial-delay:PT30S}",
+            fixedDelayString = "${tenant.integration-keys.expiry.interval:PT1M}")
+    public void sweep() {
+        locks.runExclusive(LOCK_KEY, lease, () -> {
+            long started = System.nanoTime();
+            int marked = 0;
+            for (int chunk = 0; chunk < maxChunks; chunk++) {
+                Integer n = tx.execute(status -> markChunk());
+                marked += n == null ? 0 : n;
+                if (n == null || n < chunkSize) {
+                    break;
+                }
+            }
+            if (marked > 0) {
+                log.info("Marked {} integration keys expired in {} ms", marked,
+                        Duration.ofNanos(System.nanoTime() - started).toMillis());
+            }
+        });
+    }
+
+    private int markChunk() {
+        List<ExpiredKey> expired = repo.markExpiredChunk(chunkSize);
+        for (ExpiredKey key : expired) {
+            events.publishEvent(new IntegrationKeyChangedEvent(key.tenantId(), key.keyId()));
+        }
+        return expired.size();
+    }
+}
@@ -11,9 +11,11 @@ import com.ejada.tenant.model.TenantIntegrationKey;
 import com.ejada.tenant.model.TenantIntegrationKey.Status;
 import com.ejada.tenant.repository.TenantIntegrationKeyRepository;
 import com.ejada.tenant.repository.TenantRepository;
+import com.ejada.tenant.security.IntegrationKeyChangedEvent;
 import com.ejada.tenant.service.TenantIntegrationKeyService;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import jakarta.persistence.EntityNotFoundException;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -33,16 +35,19 @@ public class TenantIntegrationKeyServiceImpl implements TenantIntegrationKeyServ
     private final TenantRepository tenantRepo;
     private final TenantIntegrationKeyMapper mapper;
     private final CryptoFacade crypto;
+    private final ApplicationEventPublisher events;
 
     @SuppressFBWarnings("EI_EXPOSE_REP2")
     public TenantIntegrationKeyServiceImpl(final TenantIntegrationKeyRepository repo,
                                            final TenantRepository tenantRepo,
                                            final TenantIntegrationKeyMapper mapper,
-                                           final CryptoFacade crypto) {
+                                           final CryptoFacade crypto,
+                                           final ApplicationEventPublisher events) {
         this.repo = repo;
         this.tenantRepo = tenantRepo;
         this.mapper = mapper;
         this.crypto = crypto;
+        this.events = events;
     }
 
     @Override
@@ -81,6 +86,8 @@ public class TenantIntegrationKeyServiceImpl implements TenantIntegrationKeyServ
         }
 
         e = repo.save(e);
+        // an earlier lookup may have cached this keyId as unknown
+        publishChanged(e);
         TenantIntegrationKeyRes res = mapper.toRes(e).withPlainSecret(plainSecret);
         return BaseResponse.success("Tenant integration key created", res);
     }
@@ -106,6 +113,7 @@ public class TenantIntegrationKeyServiceImpl implements TenantIntegrationKeyServ
         }
 
         e = repo.save(e);
+        publishChanged(e);
         return BaseResponse.success("Tenant integration key updated", mapper.toRes(e));
     }
 
@@ -116,6 +124,7 @@ public class TenantIntegrationKeyServiceImpl implements TenantIntegrationKeyServ
         e.setIsDeleted(true);
         e.setStatus(Status.REVOKED);
         repo.save(e);
+        publishChanged(e);
         return BaseResponse.success("Tenant integration key revoked", null);
     }
 
@@ -137,4 +146,8 @@ public class TenantIntegrationKeyServiceImpl implements TenantIntegrationKeyServ
                 repo.findByTenantIdAndIsDeletedFalse(tenantId, pageable).map(mapper::toRes);
         return BaseResponse.success("Tenant integration keys listed", page);
     }
-}
\ No newline at end of file
+
+    private void publishChanged(final TenantIntegrationKey e) {
+        events.publishEvent(new IntegrationKeyChangedEvent(e.getTenant().getId(), e.getKeyId()));
+    }
+}
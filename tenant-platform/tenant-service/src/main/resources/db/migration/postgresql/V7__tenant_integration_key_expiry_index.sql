@@ -0,0 +1,5 @@
+-- Keys still awaiting the EXPIRED mark, ordered by expiry: the sweeper's scan only
+-- touches the overdue head of this index instead of every live key.
+CREATE INDEX IF NOT EXISTS idx_tik_unmarked_expires_at
+  ON tenant_integration_key (expires_at)
+  WHERE is_deleted = FALSE AND status <> 'EXPIRED';
@@ -0,0 +1,39 @@
+package com.ejada.tenant.repository;
+
+import com.ejada.tenant.repository.TenantIntegrationKeyExpiryRepository.ExpiredKey;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.ResultSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class TenantIntegrationKeyExpiryRepositoryTest {
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void marksOneBoundedChunkWithoutWaitingOnLockedRows() throws Exception {
+        JdbcTemplate jdbc = mock(JdbcTemplate.class);
+        when(jdbc.query(anyString(), any(RowMapper.class), eq(500))).thenReturn(List.of());
+
+        new TenantIntegrationKeyExpiryRepository(jdbc).markExpiredChunk(500);
+
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<RowMapper<ExpiredKey>> mapper = ArgumentCaptor.forClass(RowMapper.class);
+        verify(jdbc).query(sql.capture(), mapper.capture(), eq(500));
+        assertTrue(sql.getValue().contains("LIMIT ?"));
+        assertTrue(sql.getValue().contains("FOR UPDATE SKIP LOCKED"));
+        assertTrue(sql.getValue().contains("status <> 'EXPIRED'"));
+
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getLong(1)).thenReturn(42L);
+        when(rs.getInt(2)).thenReturn(7);
+        when(rs.getString(3)).thenReturn("k1");
+        assertEquals(new ExpiredKey(42L, 7, "k1"), mapper.getValue().mapRow(rs, 0));
+    }
+}
@@ -14,6 +14,7 @@ import com.ejada.tenant.service.impl.TenantIntegrationKeyServiceImpl;
 import org.junit.jupiter.api.Test;
 import org.mapstruct.factory.Mappers;
 import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.time.OffsetDateTime;
 import java.util.List;
@@ -45,7 +46,8 @@ class TenantIntegrationKeyServiceImplTest {
         );
 
         TenantIntegrationKeyServiceImpl service =
-                new TenantIntegrationKeyServiceImpl(repo, tenantRepo, mapper, crypto);
+                new TenantIntegrationKeyServiceImpl(repo, tenantRepo, mapper, crypto,
+                        mock(ApplicationEventPublisher.class));
 
         BaseResponse<TenantIntegrationKeyRes> resp = service.create(req);
         assertNotNull(resp.getData().plainSecret());
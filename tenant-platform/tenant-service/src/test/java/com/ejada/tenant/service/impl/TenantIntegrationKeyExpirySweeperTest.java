@@ -0,0 +1,98 @@
+package com.ejada.tenant.service.impl;
+
+import com.ejada.redis.starter.support.RedisLockService;
+import com.ejada.tenant.repository.TenantIntegrationKeyExpiryRepository;
+import com.ejada.tenant.repository.TenantIntegrationKeyExpiryRepository.ExpiredKey;
+import com.ejada.tenant.security.IntegrationKeyChangedEvent;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class TenantIntegrationKeyExpirySweeperTest {
+
+    private static final Duration LEASE = Duration.ofMinutes(2);
+
+    private final TenantIntegrationKeyExpiryRepository repo = mock(TenantIntegrationKeyExpiryRepository.class);
+    private final TransactionTemplate tx = mock(TransactionTemplate.class);
+    private final ApplicationEventPublisher events = mock(ApplicationEventPublisher.class);
+    private final RedisLockService locks = mock(RedisLockService.class);
+
+    @SuppressWarnings("unchecked")
+    TenantIntegrationKeyExpirySweeperTest() {
+        when(tx.execute(any())).thenAnswer(inv -> inv.<TransactionCallback<Integer>>getArgument(0).doInTransaction(null));
+    }
+
+    @Test
+    void marksChunksUntilOneComesBackShortAndPublishesEachKey() {
+        holdLease();
+        when(repo.markExpiredChunk(2)).thenReturn(
+                keys(1, 2), keys(3, 4), keys(5), List.of(new ExpiredKey(99L, 9, "never")));
+
+        sweeper(2, 10).sweep();
+
+        verify(repo, times(3)).markExpiredChunk(2);
+        verify(tx, times(3)).execute(any());
+        verify(events, times(5)).publishEvent(any(IntegrationKeyChangedEvent.class));
+        verify(events).publishEvent(new IntegrationKeyChangedEvent(7, "k5"));
+    }
+
+    @Test
+    void passStopsAtMaxChunksEvenWhenMoreAreDue() {
+        holdLease();
+        when(repo.markExpiredChunk(2)).thenReturn(keys(1, 2));
+
+        sweeper(2, 3).sweep();
+
+        verify(repo, times(3)).markExpiredChunk(2);
+    }
+
+    @Test
+    void instanceWithoutTheLeaseDoesNothing() {
+        when(locks.runExclusive(eq(TenantIntegrationKeyExpirySweeper.LOCK_KEY), eq(LEASE), any())).thenReturn(false);
+
+        sweeper(2, 10).sweep();
+
+        verifyNoInteractions(repo, tx, events);
+    }
+
+    @Test
+    void failedChunkPropagatesToTheLockHelper() {
+        holdLease();
+        when(repo.markExpiredChunk(2)).thenThrow(new QueryTimeoutException("db down"));
+
+        assertThrows(QueryTimeoutException.class, () -> sweeper(2, 10).sweep());
+
+        verifyNoInteractions(events);
+    }
+
+    private void holdLease() {
+        when(locks.runExclusive(eq(TenantIntegrationKeyExpirySweeper.LOCK_KEY), eq(LEASE), any())).thenAnswer(inv -> {
+            inv.<Runnable>getArgument(2).run();
+            return true;
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private TenantIntegrationKeyExpirySweeper sweeper(final int chunkSize, final int maxChunks) {
+        ObjectProvider<RedisLockService> provider = mock(ObjectProvider.class);
+        when(provider.getIfAvailable(any())).thenReturn(locks);
+        return new TenantIntegrationKeyExpirySweeper(repo, tx, events, provider, mock(StringRedisTemplate.class),
+                LEASE, chunkSize, maxChunks);
+    }
+
+    private static List<ExpiredKey> keys(final int... ids) {
+        return IntStream.of(ids).mapToObj(i -> new ExpiredKey((long) i, 7, "k" + i)).toList();
+    }
+}